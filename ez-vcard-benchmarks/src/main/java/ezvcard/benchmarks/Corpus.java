@@ -0,0 +1,238 @@
+package ezvcard.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import ezvcard.Ezvcard;
+import ezvcard.VCard;
+import ezvcard.VCardVersion;
+import ezvcard.parameter.AddressType;
+import ezvcard.parameter.EmailType;
+import ezvcard.parameter.Encoding;
+import ezvcard.parameter.ImageType;
+import ezvcard.parameter.TelephoneType;
+import ezvcard.property.Address;
+import ezvcard.property.Birthday;
+import ezvcard.property.Photo;
+import ezvcard.property.StructuredName;
+import ezvcard.property.Telephone;
+import ezvcard.property.Uid;
+import ezvcard.property.VCardProperty;
+import ezvcard.util.TelUri;
+
+/*
+ Copyright (c) 2012-2015, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+ The views and conclusions contained in the software and documentation are those
+ of the authors and should not be interpreted as representing official policies, 
+ either expressed or implied, of the FreeBSD Project.
+ */
+
+/**
+ * Generates the vCards that the benchmarks read and write. The same vCards
+ * are generated every time for a given size and property mix.
+ * @author Michael Angstadt
+ */
+public class Corpus {
+	/**
+	 * The size of each generated photo, in bytes.
+	 */
+	public static final int PHOTO_SIZE = 16 * 1024;
+
+	private static final String GIVEN_NAMES[] = { "John", "Jane", "Michael", "Maria", "David", "Sarah", "Robert", "Linda" };
+	private static final String GIVEN_NAMES_NON_ASCII[] = { "J\u00f6rg", "Zo\u00eb", "S\u00f8ren", "Jos\u00e9", "Fran\u00e7ois", "\u00c5sa", "Bj\u00f6rk", "Ren\u00e9e" };
+	private static final String FAMILY_NAMES[] = { "Doe", "Smith", "Johnson", "Williams", "Brown", "Jones", "Miller", "Davis" };
+	private static final String FAMILY_NAMES_NON_ASCII[] = { "M\u00fcller", "Sch\u00e4fer", "Gonz\u00e1lez", "Nu\u00f1ez", "\u00d8stergaard", "Ko\u0142odziej", "\u0160imek", "\u5c71\u7530" };
+	private static final String CITIES[] = { "Austin", "Boston", "Chicago", "Denver", "M\u00fcnchen", "Z\u00fcrich", "K\u00f8benhavn", "S\u00e3o Paulo" };
+
+	/**
+	 * Determines which properties the generated vCards contain.
+	 */
+	public static enum Mix {
+		/**
+		 * N, FN, and EMAIL.
+		 */
+		MINIMAL,
+
+		/**
+		 * The properties found in a typical address book entry: N, FN, EMAIL,
+		 * TEL, ADR, ORG, TITLE, NOTE, BDAY, URL, GEO, CATEGORIES, and UID.
+		 */
+		TYPICAL,
+
+		/**
+		 * The {@link #TYPICAL} properties, plus a PHOTO property with
+		 * {@value Corpus#PHOTO_SIZE} bytes of binary data.
+		 */
+		BINARY,
+
+		/**
+		 * The {@link #TYPICAL} properties, with non-ASCII values. The text
+		 * properties are quoted-printable encoded when written as version 2.1
+		 * vCards (old phones often export vCards this way).
+		 */
+		QUOTED_PRINTABLE
+	}
+
+	/**
+	 * Generates vCards.
+	 * @param count the number of vCards to generate
+	 * @param mix the properties that each vCard contains
+	 * @return the vCards
+	 */
+	public static List<VCard> generate(int count, Mix mix) {
+		Random random = new Random(count);
+		List<VCard> vcards = new ArrayList<VCard>(count);
+		for (int i = 0; i < count; i++) {
+			vcards.add(generate(i, mix, random));
+		}
+		return vcards;
+	}
+
+	/**
+	 * Writes vCards to a plain-text string.
+	 * @param vcards the vCards
+	 * @param version the version to write the vCards as
+	 * @return the string
+	 */
+	public static String toText(List<VCard> vcards, VCardVersion version) {
+		return Ezvcard.write(vcards).version(version).go();
+	}
+
+	/**
+	 * Writes vCards to an xCard string.
+	 * @param vcards the vCards
+	 * @return the string
+	 */
+	public static String toXml(List<VCard> vcards) {
+		return Ezvcard.writeXml(vcards).go();
+	}
+
+	/**
+	 * Writes vCards to a jCard string.
+	 * @param vcards the vCards
+	 * @return the string
+	 */
+	public static String toJson(List<VCard> vcards) {
+		return Ezvcard.writeJson(vcards).go();
+	}
+
+	/**
+	 * Writes vCards to an HTML page.
+	 * @param vcards the vCards
+	 * @return the HTML page
+	 */
+	public static String toHtml(List<VCard> vcards) {
+		return Ezvcard.writeHtml(vcards).go();
+	}
+
+	private static VCard generate(int index, Mix mix, Random random) {
+		boolean nonAscii = (mix == Mix.QUOTED_PRINTABLE);
+		String given = pick(nonAscii ? GIVEN_NAMES_NON_ASCII : GIVEN_NAMES, random);
+		String family = pick(nonAscii ? FAMILY_NAMES_NON_ASCII : FAMILY_NAMES, random);
+
+		VCard vcard = new VCard();
+
+		StructuredName n = new StructuredName();
+		n.setFamily(family);
+		n.setGiven(given);
+		n.addPrefix("Dr.");
+		vcard.setStructuredName(n);
+
+		vcard.setFormattedName("Dr. " + given + " " + family);
+		vcard.addEmail(ascii(given + "." + family + index) + "@example.com", EmailType.INTERNET, EmailType.WORK);
+
+		if (mix == Mix.MINIMAL) {
+			return vcard;
+		}
+
+		Telephone tel = new Telephone(new TelUri.Builder("+1-555-555-" + (1000 + random.nextInt(9000))).extension("101").build());
+		tel.addType(TelephoneType.WORK);
+		tel.addType(TelephoneType.VOICE);
+		vcard.addTelephoneNumber(tel);
+		vcard.addTelephoneNumber("+1 555 555 " + (1000 + random.nextInt(9000)), TelephoneType.CELL);
+
+		Address adr = new Address();
+		adr.setStreetAddress((random.nextInt(9999) + 1) + " Main St.");
+		adr.setLocality(pick(CITIES, random));
+		adr.setRegion("TX");
+		adr.setPostalCode(Integer.toString(10000 + random.nextInt(90000)));
+		adr.setCountry("USA");
+		adr.addType(AddressType.HOME);
+		vcard.addAddress(adr);
+
+		vcard.setOrganization("Acme, Inc.", nonAscii ? "Gesch\u00e4ftsf\u00fchrung" : "Research and Development");
+		vcard.addTitle("Vice President");
+		vcard.addNote("This is a long note that will be folded when written to a plain-text vCard. " + (nonAscii ? "Il contient des caract\u00e8res accentu\u00e9s, " : "It contains several sentences, ") + "commas; semicolons; and a\nnewline.");
+
+		Calendar c = Calendar.getInstance();
+		c.clear();
+		c.set(1950 + random.nextInt(50), random.nextInt(12), random.nextInt(28) + 1);
+		vcard.setBirthday(new Birthday(c.getTime()));
+
+		vcard.addUrl("http://www.example.com/~" + ascii(family).toLowerCase() + index);
+		vcard.setGeo(random.nextDouble() * 180 - 90, random.nextDouble() * 360 - 180);
+		vcard.setCategories("business", "friends", "conference " + (index % 10));
+		vcard.setUid(new Uid("urn:uuid:" + new UUID(index, random.nextLong())));
+
+		if (mix == Mix.BINARY) {
+			byte data[] = new byte[PHOTO_SIZE];
+			random.nextBytes(data);
+			vcard.addPhoto(new Photo(data, ImageType.JPEG));
+		}
+
+		if (nonAscii) {
+			quotedPrintable(vcard.getStructuredName());
+			quotedPrintable(vcard.getFormattedName());
+			quotedPrintable(vcard.getOrganization());
+			quotedPrintable(vcard.getNotes().get(0));
+			quotedPrintable(vcard.getAddresses().get(0));
+		}
+
+		return vcard;
+	}
+
+	private static void quotedPrintable(VCardProperty property) {
+		property.getParameters().setEncoding(Encoding.QUOTED_PRINTABLE);
+		property.getParameters().setCharset("UTF-8");
+	}
+
+	private static String ascii(String str) {
+		StringBuilder sb = new StringBuilder(str.length());
+		for (int i = 0; i < str.length(); i++) {
+			char c = str.charAt(i);
+			if (c < 0x80) {
+				sb.append(c);
+			}
+		}
+		return sb.toString();
+	}
+
+	private static String pick(String values[], Random random) {
+		return values[random.nextInt(values.length)];
+	}
+}
@@ -0,0 +1,159 @@
+package ezvcard.benchmarks;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ezvcard.VCard;
+import ezvcard.VCardVersion;
+import ezvcard.benchmarks.Corpus.Mix;
+import ezvcard.io.text.VCardReader;
+import ezvcard.util.MappedFileReader;
+
+/*
+ Copyright (c) 2012-2015, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+ The views and conclusions contained in the software and documentation are those
+ of the authors and should not be interpreted as representing official policies, 
+ either expressed or implied, of the FreeBSD Project.
+ */
+
+/**
+ * Compares the speed of reading a vCard file through a {@link FileReader}
+ * (what {@link VCardReader#VCardReader(File)} uses), through an
+ * {@link InputStreamReader} with an explicit character set, and through a
+ * {@link MappedFileReader} (what {@link VCardReader#VCardReader(File, Charset)}
+ * uses). The "decode" benchmarks only convert the file to characters. The
+ * "parse" benchmarks parse the entire file.
+ * @author Michael Angstadt
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FileReadBenchmark {
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	/**
+	 * The number of vCards in the file.
+	 */
+	@Param({ "1000" })
+	public int count;
+
+	/**
+	 * The properties that each vCard contains.
+	 */
+	@Param({ "TYPICAL" })
+	public Mix mix;
+
+	private File file;
+
+	@Setup
+	public void setup() throws IOException {
+		String text = Corpus.toText(Corpus.generate(count, mix), VCardVersion.V3_0);
+		file = File.createTempFile("ez-vcard-benchmark", ".vcf");
+		Writer writer = new OutputStreamWriter(new FileOutputStream(file), UTF8);
+		try {
+			writer.write(text);
+		} finally {
+			writer.close();
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		file.delete();
+	}
+
+	@Benchmark
+	public long decodeFileReader() throws IOException {
+		return decode(new FileReader(file));
+	}
+
+	@Benchmark
+	public long decodeInputStreamReader() throws IOException {
+		return decode(new InputStreamReader(new FileInputStream(file), UTF8));
+	}
+
+	@Benchmark
+	public long decodeMappedFileReader() throws IOException {
+		return decode(new MappedFileReader(file, UTF8));
+	}
+
+	@Benchmark
+	public List<VCard> parseFileReader() throws IOException {
+		return parse(new VCardReader(file));
+	}
+
+	@Benchmark
+	public List<VCard> parseMappedFileReader() throws IOException {
+		return parse(new VCardReader(file, UTF8));
+	}
+
+	private static long decode(Reader reader) throws IOException {
+		try {
+			char buffer[] = new char[8192];
+			long count = 0;
+			int read;
+			while ((read = reader.read(buffer)) >= 0) {
+				count += read;
+			}
+			return count;
+		} finally {
+			reader.close();
+		}
+	}
+
+	private static List<VCard> parse(VCardReader reader) throws IOException {
+		try {
+			return reader.readAll();
+		} finally {
+			reader.close();
+		}
+	}
+}
@@ -0,0 +1,136 @@
+package ezvcard.benchmarks;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ezvcard.VCard;
+import ezvcard.VCardVersion;
+import ezvcard.benchmarks.Corpus.Mix;
+import ezvcard.io.html.HCardParser;
+import ezvcard.io.json.JCardReader;
+import ezvcard.io.text.VCardReader;
+import ezvcard.io.xml.XCardReader;
+
+/*
+ Copyright (c) 2012-2015, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+ The views and conclusions contained in the software and documentation are those
+ of the authors and should not be interpreted as representing official policies, 
+ either expressed or implied, of the FreeBSD Project.
+ */
+
+/**
+ * Measures how fast each of the readers parses a generated corpus of vCards.
+ * Each benchmark operation parses the entire corpus.
+ * @author Michael Angstadt
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParseBenchmark {
+	/**
+	 * The number of vCards in the corpus.
+	 */
+	@Param({ "100" })
+	public int count;
+
+	/**
+	 * The properties that each vCard contains.
+	 */
+	@Param({ "TYPICAL" })
+	public Mix mix;
+
+	/**
+	 * The version of the plain-text vCards.
+	 */
+	@Param({ "V3_0" })
+	public VCardVersion version;
+
+	private String text, xml, json, html;
+
+	@Setup
+	public void setup() {
+		List<VCard> vcards = Corpus.generate(count, mix);
+		text = Corpus.toText(vcards, version);
+		xml = Corpus.toXml(vcards);
+		json = Corpus.toJson(vcards);
+		html = Corpus.toHtml(vcards);
+	}
+
+	@Benchmark
+	public List<VCard> vcardReader() throws IOException {
+		VCardReader reader = new VCardReader(text);
+		try {
+			return reader.readAll();
+		} finally {
+			reader.close();
+		}
+	}
+
+	@Benchmark
+	public List<VCard> xcardReader() throws IOException {
+		XCardReader reader = new XCardReader(xml);
+		try {
+			return reader.readAll();
+		} finally {
+			reader.close();
+		}
+	}
+
+	@Benchmark
+	public List<VCard> jcardReader() throws IOException {
+		JCardReader reader = new JCardReader(json);
+		try {
+			return reader.readAll();
+		} finally {
+			reader.close();
+		}
+	}
+
+	@Benchmark
+	public List<VCard> hcardParser() throws IOException {
+		HCardParser parser = new HCardParser(html);
+		try {
+			return parser.readAll();
+		} finally {
+			parser.close();
+		}
+	}
+}
@@ -0,0 +1,89 @@
+package ezvcard.benchmarks;
+
+import java.nio.charset.Charset;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ezvcard.util.QuotedPrintableDecoder;
+import ezvcard.util.org.apache.commons.codec.DecoderException;
+import ezvcard.util.org.apache.commons.codec.net.QuotedPrintableCodec;
+
+/*
+ Copyright (c) 2012-2015, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+ The views and conclusions contained in the software and documentation are those
+ of the authors and should not be interpreted as representing official policies, 
+ either expressed or implied, of the FreeBSD Project.
+ */
+
+/**
+ * Compares the speed of decoding quoted-printable values with a new
+ * {@link QuotedPrintableCodec} for each value (which is what the vCard reader
+ * used to do) and with a re-used {@link QuotedPrintableDecoder}. Each
+ * benchmark operation decodes a small set of typical property values. To
+ * measure the parsing of an entire quoted-printable encoded corpus, run
+ * {@link ParseBenchmark} with the {@link Corpus.Mix#QUOTED_PRINTABLE} mix
+ * and version 2.1.
+ * @author Michael Angstadt
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class QuotedPrintableBenchmark {
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private final String values[] = { "J=C3=B6hn Doe", "Gesch=C3=A4ftsf=C3=BChrung;Acme=2C Inc.", "123 Main St.=0D=0AAustin=2C TX 12345", "This is a note that contains no encoded characters at all.", "=E2=82=AC =F0=9F=98=80 =E6=97=A5=E6=9C=AC=E8=AA=9E" };
+	private final QuotedPrintableDecoder decoder = new QuotedPrintableDecoder(UTF8);
+
+	@Benchmark
+	public int codec() throws DecoderException {
+		int length = 0;
+		for (String value : values) {
+			QuotedPrintableCodec codec = new QuotedPrintableCodec(UTF8.name());
+			length += codec.decode(value).length();
+		}
+		return length;
+	}
+
+	@Benchmark
+	public int decoder() throws DecoderException {
+		int length = 0;
+		for (String value : values) {
+			length += decoder.decode(value).length();
+		}
+		return length;
+	}
+}
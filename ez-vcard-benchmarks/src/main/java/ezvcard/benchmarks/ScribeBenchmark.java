@@ -0,0 +1,193 @@
+package ezvcard.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ezvcard.VCard;
+import ezvcard.VCardDataType;
+import ezvcard.VCardVersion;
+import ezvcard.benchmarks.Corpus.Mix;
+import ezvcard.io.scribe.AddressScribe;
+import ezvcard.io.scribe.PhotoScribe;
+import ezvcard.io.scribe.StructuredNameScribe;
+import ezvcard.io.scribe.TelephoneScribe;
+import ezvcard.io.scribe.VCardPropertyScribe;
+import ezvcard.parameter.VCardParameters;
+import ezvcard.property.Address;
+import ezvcard.property.Photo;
+import ezvcard.property.StructuredName;
+import ezvcard.property.Telephone;
+import ezvcard.property.VCardProperty;
+
+/*
+ Copyright (c) 2012-2015, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+ The views and conclusions contained in the software and documentation are those
+ of the authors and should not be interpreted as representing official policies, 
+ either expressed or implied, of the FreeBSD Project.
+ */
+
+/**
+ * Measures how fast the scribes of some common properties unmarshal and
+ * marshal property values in plain-text vCards. The "parse" benchmarks include
+ * the cost of copying the property's parameters, since the scribe takes
+ * ownership of the parameters object that is passed into it. The "prepare"
+ * benchmarks measure how much it costs to get a property's parameters ready
+ * to be written, which all of the writers do for every property.
+ * @author Michael Angstadt
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ScribeBenchmark {
+	@Param({ "V3_0", "V4_0" })
+	public VCardVersion version;
+
+	private Sample<StructuredName> n;
+	private Sample<Address> adr;
+	private Sample<Telephone> tel;
+	private Sample<Photo> photo;
+
+	@Setup
+	public void setup() {
+		VCard vcard = Corpus.generate(1, Mix.BINARY).get(0);
+		n = new Sample<StructuredName>(new StructuredNameScribe(), vcard.getStructuredName(), vcard, version);
+		adr = new Sample<Address>(new AddressScribe(), vcard.getAddresses().get(0), vcard, version);
+		tel = new Sample<Telephone>(new TelephoneScribe(), vcard.getTelephoneNumbers().get(0), vcard, version);
+		photo = new Sample<Photo>(new PhotoScribe(), vcard.getPhotos().get(0), vcard, version);
+	}
+
+	@Benchmark
+	public StructuredName parseN() {
+		return n.parse();
+	}
+
+	@Benchmark
+	public String writeN() {
+		return n.write();
+	}
+
+	@Benchmark
+	public Address parseAdr() {
+		return adr.parse();
+	}
+
+	@Benchmark
+	public String writeAdr() {
+		return adr.write();
+	}
+
+	@Benchmark
+	public VCardParameters prepareAdr() {
+		return adr.prepare();
+	}
+
+	@Benchmark
+	public Telephone parseTel() {
+		return tel.parse();
+	}
+
+	@Benchmark
+	public String writeTel() {
+		return tel.write();
+	}
+
+	@Benchmark
+	public VCardParameters prepareTel() {
+		return tel.prepare();
+	}
+
+	@Benchmark
+	public Photo parsePhoto() {
+		return photo.parse();
+	}
+
+	@Benchmark
+	public String writePhoto() {
+		return photo.write();
+	}
+
+	@Benchmark
+	public VCardParameters preparePhoto() {
+		return photo.prepare();
+	}
+
+	/**
+	 * A property, along with its marshalled form.
+	 * @param <T> the property class
+	 */
+	private static class Sample<T extends VCardProperty> {
+		private final VCardPropertyScribe<T> scribe;
+		private final T property;
+		private final VCard vcard;
+		private final VCardVersion version;
+		private final String value;
+		private final VCardDataType dataType;
+		private final VCardParameters parameters;
+
+		public Sample(VCardPropertyScribe<T> scribe, T property, VCard vcard, VCardVersion version) {
+			this.scribe = scribe;
+			this.property = property;
+			this.vcard = vcard;
+			this.version = version;
+
+			//marshal the property the same way VCardWriter does, and get the data type the same way VCardReader does
+			value = scribe.writeText(property, version);
+			parameters = scribe.prepareParameters(property, version, vcard);
+			VCardDataType dataType = parameters.getValue();
+			if (dataType == null) {
+				dataType = scribe.defaultDataType(version);
+			} else {
+				parameters.setValue(null);
+			}
+			this.dataType = dataType;
+		}
+
+		public T parse() {
+			return scribe.parseText(value, dataType, version, new VCardParameters(parameters)).getProperty();
+		}
+
+		public String write() {
+			return scribe.writeText(property, version);
+		}
+
+		public VCardParameters prepare() {
+			return scribe.prepareParameters(property, version, vcard);
+		}
+	}
+}
@@ -0,0 +1,195 @@
+package ezvcard.benchmarks;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ezvcard.VCardVersion;
+import ezvcard.benchmarks.Corpus.Mix;
+import ezvcard.io.text.FoldedLineReader;
+
+/*
+ Copyright (c) 2012-2015, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+ The views and conclusions contained in the software and documentation are those
+ of the authors and should not be interpreted as representing official policies, 
+ either expressed or implied, of the FreeBSD Project.
+ */
+
+/**
+ * Compares the speed of {@link FoldedLineReader} with the regular
+ * expression-based line unfolding algorithm that it replaced. Each benchmark
+ * operation unfolds every line of the corpus.
+ * @author Michael Angstadt
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UnfoldBenchmark {
+	/**
+	 * The number of vCards in the corpus.
+	 */
+	@Param({ "100" })
+	public int count;
+
+	/**
+	 * The properties that each vCard contains. 2.1 vCards with the
+	 * {@link Mix#QUOTED_PRINTABLE} mix contain folded quoted-printable values.
+	 */
+	@Param({ "QUOTED_PRINTABLE" })
+	public Mix mix;
+
+	/**
+	 * The version of the vCards.
+	 */
+	@Param({ "V2_1", "V3_0" })
+	public VCardVersion version;
+
+	private String text;
+
+	@Setup
+	public void setup() {
+		text = Corpus.toText(Corpus.generate(count, mix), version);
+	}
+
+	@Benchmark
+	public int stateMachine() throws IOException {
+		FoldedLineReader reader = new FoldedLineReader(text);
+		int lines = 0;
+		while (reader.readLineToBuffer() >= 0) {
+			lines++;
+		}
+		return lines;
+	}
+
+	@Benchmark
+	public int regex() throws IOException {
+		RegexFoldedLineReader reader = new RegexFoldedLineReader(new StringReader(text));
+		int lines = 0;
+		while (reader.readLine() != null) {
+			lines++;
+		}
+		return lines;
+	}
+
+	/**
+	 * The line unfolding algorithm that {@link FoldedLineReader} used before
+	 * it was rewritten as a state machine.
+	 */
+	private static class RegexFoldedLineReader extends BufferedReader {
+		private final Pattern foldedQuotedPrintableValueRegex = Pattern.compile("[^:]*?QUOTED-PRINTABLE.*?:.*?=", Pattern.CASE_INSENSITIVE);
+		private String lastLine;
+
+		public RegexFoldedLineReader(Reader reader) {
+			super(reader);
+		}
+
+		private String readNonEmptyLine() throws IOException {
+			while (true) {
+				String line = super.readLine();
+				if (line == null || line.length() > 0) {
+					return line;
+				}
+			}
+		}
+
+		@Override
+		public String readLine() throws IOException {
+			String wholeLine = (lastLine == null) ? readNonEmptyLine() : lastLine;
+			lastLine = null;
+			if (wholeLine == null) {
+				return null;
+			}
+
+			boolean foldedQuotedPrintableLine = foldedQuotedPrintableValueRegex.matcher(wholeLine).matches();
+			if (foldedQuotedPrintableLine) {
+				wholeLine = chop(wholeLine);
+			}
+
+			StringBuilder unfoldedLine = new StringBuilder(wholeLine);
+			while (true) {
+				String line = foldedQuotedPrintableLine ? super.readLine() : readNonEmptyLine();
+				if (line == null) {
+					break;
+				}
+
+				if (foldedQuotedPrintableLine) {
+					line = ltrim(line);
+
+					boolean endsInEquals = line.endsWith("=");
+					if (endsInEquals) {
+						line = chop(line);
+					}
+
+					unfoldedLine.append(line);
+
+					if (endsInEquals) {
+						continue;
+					}
+					break;
+				}
+
+				if (line.length() > 0 && Character.isWhitespace(line.charAt(0))) {
+					unfoldedLine.append(ltrim(line));
+					continue;
+				}
+
+				lastLine = line;
+				break;
+			}
+
+			return unfoldedLine.toString();
+		}
+
+		private static String ltrim(String string) {
+			int i = 0;
+			while (i < string.length() && Character.isWhitespace(string.charAt(i))) {
+				i++;
+			}
+			return string.substring(i);
+		}
+
+		private static String chop(String string) {
+			return (string.length() > 0) ? string.substring(0, string.length() - 1) : string;
+		}
+	}
+}
@@ -32,6 +32,7 @@ import ezvcard.io.json.JCardReader;
 import ezvcard.io.json.JCardWriter;
 import ezvcard.io.scribe.ScribeIndex;
 import ezvcard.io.scribe.VCardPropertyScribe;
+import ezvcard.io.text.PropertyNameFilter;
 import ezvcard.io.text.VCardReader;
 import ezvcard.io.text.VCardWriter;
 import ezvcard.io.xml.XCardDocument;
@@ -644,6 +645,7 @@ public class Ezvcard {
 
 	static abstract class ParserChainText<T> extends ParserChain<T> {
 		boolean caretDecoding = true;
+		PropertyNameFilter filter;
 		final boolean closeWhenDone;
 
 		private ParserChainText(boolean closeWhenDone) {
@@ -664,6 +666,34 @@ public class Ezvcard {
 			return this_;
 		}
 
+		/**
+		 * Only parses the given properties. All other properties are skipped
+		 * over as soon as their names are read. Replaces any property filter
+		 * set by a previous call to this method or to {@link #exclude}.
+		 * @param propertyNames the names of the properties to parse (e.g.
+		 * "FN", "EMAIL")
+		 * @return this
+		 * @see VCardReader#setPropertyNameFilter(PropertyNameFilter)
+		 */
+		public T include(String... propertyNames) {
+			filter = PropertyNameFilter.include(propertyNames);
+			return this_;
+		}
+
+		/**
+		 * Skips over the given properties as soon as their names are read. All
+		 * other properties are parsed. Replaces any property filter set by a
+		 * previous call to this method or to {@link #include}.
+		 * @param propertyNames the names of the properties to skip (e.g.
+		 * "PHOTO", "SOUND")
+		 * @return this
+		 * @see VCardReader#setPropertyNameFilter(PropertyNameFilter)
+		 */
+		public T exclude(String... propertyNames) {
+			filter = PropertyNameFilter.exclude(propertyNames);
+			return this_;
+		}
+
 		@Override
 		public VCard first() throws IOException {
 			VCardReader parser = constructReader();
@@ -706,6 +736,7 @@ public class Ezvcard {
 			VCardReader parser = _constructReader();
 			parser.setScribeIndex(index);
 			parser.setCaretDecodingEnabled(caretDecoding);
+			parser.setPropertyNameFilter(filter);
 			return parser;
 		}
 
@@ -749,6 +780,16 @@ public class Ezvcard {
 			return super.caretDecoding(enable);
 		}
 
+		@Override
+		public ParserChainTextReader include(String... propertyNames) {
+			return super.include(propertyNames);
+		}
+
+		@Override
+		public ParserChainTextReader exclude(String... propertyNames) {
+			return super.exclude(propertyNames);
+		}
+
 		@Override
 		@SuppressWarnings("resource")
 		VCardReader _constructReader() throws IOException {
@@ -783,6 +824,16 @@ public class Ezvcard {
 			return super.caretDecoding(enable);
 		}
 
+		@Override
+		public ParserChainTextString include(String... propertyNames) {
+			return super.include(propertyNames);
+		}
+
+		@Override
+		public ParserChainTextString exclude(String... propertyNames) {
+			return super.exclude(propertyNames);
+		}
+
 		@Override
 		VCardReader _constructReader() {
 			return new VCardReader(text);
@@ -7,6 +7,7 @@ import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -16,6 +17,7 @@ import java.util.Set;
 
 import javax.xml.transform.TransformerException;
 
+import ezvcard.io.LazyProperty;
 import ezvcard.io.text.VCardWriter;
 import ezvcard.parameter.EmailType;
 import ezvcard.parameter.TelephoneType;
@@ -111,6 +113,7 @@ public class VCard implements Iterable<VCardProperty> {
 	private VCardVersion version = VCardVersion.V3_0;
 
 	private final ListMultimap<Class<? extends VCardProperty>, VCardProperty> properties = new ListMultimap<Class<? extends VCardProperty>, VCardProperty>();
+	private ListMultimap<Class<? extends VCardProperty>, LazyProperty> lazyProperties;
 
 	/**
 	 * <p>
@@ -4423,6 +4426,7 @@ public class VCard implements Iterable<VCardProperty> {
 	 * @return the iterator
 	 */
 	public Iterator<VCardProperty> iterator() {
+		parseLazyProperties();
 		return properties.values().iterator();
 	}
 
@@ -4432,6 +4436,7 @@ public class VCard implements Iterable<VCardProperty> {
 	 * @return the property or null if not found
 	 */
 	public <T extends VCardProperty> T getProperty(Class<T> clazz) {
+		parseLazyProperties(clazz);
 		return clazz.cast(properties.first(clazz));
 	}
 
@@ -4441,6 +4446,7 @@ public class VCard implements Iterable<VCardProperty> {
 	 * @return the properties
 	 */
 	public <T extends VCardProperty> List<T> getProperties(Class<T> clazz) {
+		parseLazyProperties(clazz);
 		List<VCardProperty> props = properties.get(clazz);
 
 		//cast to the requested class
@@ -4490,6 +4496,7 @@ public class VCard implements Iterable<VCardProperty> {
 	 * @return the properties
 	 */
 	public Collection<VCardProperty> getProperties() {
+		parseLazyProperties();
 		return properties.values();
 	}
 
@@ -4498,6 +4505,7 @@ public class VCard implements Iterable<VCardProperty> {
 	 * @param property the property to add
 	 */
 	public void addProperty(VCardProperty property) {
+		parseLazyProperties(property.getClass());
 		properties.put(property.getClass(), property);
 	}
 
@@ -4509,6 +4517,7 @@ public class VCard implements Iterable<VCardProperty> {
 	 * @param property the property or null to remove
 	 */
 	public <T extends VCardProperty> void setProperty(Class<T> clazz, T property) {
+		parseLazyProperties(clazz);
 		properties.replace(clazz, property);
 	}
 
@@ -4517,6 +4526,7 @@ public class VCard implements Iterable<VCardProperty> {
 	 * @param property the property to remove
 	 */
 	public void removeProperty(VCardProperty property) {
+		parseLazyProperties(property.getClass());
 		properties.remove(property.getClass(), property);
 	}
 
@@ -4525,9 +4535,87 @@ public class VCard implements Iterable<VCardProperty> {
 	 * @param clazz the class of the properties to remove (e.g. "Note.class")
 	 */
 	public void removeProperties(Class<? extends VCardProperty> clazz) {
+		parseLazyProperties(clazz);
 		properties.removeAll(clazz);
 	}
 
+	/**
+	 * <p>
+	 * Adds a property that has not been unmarshalled yet. The property is
+	 * unmarshalled the first time it is accessed (for example, by calling
+	 * {@link #getProperties(Class)} with the property's class or by iterating
+	 * over the vCard's properties). This means that properties which are never
+	 * accessed are never unmarshalled.
+	 * </p>
+	 * <p>
+	 * This method is used by {@link ezvcard.io.text.VCardReader VCardReader}
+	 * when lazy parsing is enabled (see
+	 * {@link ezvcard.io.text.VCardReader#setLazyParsing(boolean)
+	 * VCardReader.setLazyParsing}). Note that, because the properties are
+	 * unmarshalled on demand, reading a property from the vCard may modify
+	 * the vCard's internal state.
+	 * </p>
+	 * @param property the property to add
+	 */
+	public void addLazyProperty(LazyProperty property) {
+		Class<? extends VCardProperty> clazz = property.getPropertyClass();
+		if (lazyProperties == null) {
+			lazyProperties = new ListMultimap<Class<? extends VCardProperty>, LazyProperty>();
+		}
+
+		if (!properties.containsKey(clazz)) {
+			//reserve the property's position in the iteration order
+			properties.putAll(clazz, Collections.<VCardProperty> emptyList());
+		}
+		lazyProperties.put(clazz, property);
+	}
+
+	/**
+	 * Unmarshals all properties of the given class that have not been
+	 * unmarshalled yet.
+	 * @param clazz the property class
+	 */
+	private void parseLazyProperties(Class<? extends VCardProperty> clazz) {
+		if (lazyProperties == null) {
+			return;
+		}
+
+		if (clazz == RawProperty.class) {
+			//properties that cannot be unmarshalled are turned into raw properties, so they must all be unmarshalled
+			parseLazyProperties();
+			return;
+		}
+
+		for (LazyProperty lazy : lazyProperties.removeAll(clazz)) {
+			parseLazyProperty(lazy);
+		}
+		if (lazyProperties.isEmpty()) {
+			lazyProperties = null;
+		}
+	}
+
+	/**
+	 * Unmarshals all properties that have not been unmarshalled yet.
+	 */
+	private void parseLazyProperties() {
+		if (lazyProperties == null) {
+			return;
+		}
+
+		List<LazyProperty> lazies = lazyProperties.values();
+		lazyProperties = null;
+		for (LazyProperty lazy : lazies) {
+			parseLazyProperty(lazy);
+		}
+	}
+
+	private void parseLazyProperty(LazyProperty lazy) {
+		VCardProperty property = lazy.parse();
+		if (property != null) {
+			properties.put(property.getClass(), property);
+		}
+	}
+
 	/**
 	 * Gets the first extended property with a given name.
 	 * @param name the property name (e.g. "X-ALT-DESC")
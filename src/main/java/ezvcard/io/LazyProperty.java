@@ -0,0 +1,58 @@
+package ezvcard.io;
+
+import ezvcard.VCard;
+import ezvcard.property.VCardProperty;
+
+/*
+ Copyright (c) 2012-2015, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+ The views and conclusions contained in the software and documentation are those
+ of the authors and should not be interpreted as representing official policies, 
+ either expressed or implied, of the FreeBSD Project.
+ */
+
+
+/**
+ * A property that has been read from a data stream, but which has not been
+ * unmarshalled yet. A {@link VCard} object unmarshals the property the first
+ * time the property is accessed.
+ * @author Michael Angstadt
+ * @see VCard#addLazyProperty
+ */
+public interface LazyProperty {
+	/**
+	 * Gets the class of the property that will (most likely) be created when
+	 * the property is unmarshalled.
+	 * @return the property class
+	 */
+	Class<? extends VCardProperty> getPropertyClass();
+
+	/**
+	 * Unmarshals the property. This method is only called once.
+	 * @return the property or null if the property should not be included in
+	 * the vCard. If the property cannot be unmarshalled, the property
+	 * should be returned as a {@link ezvcard.property.RawProperty}.
+	 */
+	VCardProperty parse();
+}
@@ -0,0 +1,299 @@
+package ezvcard.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import ezvcard.VCard;
+import ezvcard.io.json.JCardWriter;
+import ezvcard.io.text.VCardRawWriter;
+import ezvcard.io.text.VCardWriter;
+import ezvcard.io.xml.XCardWriter;
+
+/*
+ Copyright (c) 2012-2015, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+ The views and conclusions contained in the software and documentation are those
+ of the authors and should not be interpreted as representing official policies, 
+ either expressed or implied, of the FreeBSD Project.
+ */
+
+/**
+ * <p>
+ * Writes {@link VCard} objects to a data stream using multiple threads.
+ * </p>
+ * <p>
+ * This class wraps a {@link StreamWriter}, such as a {@link VCardWriter},
+ * {@link JCardWriter}, or {@link XCardWriter}. The vCards are handed off in
+ * chunks to a pool of worker threads, which do the work of marshalling the
+ * properties and formatting the output (for example, folding the lines of a
+ * plain-text vCard) into an in-memory buffer. The buffers are then written to
+ * the data stream in the same order as the vCards they came from, so the
+ * output is the same as if each vCard had been passed to
+ * {@link StreamWriter#write(VCard)}.
+ * </p>
+ * <p>
+ * The settings of the wrapped writer (such as the target version and any
+ * custom scribes) must not be changed while a write operation is in progress.
+ * Listeners that are registered with the wrapped writer (such as
+ * {@link VCardRawWriter.ParameterValueChangedListener}) are called from the
+ * worker threads.
+ * </p>
+ * <p>
+ * <b>Example:</b>
+ * 
+ * <pre class="brush:java">
+ * List&lt;VCard&gt; vcards = ...
+ * File file = new File("vcards.vcf");
+ * ParallelStreamWriter writer = null;
+ * try {
+ *   writer = new ParallelStreamWriter(new VCardWriter(file, VCardVersion.V3_0));
+ *   writer.write(vcards);
+ * } finally {
+ *   if (writer != null) writer.close();
+ * }
+ * </pre>
+ * 
+ * </p>
+ * @author Michael Angstadt
+ */
+public class ParallelStreamWriter implements Closeable {
+	private final StreamWriter writer;
+	private ExecutorService executor;
+	private boolean shutdownExecutor;
+	private int chunkSize = 64;
+	private int maxPendingChunks = Runtime.getRuntime().availableProcessors() * 4;
+
+	/**
+	 * @param writer the writer to write the vCards with
+	 */
+	public ParallelStreamWriter(StreamWriter writer) {
+		this.writer = writer;
+	}
+
+	/**
+	 * Gets the writer that this object wraps.
+	 * @return the writer
+	 */
+	public StreamWriter getWriter() {
+		return writer;
+	}
+
+	/**
+	 * <p>
+	 * Sets the thread pool that will serialize the vCards. The thread pool is
+	 * not shut down when this writer is closed.
+	 * </p>
+	 * <p>
+	 * By default, a thread pool containing one thread per processor is
+	 * created. This thread pool is shut down when this writer is closed.
+	 * </p>
+	 * @param executor the thread pool
+	 */
+	public void setExecutor(ExecutorService executor) {
+		if (shutdownExecutor) {
+			this.executor.shutdown();
+		}
+		this.executor = executor;
+		shutdownExecutor = false;
+	}
+
+	/**
+	 * Gets the number of vCards that are handed off to a worker thread at
+	 * once.
+	 * @return the chunk size (defaults to 64)
+	 */
+	public int getChunkSize() {
+		return chunkSize;
+	}
+
+	/**
+	 * Sets the number of vCards that are handed off to a worker thread at
+	 * once. Larger chunks reduce the overhead of handing off work to the worker
+	 * threads.
+	 * @param chunkSize the chunk size (defaults to 64)
+	 */
+	public void setChunkSize(int chunkSize) {
+		if (chunkSize < 1) {
+			throw new IllegalArgumentException("Chunk size must be greater than zero.");
+		}
+		this.chunkSize = chunkSize;
+	}
+
+	/**
+	 * Gets the maximum number of chunks that can be waiting to be serialized
+	 * or waiting to be written to the data stream. This limits how far ahead
+	 * of the data stream the worker threads can get, and therefore how much
+	 * memory is used.
+	 * @return the maximum number of chunks (defaults to four times the number
+	 * of processors)
+	 */
+	public int getMaxPendingChunks() {
+		return maxPendingChunks;
+	}
+
+	/**
+	 * Sets the maximum number of chunks that can be waiting to be serialized
+	 * or waiting to be written to the data stream. This limits how far ahead
+	 * of the data stream the worker threads can get, and therefore how much
+	 * memory is used.
+	 * @param maxPendingChunks the maximum number of chunks (defaults to four
+	 * times the number of processors)
+	 */
+	public void setMaxPendingChunks(int maxPendingChunks) {
+		if (maxPendingChunks < 1) {
+			throw new IllegalArgumentException("Max pending chunks must be greater than zero.");
+		}
+		this.maxPendingChunks = maxPendingChunks;
+	}
+
+	/**
+	 * Writes a collection of vCards to the stream.
+	 * @param vcards the vCards to write
+	 * @throws IOException if there's a problem writing to the output stream
+	 * @throws IllegalArgumentException if a scribe hasn't been registered for a
+	 * custom property class (see: {@link StreamWriter#registerScribe
+	 * registerScribe})
+	 */
+	public void write(Collection<VCard> vcards) throws IOException {
+		write(vcards.iterator());
+	}
+
+	/**
+	 * Writes vCards to the stream. The iterator is only accessed from the
+	 * calling thread. This method returns once all of the vCards have been
+	 * written.
+	 * @param vcards the vCards to write
+	 * @throws IOException if there's a problem writing to the output stream
+	 * @throws IllegalArgumentException if a scribe hasn't been registered for a
+	 * custom property class (see: {@link StreamWriter#registerScribe
+	 * registerScribe})
+	 */
+	public void write(Iterator<VCard> vcards) throws IOException {
+		if (executor == null) {
+			executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), new DaemonThreadFactory());
+			shutdownExecutor = true;
+		}
+
+		LinkedList<Future<StreamWriter.Chunk>> pending = new LinkedList<Future<StreamWriter.Chunk>>();
+		try {
+			while (true) {
+				//keep the worker threads busy
+				while (pending.size() < maxPendingChunks && vcards.hasNext()) {
+					List<VCard> chunk = new ArrayList<VCard>(chunkSize);
+					while (chunk.size() < chunkSize && vcards.hasNext()) {
+						chunk.add(vcards.next());
+					}
+					pending.add(executor.submit(new Worker(chunk)));
+				}
+
+				if (pending.isEmpty()) {
+					break;
+				}
+
+				get(pending.removeFirst()).write();
+			}
+		} finally {
+			for (Future<StreamWriter.Chunk> future : pending) {
+				future.cancel(true);
+			}
+		}
+	}
+
+	private StreamWriter.Chunk get(Future<StreamWriter.Chunk> future) throws IOException {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException();
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IOException(cause);
+		}
+	}
+
+	/**
+	 * Closes the wrapped {@link StreamWriter} and shuts down the thread pool
+	 * (unless the thread pool was supplied with
+	 * {@link #setExecutor(ExecutorService)}).
+	 */
+	public void close() throws IOException {
+		if (shutdownExecutor && executor != null) {
+			executor.shutdownNow();
+			executor = null;
+			shutdownExecutor = false;
+		}
+
+		writer.close();
+	}
+
+	/**
+	 * Serializes a chunk of vCards.
+	 */
+	private class Worker implements Callable<StreamWriter.Chunk> {
+		private final List<VCard> vcards;
+
+		public Worker(List<VCard> vcards) {
+			this.vcards = vcards;
+		}
+
+		public StreamWriter.Chunk call() throws IOException {
+			return writer.serialize(vcards);
+		}
+	}
+
+	/**
+	 * Creates daemon threads, so that the JVM can exit if the writer is not
+	 * closed.
+	 */
+	private static class DaemonThreadFactory implements ThreadFactory {
+		private final ThreadFactory defaultFactory = Executors.defaultThreadFactory();
+
+		public Thread newThread(Runnable r) {
+			Thread thread = defaultFactory.newThread(r);
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
@@ -10,9 +10,13 @@ import ezvcard.VCard;
 import ezvcard.io.scribe.ScribeIndex;
 import ezvcard.io.scribe.VCardPropertyScribe;
 import ezvcard.parameter.AddressType;
+import ezvcard.parameter.MediaTypeParameter;
 import ezvcard.property.Address;
+import ezvcard.property.BinaryProperty;
 import ezvcard.property.Label;
 import ezvcard.property.VCardProperty;
+import ezvcard.util.BinaryData;
+import ezvcard.util.BinaryDataCache;
 
 /*
  Copyright (c) 2012-2015, Michael Angstadt
@@ -50,6 +54,7 @@ import ezvcard.property.VCardProperty;
 public abstract class StreamReader implements Closeable {
 	protected final ParseWarnings warnings = new ParseWarnings();
 	protected ScribeIndex index = new ScribeIndex();
+	protected BinaryDataCache binaryDataCache;
 
 	/**
 	 * Reads all vCards from the data stream.
@@ -112,6 +117,25 @@ public abstract class StreamReader implements Closeable {
 		}
 	}
 
+	/**
+	 * Replaces the data of a binary property (such as PHOTO) with the
+	 * identical data from the {@link BinaryDataCache}, if a cache is set.
+	 * @param property the property (nothing is done if it is not a binary
+	 * property)
+	 */
+	protected void internBinaryData(VCardProperty property) {
+		if (binaryDataCache != null && property instanceof BinaryProperty) {
+			intern((BinaryProperty<?>) property, binaryDataCache);
+		}
+	}
+
+	private static <T extends MediaTypeParameter> void intern(BinaryProperty<T> property, BinaryDataCache cache) {
+		BinaryData data = property.getBinaryData();
+		if (data != null) {
+			property.setBinaryData(cache.intern(data), property.getContentType());
+		}
+	}
+
 	/**
 	 * <p>
 	 * Registers a property scribe. This is the same as calling:
@@ -141,6 +165,26 @@ public abstract class StreamReader implements Closeable {
 		this.index = index;
 	}
 
+	/**
+	 * Gets the cache that is used to share identical binary data (such as the
+	 * same company logo) between properties.
+	 * @return the cache or null if binary data is not shared (default)
+	 */
+	public BinaryDataCache getBinaryDataCache() {
+		return binaryDataCache;
+	}
+
+	/**
+	 * Sets the cache that is used to share identical binary data (such as the
+	 * same company logo) between properties. The data of each binary property
+	 * that is read is replaced with the identical data from the cache, if the
+	 * cache contains it. A cache can be shared between multiple readers.
+	 * @param cache the cache or null not to share binary data (default)
+	 */
+	public void setBinaryDataCache(BinaryDataCache cache) {
+		binaryDataCache = cache;
+	}
+
 	/**
 	 * Gets the warnings from the last vCard that was unmarshalled. This list is
 	 * reset every time a new vCard is read.
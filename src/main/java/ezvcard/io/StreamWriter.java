@@ -77,6 +77,42 @@ public abstract class StreamWriter implements Closeable {
 	 */
 	protected abstract void _write(VCard vcard, List<VCardProperty> properties) throws IOException;
 
+	/**
+	 * <p>
+	 * Serializes a group of vCards so that they can be written to the stream
+	 * later on. This method is called by {@link ParallelStreamWriter} from a
+	 * worker thread, so it must not modify the state of this writer. The
+	 * {@link Chunk} that is returned is written from the thread that owns this
+	 * writer, in the order in which the vCards were passed to the
+	 * {@link ParallelStreamWriter}.
+	 * </p>
+	 * <p>
+	 * By default, this method only determines which properties need to be
+	 * written. Sub-classes should override it to do as much of the work as
+	 * possible (such as marshalling the property values and formatting the
+	 * output), leaving only the copying of the result to the stream.
+	 * </p>
+	 * @param vcards the vCards to serialize
+	 * @return the serialized vCards
+	 * @throws IOException if there's a problem serializing the vCards
+	 * @throws IllegalArgumentException if a scribe hasn't been registered for a
+	 * custom property class (see: {@link #registerScribe registerScribe})
+	 */
+	protected Chunk serialize(final List<VCard> vcards) throws IOException {
+		final List<List<VCardProperty>> properties = new ArrayList<List<VCardProperty>>(vcards.size());
+		for (VCard vcard : vcards) {
+			properties.add(prepare(vcard));
+		}
+
+		return new Chunk() {
+			public void write() throws IOException {
+				for (int i = 0; i < vcards.size(); i++) {
+					_write(vcards.get(i), properties.get(i));
+				}
+			}
+		};
+	}
+
 	/**
 	 * Gets the version that the next vCard will be written as.
 	 * @return the version
@@ -221,4 +257,16 @@ public abstract class StreamWriter implements Closeable {
 
 		return propertiesToAdd;
 	}
+
+	/**
+	 * A group of vCards that were serialized by
+	 * {@link StreamWriter#serialize}, waiting to be written to the stream.
+	 */
+	protected interface Chunk {
+		/**
+		 * Writes the vCards to the stream.
+		 * @throws IOException if there's a problem writing to the output stream
+		 */
+		void write() throws IOException;
+	}
 }
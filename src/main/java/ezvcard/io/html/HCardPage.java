@@ -93,6 +93,12 @@ public class HCardPage {
 		}
 	}
 
+	/**
+	 * The template only looks up scribes, so the same index can be shared by
+	 * every page.
+	 */
+	private static final ScribeIndex scribeIndex = new ScribeIndex();
+
 	private final List<VCard> vcards = new ArrayList<VCard>();
 
 	/**
@@ -154,7 +160,7 @@ public class HCardPage {
 		map.put("noProfile", readImage("no-profile.png", ImageType.PNG));
 		map.put("ezVCardVersion", Ezvcard.VERSION);
 		map.put("ezVCardUrl", Ezvcard.URL);
-		map.put("scribeIndex", new ScribeIndex());
+		map.put("scribeIndex", scribeIndex);
 		try {
 			template.process(map, writer);
 		} catch (TemplateException e) {
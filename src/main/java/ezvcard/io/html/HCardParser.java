@@ -24,7 +24,6 @@ import ezvcard.io.CannotParseException;
 import ezvcard.io.EmbeddedVCardException;
 import ezvcard.io.SkipMeException;
 import ezvcard.io.StreamReader;
-import ezvcard.io.scribe.RawPropertyScribe;
 import ezvcard.io.scribe.VCardPropertyScribe;
 import ezvcard.io.scribe.VCardPropertyScribe.Result;
 import ezvcard.property.Categories;
@@ -332,7 +331,7 @@ public class HCardParser extends StreamReader {
 				if (!className.startsWith("x-")) {
 					continue;
 				}
-				scribe = new RawPropertyScribe(className);
+				scribe = index.getRawPropertyScribe(className);
 			}
 
 			VCardProperty property;
@@ -403,6 +402,7 @@ public class HCardParser extends StreamReader {
 				visitChildren = false;
 			}
 
+			internBinaryData(property);
 			vcard.addProperty(property);
 		}
 
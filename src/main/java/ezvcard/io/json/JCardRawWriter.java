@@ -119,6 +119,23 @@ public class JCardRawWriter implements Closeable, Flushable {
 		open = false;
 	}
 
+	/**
+	 * Writes a "vcard" component that was already serialized to JSON.
+	 * @param json the JSON-encoded "vcard" component
+	 * @throws IOException if there's an I/O problem
+	 */
+	void writeVCard(String json) throws IOException {
+		if (generator == null) {
+			init();
+		}
+
+		if (open) {
+			writeEndVCard();
+		}
+
+		generator.writeRawValue(json);
+	}
+
 	/**
 	 * Writes a property to the current component.
 	 * @param propertyName the property name (e.g. "version")
@@ -17,7 +17,6 @@ import ezvcard.io.EmbeddedVCardException;
 import ezvcard.io.SkipMeException;
 import ezvcard.io.StreamReader;
 import ezvcard.io.json.JCardRawReader.JCardDataStreamListener;
-import ezvcard.io.scribe.RawPropertyScribe;
 import ezvcard.io.scribe.VCardPropertyScribe;
 import ezvcard.io.scribe.VCardPropertyScribe.Result;
 import ezvcard.parameter.VCardParameters;
@@ -154,7 +153,7 @@ public class JCardReader extends StreamReader {
 
 			VCardPropertyScribe<? extends VCardProperty> scribe = index.getPropertyScribe(propertyName);
 			if (scribe == null) {
-				scribe = new RawPropertyScribe(propertyName);
+				scribe = index.getRawPropertyScribe(propertyName);
 			}
 
 			Result<? extends VCardProperty> result;
@@ -167,7 +166,7 @@ public class JCardReader extends StreamReader {
 				warnings.add(reader.getLineNum(), propertyName, 22, e.getMessage());
 				return;
 			} catch (CannotParseException e) {
-				scribe = new RawPropertyScribe(propertyName);
+				scribe = index.getRawPropertyScribe(propertyName);
 				result = scribe.parseJson(value, dataType, parameters);
 
 				VCardProperty property = result.getProperty();
@@ -180,6 +179,7 @@ public class JCardReader extends StreamReader {
 
 			VCardProperty property = result.getProperty();
 			property.setGroup(group);
+			internBinaryData(property);
 			vcard.addProperty(property);
 		}
 	}
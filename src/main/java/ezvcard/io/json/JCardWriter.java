@@ -6,7 +6,9 @@ import java.io.File;
 import java.io.Flushable;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.StringWriter;
 import java.io.Writer;
+import java.util.ArrayList;
 import java.util.List;
 
 import ezvcard.VCard;
@@ -16,6 +18,7 @@ import ezvcard.io.EmbeddedVCardException;
 import ezvcard.io.SkipMeException;
 import ezvcard.io.StreamWriter;
 import ezvcard.io.scribe.VCardPropertyScribe;
+import ezvcard.io.scribe.WriteContext;
 import ezvcard.parameter.VCardParameters;
 import ezvcard.property.VCardProperty;
 
@@ -138,6 +141,7 @@ public class JCardWriter extends StreamWriter implements Flushable {
 	@Override
 	@SuppressWarnings({ "rawtypes", "unchecked" })
 	protected void _write(VCard vcard, List<VCardProperty> properties) throws IOException {
+		WriteContext context = new WriteContext(targetVersion, vcard);
 		writer.writeStartVCard();
 		writer.writeProperty("version", VCardDataType.TEXT, JCardValue.single(targetVersion.getVersion()));
 
@@ -147,7 +151,7 @@ public class JCardWriter extends StreamWriter implements Flushable {
 			//marshal the value
 			JCardValue value;
 			try {
-				value = scribe.writeJson(property);
+				value = scribe.writeJson(property, context);
 			} catch (SkipMeException e) {
 				//property has requested not to be written
 				continue;
@@ -158,7 +162,7 @@ public class JCardWriter extends StreamWriter implements Flushable {
 
 			String group = property.getGroup();
 			String name = scribe.getPropertyName().toLowerCase();
-			VCardParameters parameters = scribe.prepareParameters(property, targetVersion, vcard);
+			VCardParameters parameters = scribe.prepareParameters(property, context);
 			VCardDataType dataType = scribe.dataType(property, targetVersion);
 
 			writer.writeProperty(group, name, parameters, dataType, value);
@@ -167,6 +171,33 @@ public class JCardWriter extends StreamWriter implements Flushable {
 		writer.writeEndVCard();
 	}
 
+	/**
+	 * Serializes each vCard to its own JSON string.
+	 */
+	@Override
+	protected Chunk serialize(List<VCard> vcards) throws IOException {
+		final List<String> json = new ArrayList<String>(vcards.size());
+		for (VCard vcard : vcards) {
+			StringWriter sw = new StringWriter();
+			JCardWriter bufferWriter = new JCardWriter(sw);
+			bufferWriter.setIndent(isIndent());
+			bufferWriter.setAddProdId(addProdId);
+			bufferWriter.setVersionStrict(versionStrict);
+			bufferWriter.setScribeIndex(index);
+			bufferWriter.write(vcard);
+			bufferWriter.closeJsonStream();
+			json.add(sw.toString());
+		}
+
+		return new Chunk() {
+			public void write() throws IOException {
+				for (String vcard : json) {
+					writer.writeVCard(vcard);
+				}
+			}
+		};
+	}
+
 	@Override
 	protected VCardVersion getTargetVersion() {
 		return targetVersion;
@@ -53,7 +53,22 @@ public class AddressScribe extends VCardPropertyScribe<Address> {
 	@Override
 	protected void _prepareParameters(Address property, VCardParameters copy, VCardVersion version, VCard vcard) {
 		handlePrefParam(property, copy, version, vcard);
+		removeLabelParam(copy, version);
+	}
+
+	@Override
+	protected void _prepareParameters(Address property, VCardParameters copy, WriteContext context) {
+		if (getClass() != AddressScribe.class) {
+			//sub-classes may have overridden the other _prepareParameters() method
+			super._prepareParameters(property, copy, context);
+			return;
+		}
+
+		handlePrefParam(property, copy, context);
+		removeLabelParam(copy, context.getVersion());
+	}
 
+	private static void removeLabelParam(VCardParameters copy, VCardVersion version) {
 		if (version == VCardVersion.V2_1 || version == VCardVersion.V3_0) {
 			//remove the LABEL parameter
 			//by the time this line of code is reached, VCardWriter will have created a LABEL property from this property's LABEL parameter
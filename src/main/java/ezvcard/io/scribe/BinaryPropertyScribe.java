@@ -1,5 +1,6 @@
 package ezvcard.io.scribe;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import ezvcard.VCard;
@@ -13,6 +14,8 @@ import ezvcard.parameter.Encoding;
 import ezvcard.parameter.MediaTypeParameter;
 import ezvcard.parameter.VCardParameters;
 import ezvcard.property.BinaryProperty;
+import ezvcard.util.Base64CharSequence;
+import ezvcard.util.BinaryData;
 import ezvcard.util.DataUri;
 import ezvcard.util.org.apache.commons.codec.binary.Base64;
 
@@ -76,7 +79,7 @@ public abstract class BinaryPropertyScribe<T extends BinaryProperty<U>, U extend
 			}
 		}
 
-		if (property.getData() != null) {
+		if (property.getBinaryData() != null) {
 			switch (version) {
 			case V2_1:
 			case V3_0:
@@ -116,7 +119,7 @@ public abstract class BinaryPropertyScribe<T extends BinaryProperty<U>, U extend
 			return;
 		}
 
-		if (property.getData() != null) {
+		if (property.getBinaryData() != null) {
 			copy.setMediaType(null);
 
 			switch (version) {
@@ -140,18 +143,70 @@ public abstract class BinaryPropertyScribe<T extends BinaryProperty<U>, U extend
 
 	@Override
 	protected String _writeText(T property, VCardVersion version) {
+		return write(property, version).toString();
+	}
+
+	@Override
+	protected CharSequence _writeTextSequence(T property, VCardVersion version) {
 		return write(property, version);
 	}
 
+	@Override
+	protected CharSequence _writeTextSequence(T property, WriteContext context) {
+		return write(property, context.getVersion());
+	}
+
 	@Override
 	protected T _parseText(String value, VCardDataType dataType, VCardVersion version, VCardParameters parameters, List<String> warnings) {
 		value = unescape(value);
 		return parse(value, dataType, parameters, version, warnings);
 	}
 
+	/**
+	 * Unmarshals a property whose base64-encoded value was decoded while it was
+	 * being read from a plain-text data stream.
+	 * @param data the decoded data (may be null if the data was sent somewhere
+	 * else)
+	 * @param mediaType the media type of the data URI the data was encoded in
+	 * (4.0 only, e.g. "image/jpeg") or null if the data was not encoded in a
+	 * data URI
+	 * @param version the version of the vCard that is being read
+	 * @param parameters the parsed parameters
+	 * @return the unmarshalled property and its warnings
+	 */
+	public final Result<T> parseBinary(byte data[], String mediaType, VCardVersion version, VCardParameters parameters) {
+		U contentType = parseBinaryContentType(mediaType, version, parameters);
+		T property = _newInstance(data, contentType);
+		property.setParameters(parameters);
+		return new Result<T>(property, new ArrayList<String>(0));
+	}
+
+	/**
+	 * Unmarshals a property whose base64-encoded value was decoded while it was
+	 * being read from a plain-text data stream.
+	 * @param data the decoded data, which may be stored outside of the Java
+	 * heap (may be null if the data was sent somewhere else)
+	 * @param mediaType the media type of the data URI the data was encoded in
+	 * (4.0 only, e.g. "image/jpeg") or null if the data was not encoded in a
+	 * data URI
+	 * @param version the version of the vCard that is being read
+	 * @param parameters the parsed parameters
+	 * @return the unmarshalled property and its warnings
+	 */
+	public final Result<T> parseBinary(BinaryData data, String mediaType, VCardVersion version, VCardParameters parameters) {
+		U contentType = parseBinaryContentType(mediaType, version, parameters);
+		T property = _newInstance(data, contentType);
+		property.setParameters(parameters);
+		return new Result<T>(property, new ArrayList<String>(0));
+	}
+
+	private U parseBinaryContentType(String mediaType, VCardVersion version, VCardParameters parameters) {
+		return (mediaType == null) ? parseContentType("", parameters, version) : _mediaTypeFromMediaTypeParameter(mediaType);
+	}
+
 	@Override
 	protected void _writeXml(T property, XCardElement parent) {
-		parent.append(VCardDataType.URI, write(property, parent.version()));
+		parent.append(VCardDataType.URI, write(property, parent.version()).toString());
 	}
 
 	@Override
@@ -180,7 +235,7 @@ public abstract class BinaryPropertyScribe<T extends BinaryProperty<U>, U extend
 			DataUri uri = new DataUri(data);
 			U mediaType = _mediaTypeFromMediaTypeParameter(uri.getContentType());
 
-			return _newInstance(uri.getData(), mediaType);
+			return _newInstance(uri.getBinaryData(), mediaType);
 		} catch (IllegalArgumentException e) {
 			//not a data URI
 			U mediaType = null;
@@ -198,7 +253,7 @@ public abstract class BinaryPropertyScribe<T extends BinaryProperty<U>, U extend
 
 	@Override
 	protected JCardValue _writeJson(T property) {
-		return JCardValue.single(write(property, VCardVersion.V4_0));
+		return JCardValue.single(write(property, VCardVersion.V4_0).toString());
 	}
 
 	@Override
@@ -256,6 +311,19 @@ public abstract class BinaryPropertyScribe<T extends BinaryProperty<U>, U extend
 
 	protected abstract T _newInstance(byte data[], U contentType);
 
+	/**
+	 * Creates a property object from binary data, which may be stored outside
+	 * of the Java heap.
+	 * @param data the binary data
+	 * @param contentType the content type
+	 * @return the property object
+	 */
+	protected T _newInstance(BinaryData data, U contentType) {
+		T property = _newInstance((byte[]) null, contentType);
+		property.setBinaryData(data, contentType);
+		return property;
+	}
+
 	private U parseContentType(String value, VCardParameters parameters, VCardVersion version) {
 		switch (version) {
 		case V2_1:
@@ -303,7 +371,7 @@ public abstract class BinaryPropertyScribe<T extends BinaryProperty<U>, U extend
 				//parse as data URI
 				DataUri uri = new DataUri(value);
 				contentType = _mediaTypeFromMediaTypeParameter(uri.getContentType());
-				return _newInstance(uri.getData(), contentType);
+				return _newInstance(uri.getBinaryData(), contentType);
 			} catch (IllegalArgumentException e) {
 				//not a data URI
 			}
@@ -313,22 +381,30 @@ public abstract class BinaryPropertyScribe<T extends BinaryProperty<U>, U extend
 		return cannotUnmarshalValue(value, version, warnings, contentType);
 	}
 
-	private String write(T property, VCardVersion version) {
+	/**
+	 * Marshals the property's value. Binary data is encoded as the characters
+	 * are read, so that the encoded value is never held in memory unless the
+	 * caller needs it as a string.
+	 * @param property the property
+	 * @param version the version of the vCard that is being generated
+	 * @return the marshalled value
+	 */
+	private CharSequence write(T property, VCardVersion version) {
 		String url = property.getUrl();
 		if (url != null) {
 			return url;
 		}
 
-		byte data[] = property.getData();
+		BinaryData data = property.getBinaryData();
 		if (data != null) {
 			switch (version) {
 			case V2_1:
 			case V3_0:
-				return new String(Base64.encodeBase64(data));
+				return new Base64CharSequence(data);
 			case V4_0:
 				U contentType = property.getContentType();
 				String mediaType = (contentType == null || contentType.getMediaType() == null) ? "application/octet-stream" : contentType.getMediaType();
-				return new DataUri(mediaType, data).toString();
+				return new DataUri(mediaType, data).toCharSequence();
 			}
 		}
 
@@ -49,6 +49,17 @@ public class EmailScribe extends StringPropertyScribe<Email> {
 		handlePrefParam(property, copy, version, vcard);
 	}
 
+	@Override
+	protected void _prepareParameters(Email property, VCardParameters copy, WriteContext context) {
+		if (getClass() != EmailScribe.class) {
+			//sub-classes may have overridden the other _prepareParameters() method
+			super._prepareParameters(property, copy, context);
+			return;
+		}
+
+		handlePrefParam(property, copy, context);
+	}
+
 	@Override
 	protected Email _parseValue(String value) {
 		return new Email(value);
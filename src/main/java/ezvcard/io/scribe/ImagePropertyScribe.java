@@ -73,7 +73,7 @@ public abstract class ImagePropertyScribe<T extends ImageProperty> extends Binar
 		try {
 			DataUri uri = new DataUri(src);
 			ImageType mediaType = _mediaTypeFromMediaTypeParameter(uri.getContentType());
-			return _newInstance(uri.getData(), mediaType);
+			return _newInstance(uri.getBinaryData(), mediaType);
 		} catch (IllegalArgumentException e) {
 			//not a data URI
 			String extension = getFileExtension(src);
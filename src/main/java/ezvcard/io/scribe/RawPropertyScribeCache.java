@@ -0,0 +1,261 @@
+package ezvcard.io.scribe;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ Copyright (c) 2012-2015, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+ The views and conclusions contained in the software and documentation are those
+ of the authors and should not be interpreted as representing official policies, 
+ either expressed or implied, of the FreeBSD Project.
+ */
+
+/**
+ * <p>
+ * Reuses {@link RawPropertyScribe} instances, so that a new scribe does not
+ * have to be created every time an extended property (such as "X-FOO") is
+ * read or written.
+ * </p>
+ * <p>
+ * Scribes are keyed by their exact property name, because the scribe's
+ * property name is assigned to the properties it parses and is used when the
+ * properties are written. The cache holds a limited number of scribes. When
+ * it is full, a scribe that has not been used since the last eviction is
+ * evicted to make room for the new one. This class is thread-safe. By
+ * default, each {@link ScribeIndex} creates its own cache the first time it
+ * needs one. A cache can be shared between indexes by passing it to
+ * {@link ScribeIndex#setRawPropertyScribeCache}.
+ * </p>
+ * <p>
+ * Hit and miss statistics are only recorded if requested in the constructor,
+ * so that threads that share a cache do not have to update the same counters
+ * on every lookup.
+ * </p>
+ * <p>
+ * <b>Example:</b>
+ * 
+ * <pre class="brush:java">
+ * RawPropertyScribeCache cache = new RawPropertyScribeCache(100, true);
+ * VCardReader reader = new VCardReader(file);
+ * reader.getScribeIndex().setRawPropertyScribeCache(cache);
+ * List&lt;VCard&gt; vcards = reader.readAll();
+ * System.out.println(cache.getHits() + " scribes were reused");
+ * </pre>
+ * 
+ * </p>
+ * @author Michael Angstadt
+ */
+public class RawPropertyScribeCache {
+	/**
+	 * The maximum number of scribes that the cache a {@link ScribeIndex}
+	 * creates for itself holds.
+	 */
+	public static final int DEFAULT_MAX_ENTRIES = 1024;
+
+	private final int maxEntries;
+	private final boolean recordStats;
+	private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+	private final AtomicInteger size = new AtomicInteger();
+	private final AtomicLong hits = new AtomicLong(), misses = new AtomicLong(), evictions = new AtomicLong();
+
+	/**
+	 * Creates a new cache that does not record statistics.
+	 * @param maxEntries the maximum number of scribes to hold
+	 * @throws IllegalArgumentException if the maximum is less than 1
+	 */
+	public RawPropertyScribeCache(int maxEntries) {
+		this(maxEntries, false);
+	}
+
+	/**
+	 * Creates a new cache.
+	 * @param maxEntries the maximum number of scribes to hold
+	 * @param recordStats true to count the hits, misses, and evictions, false
+	 * not to
+	 * @throws IllegalArgumentException if the maximum is less than 1
+	 */
+	public RawPropertyScribeCache(int maxEntries, boolean recordStats) {
+		if (maxEntries < 1) {
+			throw new IllegalArgumentException("Max entries must be greater than zero.");
+		}
+		this.maxEntries = maxEntries;
+		this.recordStats = recordStats;
+	}
+
+	/**
+	 * Gets the scribe for the given property name, creating it if it is not
+	 * in the cache.
+	 * @param propertyName the property name (e.g. "X-FOO")
+	 * @return the scribe
+	 */
+	public RawPropertyScribe get(String propertyName) {
+		Entry entry = entries.get(propertyName);
+		if (entry != null) {
+			//only write to the field if it changes, so that threads do not fight over the same cache line
+			if (!entry.used) {
+				entry.used = true;
+			}
+			if (recordStats) {
+				hits.incrementAndGet();
+			}
+			return entry.scribe;
+		}
+
+		if (recordStats) {
+			misses.incrementAndGet();
+		}
+		entry = new Entry(new RawPropertyScribe(propertyName));
+
+		while (size.get() >= maxEntries) {
+			if (!evictOne()) {
+				break;
+			}
+		}
+
+		Entry existing = entries.putIfAbsent(propertyName, entry);
+		if (existing != null) {
+			//another thread added it in the meantime
+			return existing.scribe;
+		}
+
+		size.incrementAndGet();
+		return entry.scribe;
+	}
+
+	/**
+	 * Evicts a scribe, giving each scribe that has been used since the last
+	 * eviction a second chance (the "clock" algorithm).
+	 * @return true if a scribe was evicted, false if the cache is empty
+	 */
+	private boolean evictOne() {
+		//the first pass clears the "used" flags, so the second pass is sure to find an entry
+		for (int pass = 0; pass < 2; pass++) {
+			Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+			while (it.hasNext()) {
+				Map.Entry<String, Entry> mapEntry = it.next();
+				Entry entry = mapEntry.getValue();
+				if (entry.used) {
+					entry.used = false;
+					continue;
+				}
+
+				if (entries.remove(mapEntry.getKey(), entry)) {
+					size.decrementAndGet();
+					if (recordStats) {
+						evictions.incrementAndGet();
+					}
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Gets the number of times a scribe was found in the cache.
+	 * @return the number of hits (always zero if statistics are not recorded)
+	 */
+	public long getHits() {
+		return hits.get();
+	}
+
+	/**
+	 * Gets the number of times a scribe was not found in the cache.
+	 * @return the number of misses (always zero if statistics are not
+	 * recorded)
+	 */
+	public long getMisses() {
+		return misses.get();
+	}
+
+	/**
+	 * Gets the number of scribes that were removed from the cache to make
+	 * room for new ones.
+	 * @return the number of evictions (always zero if statistics are not
+	 * recorded)
+	 */
+	public long getEvictions() {
+		return evictions.get();
+	}
+
+	/**
+	 * Determines if the cache counts its hits, misses, and evictions.
+	 * @return true if statistics are recorded, false if not
+	 */
+	public boolean isRecordingStats() {
+		return recordStats;
+	}
+
+	/**
+	 * Gets the number of scribes in the cache.
+	 * @return the number of scribes
+	 */
+	public int size() {
+		return size.get();
+	}
+
+	/**
+	 * Gets the maximum number of scribes the cache can hold.
+	 * @return the maximum number of scribes
+	 */
+	public int getMaxEntries() {
+		return maxEntries;
+	}
+
+	/**
+	 * Removes all scribes from the cache and resets the statistics.
+	 */
+	public void clear() {
+		Iterator<String> it = entries.keySet().iterator();
+		while (it.hasNext()) {
+			if (entries.remove(it.next()) != null) {
+				size.decrementAndGet();
+			}
+		}
+		hits.set(0);
+		misses.set(0);
+		evictions.set(0);
+	}
+
+	/**
+	 * A cached scribe.
+	 */
+	private static class Entry {
+		private final RawPropertyScribe scribe;
+
+		/**
+		 * Whether the scribe has been used since the last eviction.
+		 */
+		private volatile boolean used;
+
+		public Entry(RawPropertyScribe scribe) {
+			this.scribe = scribe;
+		}
+	}
+}
@@ -72,6 +72,13 @@ import ezvcard.property.Xml;
  * </pre>
  * 
  * </p>
+ * <p>
+ * The scribes are stored in an immutable snapshot. Registering or
+ * unregistering a scribe replaces the snapshot with a modified copy, so an
+ * index can be shared between threads (for example, by readers that run in a
+ * thread pool) without any locking when scribes are looked up. Looking up a
+ * scribe by property name does not create any objects.
+ * </p>
  * @author Michael Angstadt
  */
 public class ScribeIndex {
@@ -138,9 +145,33 @@ public class ScribeIndex {
 		registerStandard(new HobbyScribe());
 	}
 
-	private final Map<String, VCardPropertyScribe<? extends VCardProperty>> extendedByName = new HashMap<String, VCardPropertyScribe<? extends VCardProperty>>(0);
-	private final Map<Class<? extends VCardProperty>, VCardPropertyScribe<? extends VCardProperty>> extendedByClass = new HashMap<Class<? extends VCardProperty>, VCardPropertyScribe<? extends VCardProperty>>(0);
-	private final Map<QName, VCardPropertyScribe<? extends VCardProperty>> extendedByQName = new HashMap<QName, VCardPropertyScribe<? extends VCardProperty>>(0);
+	/**
+	 * The scribes of the standard properties.
+	 */
+	private static final Snapshot standard = new Snapshot(new HashMap<String, VCardPropertyScribe<? extends VCardProperty>>(0), new HashMap<Class<? extends VCardProperty>, VCardPropertyScribe<? extends VCardProperty>>(0), new HashMap<QName, VCardPropertyScribe<? extends VCardProperty>>(0));
+
+	private volatile Snapshot snapshot;
+	private volatile RawPropertyScribeCache rawPropertyScribeCache;
+	private volatile boolean cacheRawPropertyScribes = true;
+
+	/**
+	 * Creates an index that contains the scribes of all the standard
+	 * properties.
+	 */
+	public ScribeIndex() {
+		snapshot = standard;
+	}
+
+	/**
+	 * Copy constructor. The scribes are not copied, so this is a cheap
+	 * operation. The copy creates its own raw property scribe cache, unless
+	 * caching is disabled in the original.
+	 * @param original the index to copy
+	 */
+	public ScribeIndex(ScribeIndex original) {
+		snapshot = original.snapshot;
+		cacheRawPropertyScribes = original.cacheRawPropertyScribes;
+	}
 
 	/**
 	 * Gets a property scribe by name.
@@ -148,14 +179,7 @@ public class ScribeIndex {
 	 * @return the property scribe or null if not found
 	 */
 	public VCardPropertyScribe<? extends VCardProperty> getPropertyScribe(String propertyName) {
-		propertyName = propertyName.toUpperCase();
-
-		VCardPropertyScribe<? extends VCardProperty> marshaller = extendedByName.get(propertyName);
-		if (marshaller != null) {
-			return marshaller;
-		}
-
-		return standardByName.get(propertyName);
+		return snapshot.byName.get(propertyName);
 	}
 
 	/**
@@ -177,12 +201,7 @@ public class ScribeIndex {
 	 * @return the property scribe or null if not found
 	 */
 	public VCardPropertyScribe<? extends VCardProperty> getPropertyScribe(Class<? extends VCardProperty> clazz) {
-		VCardPropertyScribe<? extends VCardProperty> marshaller = extendedByClass.get(clazz);
-		if (marshaller != null) {
-			return marshaller;
-		}
-
-		return standardByClass.get(clazz);
+		return snapshot.byClass.get(clazz);
 	}
 
 	/**
@@ -193,7 +212,15 @@ public class ScribeIndex {
 	public VCardPropertyScribe<? extends VCardProperty> getPropertyScribe(VCardProperty property) {
 		if (property instanceof RawProperty) {
 			RawProperty raw = (RawProperty) property;
-			return new RawPropertyScribe(raw.getPropertyName());
+			String propertyName = raw.getPropertyName();
+
+			//use the registered scribe if it has the exact same name, so the case of the property name is preserved
+			VCardPropertyScribe<? extends VCardProperty> scribe = getPropertyScribe(propertyName);
+			if (scribe instanceof RawPropertyScribe && scribe.getPropertyName().equals(propertyName)) {
+				return scribe;
+			}
+
+			return getRawPropertyScribe(propertyName);
 		}
 
 		return getPropertyScribe(property.getClass());
@@ -205,41 +232,120 @@ public class ScribeIndex {
 	 * @return the property scribe or a {@link XmlScribe} if not found
 	 */
 	public VCardPropertyScribe<? extends VCardProperty> getPropertyScribe(QName qname) {
-		VCardPropertyScribe<? extends VCardProperty> marshaller = extendedByQName.get(qname);
-		if (marshaller != null) {
-			return marshaller;
-		}
-
-		marshaller = standardByQName.get(qname);
+		VCardPropertyScribe<? extends VCardProperty> marshaller = snapshot.byQName.get(qname);
 		if (marshaller != null) {
 			return marshaller;
 		}
 
 		if (VCardVersion.V4_0.getXmlNamespace().equals(qname.getNamespaceURI())) {
-			return new RawPropertyScribe(qname.getLocalPart().toUpperCase());
+			return getRawPropertyScribe(qname.getLocalPart().toUpperCase());
 		}
 
 		return getPropertyScribe(Xml.class);
 	}
 
+	/**
+	 * Gets a scribe for a property that does not have a scribe of its own
+	 * (such as an unrecognized extended property). The scribe is taken from
+	 * the index's raw property scribe cache.
+	 * @param propertyName the property name (e.g. "X-FOO")
+	 * @return the scribe
+	 * @see #setRawPropertyScribeCache
+	 */
+	public RawPropertyScribe getRawPropertyScribe(String propertyName) {
+		RawPropertyScribeCache cache = getRawPropertyScribeCache();
+		return (cache == null) ? new RawPropertyScribe(propertyName) : cache.get(propertyName);
+	}
+
+	/**
+	 * Gets the cache that {@link RawPropertyScribe} instances are taken from.
+	 * Unless another cache is assigned, the index creates its own cache the
+	 * first time one is needed.
+	 * @return the cache or null if scribes are not cached
+	 */
+	public RawPropertyScribeCache getRawPropertyScribeCache() {
+		RawPropertyScribeCache cache = rawPropertyScribeCache;
+		if (cache != null || !cacheRawPropertyScribes) {
+			return cache;
+		}
+
+		synchronized (this) {
+			if (rawPropertyScribeCache == null && cacheRawPropertyScribes) {
+				rawPropertyScribeCache = new RawPropertyScribeCache(RawPropertyScribeCache.DEFAULT_MAX_ENTRIES);
+			}
+			return rawPropertyScribeCache;
+		}
+	}
+
+	/**
+	 * Sets the cache that {@link RawPropertyScribe} instances are taken from.
+	 * This can be used to share one cache between several indexes. By
+	 * default, each index creates its own cache.
+	 * @param cache the cache or null to create a new scribe every time one is
+	 * needed
+	 */
+	public synchronized void setRawPropertyScribeCache(RawPropertyScribeCache cache) {
+		rawPropertyScribeCache = cache;
+		cacheRawPropertyScribes = (cache != null);
+	}
+
+	/**
+	 * <p>
+	 * Registers the names of extended properties that are known to appear in
+	 * the data being read or written. The properties are still parsed as
+	 * {@link RawProperty} objects, but their scribes are looked up as quickly
+	 * as the scribes of the standard properties.
+	 * </p>
+	 * <p>
+	 * Note that the names of these properties are parsed in the case they are
+	 * registered in (e.g. if "X-FOO" is registered, then a "x-foo" property is
+	 * parsed as a {@link RawProperty} named "X-FOO").
+	 * </p>
+	 * @param propertyNames the property names (e.g. "X-FOO")
+	 */
+	public synchronized void registerRawProperties(String... propertyNames) {
+		Map<String, VCardPropertyScribe<? extends VCardProperty>> extendedByName = new HashMap<String, VCardPropertyScribe<? extends VCardProperty>>(snapshot.extendedByName);
+		Map<QName, VCardPropertyScribe<? extends VCardProperty>> extendedByQName = new HashMap<QName, VCardPropertyScribe<? extends VCardProperty>>(snapshot.extendedByQName);
+
+		for (String propertyName : propertyNames) {
+			RawPropertyScribe scribe = new RawPropertyScribe(propertyName);
+			extendedByName.put(propertyName.toUpperCase(), scribe);
+			extendedByQName.put(scribe.getQName(), scribe);
+		}
+
+		snapshot = new Snapshot(extendedByName, snapshot.extendedByClass, extendedByQName);
+	}
+
 	/**
 	 * Registers a property scribe.
 	 * @param scribe the scribe to register
 	 */
-	public void register(VCardPropertyScribe<? extends VCardProperty> scribe) {
+	public synchronized void register(VCardPropertyScribe<? extends VCardProperty> scribe) {
+		Map<String, VCardPropertyScribe<? extends VCardProperty>> extendedByName = new HashMap<String, VCardPropertyScribe<? extends VCardProperty>>(snapshot.extendedByName);
+		Map<Class<? extends VCardProperty>, VCardPropertyScribe<? extends VCardProperty>> extendedByClass = new HashMap<Class<? extends VCardProperty>, VCardPropertyScribe<? extends VCardProperty>>(snapshot.extendedByClass);
+		Map<QName, VCardPropertyScribe<? extends VCardProperty>> extendedByQName = new HashMap<QName, VCardPropertyScribe<? extends VCardProperty>>(snapshot.extendedByQName);
+
 		extendedByName.put(scribe.getPropertyName().toUpperCase(), scribe);
 		extendedByClass.put(scribe.getPropertyClass(), scribe);
 		extendedByQName.put(scribe.getQName(), scribe);
+
+		snapshot = new Snapshot(extendedByName, extendedByClass, extendedByQName);
 	}
 
 	/**
 	 * Unregisters a property scribe.
 	 * @param scribe the scribe to unregister
 	 */
-	public void unregister(VCardPropertyScribe<? extends VCardProperty> scribe) {
+	public synchronized void unregister(VCardPropertyScribe<? extends VCardProperty> scribe) {
+		Map<String, VCardPropertyScribe<? extends VCardProperty>> extendedByName = new HashMap<String, VCardPropertyScribe<? extends VCardProperty>>(snapshot.extendedByName);
+		Map<Class<? extends VCardProperty>, VCardPropertyScribe<? extends VCardProperty>> extendedByClass = new HashMap<Class<? extends VCardProperty>, VCardPropertyScribe<? extends VCardProperty>>(snapshot.extendedByClass);
+		Map<QName, VCardPropertyScribe<? extends VCardProperty>> extendedByQName = new HashMap<QName, VCardPropertyScribe<? extends VCardProperty>>(snapshot.extendedByQName);
+
 		extendedByName.remove(scribe.getPropertyName().toUpperCase());
 		extendedByClass.remove(scribe.getPropertyClass());
 		extendedByQName.remove(scribe.getQName());
+
+		snapshot = new Snapshot(extendedByName, extendedByClass, extendedByQName);
 	}
 
 	private static void registerStandard(VCardPropertyScribe<? extends VCardProperty> scribe) {
@@ -247,4 +353,129 @@ public class ScribeIndex {
 		standardByClass.put(scribe.getPropertyClass(), scribe);
 		standardByQName.put(scribe.getQName(), scribe);
 	}
+
+	/**
+	 * An immutable set of scribes.
+	 */
+	private static class Snapshot {
+		/*
+		 * The scribes that were registered on top of the standard scribes.
+		 */
+		private final Map<String, VCardPropertyScribe<? extends VCardProperty>> extendedByName;
+		private final Map<Class<? extends VCardProperty>, VCardPropertyScribe<? extends VCardProperty>> extendedByClass;
+		private final Map<QName, VCardPropertyScribe<? extends VCardProperty>> extendedByQName;
+
+		/*
+		 * The standard and registered scribes combined, so that only one
+		 * lookup is needed.
+		 */
+		private final NameTable byName;
+		private final Map<Class<? extends VCardProperty>, VCardPropertyScribe<? extends VCardProperty>> byClass;
+		private final Map<QName, VCardPropertyScribe<? extends VCardProperty>> byQName;
+
+		public Snapshot(Map<String, VCardPropertyScribe<? extends VCardProperty>> extendedByName, Map<Class<? extends VCardProperty>, VCardPropertyScribe<? extends VCardProperty>> extendedByClass, Map<QName, VCardPropertyScribe<? extends VCardProperty>> extendedByQName) {
+			this.extendedByName = extendedByName;
+			this.extendedByClass = extendedByClass;
+			this.extendedByQName = extendedByQName;
+
+			Map<String, VCardPropertyScribe<? extends VCardProperty>> byName = new HashMap<String, VCardPropertyScribe<? extends VCardProperty>>(standardByName);
+			byName.putAll(extendedByName);
+			this.byName = new NameTable(byName);
+
+			byClass = new HashMap<Class<? extends VCardProperty>, VCardPropertyScribe<? extends VCardProperty>>(standardByClass);
+			byClass.putAll(extendedByClass);
+
+			byQName = new HashMap<QName, VCardPropertyScribe<? extends VCardProperty>>(standardByQName);
+			byQName.putAll(extendedByQName);
+		}
+	}
+
+	/**
+	 * An open-addressing hash table that maps upper-case property names to
+	 * scribes. Names are looked up case-insensitively without converting them
+	 * to upper case first, unless they contain non-ASCII characters.
+	 */
+	private static class NameTable {
+		private final String[] names;
+		private final VCardPropertyScribe<?>[] scribes;
+		private final int mask;
+
+		public NameTable(Map<String, VCardPropertyScribe<? extends VCardProperty>> map) {
+			//keep the table at most half full
+			int capacity = 16;
+			while (capacity < map.size() * 2) {
+				capacity *= 2;
+			}
+
+			names = new String[capacity];
+			scribes = new VCardPropertyScribe<?>[capacity];
+			mask = capacity - 1;
+
+			for (Map.Entry<String, VCardPropertyScribe<? extends VCardProperty>> entry : map.entrySet()) {
+				String name = entry.getKey();
+				int i = hash(name) & mask;
+				while (names[i] != null) {
+					i = (i + 1) & mask;
+				}
+				names[i] = name;
+				scribes[i] = entry.getValue();
+			}
+		}
+
+		public VCardPropertyScribe<? extends VCardProperty> get(String name) {
+			for (int i = 0; i < name.length(); i++) {
+				if (name.charAt(i) >= 0x80) {
+					//let the String class handle any special upper-case conversion rules
+					name = name.toUpperCase();
+					break;
+				}
+			}
+
+			int i = hash(name) & mask;
+			String key;
+			while ((key = names[i]) != null) {
+				if (equalsIgnoreAsciiCase(key, name)) {
+					return scribes[i];
+				}
+				i = (i + 1) & mask;
+			}
+			return null;
+		}
+
+		/**
+		 * Computes the hash of a name, ignoring the case of ASCII letters.
+		 * @param name the name
+		 * @return the hash
+		 */
+		private static int hash(String name) {
+			int hash = 0;
+			for (int i = 0; i < name.length(); i++) {
+				hash = 31 * hash + toUpperCase(name.charAt(i));
+			}
+			return hash ^ (hash >>> 16);
+		}
+
+		/**
+		 * Compares an upper-case name with another name, ignoring the case of
+		 * ASCII letters.
+		 * @param upperCaseName the upper-case name
+		 * @param name the other name
+		 * @return true if they are equal, false if not
+		 */
+		private static boolean equalsIgnoreAsciiCase(String upperCaseName, String name) {
+			if (upperCaseName.length() != name.length()) {
+				return false;
+			}
+			for (int i = 0; i < name.length(); i++) {
+				if (upperCaseName.charAt(i) != toUpperCase(name.charAt(i))) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		private static char toUpperCase(char c) {
+			return (c >= 'a' && c <= 'z') ? (char) (c - ('a' - 'A')) : c;
+		}
+	}
 }
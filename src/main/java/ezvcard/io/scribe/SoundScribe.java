@@ -95,7 +95,7 @@ public class SoundScribe extends BinaryPropertyScribe<Sound, SoundType> {
 		try {
 			DataUri uri = new DataUri(src);
 			mediaType = _mediaTypeFromMediaTypeParameter(uri.getContentType());
-			return new Sound(uri.getData(), mediaType);
+			return _newInstance(uri.getBinaryData(), mediaType);
 		} catch (IllegalArgumentException e) {
 			//not a data URI
 			if (mediaType == null) {
@@ -71,6 +71,17 @@ public class TelephoneScribe extends VCardPropertyScribe<Telephone> {
 		handlePrefParam(property, copy, version, vcard);
 	}
 
+	@Override
+	protected void _prepareParameters(Telephone property, VCardParameters copy, WriteContext context) {
+		if (getClass() != TelephoneScribe.class) {
+			//sub-classes may have overridden the other _prepareParameters() method
+			super._prepareParameters(property, copy, context);
+			return;
+		}
+
+		handlePrefParam(property, copy, context);
+	}
+
 	@Override
 	protected String _writeText(Telephone property, VCardVersion version) {
 		String text = property.getText();
@@ -118,16 +118,35 @@ public abstract class VCardPropertyScribe<T extends VCardProperty> {
 	/**
 	 * Sanitizes a property's parameters (called before the property is
 	 * written). Note that a copy of the parameters is returned so that the
-	 * property object does not get modified.
+	 * property object does not get modified. The copy is a copy-on-write view
+	 * of the property's parameters, so it should not be used after the
+	 * property's parameters are modified.
 	 * @param property the property
 	 * @param version the version of the vCard that is being generated
 	 * @param vcard the vCard that the property belongs to
 	 * @return the sanitized parameters
 	 */
 	public final VCardParameters prepareParameters(T property, VCardVersion version, VCard vcard) {
-		//make a copy because the property should not get modified when it is marshalled
-		VCardParameters copy = new VCardParameters(property.getParameters());
-		_prepareParameters(property, copy, version, vcard);
+		return prepareParameters(property, new WriteContext(version, vcard));
+	}
+
+	/**
+	 * Sanitizes a property's parameters (called before the property is
+	 * written). Note that a copy of the parameters is returned so that the
+	 * property object does not get modified. The copy is a copy-on-write view
+	 * of the property's parameters, so it should not be used after the
+	 * property's parameters are modified.
+	 * @param property the property
+	 * @param context information about the vCard that is being written
+	 * @return the sanitized parameters
+	 */
+	public final VCardParameters prepareParameters(T property, WriteContext context) {
+		/*
+		 * Make a copy because the property should not get modified when it is
+		 * marshalled. The parameters are only copied if they are changed.
+		 */
+		VCardParameters copy = new VCardParameters(property.getParameters(), true);
+		_prepareParameters(property, copy, context);
 		return copy;
 	}
 
@@ -174,6 +193,46 @@ public abstract class VCardPropertyScribe<T extends VCardProperty> {
 		return _writeText(property, version);
 	}
 
+	/**
+	 * Marshals a property's value to a string.
+	 * @param property the property
+	 * @param context information about the vCard that is being written
+	 * @return the marshalled value
+	 * @throws SkipMeException if the property should not be written to the data
+	 * stream
+	 */
+	public final String writeText(T property, WriteContext context) {
+		return _writeText(property, context);
+	}
+
+	/**
+	 * Marshals a property's value to a character sequence that is written to a
+	 * plain-text data stream. Unlike {@link #writeText}, the value does not
+	 * have to be built in memory all at once.
+	 * @param property the property
+	 * @param version the version of the vCard that is being generated
+	 * @return the marshalled value
+	 * @throws SkipMeException if the property should not be written to the data
+	 * stream
+	 */
+	public final CharSequence writeTextSequence(T property, VCardVersion version) {
+		return _writeTextSequence(property, version);
+	}
+
+	/**
+	 * Marshals a property's value to a character sequence that is written to a
+	 * plain-text data stream. Unlike {@link #writeText}, the value does not
+	 * have to be built in memory all at once.
+	 * @param property the property
+	 * @param context information about the vCard that is being written
+	 * @return the marshalled value
+	 * @throws SkipMeException if the property should not be written to the data
+	 * stream
+	 */
+	public final CharSequence writeTextSequence(T property, WriteContext context) {
+		return _writeTextSequence(property, context);
+	}
+
 	/**
 	 * Marshals a property's value to an XML element (xCard).
 	 * @param property the property
@@ -186,6 +245,19 @@ public abstract class VCardPropertyScribe<T extends VCardProperty> {
 		_writeXml(property, xCardElement);
 	}
 
+	/**
+	 * Marshals a property's value to an XML element (xCard).
+	 * @param property the property
+	 * @param element the property's XML element.
+	 * @param context information about the vCard that is being written
+	 * @throws SkipMeException if the property should not be written to the data
+	 * stream
+	 */
+	public final void writeXml(T property, Element element, WriteContext context) {
+		XCardElement xCardElement = new XCardElement(element);
+		_writeXml(property, xCardElement, context);
+	}
+
 	/**
 	 * Marshals a property's value to a JSON data stream (jCard).
 	 * @param property the property
@@ -197,6 +269,18 @@ public abstract class VCardPropertyScribe<T extends VCardProperty> {
 		return _writeJson(property);
 	}
 
+	/**
+	 * Marshals a property's value to a JSON data stream (jCard).
+	 * @param property the property
+	 * @param context information about the vCard that is being written
+	 * @return the marshalled value
+	 * @throws SkipMeException if the property should not be written to the data
+	 * stream
+	 */
+	public final JCardValue writeJson(T property, WriteContext context) {
+		return _writeJson(property, context);
+	}
+
 	/**
 	 * Unmarshals a property from a plain-text vCard.
 	 * @param value the value as read off the wire
@@ -293,6 +377,24 @@ public abstract class VCardPropertyScribe<T extends VCardProperty> {
 		//do nothing
 	}
 
+	/**
+	 * <p>
+	 * Tweaks the property's parameters before the property is written. This
+	 * version of the method gives the scribe access to the
+	 * {@link WriteContext}, which caches information about the vCard as a
+	 * whole. The default implementation calls
+	 * {@link #_prepareParameters(VCardProperty, VCardParameters, VCardVersion, VCard)}
+	 * .
+	 * </p>
+	 * @param property the property
+	 * @param copy the list of parameters to make modifications to (it is a copy
+	 * of the property's parameters)
+	 * @param context information about the vCard that is being written
+	 */
+	protected void _prepareParameters(T property, VCardParameters copy, WriteContext context) {
+		_prepareParameters(property, copy, context.getVersion(), context.getVCard());
+	}
+
 	/**
 	 * <p>
 	 * Determines the property's default data type.
@@ -339,6 +441,68 @@ public abstract class VCardPropertyScribe<T extends VCardProperty> {
 	 */
 	protected abstract String _writeText(T property, VCardVersion version);
 
+	/**
+	 * <p>
+	 * Marshals a property's value to a string.
+	 * </p>
+	 * <p>
+	 * This method can be overridden by child classes that want to make use of
+	 * the {@link WriteContext} (for example, to re-use its scratch buffers).
+	 * The default implementation of this method calls
+	 * {@link #_writeText(VCardProperty, VCardVersion)}.
+	 * </p>
+	 * @param property the property
+	 * @param context information about the vCard that is being written
+	 * @return the marshalled value
+	 * @throws SkipMeException if the property should not be written to the data
+	 * stream
+	 */
+	protected String _writeText(T property, WriteContext context) {
+		return _writeText(property, context.getVersion());
+	}
+
+	/**
+	 * <p>
+	 * Marshals a property's value to a character sequence that is written to a
+	 * plain-text data stream.
+	 * </p>
+	 * <p>
+	 * This method should be overridden by child classes whose values can be
+	 * very large. The characters of the returned sequence can be generated as
+	 * they are read, so the value never has to be held in memory as a string.
+	 * The default implementation of this method calls {@link #_writeText}.
+	 * </p>
+	 * @param property the property
+	 * @param version the version of the vCard that is being generated
+	 * @return the marshalled value
+	 * @throws SkipMeException if the property should not be written to the data
+	 * stream
+	 */
+	protected CharSequence _writeTextSequence(T property, VCardVersion version) {
+		return _writeText(property, version);
+	}
+
+	/**
+	 * <p>
+	 * Marshals a property's value to a character sequence that is written to a
+	 * plain-text data stream.
+	 * </p>
+	 * <p>
+	 * The default implementation of this method calls
+	 * {@link #_writeText(VCardProperty, WriteContext)}. Child classes that
+	 * override {@link #_writeTextSequence(VCardProperty, VCardVersion)} should
+	 * override this method as well.
+	 * </p>
+	 * @param property the property
+	 * @param context information about the vCard that is being written
+	 * @return the marshalled value
+	 * @throws SkipMeException if the property should not be written to the data
+	 * stream
+	 */
+	protected CharSequence _writeTextSequence(T property, WriteContext context) {
+		return _writeText(property, context);
+	}
+
 	/**
 	 * <p>
 	 * Marshals a property's value to an XML element (xCard).
@@ -363,6 +527,25 @@ public abstract class VCardPropertyScribe<T extends VCardProperty> {
 		element.append(dataType, value);
 	}
 
+	/**
+	 * <p>
+	 * Marshals a property's value to an XML element (xCard).
+	 * </p>
+	 * <p>
+	 * This method can be overridden by child classes that want to make use of
+	 * the {@link WriteContext}. The default implementation of this method
+	 * calls {@link #_writeXml(VCardProperty, XCardElement)}.
+	 * </p>
+	 * @param property the property
+	 * @param element the property's XML element
+	 * @param context information about the vCard that is being written
+	 * @throws SkipMeException if the property should not be written to the data
+	 * stream
+	 */
+	protected void _writeXml(T property, XCardElement element, WriteContext context) {
+		_writeXml(property, element);
+	}
+
 	/**
 	 * <p>
 	 * Marshals a property's value to a JSON data stream (jCard).
@@ -383,6 +566,25 @@ public abstract class VCardPropertyScribe<T extends VCardProperty> {
 		return JCardValue.single(value);
 	}
 
+	/**
+	 * <p>
+	 * Marshals a property's value to a JSON data stream (jCard).
+	 * </p>
+	 * <p>
+	 * This method can be overridden by child classes that want to make use of
+	 * the {@link WriteContext}. The default implementation of this method
+	 * calls {@link #_writeJson(VCardProperty)}.
+	 * </p>
+	 * @param property the property
+	 * @param context information about the vCard that is being written
+	 * @return the marshalled value
+	 * @throws SkipMeException if the property should not be written to the data
+	 * stream
+	 */
+	protected JCardValue _writeJson(T property, WriteContext context) {
+		return _writeJson(property);
+	}
+
 	/**
 	 * Unmarshals a property from a plain-text vCard.
 	 * @param value the value as read off the wire
@@ -667,6 +869,22 @@ public abstract class VCardPropertyScribe<T extends VCardProperty> {
 		return (sb == null) ? text : sb.toString();
 	}
 
+	/**
+	 * Escapes special characters in a text value and appends the result to a
+	 * {@link StringBuilder}.
+	 * @param text the text to escape
+	 * @param sb the string builder to append to
+	 */
+	private static void escape(String text, StringBuilder sb) {
+		for (int i = 0; i < text.length(); i++) {
+			char ch = text.charAt(i);
+			if (ch == '\\' || ch == ',' || ch == ';') {
+				sb.append('\\');
+			}
+			sb.append(ch);
+		}
+	}
+
 	/**
 	 * Creates a string splitter (takes escaped characters into account).
 	 * @param delimiter the delimiter character (e.g. ',')
@@ -904,6 +1122,46 @@ public abstract class VCardPropertyScribe<T extends VCardProperty> {
 		});
 	}
 
+	/**
+	 * Writes a "structured" property value, using the context's scratch
+	 * {@link StringBuilder} to build the value. This produces the same output
+	 * as {@link #structured(Object...)}.
+	 * @param context the context of the vCard that is being written
+	 * @param values the values to write
+	 * @return the structured value string
+	 */
+	protected static String structured(WriteContext context, Object... values) {
+		StringBuilder sb = context.getStringBuilder();
+		for (int i = 0; i < values.length; i++) {
+			if (i > 0) {
+				sb.append(';');
+			}
+
+			Object value = values[i];
+			if (value == null) {
+				continue;
+			}
+
+			if (value instanceof Collection) {
+				boolean first = true;
+				for (Object item : (Collection<?>) value) {
+					if (!first) {
+						sb.append(',');
+					}
+					first = false;
+
+					if (item != null) {
+						escape(item.toString(), sb);
+					}
+				}
+				continue;
+			}
+
+			escape(value.toString(), sb);
+		}
+		return sb.toString();
+	}
+
 	/**
 	 * Iterates over the items in a "structured" property value.
 	 */
@@ -1115,25 +1373,27 @@ public abstract class VCardPropertyScribe<T extends VCardProperty> {
 	 * @param vcard the vCard that's being marshalled
 	 */
 	protected static void handlePrefParam(VCardProperty property, VCardParameters copy, VCardVersion version, VCard vcard) {
-		switch (version) {
+		handlePrefParam(property, copy, new WriteContext(version, vcard));
+	}
+
+	/**
+	 * A utility method for switching between the "PREF" and "TYPE=PREF"
+	 * parameters when marshalling a property (version 4.0 vCards use "PREF=1",
+	 * while version 3.0 vCards use "TYPE=PREF"). This method is meant to be
+	 * called from a scribe's {@link #_prepareParameters} method. The most
+	 * preferred property of each class is only looked up once per vCard.
+	 * @param property the property that is being marshalled
+	 * @param copy the parameters that are being marshalled
+	 * @param context information about the vCard that is being written
+	 */
+	protected static void handlePrefParam(VCardProperty property, VCardParameters copy, WriteContext context) {
+		switch (context.getVersion()) {
 		case V2_1:
 		case V3_0:
 			copy.setPref(null);
 
 			//find the property with the lowest PREF value in the vCard
-			VCardProperty mostPreferred = null;
-			for (VCardProperty p : vcard.getProperties(property.getClass())) {
-				Integer pref = p.getParameters().getPref();
-				if (pref == null) {
-					continue;
-				}
-
-				if (mostPreferred == null || pref < mostPreferred.getParameters().getPref()) {
-					mostPreferred = p;
-				}
-			}
-
-			if (property == mostPreferred) {
+			if (property == context.getMostPreferred(property.getClass())) {
 				copy.addType("pref");
 			}
 
@@ -0,0 +1,214 @@
+package ezvcard.io.scribe;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import ezvcard.VCard;
+import ezvcard.VCardVersion;
+import ezvcard.property.VCardProperty;
+
+/*
+ Copyright (c) 2012-2015, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+ The views and conclusions contained in the software and documentation are those
+ of the authors and should not be interpreted as representing official policies, 
+ either expressed or implied, of the FreeBSD Project.
+ */
+
+/**
+ * <p>
+ * Holds information about the vCard that is currently being written. One
+ * context object is created for each vCard that is written, and it is passed
+ * to the scribe of every property in the vCard. Information about the vCard as
+ * a whole (such as which property of a given class is the most preferred one)
+ * is computed the first time it is needed and then re-used for the rest of
+ * the vCard's properties.
+ * </p>
+ * <p>
+ * Scribes can store their own per-vCard information in the context using
+ * {@link Memo} objects. The context also contains scratch buffers that
+ * scribes can use to build their values without allocating new buffers for
+ * every property.
+ * </p>
+ * <p>
+ * Because the information is cached, the vCard should not be modified while
+ * it is being written. Context objects are not thread-safe.
+ * </p>
+ * <p>
+ * <b>Example:</b>
+ * 
+ * <pre class="brush:java">
+ * public class MemberScribe extends VCardPropertyScribe&lt;Member&gt; {
+ *   private static final WriteContext.Memo&lt;Integer&gt; memberCount = new WriteContext.Memo&lt;Integer&gt;() {
+ *     protected Integer compute(WriteContext context) {
+ *       return context.getVCard().getMembers().size();
+ *     }
+ *   };
+ * 
+ *   protected String _writeText(Member property, WriteContext context) {
+ *     int count = context.get(memberCount); //only computed once per vCard
+ *     ...
+ *   }
+ * }
+ * </pre>
+ * 
+ * </p>
+ * @author Michael Angstadt
+ */
+public class WriteContext {
+	private final VCardVersion version;
+	private final VCard vcard;
+	private final Map<Class<? extends VCardProperty>, VCardProperty> mostPreferred = new HashMap<Class<? extends VCardProperty>, VCardProperty>();
+	private Map<Memo<?>, Object> memos;
+	private StringBuilder stringBuilder;
+	private List<Object> list;
+
+	/**
+	 * @param version the version of the vCard that is being generated
+	 * @param vcard the vCard that is being written
+	 */
+	public WriteContext(VCardVersion version, VCard vcard) {
+		this.version = version;
+		this.vcard = vcard;
+	}
+
+	/**
+	 * Gets the version of the vCard that is being generated.
+	 * @return the version
+	 */
+	public VCardVersion getVersion() {
+		return version;
+	}
+
+	/**
+	 * Gets the vCard that is being written.
+	 * @return the vCard
+	 */
+	public VCard getVCard() {
+		return vcard;
+	}
+
+	/**
+	 * Gets the property of the given class that has the lowest PREF parameter
+	 * value. If more than one property has the lowest value, the first one is
+	 * returned.
+	 * @param clazz the property class
+	 * @return the most preferred property or null if none of the properties
+	 * have a PREF parameter
+	 */
+	public VCardProperty getMostPreferred(Class<? extends VCardProperty> clazz) {
+		VCardProperty property = mostPreferred.get(clazz);
+		if (property == null && !mostPreferred.containsKey(clazz)) {
+			property = findMostPreferred(clazz);
+			mostPreferred.put(clazz, property);
+		}
+		return property;
+	}
+
+	private VCardProperty findMostPreferred(Class<? extends VCardProperty> clazz) {
+		VCardProperty mostPreferred = null;
+		Integer mostPreferredPref = null;
+		for (VCardProperty property : vcard.getProperties(clazz)) {
+			Integer pref = property.getParameters().getPref();
+			if (pref == null) {
+				continue;
+			}
+
+			if (mostPreferredPref == null || pref < mostPreferredPref) {
+				mostPreferred = property;
+				mostPreferredPref = pref;
+			}
+		}
+		return mostPreferred;
+	}
+
+	/**
+	 * Gets a piece of information about the vCard, computing it if this is the
+	 * first time it has been requested.
+	 * @param memo the object that computes the information
+	 * @return the information
+	 */
+	@SuppressWarnings("unchecked")
+	public <V> V get(Memo<V> memo) {
+		if (memos == null) {
+			memos = new HashMap<Memo<?>, Object>();
+		}
+
+		V value = (V) memos.get(memo);
+		if (value == null && !memos.containsKey(memo)) {
+			value = memo.compute(this);
+			memos.put(memo, value);
+		}
+		return value;
+	}
+
+	/**
+	 * Gets an empty {@link StringBuilder} that can be used to build a
+	 * property value. The same object is returned every time this method is
+	 * called, so its contents must be converted to a string before this
+	 * method is called again.
+	 * @return the string builder
+	 */
+	public StringBuilder getStringBuilder() {
+		if (stringBuilder == null) {
+			stringBuilder = new StringBuilder();
+		} else {
+			stringBuilder.setLength(0);
+		}
+		return stringBuilder;
+	}
+
+	/**
+	 * Gets an empty list that can be used while building a property value. The
+	 * same object is returned every time this method is called, so it must
+	 * not be used after this method is called again.
+	 * @return the list
+	 */
+	@SuppressWarnings("unchecked")
+	public <E> List<E> getList() {
+		if (list == null) {
+			list = new ArrayList<Object>();
+		} else {
+			list.clear();
+		}
+		return (List<E>) list;
+	}
+
+	/**
+	 * Computes a piece of information about a vCard. Memo objects are used as
+	 * keys to cache the information in the {@link WriteContext}, so each one
+	 * should be created only once (for example, as a static field).
+	 * @param <V> the type of information
+	 */
+	public static abstract class Memo<V> {
+		/**
+		 * Computes the information.
+		 * @param context the context of the vCard that is being written
+		 * @return the information
+		 */
+		protected abstract V compute(WriteContext context);
+	}
+}
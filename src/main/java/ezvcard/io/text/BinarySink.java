@@ -0,0 +1,97 @@
+package ezvcard.io.text;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import ezvcard.parameter.VCardParameters;
+import ezvcard.util.BinaryData;
+import ezvcard.util.BinaryStorage;
+
+/*
+ Copyright (c) 2012-2015, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+ The views and conclusions contained in the software and documentation are those
+ of the authors and should not be interpreted as representing official policies, 
+ either expressed or implied, of the FreeBSD Project.
+ */
+
+/**
+ * <p>
+ * Determines where the binary data of base64-encoded properties (such as
+ * PHOTO and KEY) is written to as it is decoded by a {@link VCardReader}.
+ * </p>
+ * <p>
+ * By default, the decoded data is collected in a growable byte array, copied
+ * to the reader's {@link BinaryStorage}, and assigned to the property. A sink
+ * allows the data to be sent somewhere else instead, such as a temporary file
+ * or a stream supplied by the caller.
+ * </p>
+ * <p>
+ * <b>Example:</b>
+ * </p>
+ * 
+ * <pre class="brush:java">
+ * //save all photos to temporary files
+ * final List&lt;File&gt; files = new ArrayList&lt;File&gt;();
+ * VCardReader reader = new VCardReader(file);
+ * reader.setBinarySink(new BinarySink() {
+ *   public OutputStream open(String propertyName, VCardParameters parameters) throws IOException {
+ *     if (!"PHOTO".equalsIgnoreCase(propertyName)) {
+ *       return null; //decode everything else into memory as usual
+ *     }
+ *     File file = File.createTempFile("photo", ".bin");
+ *     files.add(file);
+ *     return new BufferedOutputStream(new FileOutputStream(file));
+ *   }
+ * 
+ *   public BinaryData close(OutputStream out) throws IOException {
+ *     out.close();
+ *     return null; //leave the property's data empty
+ *   }
+ * });
+ * </pre>
+ * @author Michael Angstadt
+ * @see VCardReader#setBinarySink(BinarySink)
+ */
+public interface BinarySink {
+	/**
+	 * Called when the base64-encoded value of a property begins.
+	 * @param propertyName the property name (e.g. "PHOTO")
+	 * @param parameters the property's parameters
+	 * @return the stream to write the decoded data to or null to collect the
+	 * data in memory
+	 * @throws IOException if the stream can't be opened
+	 */
+	OutputStream open(String propertyName, VCardParameters parameters) throws IOException;
+
+	/**
+	 * Called when the entire value has been decoded and written to the
+	 * stream.
+	 * @param out the stream that was returned by {@link #open}
+	 * @return the data to assign to the property or null to leave the
+	 * property's data empty
+	 * @throws IOException if there's a problem closing the stream
+	 */
+	BinaryData close(OutputStream out) throws IOException;
+}
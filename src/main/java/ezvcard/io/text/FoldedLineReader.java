@@ -1,14 +1,13 @@
 package ezvcard.io.text;
 
-import static ezvcard.util.StringUtils.ltrim;
-
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.io.StringReader;
 import java.nio.charset.Charset;
-import java.util.regex.Pattern;
+
+import ezvcard.util.MappedFileReader;
 
 /*
  Copyright (c) 2012-2015, Michael Angstadt
@@ -40,35 +39,69 @@ import java.util.regex.Pattern;
  */
 
 /**
+ * <p>
  * Reads lines of text from a reader, transparently unfolding lines that are
  * folded.
+ * </p>
+ * <p>
+ * Unfolding is done in a single pass over the input. Each unfolded line is
+ * built inside of a buffer that is re-used for every line, so no objects are
+ * created unless {@link #readLine()} is called (see
+ * {@link #readLineToBuffer()}).
+ * </p>
+ * <p>
+ * A {@link ValueListener} can be registered to receive a line's property value
+ * as it is read, instead of having the value copied into the line buffer. This
+ * allows very long values (such as base64-encoded photos) to be processed
+ * without the entire value ever being held in memory.
+ * </p>
  * @author Michael Angstadt
  */
 public class FoldedLineReader extends BufferedReader {
 	/**
-	 * Regular expression used to detect the first line of folded,
-	 * "quoted-printable" property values.
+	 * The text that must appear to the left of the colon in order for the line
+	 * to be considered "quoted-printable" (see {@link #readLineToBuffer()}).
+	 */
+	private static final char[] QUOTED_PRINTABLE = "QUOTED-PRINTABLE".toCharArray();
+
+	/**
+	 * Flag that is set when a line is a quoted-printable line whose value is
+	 * continued on the next line (see {@link #readFirstLine()}).
 	 */
-	private final Pattern foldedQuotedPrintableValueRegex = Pattern.compile("[^:]*?QUOTED-PRINTABLE.*?:.*?=", Pattern.CASE_INSENSITIVE);
+	private static final int FOLDED_QUOTED_PRINTABLE = 1;
+
+	/**
+	 * Flag that is set when a line was rejected by the property name filter
+	 * (see {@link #readFirstLine()}).
+	 */
+	private static final int SKIPPED = 2;
+
+	private Reader reader;
+	private CharSequence text;
+	private int textPos;
+
+	private final char[] in = new char[8192];
+	private int inPos = 0, inLength = 0;
+	private boolean eof = false;
+
+	private char[] buffer = new char[256];
+	private int length;
 
-	private String lastLine;
 	private int lastLineNum = 0, lineCount = 0;
-	private final Charset charset;
+	private long charsRead = 0;
+	private Charset charset;
+	private PropertyNameFilter filter;
+	private ValueListener valueListener;
+	private boolean streaming, valueStreamed;
 
 	/**
 	 * Creates a folded line reader.
 	 * @param reader the reader object to wrap
 	 */
 	public FoldedLineReader(Reader reader) {
-		super(reader);
-
-		if (reader instanceof InputStreamReader) {
-			InputStreamReader isr = (InputStreamReader) reader;
-			String charsetStr = isr.getEncoding();
-			charset = (charsetStr == null) ? null : Charset.forName(charsetStr);
-		} else {
-			charset = null;
-		}
+		//the input is buffered by this class, so BufferedReader's buffer is not used
+		super(reader, 1);
+		setInput(reader);
 	}
 
 	/**
@@ -79,6 +112,60 @@ public class FoldedLineReader extends BufferedReader {
 		this(new StringReader(text));
 	}
 
+	/**
+	 * Resets this reader so that it reads from a different data stream. The
+	 * buffers that this reader has allocated are kept, but all other state
+	 * (such as the line count) is discarded. The filter and value listener are
+	 * kept. The previous reader is not closed.
+	 * @param reader the reader object to wrap
+	 */
+	public void setInput(Reader reader) {
+		this.reader = reader;
+		text = null;
+		charset = getEncoding(reader);
+		resetState();
+	}
+
+	/**
+	 * Resets this reader so that it reads from a different data stream. The
+	 * characters are copied directly out of the given text, so no
+	 * {@link Reader} object is created. The buffers that this reader has
+	 * allocated are kept, but all other state (such as the line count) is
+	 * discarded. The filter and value listener are kept. The previous reader
+	 * is not closed.
+	 * @param text the text to read
+	 */
+	public void setInput(CharSequence text) {
+		reader = null;
+		this.text = text;
+		textPos = 0;
+		charset = null;
+		resetState();
+	}
+
+	private void resetState() {
+		inPos = inLength = 0;
+		eof = false;
+		length = 0;
+		lastLineNum = lineCount = 0;
+		charsRead = 0;
+		streaming = valueStreamed = false;
+	}
+
+	private static Charset getEncoding(Reader reader) {
+		if (reader instanceof InputStreamReader) {
+			InputStreamReader isr = (InputStreamReader) reader;
+			String charsetStr = isr.getEncoding();
+			return (charsetStr == null) ? null : Charset.forName(charsetStr);
+		}
+
+		if (reader instanceof MappedFileReader) {
+			return ((MappedFileReader) reader).getCharset();
+		}
+
+		return null;
+	}
+
 	/**
 	 * Gets the starting line number of the last unfolded line that was read.
 	 * @return the line number
@@ -87,6 +174,35 @@ public class FoldedLineReader extends BufferedReader {
 		return lastLineNum;
 	}
 
+	/**
+	 * Gets the number of lines that have been fully consumed from the input,
+	 * including empty lines and folded lines.
+	 * @return the number of lines
+	 */
+	int getLineCount() {
+		return lineCount;
+	}
+
+	/**
+	 * Sets the number of lines that have already been consumed. This is used
+	 * when the input is a fragment of a larger data stream, so that line
+	 * numbers are reported relative to the larger data stream.
+	 * @param lineCount the number of lines
+	 */
+	void setLineCount(int lineCount) {
+		this.lineCount = lineCount;
+	}
+
+	/**
+	 * Gets the number of characters that have been consumed from the input.
+	 * Characters that have been read from the underlying reader, but that have
+	 * not been processed yet, are not counted.
+	 * @return the number of characters
+	 */
+	long getCharsConsumed() {
+		return charsRead - (inLength - inPos);
+	}
+
 	/**
 	 * Gets the character encoding of the reader.
 	 * @return the character encoding or null if none is defined
@@ -95,31 +211,61 @@ public class FoldedLineReader extends BufferedReader {
 		return charset;
 	}
 
+	/**
+	 * Gets the filter that determines which lines are skipped over.
+	 * @return the filter or null if no lines are skipped
+	 */
+	public PropertyNameFilter getPropertyNameFilter() {
+		return filter;
+	}
+
 	/**
 	 * <p>
-	 * Reads the next non-empty line.
+	 * Sets a filter that determines which lines are skipped over.
 	 * </p>
 	 * <p>
-	 * Empty lines must be ignored because some vCards (such as vCards created
-	 * by iPhones) contain empty lines. These empty lines appear in between
-	 * folded lines, which, if not ignored, will cause the parser to incorrectly
-	 * parse the vCard.
+	 * The filter is applied as soon as the property name of the line has been
+	 * read. If the filter rejects the name, the rest of the line (including
+	 * any folded lines) is skipped over without being copied into the line
+	 * buffer. If the property name cannot be determined without fully parsing
+	 * the line (for example, if it contains escape characters), then the line
+	 * is not skipped.
 	 * </p>
-	 * @return the next non-empty line or null of EOF
-	 * @throws IOException if there's a problem reading from the reader
+	 * @param filter the filter or null to not skip any lines
 	 */
-	private String readNonEmptyLine() throws IOException {
-		while (true) {
-			String line = super.readLine();
-			if (line == null) {
-				return null;
-			}
+	public void setPropertyNameFilter(PropertyNameFilter filter) {
+		this.filter = filter;
+	}
 
-			lineCount++;
-			if (line.length() > 0) {
-				return line;
-			}
-		}
+	/**
+	 * Gets the listener that is given the chance to receive each line's
+	 * property value as it is read.
+	 * @return the listener or null if not set
+	 */
+	public ValueListener getValueListener() {
+		return valueListener;
+	}
+
+	/**
+	 * Sets a listener that is given the chance to receive each line's property
+	 * value as it is read, instead of having the value copied into the line
+	 * buffer.
+	 * @param listener the listener or null to copy all values into the line
+	 * buffer
+	 */
+	public void setValueListener(ValueListener listener) {
+		this.valueListener = listener;
+	}
+
+	/**
+	 * Determines if the property value of the last line that was read was
+	 * passed to the {@link ValueListener} instead of being copied into the line
+	 * buffer. If so, the line buffer only contains the part of the line that
+	 * comes before the value (including the colon).
+	 * @return true if the value was passed to the listener, false if not
+	 */
+	public boolean isValueStreamed() {
+		return valueStreamed;
 	}
 
 	/**
@@ -130,13 +276,89 @@ public class FoldedLineReader extends BufferedReader {
 	 */
 	@Override
 	public String readLine() throws IOException {
-		String wholeLine = (lastLine == null) ? readNonEmptyLine() : lastLine;
-		lastLine = null;
-		if (wholeLine == null) {
-			//end of stream
-			return null;
+		int length = readLineToBuffer();
+		return (length < 0) ? null : new String(buffer, 0, length);
+	}
+
+	/**
+	 * Gets the buffer that holds the last unfolded line that was read by
+	 * {@link #readLineToBuffer()}. The line starts at index zero. The contents
+	 * of this buffer are overwritten each time a line is read.
+	 * @return the buffer
+	 */
+	public char[] getLineBuffer() {
+		return buffer;
+	}
+
+	/**
+	 * <p>
+	 * Reads the next unfolded line into the line buffer (see
+	 * {@link #getLineBuffer}).
+	 * </p>
+	 * <p>
+	 * Empty lines are ignored because some vCards (such as vCards created by
+	 * iPhones) contain empty lines. These empty lines appear in between folded
+	 * lines, which, if not ignored, will cause the parser to incorrectly parse
+	 * the vCard.
+	 * </p>
+	 * @return the length of the line or -1 if the end of the stream has been
+	 * reached
+	 * @throws IOException if there's a problem reading from the reader
+	 */
+	public int readLineToBuffer() throws IOException {
+		while (true) {
+			length = 0;
+			valueStreamed = false;
+
+			//skip empty lines and read the first line
+			int firstLine;
+			while (true) {
+				int ch = peekChar();
+				if (ch < 0) {
+					//end of stream
+					return -1;
+				}
+
+				if (ch == '\r' || ch == '\n') {
+					nextChar();
+					lineCount++;
+					continue;
+				}
+
+				firstLine = readFirstLine();
+				lineCount++;
+				break;
+			}
+
+			boolean skip = (firstLine & SKIPPED) != 0;
+			if (!skip) {
+				lastLineNum = lineCount;
+			}
+
+			if ((firstLine & FOLDED_QUOTED_PRINTABLE) != 0) {
+				readQuotedPrintableFoldedLines(!skip);
+			} else {
+				readFoldedLines(!skip);
+			}
+
+			if (streaming) {
+				streaming = false;
+				valueListener.valueEnded();
+			}
+
+			if (!skip) {
+				return length;
+			}
 		}
+	}
 
+	/**
+	 * Reads the folded lines of a quoted-printable line.
+	 * @param copy true to copy the lines into the line buffer, false to skip
+	 * over them
+	 * @throws IOException if there's a problem reading from the reader
+	 */
+	private void readQuotedPrintableFoldedLines(boolean copy) throws IOException {
 		//@formatter:off
 		/*
 		 * Lines that are QUOTED-PRINTABLE are folded in a strange way. A "=" is
@@ -163,62 +385,481 @@ public class FoldedLineReader extends BufferedReader {
 		 */
 		//@formatter:on
 
-		boolean foldedQuotedPrintableLine = foldedQuotedPrintableValueRegex.matcher(wholeLine).matches();
-		if (foldedQuotedPrintableLine) {
-			//chop off the trailing "="
-			wholeLine = chop(wholeLine);
+		while (true) {
+			if (copy) {
+				//chop off the trailing "="
+				length--;
+			}
+
+			if (peekChar() < 0) {
+				//end of stream
+				break;
+			}
+
+			//remove any folding whitespace
+			skipFoldingWhitespace();
+
+			boolean endsInEquals = readRestOfLine(copy);
+			lineCount++;
+
+			if (!endsInEquals) {
+				//end of the folded line
+				break;
+			}
+
+			//there are more folded lines
 		}
+	}
 
-		lastLineNum = lineCount;
-		StringBuilder unfoldedLine = new StringBuilder(wholeLine);
+	/**
+	 * Reads the folded lines of a line.
+	 * @param copy true to copy the lines into the line buffer, false to skip
+	 * over them
+	 * @throws IOException if there's a problem reading from the reader
+	 */
+	private void readFoldedLines(boolean copy) throws IOException {
 		while (true) {
-			String line = foldedQuotedPrintableLine ? super.readLine() : readNonEmptyLine();
-			if (line == null) {
+			int ch = peekChar();
+			if (ch < 0) {
 				//end of stream
 				break;
 			}
 
-			if (foldedQuotedPrintableLine) {
-				//remove any folding whitespace
-				line = ltrim(line);
+			if (ch == '\r' || ch == '\n') {
+				//skip empty lines
+				nextChar();
+				lineCount++;
+				continue;
+			}
+
+			if (!Character.isWhitespace(ch)) {
+				//the next line is not folded
+				break;
+			}
+
+			//the line is folded
+			skipFoldingWhitespace();
+			readRestOfLine(copy);
+			lineCount++;
+		}
+	}
+
+	/**
+	 * <p>
+	 * Reads the first line of an unfolded line into the line buffer. While the
+	 * line is being read, it is checked to see if it is a quoted-printable line
+	 * whose value is continued on the next line. This is the case if the text
+	 * "QUOTED-PRINTABLE" (case-insensitive) appears to the left of the first
+	 * colon and the line ends with a "=" that comes after the colon.
+	 * </p>
+	 * <p>
+	 * If a filter is set, the property name is checked as soon as it is read.
+	 * If the filter rejects it, the rest of the line is not copied into the
+	 * line buffer.
+	 * </p>
+	 * @return a combination of the {@link #FOLDED_QUOTED_PRINTABLE} and
+	 * {@link #SKIPPED} flags
+	 * @throws IOException if there's a problem reading from the reader
+	 */
+	private int readFirstLine() throws IOException {
+		int matched = 0; //number of characters matched against "QUOTED-PRINTABLE"
+		boolean quotedPrintable = false;
+
+		boolean nameRead = (filter == null); //has the property name been checked against the filter?
+		int nameStart = 0;
+		boolean groupRead = false;
+		boolean copy = true;
+
+		while (true) {
+			int ch = nextChar();
+			if (ch < 0 || ch == '\n') {
+				return copy ? 0 : SKIPPED;
+			}
+
+			if (copy) {
+				append((char) ch);
+			}
 
-				boolean endsInEquals = line.endsWith("=");
-				if (endsInEquals) {
-					//chop off the trailing "="
-					line = chop(line);
+			if (!nameRead) {
+				switch (ch) {
+				case '.':
+					if (!groupRead) {
+						//the group name comes before the property name
+						groupRead = true;
+						nameStart = length;
+					}
+					break;
+				case ';':
+				case ':':
+					nameRead = true;
+					copy = filter.accept(buffer, nameStart, length - 1);
+					break;
+				case '\\':
+				case '^':
+				case '"':
+					//the line must be fully parsed to determine the property name, so do not skip it
+					nameRead = true;
+					break;
 				}
+			}
 
-				unfoldedLine.append(line);
+			if (ch == ':') {
+				if (copy && !quotedPrintable && valueListener != null && valueListener.valueStarted(buffer, length)) {
+					//the listener will receive the value instead of the line buffer
+					streaming = valueStreamed = true;
+				}
 
-				if (endsInEquals) {
-					//there are more folded lines
-					continue;
+				//"QUOTED-PRINTABLE" must appear to the left of the first colon, so the rest of the line can be copied as-is
+				boolean endsInEquals = readRestOfLine(copy);
+				int flags = copy ? 0 : SKIPPED;
+				if (quotedPrintable && endsInEquals) {
+					flags |= FOLDED_QUOTED_PRINTABLE;
 				}
+				return flags;
+			}
 
-				//end of the folded line
+			if (quotedPrintable) {
+				continue;
+			}
+
+			if (ch >= 'a' && ch <= 'z') {
+				ch -= 'a' - 'A';
+			}
+			if (ch == QUOTED_PRINTABLE[matched]) {
+				matched++;
+				if (matched == QUOTED_PRINTABLE.length) {
+					quotedPrintable = true;
+				}
+			} else {
+				//"Q" does not appear anywhere else in the search string, so matching can start over
+				matched = (ch == QUOTED_PRINTABLE[0]) ? 1 : 0;
+			}
+		}
+	}
+
+	/**
+	 * Reads the rest of the current line.
+	 * @param copy true to copy the line into the line buffer, false to skip
+	 * over it
+	 * @return true if the last character of the line is "=", false if not
+	 * (also false if there are no characters left on the line)
+	 * @throws IOException if there's a problem reading from the reader
+	 */
+	private boolean readRestOfLine(boolean copy) throws IOException {
+		boolean endsInEquals = false;
+		while (true) {
+			if (inPos >= inLength && !fill()) {
+				return endsInEquals;
+			}
+
+			//copy characters in bulk until a newline is found
+			int start = inPos;
+			while (inPos < inLength) {
+				char ch = in[inPos];
+				if (ch == '\r' || ch == '\n') {
+					break;
+				}
+				inPos++;
+			}
+			if (inPos > start) {
+				endsInEquals = (in[inPos - 1] == '=');
+				if (streaming) {
+					valueListener.valueRead(in, start, inPos - start);
+				} else if (copy) {
+					append(in, start, inPos - start);
+				}
+			}
+
+			if (inPos < inLength) {
+				//consume the newline
+				nextChar();
+				return endsInEquals;
+			}
+		}
+	}
+
+	/**
+	 * Reads a single character, without unfolding it. Reading continues from
+	 * where the last call to {@link #readLine()} left off.
+	 * @return the character or -1 if the end of the stream has been reached
+	 * @throws IOException if there's a problem reading from the reader
+	 */
+	@Override
+	public int read() throws IOException {
+		if (inPos >= inLength && !fill()) {
+			return -1;
+		}
+		return in[inPos++];
+	}
+
+	/**
+	 * Reads characters into an array, without unfolding them. Reading
+	 * continues from where the last call to {@link #readLine()} left off.
+	 * @param cbuf the destination buffer
+	 * @param off the offset at which to start storing characters
+	 * @param len the maximum number of characters to read
+	 * @return the number of characters read or -1 if the end of the stream
+	 * has been reached
+	 * @throws IOException if there's a problem reading from the reader
+	 */
+	@Override
+	public int read(char[] cbuf, int off, int len) throws IOException {
+		if (off < 0 || len < 0 || off + len > cbuf.length) {
+			throw new IndexOutOfBoundsException();
+		}
+		if (len == 0) {
+			return 0;
+		}
+		if (inPos >= inLength && !fill()) {
+			return -1;
+		}
+
+		int count = Math.min(len, inLength - inPos);
+		System.arraycopy(in, inPos, cbuf, off, count);
+		inPos += count;
+		return count;
+	}
+
+	/**
+	 * Skips over characters, without unfolding them.
+	 * @param n the number of characters to skip
+	 * @return the number of characters that were skipped
+	 * @throws IOException if there's a problem reading from the reader
+	 */
+	@Override
+	public long skip(long n) throws IOException {
+		if (n < 0) {
+			throw new IllegalArgumentException("Skip value cannot be negative.");
+		}
+
+		long skipped = 0;
+		while (skipped < n) {
+			if (inPos >= inLength && !fill()) {
 				break;
 			}
+			int count = (int) Math.min(n - skipped, inLength - inPos);
+			inPos += count;
+			skipped += count;
+		}
+		return skipped;
+	}
 
-			if (line.length() > 0 && Character.isWhitespace(line.charAt(0))) {
-				//the line is folded
-				line = ltrim(line);
-				unfoldedLine.append(line);
-				continue;
+	/**
+	 * Determines if there are characters that can be read without blocking.
+	 * @return true if there are characters ready to be read, false if not
+	 * @throws IOException if there's a problem reading from the reader
+	 */
+	@Override
+	public boolean ready() throws IOException {
+		if (inPos < inLength) {
+			return true;
+		}
+		if (eof) {
+			return false;
+		}
+		return (text == null) ? reader.ready() : textPos < text.length();
+	}
+
+	/**
+	 * Marking is not supported by this reader.
+	 * @return false
+	 */
+	@Override
+	public boolean markSupported() {
+		return false;
+	}
+
+	/**
+	 * Marking is not supported by this reader.
+	 * @param readAheadLimit ignored
+	 * @throws IOException always
+	 */
+	@Override
+	public void mark(int readAheadLimit) throws IOException {
+		throw new IOException("mark() not supported.");
+	}
+
+	/**
+	 * Marking is not supported by this reader. To read from a different data
+	 * stream, use {@link #setInput(Reader)}.
+	 * @throws IOException always
+	 */
+	@Override
+	public void reset() throws IOException {
+		throw new IOException("reset() not supported.");
+	}
+
+	/**
+	 * Skips over the whitespace at the beginning of a folded line.
+	 * @throws IOException if there's a problem reading from the reader
+	 */
+	private void skipFoldingWhitespace() throws IOException {
+		while (true) {
+			int ch = peekChar();
+			if (ch < 0 || ch == '\r' || ch == '\n' || !Character.isWhitespace(ch)) {
+				return;
+			}
+			inPos++;
+		}
+	}
+
+	/**
+	 * Reads the next character from the input. All newline sequences are
+	 * returned as a single "\n" character.
+	 * @return the character or -1 if the end of the stream has been reached
+	 * @throws IOException if there's a problem reading from the reader
+	 */
+	private int nextChar() throws IOException {
+		if (inPos >= inLength && !fill()) {
+			return -1;
+		}
+
+		char ch = in[inPos++];
+		if (ch == '\r') {
+			//treat "\r\n" as a single newline
+			if (peekChar() == '\n') {
+				inPos++;
+			}
+			return '\n';
+		}
+		return ch;
+	}
+
+	/**
+	 * Gets the next character from the input without consuming it.
+	 * @return the character or -1 if the end of the stream has been reached
+	 * @throws IOException if there's a problem reading from the reader
+	 */
+	private int peekChar() throws IOException {
+		if (inPos >= inLength && !fill()) {
+			return -1;
+		}
+		return in[inPos];
+	}
+
+	/**
+	 * Refills the input buffer.
+	 * @return true if more characters were read, false if the end of the
+	 * stream has been reached
+	 * @throws IOException if there's a problem reading from the reader
+	 */
+	private boolean fill() throws IOException {
+		if (eof) {
+			return false;
+		}
+
+		int read;
+		if (text == null) {
+			do {
+				read = reader.read(in, 0, in.length);
+			} while (read == 0);
+		} else {
+			read = copyText();
+		}
+
+		if (read < 0) {
+			eof = true;
+			text = null; //don't hold onto the text
+			return false;
+		}
+
+		inPos = 0;
+		inLength = read;
+		charsRead += read;
+		return true;
+	}
+
+	/**
+	 * Copies the next block of characters from the text into the input
+	 * buffer.
+	 * @return the number of characters copied or -1 if the end of the text
+	 * has been reached
+	 */
+	private int copyText() {
+		int count = Math.min(in.length, text.length() - textPos);
+		if (count <= 0) {
+			return -1;
+		}
+
+		int end = textPos + count;
+		if (text instanceof String) {
+			((String) text).getChars(textPos, end, in, 0);
+		} else if (text instanceof StringBuilder) {
+			((StringBuilder) text).getChars(textPos, end, in, 0);
+		} else {
+			for (int i = 0; i < count; i++) {
+				in[i] = text.charAt(textPos + i);
 			}
+		}
+		textPos = end;
+		return count;
+	}
 
-			lastLine = line;
-			break;
+	/**
+	 * Closes the underlying {@link Reader} object.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (reader != null) {
+			reader.close();
 		}
+	}
 
-		return unfoldedLine.toString();
+	private void append(char ch) {
+		if (length == buffer.length) {
+			grow(length + 1);
+		}
+		buffer[length++] = ch;
+	}
+
+	private void append(char[] chars, int offset, int count) {
+		if (length + count > buffer.length) {
+			grow(length + count);
+		}
+		System.arraycopy(chars, offset, buffer, length, count);
+		length += count;
+	}
+
+	private void grow(int minCapacity) {
+		char[] copy = new char[Math.max(minCapacity, buffer.length * 2)];
+		System.arraycopy(buffer, 0, copy, 0, length);
+		buffer = copy;
 	}
 
 	/**
-	 * Removes the last character from a string.
-	 * @param string the string
-	 * @return the modified string
+	 * Receives property values as they are read.
+	 * @see FoldedLineReader#setValueListener(ValueListener)
 	 */
-	private static String chop(String string) {
-		return (string.length() > 0) ? string.substring(0, string.length() - 1) : string;
+	public static interface ValueListener {
+		/**
+		 * Called when the colon that separates the property value from the
+		 * rest of the line has been read. Lines that are folded using
+		 * quoted-printable soft line breaks are never passed to the listener.
+		 * @param line the line buffer, which contains everything that comes
+		 * before the property value (including the colon)
+		 * @param length the number of characters in the line buffer
+		 * @return true to have the property value passed to
+		 * {@link #valueRead}, false to have it copied into the line buffer
+		 * @throws IOException if there's a problem preparing to receive the
+		 * value
+		 */
+		boolean valueStarted(char[] line, int length) throws IOException;
+
+		/**
+		 * Called each time a piece of the property value has been read. The
+		 * folding whitespace has already been removed.
+		 * @param chars the buffer that contains the characters (its contents
+		 * are overwritten after this method returns)
+		 * @param offset the index of the first character
+		 * @param count the number of characters
+		 * @throws IOException if there's a problem processing the characters
+		 */
+		void valueRead(char[] chars, int offset, int count) throws IOException;
+
+		/**
+		 * Called when the entire property value has been read.
+		 * @throws IOException if there's a problem processing the value
+		 */
+		void valueEnded() throws IOException;
 	}
 }
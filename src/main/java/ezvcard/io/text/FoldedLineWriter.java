@@ -1,12 +1,23 @@
 package ezvcard.io.text;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.io.StringWriter;
 import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.util.HashMap;
+import java.util.Map;
 
-import ezvcard.util.org.apache.commons.codec.EncoderException;
-import ezvcard.util.org.apache.commons.codec.net.QuotedPrintableCodec;
+import ezvcard.util.ByteBufferOutputStream;
+import ezvcard.util.IOUtils;
+import ezvcard.util.QuotedPrintableEncoder;
 
 /*
  Copyright (c) 2012-2015, Michael Angstadt
@@ -38,22 +49,163 @@ import ezvcard.util.org.apache.commons.codec.net.QuotedPrintableCodec;
  */
 
 /**
+ * <p>
  * Automatically folds lines as they are written.
+ * </p>
+ * <p>
+ * Values are read directly from the {@link CharSequence} or character array
+ * that is passed in and folded into a re-usable output buffer. When
+ * quoted-printable encoding is enabled, the characters are encoded one at a
+ * time as they are folded, using a {@link QuotedPrintableEncoder} that is
+ * cached for each character set. This means that no copies of the value are
+ * made while it is being written.
+ * </p>
+ * <p>
+ * When the writer is created with an {@link OutputStream} or a
+ * {@link WritableByteChannel}, the characters are encoded directly to bytes
+ * and the line length is measured in octets instead of characters, as required
+ * by RFC 6350. Lines are never folded in the middle of a multi-byte character.
+ * If the output stream is a {@link ByteBufferOutputStream}, the characters are
+ * encoded straight into the stream's buffers.
+ * </p>
+ * <p>
+ * <b>Example:</b>
+ * 
+ * <pre class="brush:java">
+ * OutputStream out = ...
+ * FoldedLineWriter writer = new FoldedLineWriter(out, Charset.forName("UTF-8"));
+ * writer.write("NOTE:...");
+ * writer.close();
+ * </pre>
+ * 
+ * </p>
  * @author Michael Angstadt
  */
 public class FoldedLineWriter extends Writer {
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
 	private final Writer writer;
+	private final OutputStream out;
+	private final WritableByteChannel channel;
 	private int curLineLength = 0;
 	private Integer lineLength = 75;
 	private String indent = " ";
 	private String newline = "\r\n";
 
+	private final char[] buffer = new char[4096];
+	private final char[] singleChar = new char[1];
+	private int bufferLength = 0;
+
+	/*
+	 * The value that is currently being written. Only one of "source" and
+	 * "sourceArray" is set at a time.
+	 */
+	private CharSequence source;
+	private char[] sourceArray;
+	private int sourcePos, sourceEnd;
+
+	/*
+	 * The quoted-printable encoder of each character set that has been used,
+	 * so that an encoder is not created for every quoted-printable value.
+	 */
+	private final Map<Charset, QuotedPrintableEncoder> encoders = new HashMap<Charset, QuotedPrintableEncoder>();
+	private boolean quotedPrintable;
+	private QuotedPrintableEncoder encoder;
+	private boolean encoderFinished;
+
+	/*
+	 * The quoted-printable characters that have been encoded, but not yet
+	 * written. The folding algorithm needs to look a few characters ahead.
+	 */
+	private char[] encoded = new char[256];
+	private int encodedStart, encodedEnd;
+
+	/*
+	 * Used when writing to an output stream or channel. The line length is
+	 * measured in octets.
+	 */
+	private final boolean octets;
+	private final Charset charset;
+	private final CharsetEncoder charsetEncoder;
+	private final CharBuffer charBuffer;
+	private final ByteBuffer byteBuffer;
+	private final ByteBufferOutputStream bufferStream;
+	private final boolean utf8, asciiCompatible;
+	private final int asciiWidth;
+	private final CharsetEncoder measurer;
+	private final CharBuffer measureIn;
+	private final ByteBuffer measureOut;
+	private final int byteOrderMarkLength;
+	private boolean charactersEncoded = false;
+	private int sourceStart;
+
 	/**
 	 * Creates a folded line writer.
 	 * @param writer the writer object to wrap
 	 */
 	public FoldedLineWriter(Writer writer) {
+		this(writer, null, null, null);
+	}
+
+	/**
+	 * Creates a folded line writer that encodes the characters directly to an
+	 * output stream. The line length is measured in octets.
+	 * @param out the output stream to write to
+	 * @param charset the character set to encode the characters in
+	 */
+	public FoldedLineWriter(OutputStream out, Charset charset) {
+		this(null, out, null, charset);
+	}
+
+	/**
+	 * Creates a folded line writer that encodes the characters directly to a
+	 * channel. The line length is measured in octets.
+	 * @param channel the channel to write to
+	 * @param charset the character set to encode the characters in
+	 */
+	public FoldedLineWriter(WritableByteChannel channel, Charset charset) {
+		this(null, null, channel, charset);
+	}
+
+	private FoldedLineWriter(Writer writer, OutputStream out, WritableByteChannel channel, Charset charset) {
 		this.writer = writer;
+		this.out = out;
+		this.channel = channel;
+		this.charset = charset;
+
+		octets = (writer == null);
+		if (!octets) {
+			charsetEncoder = measurer = null;
+			charBuffer = measureIn = null;
+			byteBuffer = measureOut = null;
+			bufferStream = null;
+			utf8 = asciiCompatible = false;
+			asciiWidth = 1;
+			byteOrderMarkLength = 0;
+			return;
+		}
+
+		charsetEncoder = charset.newEncoder().onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+		charBuffer = CharBuffer.wrap(buffer);
+
+		//encode directly into the buffers of a ByteBufferOutputStream
+		bufferStream = (out instanceof ByteBufferOutputStream) ? (ByteBufferOutputStream) out : null;
+		byteBuffer = (bufferStream == null) ? ByteBuffer.allocate(8192) : null;
+
+		utf8 = charset.name().equalsIgnoreCase("UTF-8");
+		asciiCompatible = IOUtils.isAsciiCompatible(charset);
+
+		/*
+		 * Used to determine how many octets a character will be encoded in.
+		 * Byte order marks are written the first time a character is encoded,
+		 * so encode a character here to get it out of the way.
+		 */
+		measurer = charset.newEncoder().onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+		measureIn = CharBuffer.allocate(2);
+		measureOut = ByteBuffer.allocate((int) Math.ceil(measurer.maxBytesPerChar() * 2) + 8);
+		int first = measure(' ', (char) 0, false);
+		byteOrderMarkLength = first - measure(' ', (char) 0, false);
+		asciiWidth = asciiCompatible ? 1 : measure('a', (char) 0, false);
 	}
 
 	/**
@@ -82,6 +234,30 @@ public class FoldedLineWriter extends Writer {
 		return this;
 	}
 
+	@Override
+	public FoldedLineWriter append(CharSequence str) throws IOException {
+		if (str == null) {
+			str = "null";
+		}
+		write(str, 0, str.length(), false, null);
+		return this;
+	}
+
+	@Override
+	public FoldedLineWriter append(CharSequence str, int start, int end) throws IOException {
+		if (str == null) {
+			str = "null";
+		}
+		write(str, start, end, false, null);
+		return this;
+	}
+
+	@Override
+	public FoldedLineWriter append(char c) throws IOException {
+		write(c);
+		return this;
+	}
+
 	/**
 	 * Writes a string.
 	 * @param str the string to write
@@ -93,7 +269,18 @@ public class FoldedLineWriter extends Writer {
 	 * @throws IOException if there's a problem writing to the output stream
 	 */
 	public void write(CharSequence str, boolean quotedPrintable, Charset charset) throws IOException {
-		write(str.toString().toCharArray(), 0, str.length(), quotedPrintable, charset);
+		write(str, 0, str.length(), quotedPrintable, charset);
+	}
+
+	@Override
+	public void write(int c) throws IOException {
+		singleChar[0] = (char) c;
+		write(singleChar, 0, 1, false, null);
+	}
+
+	@Override
+	public void write(String str, int off, int len) throws IOException {
+		write(str, off, off + len, false, null);
 	}
 
 	@Override
@@ -114,52 +301,81 @@ public class FoldedLineWriter extends Writer {
 	 * @throws IOException if there's a problem writing to the output stream
 	 */
 	public void write(char[] cbuf, int off, int len, boolean quotedPrintable, Charset charset) throws IOException {
+		sourceArray = cbuf;
+		try {
+			write(off, off + len, quotedPrintable, charset);
+		} finally {
+			sourceArray = null;
+		}
+	}
+
+	private void write(CharSequence str, int start, int end, boolean quotedPrintable, Charset charset) throws IOException {
+		source = str;
+		try {
+			write(start, end, quotedPrintable, charset);
+		} finally {
+			source = null;
+		}
+	}
+
+	private void write(int start, int end, boolean quotedPrintable, Charset charset) throws IOException {
+		sourceStart = start;
+		sourcePos = start;
+		sourceEnd = end;
+		this.quotedPrintable = quotedPrintable;
+
 		if (quotedPrintable) {
 			if (charset == null) {
-				charset = Charset.forName("UTF-8");
+				charset = UTF8;
 			}
 
-			QuotedPrintableCodec codec = new QuotedPrintableCodec(charset.name());
-			try {
-				String str = new String(cbuf, off, len);
-				String encoded = codec.encode(str);
-
-				cbuf = encoded.toCharArray();
-				off = 0;
-				len = cbuf.length;
-			} catch (EncoderException e) {
-				/*
-				 * Thrown if an unsupported charset is passed into the codec.
-				 * This should never be thrown though, because we already know
-				 * the charset is valid (a Charset object is passed into the
-				 * method).
-				 */
-				throw new RuntimeException(e);
+			encoder = encoders.get(charset);
+			if (encoder == null) {
+				encoder = new QuotedPrintableEncoder(charset);
+				encoders.put(charset, encoder);
 			}
+			encoder.reset();
+			encoderFinished = false;
+			encodedStart = encodedEnd = 0;
 		}
 
 		if (lineLength == null) {
 			/*
-			 * If line folding is disabled, then write directly to the Writer.
+			 * If line folding is disabled, then write the value as-is.
 			 */
-			writer.write(cbuf, off, len);
-			return;
+			writeRemaining();
+		} else {
+			fold();
 		}
 
+		flushBuffer();
+	}
+
+	private void fold() throws IOException {
 		int effectiveLineLength = lineLength;
 		if (quotedPrintable) {
 			/*
 			 * Account for the "=" character that must be appended onto each
 			 * line.
 			 */
-			effectiveLineLength -= 1;
+			effectiveLineLength -= asciiWidth;
 		}
+		int indentWidth = width(indent);
 
 		int encodedCharPos = -1;
-		int start = off;
-		int end = off + len;
-		for (int i = start; i < end; i++) {
-			char c = cbuf[i];
+		while (true) {
+			if (quotedPrintable) {
+				encodedCharPos = printEncodedLine(effectiveLineLength, encodedCharPos);
+			} else {
+				curLineLength += printLine(effectiveLineLength - curLineLength);
+			}
+
+			int next = peek(0);
+			if (next < 0) {
+				break;
+			}
+			char c = (char) next;
+			advance();
 
 			/*
 			 * Keep track of the quoted-printable characters to prevent them
@@ -173,19 +389,17 @@ public class FoldedLineWriter extends Writer {
 			}
 
 			if (c == '\n') {
-				writer.write(cbuf, start, i - start + 1);
+				print(c);
 				curLineLength = 0;
-				start = i + 1;
 				continue;
 			}
 
 			if (c == '\r') {
-				if (i == end - 1 || cbuf[i + 1] != '\n') {
-					writer.write(cbuf, start, i - start + 1);
+				print(c);
+				if (peek(0) != '\n') {
 					curLineLength = 0;
-					start = i + 1;
 				} else {
-					curLineLength++;
+					curLineLength += asciiWidth;
 				}
 				continue;
 			}
@@ -194,7 +408,8 @@ public class FoldedLineWriter extends Writer {
 				encodedCharPos = 0;
 			}
 
-			if (curLineLength >= effectiveLineLength) {
+			int width = width(c);
+			if (curLineLength + width > effectiveLineLength && width > 0) {
 				/*
 				 * If the last characters on the line are whitespace, then
 				 * exceed the max line length in order to include the whitespace
@@ -202,17 +417,19 @@ public class FoldedLineWriter extends Writer {
 				 * because it will merge with the padding on the next, folded
 				 * line.
 				 */
-				if (Character.isWhitespace(c)) {
-					while (Character.isWhitespace(c) && i < end - 1) {
-						i++;
-						c = cbuf[i];
+				if (isWhitespace(c)) {
+					while (isWhitespace(c) && peek(0) >= 0) {
+						print(c);
+						c = (char) peek(0);
+						advance();
 					}
-					if (i >= end - 1) {
+					if (peek(0) < 0) {
 						/*
-						 * The rest of the char array is whitespace, so leave
-						 * the loop.
+						 * The rest of the value is whitespace, so stop
+						 * folding.
 						 */
-						break;
+						print(c);
+						return;
 					}
 				}
 
@@ -222,32 +439,435 @@ public class FoldedLineWriter extends Writer {
 				 * doesn't get split up across multiple lines.
 				 */
 				if (encodedCharPos > 0) {
-					i += 3 - encodedCharPos;
-					if (i >= end - 1) {
+					int skip = 3 - encodedCharPos;
+					print(c);
+					if (peek(skip) < 0) {
 						/*
-						 * The rest of the char array was a quoted-printable
-						 * encoded char, so leave the loop.
+						 * The rest of the value was a quoted-printable encoded
+						 * character, so stop folding.
 						 */
-						break;
+						writeRemaining();
+						return;
 					}
+
+					for (int i = 1; i < skip; i++) {
+						print((char) peek(0));
+						advance();
+					}
+					c = (char) peek(0);
+					advance();
 				}
 
-				writer.write(cbuf, start, i - start);
 				if (quotedPrintable) {
-					writer.write('=');
+					print('=');
 				}
-				writer.write(newline);
-				writer.write(indent);
-				curLineLength = indent.length() + 1;
-				start = i;
+				print(newline);
+				print(indent);
+				print(c);
+				curLineLength = indentWidth + width(c);
 
 				continue;
 			}
 
-			curLineLength++;
+			print(c);
+			curLineLength += width;
+		}
+	}
+
+	/**
+	 * Gets a character from the value that is being written.
+	 * @param ahead the number of characters to look ahead of the current
+	 * position
+	 * @return the character or -1 if the end of the value has been reached
+	 */
+	private int peek(int ahead) {
+		if (!quotedPrintable) {
+			int i = sourcePos + ahead;
+			return (i < sourceEnd) ? sourceCharAt(i) : -1;
+		}
+
+		while (encodedEnd - encodedStart <= ahead) {
+			if (!encodeNext()) {
+				return -1;
+			}
+		}
+		return encoded[encodedStart + ahead];
+	}
+
+	private void advance() {
+		if (quotedPrintable) {
+			encodedStart++;
+		} else {
+			sourcePos++;
+		}
+	}
+
+	private char sourceCharAt(int i) {
+		return (sourceArray == null) ? source.charAt(i) : sourceArray[i];
+	}
+
+	/**
+	 * Encodes the next batch of characters from the value in quoted-printable
+	 * encoding.
+	 * @return false if the end of the value has been reached, true if not
+	 */
+	private boolean encodeNext() {
+		if (encoderFinished) {
+			return false;
+		}
+
+		int maxEncodedLength = encoder.getMaxEncodedLength();
+		int remaining = encodedEnd - encodedStart;
+		if (encoded.length < remaining + maxEncodedLength * 2) {
+			char[] bigger = new char[(remaining + maxEncodedLength) * 4];
+			System.arraycopy(encoded, encodedStart, bigger, 0, remaining);
+			encoded = bigger;
+		} else {
+			System.arraycopy(encoded, encodedStart, encoded, 0, remaining);
+		}
+		encodedStart = 0;
+		encodedEnd = remaining;
+
+		int limit = encoded.length - maxEncodedLength;
+		while (sourcePos < sourceEnd && encodedEnd <= limit) {
+			encodedEnd += encoder.encode(sourceCharAt(sourcePos++), encoded, encodedEnd);
+		}
+		if (sourcePos == sourceEnd && encodedEnd <= limit) {
+			encodedEnd += encoder.finish(encoded, encodedEnd);
+			encoderFinished = true;
+		}
+		return true;
+	}
+
+	/**
+	 * Writes characters from the (non-encoded) value until a newline character
+	 * is reached, the given number of characters have been written, or the end
+	 * of the value is reached. This is done in a tight loop, since most values
+	 * do not contain newlines or need to be folded.
+	 * @param max the maximum number of characters to write
+	 * @return the number of characters (or octets) written
+	 * @throws IOException if there's a problem writing to the output stream
+	 */
+	private int printLine(int max) throws IOException {
+		if (octets) {
+			int width = 0;
+			while (sourcePos < sourceEnd) {
+				char c = sourceCharAt(sourcePos);
+				if (c == '\r' || c == '\n') {
+					break;
+				}
+
+				int w = octets(c, sourcePos);
+				if (width + w > max) {
+					break;
+				}
+
+				print(c);
+				sourcePos++;
+				width += w;
+			}
+			return width;
+		}
+
+		int start = sourcePos;
+		int end = (sourceEnd - sourcePos < max) ? sourceEnd : sourcePos + max;
+		while (sourcePos < end) {
+			if (bufferLength == buffer.length) {
+				flushBuffer();
+			}
+
+			int chunkEnd = Math.min(end, sourcePos + buffer.length - bufferLength);
+			int i = sourcePos;
+			if (sourceArray != null) {
+				for (; i < chunkEnd; i++) {
+					char c = sourceArray[i];
+					if (c == '\r' || c == '\n') {
+						break;
+					}
+					buffer[bufferLength++] = c;
+				}
+			} else {
+				for (; i < chunkEnd; i++) {
+					char c = source.charAt(i);
+					if (c == '\r' || c == '\n') {
+						break;
+					}
+					buffer[bufferLength++] = c;
+				}
+			}
+
+			boolean newline = (i < chunkEnd);
+			sourcePos = i;
+			if (newline) {
+				break;
+			}
+		}
+		return sourcePos - start;
+	}
+
+	/**
+	 * Writes quoted-printable encoded characters until the line is full or the
+	 * end of the value is reached. Encoded values never contain newline
+	 * characters.
+	 * @param effectiveLineLength the line length
+	 * @param encodedCharPos the position within the current encoded character
+	 * sequence (e.g. "=0A"), or -1 if not in a sequence
+	 * @return the new encoded character position
+	 * @throws IOException if there's a problem writing to the output stream
+	 */
+	private int printEncodedLine(int effectiveLineLength, int encodedCharPos) throws IOException {
+		while (curLineLength + asciiWidth <= effectiveLineLength) {
+			int next = peek(0);
+			if (next < 0) {
+				break;
+			}
+
+			char c = (char) next;
+			encodedStart++;
+			if (encodedCharPos >= 0) {
+				encodedCharPos++;
+				if (encodedCharPos == 3) {
+					encodedCharPos = -1;
+				}
+			}
+			if (c == '=') {
+				encodedCharPos = 0;
+			}
+
+			if (bufferLength == buffer.length) {
+				flushBuffer();
+			}
+			buffer[bufferLength++] = c;
+			curLineLength += asciiWidth;
 		}
+		return encodedCharPos;
+	}
+
+	private void writeRemaining() throws IOException {
+		int next;
+		while ((next = peek(0)) >= 0) {
+			print((char) next);
+			advance();
+		}
+	}
+
+	private void print(char c) throws IOException {
+		if (bufferLength == buffer.length) {
+			flushBuffer();
+		}
+		buffer[bufferLength++] = c;
+	}
 
-		writer.write(cbuf, start, end - start);
+	private void print(String str) throws IOException {
+		for (int i = 0; i < str.length(); i++) {
+			print(str.charAt(i));
+		}
+	}
+
+	private void flushBuffer() throws IOException {
+		if (bufferLength == 0) {
+			return;
+		}
+
+		if (!octets) {
+			writer.write(buffer, 0, bufferLength);
+			bufferLength = 0;
+			return;
+		}
+
+		charBuffer.limit(bufferLength);
+		charBuffer.position(0);
+		encode(false);
+
+		//a high surrogate may be waiting for its low surrogate
+		int remaining = charBuffer.remaining();
+		System.arraycopy(buffer, charBuffer.position(), buffer, 0, remaining);
+		bufferLength = remaining;
+	}
+
+	private void encode(boolean endOfInput) throws IOException {
+		if (charBuffer.hasRemaining()) {
+			charactersEncoded = true;
+		}
+		while (charsetEncoder.encode(charBuffer, byteBuffer(), endOfInput).isOverflow()) {
+			writeBytes(true);
+		}
+		writeBytes(false);
+	}
+
+	/**
+	 * Gets the buffer to encode the characters into.
+	 * @return the buffer
+	 */
+	private ByteBuffer byteBuffer() {
+		return (bufferStream == null) ? byteBuffer : bufferStream.getCurrentBuffer();
+	}
+
+	/**
+	 * Writes the encoded bytes to the output stream or channel.
+	 * @param overflow true if the encoder ran out of space in the buffer
+	 * @throws IOException if there's a problem writing to the output stream
+	 */
+	private void writeBytes(boolean overflow) throws IOException {
+		if (bufferStream != null) {
+			//the bytes were encoded directly into the stream's buffer
+			if (overflow) {
+				bufferStream.nextBuffer();
+			}
+			return;
+		}
+
+		byteBuffer.flip();
+		if (out == null) {
+			while (byteBuffer.hasRemaining()) {
+				channel.write(byteBuffer);
+			}
+		} else {
+			out.write(byteBuffer.array(), byteBuffer.arrayOffset() + byteBuffer.position(), byteBuffer.remaining());
+		}
+		byteBuffer.clear();
+	}
+
+	/**
+	 * Creates a writer that has the same settings as this one, but that writes
+	 * to an in-memory buffer. This allows the text to be folded on another
+	 * thread. The contents of the buffer can then be copied to this writer
+	 * using {@link #writeBuffer}.
+	 * @return the buffer
+	 */
+	FoldedLineWriter createBuffer() {
+		FoldedLineWriter buffer = octets ? new FoldedLineWriter(new ByteArrayOutputStream(), charset) : new FoldedLineWriter(new StringWriter());
+		buffer.lineLength = lineLength;
+		buffer.indent = indent;
+		buffer.newline = newline;
+		return buffer;
+	}
+
+	/**
+	 * Copies the contents of a buffer that was created with
+	 * {@link #createBuffer} to this writer. The buffer's text has already been
+	 * folded and encoded, so it is written as-is.
+	 * @param buffer the buffer
+	 * @throws IOException if there's a problem writing to the output stream
+	 */
+	void writeBuffer(FoldedLineWriter buffer) throws IOException {
+		flushBuffer();
+		curLineLength = buffer.curLineLength;
+
+		if (!octets) {
+			writer.write(((StringWriter) buffer.writer).toString());
+			return;
+		}
+
+		byte[] bytes = ((ByteArrayOutputStream) buffer.out).toByteArray();
+		if (bytes.length == 0) {
+			return;
+		}
+
+		int offset = 0;
+		if (charactersEncoded) {
+			//the byte order mark was already written to the data stream
+			offset = buffer.byteOrderMarkLength;
+		} else if (byteOrderMarkLength > 0) {
+			//the buffer wrote the byte order mark, so make sure this writer does not write it again
+			charsetEncoder.encode(CharBuffer.wrap(" "), ByteBuffer.allocate(measureOut.capacity()), false);
+		}
+		charactersEncoded = true;
+
+		if (out == null) {
+			ByteBuffer byteBuffer = ByteBuffer.wrap(bytes, offset, bytes.length - offset);
+			while (byteBuffer.hasRemaining()) {
+				channel.write(byteBuffer);
+			}
+		} else {
+			out.write(bytes, offset, bytes.length - offset);
+		}
+	}
+
+	/**
+	 * Gets the width of a character that was just read from the value.
+	 * @param c the character
+	 * @return the number of characters (1) or octets the character takes up
+	 */
+	private int width(char c) {
+		if (!octets) {
+			return 1;
+		}
+		return octets(c, quotedPrintable ? -1 : sourcePos - 1);
+	}
+
+	private int width(String str) {
+		if (!octets) {
+			return str.length();
+		}
+
+		int width = 0;
+		for (int i = 0; i < str.length(); i++) {
+			width += octets(str.charAt(i), -1);
+		}
+		return width;
+	}
+
+	/**
+	 * Determines how many octets a character will be encoded in.
+	 * @param c the character
+	 * @param index the index of the character in the value or -1 if it's not
+	 * in the value (used to detect surrogate pairs)
+	 * @return the number of octets (surrogate pairs are counted in full on the
+	 * high surrogate, so low surrogates that follow a high surrogate are zero)
+	 */
+	private int octets(char c, int index) {
+		if (c < 0x80 && asciiCompatible) {
+			return 1;
+		}
+
+		if (index >= 0) {
+			if (Character.isLowSurrogate(c) && index > sourceStart && Character.isHighSurrogate(sourceCharAt(index - 1))) {
+				return 0;
+			}
+			if (Character.isHighSurrogate(c) && index + 1 < sourceEnd) {
+				char low = sourceCharAt(index + 1);
+				if (Character.isLowSurrogate(low)) {
+					return utf8 ? 4 : measure(c, low, true);
+				}
+			}
+		}
+
+		if (utf8) {
+			if (c < 0x800) {
+				return 2;
+			}
+			//unpaired surrogates are replaced with "?"
+			return (c >= '\ud800' && c <= '\udfff') ? 1 : 3;
+		}
+
+		return measure(c, (char) 0, false);
+	}
+
+	private int measure(char c, char low, boolean pair) {
+		measureIn.clear();
+		measureIn.put(c);
+		if (pair) {
+			measureIn.put(low);
+		}
+		measureIn.flip();
+
+		measureOut.clear();
+		measurer.encode(measureIn, measureOut, false);
+		return Math.max(measureOut.position(), 1);
+	}
+
+	/**
+	 * Determines if a character is whitespace. This produces the same result as
+	 * {@link Character#isWhitespace(char)}, but is faster for ASCII characters.
+	 * @param c the character
+	 * @return true if it's whitespace, false if not
+	 */
+	private static boolean isWhitespace(char c) {
+		if (c <= ' ') {
+			return c == ' ' || (c >= '\t' && c <= '\r') || (c >= 0x1c && c <= 0x1f);
+		}
+		return c >= 0x80 && Character.isWhitespace(c);
 	}
 
 	/**
@@ -255,7 +875,25 @@ public class FoldedLineWriter extends Writer {
 	 */
 	@Override
 	public void close() throws IOException {
-		writer.close();
+		if (!octets) {
+			writer.close();
+			return;
+		}
+
+		charBuffer.limit(bufferLength);
+		charBuffer.position(0);
+		encode(true);
+		while (charsetEncoder.flush(byteBuffer()).isOverflow()) {
+			writeBytes(true);
+		}
+		writeBytes(false);
+		bufferLength = 0;
+
+		if (out == null) {
+			channel.close();
+		} else {
+			out.close();
+		}
 	}
 
 	/**
@@ -263,12 +901,17 @@ public class FoldedLineWriter extends Writer {
 	 */
 	@Override
 	public void flush() throws IOException {
-		writer.flush();
+		if (!octets) {
+			writer.flush();
+		} else if (out != null) {
+			out.flush();
+		}
 	}
 
 	/**
 	 * Gets the maximum length a line can be before it is folded (excluding the
-	 * newline, defaults to 75).
+	 * newline, defaults to 75). If the writer was created with an output
+	 * stream or channel, the length is measured in octets.
 	 * @return the line length or null if folding is disabled
 	 */
 	public Integer getLineLength() {
@@ -277,7 +920,8 @@ public class FoldedLineWriter extends Writer {
 
 	/**
 	 * Sets the maximum length a line can be before it is folded (excluding the
-	 * newline, defaults to 75).
+	 * newline, defaults to 75). If the writer was created with an output
+	 * stream or channel, the length is measured in octets.
 	 * @param lineLength the line length or null to disable folding
 	 * @throws IllegalArgumentException if the line length is less than or equal
 	 * to zero
@@ -332,7 +976,8 @@ public class FoldedLineWriter extends Writer {
 
 	/**
 	 * Gets the wrapped {@link Writer} object.
-	 * @return the wrapped writer
+	 * @return the wrapped writer or null if the writer was created with an
+	 * output stream or channel
 	 */
 	public Writer getWriter() {
 		return writer;
@@ -343,6 +988,10 @@ public class FoldedLineWriter extends Writer {
 	 * @return the writer's character encoding or null if undefined
 	 */
 	public Charset getEncoding() {
+		if (octets) {
+			return charset;
+		}
+
 		if (!(writer instanceof OutputStreamWriter)) {
 			return null;
 		}
@@ -0,0 +1,662 @@
+package ezvcard.io.text;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileReader;
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import ezvcard.VCard;
+import ezvcard.VCardVersion;
+import ezvcard.io.StreamReader;
+import ezvcard.io.scribe.ScribeIndex;
+import ezvcard.util.BinaryStorage;
+
+/*
+ Copyright (c) 2012-2015, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+ The views and conclusions contained in the software and documentation are those
+ of the authors and should not be interpreted as representing official policies, 
+ either expressed or implied, of the FreeBSD Project.
+ */
+
+/**
+ * <p>
+ * Parses {@link VCard} objects from a plain-text vCard data stream using
+ * multiple threads.
+ * </p>
+ * <p>
+ * The data stream is scanned for the BEGIN:VCARD and END:VCARD lines of each
+ * top-level vCard (folded lines and nested 2.1-style AGENT vCards are taken
+ * into account). The text of the vCards is then handed off in batches to a
+ * pool of worker threads, which parse each batch using a {@link VCardReader}.
+ * All workers share the same {@link ScribeIndex}, so any custom scribes must
+ * be registered before the first vCard is read.
+ * </p>
+ * <p>
+ * By default, vCards are returned in the order in which they appear in the
+ * data stream. Calling {@link #setOrdered setOrdered(false)} returns the
+ * vCards of each batch as soon as the batch has been parsed, which can
+ * improve throughput when the vCards vary greatly in size. Either way,
+ * {@link #getWarnings} returns the warnings of the vCard that was last
+ * returned by {@link #readNext}, and the line numbers in the warnings are
+ * relative to the entire data stream.
+ * </p>
+ * <p>
+ * <b>Example:</b>
+ * 
+ * <pre class="brush:java">
+ * File file = new File("vcards.vcf");
+ * ParallelVCardReader reader = null;
+ * try {
+ *   reader = new ParallelVCardReader(file);
+ *   VCard vcard;
+ *   while ((vcard = reader.readNext()) != null){
+ *     ...
+ *   }
+ * } finally {
+ *   if (reader != null) reader.close();
+ * }
+ * </pre>
+ * 
+ * </p>
+ * @author Michael Angstadt
+ * @see VCardReader
+ */
+public class ParallelVCardReader extends StreamReader {
+	private final RecordingReader recorder;
+	private final VCardRawReader reader;
+	private boolean eof = false;
+
+	private ExecutorService executor;
+	private boolean shutdownExecutor;
+	private CompletionService<List<ParsedVCard>> completionService;
+	private final LinkedList<Future<List<ParsedVCard>>> pending = new LinkedList<Future<List<ParsedVCard>>>();
+	private int pendingCount = 0;
+	private final LinkedList<ParsedVCard> parsed = new LinkedList<ParsedVCard>();
+
+	private boolean ordered = true;
+	private int batchSize = 64 * 1024;
+	private int maxPendingBatches = Runtime.getRuntime().availableProcessors() * 4;
+	private Charset defaultQuotedPrintableCharset;
+	private PropertyNameFilter filter;
+	private boolean binaryStreamingEnabled = false;
+	private BinarySink binarySink;
+	private BinaryStorage binaryStorage = BinaryStorage.HEAP;
+
+	/**
+	 * @param str the string to read from
+	 */
+	public ParallelVCardReader(String str) {
+		this(new StringReader(str));
+	}
+
+	/**
+	 * @param in the input stream to read from
+	 */
+	public ParallelVCardReader(InputStream in) {
+		this(new InputStreamReader(in));
+	}
+
+	/**
+	 * @param file the file to read from
+	 * @throws FileNotFoundException if the file doesn't exist
+	 */
+	public ParallelVCardReader(File file) throws FileNotFoundException {
+		this(new FileReader(file));
+	}
+
+	/**
+	 * @param reader the reader to read from
+	 */
+	public ParallelVCardReader(Reader reader) {
+		recorder = new RecordingReader(reader);
+		this.reader = new VCardRawReader(recorder);
+
+		//only the BEGIN, END, and VERSION properties are needed to find where each vCard starts and ends
+		this.reader.setPropertyNameFilter(PropertyNameFilter.include());
+
+		defaultQuotedPrintableCharset = this.reader.getEncoding();
+		if (defaultQuotedPrintableCharset == null) {
+			defaultQuotedPrintableCharset = Charset.defaultCharset();
+		}
+	}
+
+	/**
+	 * Gets whether the vCards are returned in the order in which they appear
+	 * in the data stream.
+	 * @return true if the vCards are returned in order (default), false if
+	 * they are returned as soon as their batch is parsed
+	 */
+	public boolean isOrdered() {
+		return ordered;
+	}
+
+	/**
+	 * Sets whether the vCards are returned in the order in which they appear
+	 * in the data stream. This must be called before the first vCard is read.
+	 * @param ordered true to return the vCards in order (default), false to
+	 * return them as soon as their batch is parsed
+	 */
+	public void setOrdered(boolean ordered) {
+		this.ordered = ordered;
+	}
+
+	/**
+	 * <p>
+	 * Sets the thread pool that will parse the vCards. The thread pool is not
+	 * shut down when this reader is closed. This must be called before the
+	 * first vCard is read.
+	 * </p>
+	 * <p>
+	 * By default, a thread pool containing one thread per processor is
+	 * created. This thread pool is shut down when this reader is closed.
+	 * </p>
+	 * @param executor the thread pool
+	 */
+	public void setExecutor(ExecutorService executor) {
+		this.executor = executor;
+		shutdownExecutor = false;
+	}
+
+	/**
+	 * Gets the minimum number of characters that are handed off to a worker
+	 * thread at once. A batch contains as many whole vCards as are needed to
+	 * reach this size.
+	 * @return the batch size (defaults to 65536)
+	 */
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	/**
+	 * Sets the minimum number of characters that are handed off to a worker
+	 * thread at once. A batch contains as many whole vCards as are needed to
+	 * reach this size. Larger batches reduce the overhead of handing off work
+	 * to the worker threads.
+	 * @param batchSize the batch size (defaults to 65536)
+	 */
+	public void setBatchSize(int batchSize) {
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * Gets the maximum number of batches that can be waiting to be parsed or
+	 * waiting to be returned by {@link #readNext}. This limits how far ahead
+	 * of the caller the reader can get, and therefore how much memory it uses.
+	 * @return the maximum number of batches (defaults to four times the
+	 * number of processors)
+	 */
+	public int getMaxPendingBatches() {
+		return maxPendingBatches;
+	}
+
+	/**
+	 * Sets the maximum number of batches that can be waiting to be parsed or
+	 * waiting to be returned by {@link #readNext}. This limits how far ahead
+	 * of the caller the reader can get, and therefore how much memory it uses.
+	 * @param maxPendingBatches the maximum number of batches (defaults to four
+	 * times the number of processors)
+	 */
+	public void setMaxPendingBatches(int maxPendingBatches) {
+		if (maxPendingBatches < 1) {
+			throw new IllegalArgumentException("Max pending batches must be greater than zero.");
+		}
+		this.maxPendingBatches = maxPendingBatches;
+	}
+
+	/**
+	 * Gets whether the reader will decode parameter values that use circumflex
+	 * accent encoding (enabled by default).
+	 * @return true if circumflex accent decoding is enabled, false if not
+	 * @see VCardReader#isCaretDecodingEnabled()
+	 */
+	public boolean isCaretDecodingEnabled() {
+		return reader.isCaretDecodingEnabled();
+	}
+
+	/**
+	 * Sets whether the reader will decode parameter values that use circumflex
+	 * accent encoding (enabled by default).
+	 * @param enable true to use circumflex accent decoding, false not to
+	 * @see VCardReader#setCaretDecodingEnabled(boolean)
+	 */
+	public void setCaretDecodingEnabled(boolean enable) {
+		reader.setCaretDecodingEnabled(enable);
+	}
+
+	/**
+	 * Gets the filter that determines which properties are skipped over.
+	 * @return the filter or null if no properties are skipped
+	 */
+	public PropertyNameFilter getPropertyNameFilter() {
+		return filter;
+	}
+
+	/**
+	 * Sets a filter that determines which properties are parsed and which are
+	 * skipped over.
+	 * @param filter the filter or null to parse every property (default)
+	 * @see VCardReader#setPropertyNameFilter(PropertyNameFilter)
+	 */
+	public void setPropertyNameFilter(PropertyNameFilter filter) {
+		this.filter = filter;
+	}
+
+	/**
+	 * Gets the character set to use when decoding quoted-printable values if
+	 * the property has no CHARSET parameter, or if the CHARSET parameter is not
+	 * a valid character set.
+	 * @return the character set
+	 * @see VCardReader#getDefaultQuotedPrintableCharset()
+	 */
+	public Charset getDefaultQuotedPrintableCharset() {
+		return defaultQuotedPrintableCharset;
+	}
+
+	/**
+	 * Sets the character set to use when decoding quoted-printable values if
+	 * the property has no CHARSET parameter, or if the CHARSET parameter is not
+	 * a valid character set.
+	 * @param charset the character set
+	 * @see VCardReader#setDefaultQuotedPrintableCharset(Charset)
+	 */
+	public void setDefaultQuotedPrintableCharset(Charset charset) {
+		defaultQuotedPrintableCharset = charset;
+	}
+
+	/**
+	 * Gets whether the values of base64-encoded binary properties (such as
+	 * PHOTO) are decoded while they are being read (disabled by default).
+	 * @return true if enabled, false if not
+	 * @see VCardReader#isBinaryStreamingEnabled()
+	 */
+	public boolean isBinaryStreamingEnabled() {
+		return binaryStreamingEnabled;
+	}
+
+	/**
+	 * Sets whether the values of base64-encoded binary properties (such as
+	 * PHOTO) are decoded while they are being read (disabled by default).
+	 * @param enable true to enable, false to disable
+	 * @see VCardReader#setBinaryStreamingEnabled(boolean)
+	 */
+	public void setBinaryStreamingEnabled(boolean enable) {
+		binaryStreamingEnabled = enable;
+	}
+
+	/**
+	 * Gets the object that binary property values are written to as they are
+	 * decoded.
+	 * @return the sink or null if the values are collected in memory
+	 */
+	public BinarySink getBinarySink() {
+		return binarySink;
+	}
+
+	/**
+	 * Sets the object that binary property values are written to as they are
+	 * decoded. The sink is shared by all worker threads, so it must be
+	 * thread-safe.
+	 * @param sink the sink or null to collect the values in memory (default)
+	 * @see VCardReader#setBinarySink(BinarySink)
+	 */
+	public void setBinarySink(BinarySink sink) {
+		binarySink = sink;
+	}
+
+	/**
+	 * Gets where the data of binary property values is stored when they are
+	 * decoded.
+	 * @return the storage
+	 */
+	public BinaryStorage getBinaryStorage() {
+		return binaryStorage;
+	}
+
+	/**
+	 * Sets where the data of binary property values is stored when they are
+	 * decoded (for example, outside of the Java heap).
+	 * @param storage the storage (defaults to {@link BinaryStorage#HEAP})
+	 * @see VCardReader#setBinaryStorage(BinaryStorage)
+	 */
+	public void setBinaryStorage(BinaryStorage storage) {
+		binaryStorage = storage;
+	}
+
+	@Override
+	protected VCard _readNext() throws IOException {
+		if (executor == null) {
+			executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), new DaemonThreadFactory());
+			shutdownExecutor = true;
+		}
+		if (!ordered && completionService == null) {
+			completionService = new ExecutorCompletionService<List<ParsedVCard>>(executor);
+		}
+
+		//keep the worker threads busy
+		while (pendingCount < maxPendingBatches) {
+			Batch batch = nextBatch();
+			if (batch == null) {
+				break;
+			}
+
+			Worker worker = new Worker(batch);
+			if (ordered) {
+				pending.add(executor.submit(worker));
+			} else {
+				completionService.submit(worker);
+			}
+			pendingCount++;
+		}
+
+		if (parsed.isEmpty()) {
+			if (pendingCount == 0) {
+				return null;
+			}
+
+			try {
+				Future<List<ParsedVCard>> future = ordered ? pending.removeFirst() : completionService.take();
+				pendingCount--;
+				parsed.addAll(future.get());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException();
+			} catch (ExecutionException e) {
+				Throwable cause = e.getCause();
+				if (cause instanceof RuntimeException) {
+					throw (RuntimeException) cause;
+				}
+				if (cause instanceof Error) {
+					throw (Error) cause;
+				}
+				throw new IOException(cause);
+			}
+		}
+
+		ParsedVCard next = parsed.removeFirst();
+		for (String warning : next.warnings) {
+			warnings.add(null, null, warning);
+		}
+		return next.vcard;
+	}
+
+	/**
+	 * Scans the data stream for the next batch of top-level vCards.
+	 * @return the batch or null if there are no more vCards
+	 * @throws IOException if there's a problem reading from the data stream
+	 */
+	private Batch nextBatch() throws IOException {
+		if (eof) {
+			return null;
+		}
+
+		int depth = 0;
+		boolean started = false;
+		long start = 0;
+		int startLineCount = 0;
+		VCardVersion startVersion = null;
+		while (true) {
+			long position = reader.getCharsConsumed();
+			int lineCount = reader.getLineCount();
+			VCardVersion version = reader.getVersion();
+
+			VCardLineTokenizer line;
+			try {
+				line = reader.readTokens();
+			} catch (VCardParseException e) {
+				//the worker will log a warning if the line is inside of a vCard
+				continue;
+			}
+
+			if (line == null) {
+				eof = true;
+				if (!started) {
+					recorder.discard(reader.getCharsConsumed());
+					return null;
+				}
+				break;
+			}
+
+			if (line.nameEqualsIgnoreCase("BEGIN") && line.valueEqualsIgnoreCase("VCARD")) {
+				if (!started) {
+					started = true;
+					start = position;
+					startLineCount = lineCount;
+					startVersion = version;
+				}
+				depth++;
+				continue;
+			}
+
+			if (depth == 0) {
+				//BEGIN component hasn't been encountered yet, so skip this line
+				continue;
+			}
+
+			if (line.nameEqualsIgnoreCase("END") && line.valueEqualsIgnoreCase("VCARD")) {
+				depth--;
+				if (depth == 0 && reader.getCharsConsumed() - start >= batchSize) {
+					break;
+				}
+			}
+		}
+
+		long end = reader.getCharsConsumed();
+		String text = recorder.substring(start, end);
+		recorder.discard(end);
+		return new Batch(text, startVersion, startLineCount);
+	}
+
+	/**
+	 * Closes the underlying {@link Reader} object and shuts down the thread
+	 * pool (unless the thread pool was supplied with
+	 * {@link #setExecutor(ExecutorService)}).
+	 */
+	public void close() throws IOException {
+		for (Future<List<ParsedVCard>> future : pending) {
+			future.cancel(true);
+		}
+		pending.clear();
+		pendingCount = 0;
+		parsed.clear();
+
+		if (shutdownExecutor && executor != null) {
+			executor.shutdownNow();
+		}
+
+		reader.close();
+	}
+
+	/**
+	 * The text of one or more consecutive top-level vCards.
+	 */
+	private static class Batch {
+		private final String text;
+		private final VCardVersion version;
+		private final int lineCount;
+
+		/**
+		 * @param text the text of the vCards
+		 * @param version the version the data stream was being parsed with
+		 * when the first vCard started
+		 * @param lineCount the number of lines that come before the first
+		 * vCard in the data stream
+		 */
+		public Batch(String text, VCardVersion version, int lineCount) {
+			this.text = text;
+			this.version = version;
+			this.lineCount = lineCount;
+		}
+	}
+
+	/**
+	 * A vCard that was parsed by a worker thread.
+	 */
+	private static class ParsedVCard {
+		private final VCard vcard;
+		private final List<String> warnings;
+
+		public ParsedVCard(VCard vcard, List<String> warnings) {
+			this.vcard = vcard;
+			this.warnings = warnings;
+		}
+	}
+
+	/**
+	 * Parses a batch of vCards.
+	 */
+	private class Worker implements Callable<List<ParsedVCard>> {
+		private final Batch batch;
+		private final ScribeIndex index;
+		private final boolean caretDecodingEnabled;
+		private final PropertyNameFilter filter;
+		private final Charset defaultQuotedPrintableCharset;
+		private final boolean binaryStreamingEnabled;
+		private final BinarySink binarySink;
+		private final BinaryStorage binaryStorage;
+
+		public Worker(Batch batch) {
+			this.batch = batch;
+
+			//copy the settings, since they could change while the worker is waiting to run
+			index = ParallelVCardReader.this.index;
+			caretDecodingEnabled = isCaretDecodingEnabled();
+			filter = getPropertyNameFilter();
+			defaultQuotedPrintableCharset = getDefaultQuotedPrintableCharset();
+			binaryStreamingEnabled = isBinaryStreamingEnabled();
+			binarySink = getBinarySink();
+			binaryStorage = getBinaryStorage();
+		}
+
+		public List<ParsedVCard> call() throws IOException {
+			VCardRawReader rawReader = new VCardRawReader(new StringReader(batch.text));
+			rawReader.setVersion(batch.version);
+			rawReader.setLineCount(batch.lineCount);
+
+			VCardReader reader = new VCardReader(rawReader);
+			reader.setScribeIndex(index);
+			reader.setBinaryDataCache(binaryDataCache);
+			reader.setCaretDecodingEnabled(caretDecodingEnabled);
+			reader.setPropertyNameFilter(filter);
+			reader.setDefaultQuotedPrintableCharset(defaultQuotedPrintableCharset);
+			reader.setBinaryStreamingEnabled(binaryStreamingEnabled);
+			reader.setBinarySink(binarySink);
+			reader.setBinaryStorage(binaryStorage);
+
+			List<ParsedVCard> vcards = new ArrayList<ParsedVCard>();
+			VCard vcard;
+			while ((vcard = reader.readNext()) != null) {
+				vcards.add(new ParsedVCard(vcard, reader.getWarnings()));
+			}
+			return vcards;
+		}
+	}
+
+	/**
+	 * Creates daemon threads, so that the JVM can exit if the reader is not
+	 * closed.
+	 */
+	private static class DaemonThreadFactory implements ThreadFactory {
+		private final ThreadFactory defaultFactory = Executors.defaultThreadFactory();
+
+		public Thread newThread(Runnable r) {
+			Thread thread = defaultFactory.newThread(r);
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+
+	/**
+	 * Keeps a copy of the characters that are read, so that the text of each
+	 * vCard can be handed off to a worker thread.
+	 */
+	private static class RecordingReader extends FilterReader {
+		private final StringBuilder buffer = new StringBuilder();
+		private long bufferStart = 0;
+
+		public RecordingReader(Reader reader) {
+			super(reader);
+		}
+
+		@Override
+		public int read() throws IOException {
+			int read = super.read();
+			if (read >= 0) {
+				buffer.append((char) read);
+			}
+			return read;
+		}
+
+		@Override
+		public int read(char[] cbuf, int off, int len) throws IOException {
+			int read = super.read(cbuf, off, len);
+			if (read > 0) {
+				buffer.append(cbuf, off, read);
+			}
+			return read;
+		}
+
+		@Override
+		public long skip(long n) throws IOException {
+			throw new IOException("Skipping is not supported.");
+		}
+
+		/**
+		 * Gets a portion of the recorded text.
+		 * @param start the position of the first character in the data stream
+		 * @param end the position after the last character in the data stream
+		 * @return the text
+		 */
+		public String substring(long start, long end) {
+			return buffer.substring((int) (start - bufferStart), (int) (end - bufferStart));
+		}
+
+		/**
+		 * Discards the recorded text that comes before the given position.
+		 * @param position the position in the data stream
+		 */
+		public void discard(long position) {
+			buffer.delete(0, (int) (position - bufferStart));
+			bufferStart = position;
+		}
+	}
+}
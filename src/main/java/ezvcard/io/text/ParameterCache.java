@@ -0,0 +1,246 @@
+package ezvcard.io.text;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import ezvcard.VCardVersion;
+import ezvcard.parameter.VCardParameters;
+
+/*
+ Copyright (c) 2012-2015, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+ The views and conclusions contained in the software and documentation are those
+ of the authors and should not be interpreted as representing official policies, 
+ either expressed or implied, of the FreeBSD Project.
+ */
+
+/**
+ * Remembers how lists of property parameters were serialized by a
+ * {@link VCardRawWriter}, so that parameter lists which are written over and
+ * over again (such as "TYPE=work,voice") do not have to be sanitized and
+ * quoted each time. The least recently used entry is evicted when the cache is
+ * full. This class is not thread-safe.
+ * @author Michael Angstadt
+ */
+class ParameterCache {
+	private final Map<Key, String> entries;
+	private final Key probe = new Key();
+	private int maxSize;
+	private long hits, misses;
+
+	/**
+	 * @param maxSize the maximum number of entries
+	 */
+	public ParameterCache(int maxSize) {
+		this.maxSize = maxSize;
+		entries = new LinkedHashMap<Key, String>(16, 0.75f, true) {
+			private static final long serialVersionUID = 6931538221765702164L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, String> eldest) {
+				return size() > ParameterCache.this.maxSize;
+			}
+		};
+	}
+
+	/**
+	 * Gets the serialized form of a parameter list.
+	 * @param version the version of the vCard being written
+	 * @param caretEncoding true if caret encoding is enabled, false if not
+	 * @param parameters the parameters
+	 * @return the serialized parameters (e.g. ";TYPE=work,voice") or null if
+	 * not cached
+	 */
+	public String get(VCardVersion version, boolean caretEncoding, VCardParameters parameters) {
+		probe.set(version, caretEncoding, parameters);
+		String serialized = entries.get(probe);
+		if (serialized == null) {
+			misses++;
+		} else {
+			hits++;
+		}
+		return serialized;
+	}
+
+	/**
+	 * Adds the serialized form of the parameter list that was last passed
+	 * into {@link #get}.
+	 * @param serialized the serialized parameters
+	 */
+	public void put(String serialized) {
+		if (maxSize > 0) {
+			entries.put(probe.copy(), serialized);
+		}
+	}
+
+	/**
+	 * Sets the maximum number of entries. The least recently used entries are
+	 * evicted if the cache is larger than the new maximum.
+	 * @param maxSize the maximum number of entries
+	 */
+	public void setMaxSize(int maxSize) {
+		this.maxSize = maxSize;
+		Iterator<Key> it = entries.keySet().iterator();
+		while (entries.size() > maxSize) {
+			it.next();
+			it.remove();
+		}
+	}
+
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	public int size() {
+		return entries.size();
+	}
+
+	public long getHits() {
+		return hits;
+	}
+
+	public long getMisses() {
+		return misses;
+	}
+
+	/**
+	 * The cache key. The parameters are flattened into arrays, which are
+	 * reused when the key is used to look up an entry.
+	 */
+	private static class Key {
+		private VCardVersion version;
+		private boolean caretEncoding;
+		private String[] names = new String[4];
+		private String[] values = new String[8];
+		private int[] valueCounts = new int[4];
+		private int nameCount, valueCount;
+		private int hash;
+
+		public void set(VCardVersion version, boolean caretEncoding, VCardParameters parameters) {
+			this.version = version;
+			this.caretEncoding = caretEncoding;
+			nameCount = valueCount = 0;
+
+			int hash = version.ordinal() * 2 + (caretEncoding ? 1 : 0);
+			for (Map.Entry<String, List<String>> parameter : parameters) {
+				List<String> parameterValues = parameter.getValue();
+				if (parameterValues.isEmpty()) {
+					//empty parameters are not written
+					continue;
+				}
+
+				if (nameCount == names.length) {
+					names = grow(names);
+					valueCounts = grow(valueCounts);
+				}
+				String name = parameter.getKey();
+				names[nameCount] = name;
+				valueCounts[nameCount] = parameterValues.size();
+				nameCount++;
+				hash = 31 * hash + hashCode(name);
+
+				for (String value : parameterValues) {
+					if (valueCount == values.length) {
+						values = grow(values);
+					}
+					values[valueCount++] = value;
+					hash = 31 * hash + hashCode(value);
+				}
+				hash = 31 * hash + parameterValues.size();
+			}
+			this.hash = hash;
+		}
+
+		/**
+		 * Creates a copy of this key that can be stored in the cache.
+		 * @return the copy
+		 */
+		public Key copy() {
+			Key copy = new Key();
+			copy.version = version;
+			copy.caretEncoding = caretEncoding;
+			copy.names = copyOf(names, nameCount);
+			copy.valueCounts = copyOf(valueCounts, nameCount);
+			copy.values = copyOf(values, valueCount);
+			copy.nameCount = nameCount;
+			copy.valueCount = valueCount;
+			copy.hash = hash;
+			return copy;
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			Key other = (Key) obj;
+			if (hash != other.hash || version != other.version || caretEncoding != other.caretEncoding || nameCount != other.nameCount || valueCount != other.valueCount) {
+				return false;
+			}
+			for (int i = 0; i < nameCount; i++) {
+				if (valueCounts[i] != other.valueCounts[i] || !equals(names[i], other.names[i])) {
+					return false;
+				}
+			}
+			for (int i = 0; i < valueCount; i++) {
+				if (!equals(values[i], other.values[i])) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		private static int hashCode(String string) {
+			return (string == null) ? 0 : string.hashCode();
+		}
+
+		private static boolean equals(String a, String b) {
+			return (a == null) ? b == null : a.equals(b);
+		}
+
+		private static String[] grow(String[] array) {
+			return copyOf(array, array.length * 2);
+		}
+
+		private static int[] grow(int[] array) {
+			return copyOf(array, array.length * 2);
+		}
+
+		private static String[] copyOf(String[] array, int length) {
+			String[] copy = new String[length];
+			System.arraycopy(array, 0, copy, 0, Math.min(array.length, length));
+			return copy;
+		}
+
+		private static int[] copyOf(int[] array, int length) {
+			int[] copy = new int[length];
+			System.arraycopy(array, 0, copy, 0, Math.min(array.length, length));
+			return copy;
+		}
+	}
+}
@@ -0,0 +1,152 @@
+package ezvcard.io.text;
+
+/*
+ Copyright (c) 2012-2015, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+ The views and conclusions contained in the software and documentation are those
+ of the authors and should not be interpreted as representing official policies, 
+ either expressed or implied, of the FreeBSD Project.
+ */
+
+/**
+ * <p>
+ * Determines which properties a {@link VCardReader} should parse and which
+ * properties it should skip over. Property names are case-insensitive.
+ * </p>
+ * <p>
+ * A skipped property is dropped as soon as its name is read. Its parameters
+ * are not parsed, its value is not decoded, and it is not passed to a
+ * property scribe. The BEGIN, END, and VERSION properties are always
+ * accepted because they are needed to parse the structure of the vCard.
+ * </p>
+ * <p>
+ * <b>Examples:</b>
+ * </p>
+ * 
+ * <pre class="brush:java">
+ * //only parse the FN and EMAIL properties
+ * PropertyNameFilter filter = PropertyNameFilter.include("FN", "EMAIL");
+ * 
+ * //parse everything except PHOTO and SOUND properties
+ * PropertyNameFilter filter = PropertyNameFilter.exclude("PHOTO", "SOUND");
+ * 
+ * VCardReader reader = new VCardReader(file);
+ * reader.setPropertyNameFilter(filter);
+ * </pre>
+ * @author Michael Angstadt
+ */
+public class PropertyNameFilter {
+	private static final char[][] STRUCTURAL = { "BEGIN".toCharArray(), "END".toCharArray(), "VERSION".toCharArray() };
+
+	private final char[][] names;
+	private final boolean include;
+
+	/**
+	 * Creates a filter that only accepts the given properties (a whitelist).
+	 * @param names the names of the properties to parse
+	 * @return the filter
+	 */
+	public static PropertyNameFilter include(String... names) {
+		return new PropertyNameFilter(names, true);
+	}
+
+	/**
+	 * Creates a filter that accepts every property except for the given
+	 * properties (a blacklist).
+	 * @param names the names of the properties to skip
+	 * @return the filter
+	 */
+	public static PropertyNameFilter exclude(String... names) {
+		return new PropertyNameFilter(names, false);
+	}
+
+	private PropertyNameFilter(String[] names, boolean include) {
+		this.names = new char[names.length][];
+		for (int i = 0; i < names.length; i++) {
+			this.names[i] = names[i].toUpperCase().toCharArray();
+		}
+		this.include = include;
+	}
+
+	/**
+	 * Gets whether this filter is a whitelist or a blacklist.
+	 * @return true if the filter only accepts the properties it was created
+	 * with, false if it accepts every property except the properties it was
+	 * created with
+	 */
+	public boolean isWhitelist() {
+		return include;
+	}
+
+	/**
+	 * Determines if a property should be parsed.
+	 * @param name the property name
+	 * @return true to parse the property, false to skip it
+	 */
+	public boolean accept(String name) {
+		char[] chars = name.toCharArray();
+		return accept(chars, 0, chars.length);
+	}
+
+	/**
+	 * Determines if a property should be parsed. This method does not create
+	 * any objects.
+	 * @param buffer the buffer that contains the property name
+	 * @param start the index of the first character of the property name
+	 * @param end the index after the last character of the property name
+	 * @return true to parse the property, false to skip it
+	 */
+	public boolean accept(char[] buffer, int start, int end) {
+		if (contains(STRUCTURAL, buffer, start, end)) {
+			return true;
+		}
+		return contains(names, buffer, start, end) == include;
+	}
+
+	private static boolean contains(char[][] names, char[] buffer, int start, int end) {
+		int length = end - start;
+		for (char[] name : names) {
+			if (name.length == length && equalsIgnoreCase(name, buffer, start)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean equalsIgnoreCase(char[] upperName, char[] buffer, int start) {
+		for (int i = 0; i < upperName.length; i++) {
+			char ch = buffer[start + i];
+			if (ch >= 'a' && ch <= 'z') {
+				ch -= 'a' - 'A';
+			} else if (ch > 127) {
+				ch = Character.toUpperCase(ch);
+			}
+
+			if (ch != upperName[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -0,0 +1,1281 @@
+package ezvcard.io.text;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.UnsupportedCharsetException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import ezvcard.VCard;
+import ezvcard.VCardDataType;
+import ezvcard.VCardVersion;
+import ezvcard.io.CannotParseException;
+import ezvcard.io.EmbeddedVCardException;
+import ezvcard.io.LazyProperty;
+import ezvcard.io.ParseWarnings;
+import ezvcard.io.SkipMeException;
+import ezvcard.io.scribe.BinaryPropertyScribe;
+import ezvcard.io.scribe.ScribeIndex;
+import ezvcard.io.scribe.VCardPropertyScribe;
+import ezvcard.io.scribe.VCardPropertyScribe.Result;
+import ezvcard.parameter.Encoding;
+import ezvcard.parameter.VCardParameters;
+import ezvcard.property.Agent;
+import ezvcard.property.Label;
+import ezvcard.property.RawProperty;
+import ezvcard.property.VCardProperty;
+import ezvcard.util.Base64Decoder;
+import ezvcard.util.BinaryData;
+import ezvcard.util.BinaryDataCache;
+import ezvcard.util.BinaryStorage;
+import ezvcard.util.DataUri;
+import ezvcard.util.IOUtils;
+import ezvcard.util.QuotedPrintableDecoder;
+import ezvcard.util.org.apache.commons.codec.DecoderException;
+
+/*
+ Copyright (c) 2012-2015, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+ The views and conclusions contained in the software and documentation are those
+ of the authors and should not be interpreted as representing official policies, 
+ either expressed or implied, of the FreeBSD Project.
+ */
+
+/**
+ * <p>
+ * Reads a plain-text vCard data stream as a sequence of events, without
+ * building {@link VCard} objects. This is useful when only a handful of
+ * properties are needed from a large number of vCards, since the memory used
+ * does not depend on the size of the vCards.
+ * </p>
+ * <p>
+ * An event is generated for the beginning of each vCard, for each of its
+ * properties, and for the end of each vCard. A property is not unmarshalled
+ * into a {@link VCardProperty} object unless {@link #parseProperty} is called.
+ * </p>
+ * <p>
+ * <b>Example:</b>
+ * 
+ * <pre class="brush:java">
+ * File file = new File("vcards.vcf");
+ * VCardEventReader reader = null;
+ * try {
+ *   reader = new VCardEventReader(file);
+ *   EventType event;
+ *   while ((event = reader.nextEvent()) != null){
+ *     if (event == EventType.PROPERTY &amp;&amp; reader.isProperty("EMAIL")){
+ *       Email email = (Email)reader.parseProperty();
+ *       ...
+ *     }
+ *   }
+ * } finally {
+ *   if (reader != null) reader.close();
+ * }
+ * </pre>
+ * 
+ * </p>
+ * <p>
+ * Events can also be pushed to a {@link Listener} by calling
+ * {@link #read(Listener)}.
+ * </p>
+ * @author Michael Angstadt
+ * @see <a href="http://www.imc.org/pdi/vcard-21.rtf">vCard 2.1</a>
+ * @see <a href="http://tools.ietf.org/html/rfc2426">RFC 2426 (3.0)</a>
+ * @see <a href="http://tools.ietf.org/html/rfc6350">RFC 6350 (4.0)</a>
+ */
+public class VCardEventReader implements Closeable {
+	private final VCardRawReader reader;
+	private final ParseWarnings warnings;
+	private ScribeIndex index = new ScribeIndex();
+	private Charset defaultQuotedPrintableCharset;
+	private boolean binaryStreamingEnabled = false;
+	private BinarySink binarySink;
+	private BinaryStorage binaryStorage = BinaryStorage.HEAP;
+	private BinaryDataCache binaryDataCache;
+	private final BinaryValueListener binaryValueListener = new BinaryValueListener();
+
+	private final List<VCardVersion> versions = new ArrayList<VCardVersion>();
+	private boolean endPending = false;
+	private VCardLineTokenizer line;
+	private boolean propertyParsed;
+	private VCardProperty property;
+	private EmbeddedVCardException embeddedVCardException;
+	private final Map<Charset, QuotedPrintableDecoder> quotedPrintableDecoders = new HashMap<Charset, QuotedPrintableDecoder>(4);
+
+	/**
+	 * @param str the string to read from
+	 */
+	public VCardEventReader(String str) {
+		this(new StringReader(str));
+	}
+
+	/**
+	 * @param in the input stream to read from
+	 */
+	public VCardEventReader(InputStream in) {
+		this(new InputStreamReader(in));
+	}
+
+	/**
+	 * @param file the file to read from
+	 * @throws FileNotFoundException if the file doesn't exist
+	 */
+	public VCardEventReader(File file) throws FileNotFoundException {
+		this(new FileReader(file));
+	}
+
+	/**
+	 * @param reader the reader to read from
+	 */
+	public VCardEventReader(Reader reader) {
+		this(reader, new ParseWarnings());
+	}
+
+	/**
+	 * @param reader the reader to read from
+	 * @param warnings the object to add parse warnings to
+	 */
+	VCardEventReader(Reader reader, ParseWarnings warnings) {
+		this(new VCardRawReader(reader), warnings);
+	}
+
+	/**
+	 * @param reader the raw reader to read from
+	 * @param warnings the object to add parse warnings to
+	 */
+	VCardEventReader(VCardRawReader reader, ParseWarnings warnings) {
+		this.reader = reader;
+		this.warnings = warnings;
+	}
+
+	/**
+	 * Resets this reader so that it reads from a different data stream. All
+	 * settings (such as the scribe index) and internal buffers are kept. The
+	 * previous reader is not closed.
+	 * @param reader the reader to read from
+	 */
+	public void reset(Reader reader) {
+		this.reader.reset(reader);
+		resetState();
+	}
+
+	/**
+	 * Resets this reader so that it reads from a different data stream. All
+	 * settings (such as the scribe index) and internal buffers are kept. The
+	 * previous reader is not closed.
+	 * @param text the text to read from
+	 */
+	public void reset(CharSequence text) {
+		reader.reset(text);
+		resetState();
+	}
+
+	private void resetState() {
+		warnings.clear();
+		versions.clear();
+		endPending = false;
+		line = null;
+		propertyParsed = false;
+		property = null;
+		embeddedVCardException = null;
+	}
+
+	/**
+	 * Gets whether the reader will decode parameter values that use circumflex
+	 * accent encoding (enabled by default).
+	 * @return true if circumflex accent decoding is enabled, false if not
+	 * @see VCardRawReader#isCaretDecodingEnabled()
+	 */
+	public boolean isCaretDecodingEnabled() {
+		return reader.isCaretDecodingEnabled();
+	}
+
+	/**
+	 * Sets whether the reader will decode parameter values that use circumflex
+	 * accent encoding (enabled by default).
+	 * @param enable true to use circumflex accent decoding, false not to
+	 * @see VCardRawReader#setCaretDecodingEnabled(boolean)
+	 */
+	public void setCaretDecodingEnabled(boolean enable) {
+		reader.setCaretDecodingEnabled(enable);
+	}
+
+	/**
+	 * Gets the filter that determines which properties are skipped over.
+	 * @return the filter or null if no properties are skipped
+	 * @see VCardRawReader#getPropertyNameFilter()
+	 */
+	public PropertyNameFilter getPropertyNameFilter() {
+		return reader.getPropertyNameFilter();
+	}
+
+	/**
+	 * Sets a filter that determines which properties are skipped over.
+	 * Skipped properties do not generate any events.
+	 * @param filter the filter or null to not skip any properties
+	 * @see VCardRawReader#setPropertyNameFilter(PropertyNameFilter)
+	 */
+	public void setPropertyNameFilter(PropertyNameFilter filter) {
+		reader.setPropertyNameFilter(filter);
+	}
+
+	/**
+	 * Gets the character set to use when decoding quoted-printable values if
+	 * the property has no CHARSET parameter, or if the CHARSET parameter is not
+	 * a valid character set.
+	 * @return the character set
+	 * @see VCardReader#getDefaultQuotedPrintableCharset()
+	 */
+	public Charset getDefaultQuotedPrintableCharset() {
+		if (defaultQuotedPrintableCharset != null) {
+			return defaultQuotedPrintableCharset;
+		}
+
+		Charset charset = reader.getEncoding();
+		return (charset == null) ? Charset.defaultCharset() : charset;
+	}
+
+	/**
+	 * Sets the character set to use when decoding quoted-printable values if
+	 * the property has no CHARSET parameter, or if the CHARSET parameter is not
+	 * a valid character set.
+	 * @param charset the character set or null to use the reader's character
+	 * encoding
+	 * @see VCardReader#setDefaultQuotedPrintableCharset(Charset)
+	 */
+	public void setDefaultQuotedPrintableCharset(Charset charset) {
+		defaultQuotedPrintableCharset = charset;
+	}
+
+	/**
+	 * Gets whether the values of base64-encoded binary properties (such as
+	 * PHOTO) are decoded while they are being read (disabled by default).
+	 * @return true if enabled, false if not
+	 * @see #setBinaryStreamingEnabled(boolean)
+	 */
+	public boolean isBinaryStreamingEnabled() {
+		return binaryStreamingEnabled;
+	}
+
+	/**
+	 * <p>
+	 * Sets whether the values of base64-encoded binary properties (such as
+	 * PHOTO) are decoded while they are being read (disabled by default).
+	 * </p>
+	 * <p>
+	 * When enabled, the base64-encoded text is decoded one folded line at a
+	 * time and written to the {@link BinarySink} (or collected in a buffer and
+	 * copied to the {@link BinaryStorage} if no sink is set), so the encoded
+	 * value is never held in memory all at once. As a consequence, the value
+	 * of the tokenized line of such a property (see {@link #getTokens} and
+	 * {@link #getRawLine}) is empty.
+	 * </p>
+	 * <p>
+	 * The value is only decoded this way if the property's scribe is a
+	 * {@link BinaryPropertyScribe}, and if the property has an ENCODING
+	 * parameter of "b" or "base64" (2.1 and 3.0) or its value is a
+	 * base64-encoded data URI (4.0).
+	 * </p>
+	 * <p>
+	 * Streamed properties are unmarshalled with
+	 * {@link BinaryPropertyScribe#parseBinary}, so a scribe's
+	 * {@code _parseText} method is not called for them. Also, if a 2.1 or 3.0
+	 * property has no TYPE parameter, its content type is not guessed from
+	 * the property value.
+	 * </p>
+	 * @param enable true to enable, false to disable
+	 */
+	public void setBinaryStreamingEnabled(boolean enable) {
+		binaryStreamingEnabled = enable;
+		reader.setValueListener(enable ? binaryValueListener : null);
+	}
+
+	/**
+	 * Gets the object that binary property values are written to as they are
+	 * decoded.
+	 * @return the sink or null if the values are collected in memory
+	 * @see #setBinaryStreamingEnabled(boolean)
+	 */
+	public BinarySink getBinarySink() {
+		return binarySink;
+	}
+
+	/**
+	 * Sets the object that binary property values are written to as they are
+	 * decoded. This setting only has an effect if binary streaming is enabled.
+	 * @param sink the sink or null to collect the values in memory (default)
+	 * @see #setBinaryStreamingEnabled(boolean)
+	 */
+	public void setBinarySink(BinarySink sink) {
+		binarySink = sink;
+	}
+
+	/**
+	 * Gets where the data of binary property values is stored when they are
+	 * decoded and not sent to a {@link BinarySink}.
+	 * @return the storage
+	 * @see #setBinaryStreamingEnabled(boolean)
+	 */
+	public BinaryStorage getBinaryStorage() {
+		return binaryStorage;
+	}
+
+	/**
+	 * Sets where the data of binary property values is stored when they are
+	 * decoded and not sent to a {@link BinarySink}. This setting only has an
+	 * effect if binary streaming is enabled.
+	 * @param storage the storage (defaults to {@link BinaryStorage#HEAP})
+	 * @see #setBinaryStreamingEnabled(boolean)
+	 */
+	public void setBinaryStorage(BinaryStorage storage) {
+		binaryStorage = storage;
+	}
+
+	/**
+	 * Gets the cache that is used to share identical binary property values
+	 * between properties.
+	 * @return the cache or null if values are not shared (default)
+	 * @see #setBinaryDataCache(BinaryDataCache)
+	 */
+	public BinaryDataCache getBinaryDataCache() {
+		return binaryDataCache;
+	}
+
+	/**
+	 * Sets the cache that is used to share identical binary property values
+	 * between properties. If a decoded value is already in the cache, the
+	 * cached value is assigned to the property and the decoded value is not
+	 * copied to the {@link BinaryStorage}. This setting only has an effect if
+	 * binary streaming is enabled.
+	 * @param cache the cache or null not to share values (default)
+	 * @see #setBinaryStreamingEnabled(boolean)
+	 */
+	public void setBinaryDataCache(BinaryDataCache cache) {
+		binaryDataCache = cache;
+	}
+
+	/**
+	 * Gets the scribe index.
+	 * @return the scribe index
+	 */
+	public ScribeIndex getScribeIndex() {
+		return index;
+	}
+
+	/**
+	 * Sets the scribe index.
+	 * @param index the scribe index
+	 */
+	public void setScribeIndex(ScribeIndex index) {
+		this.index = index;
+	}
+
+	/**
+	 * Reads the next event from the data stream.
+	 * @return the event or null if the end of the stream has been reached
+	 * @throws IOException if there's a problem reading from the stream
+	 */
+	public EventType nextEvent() throws IOException {
+		line = null;
+		propertyParsed = false;
+		property = null;
+		embeddedVCardException = null;
+
+		if (endPending) {
+			versions.remove(versions.size() - 1);
+			endPending = false;
+		}
+
+		while (true) {
+			//read next line
+			VCardLineTokenizer line;
+			try {
+				line = reader.readTokens();
+			} catch (VCardParseException e) {
+				if (!versions.isEmpty()) {
+					warnings.add(reader.getLineNum(), null, 27, e.getLine());
+				}
+				continue;
+			}
+
+			//EOF
+			if (line == null) {
+				return null;
+			}
+
+			//handle BEGIN:VCARD
+			if (line.nameEqualsIgnoreCase("BEGIN") && line.valueEqualsIgnoreCase("VCARD")) {
+				if (versions.isEmpty()) {
+					warnings.clear();
+				}
+				versions.add(reader.getVersion());
+				return EventType.BEGIN_VCARD;
+			}
+
+			if (versions.isEmpty()) {
+				//BEGIN component hasn't been encountered yet, so skip this line
+				continue;
+			}
+
+			//handle VERSION property
+			if (line.nameEqualsIgnoreCase("VERSION")) {
+				versions.set(versions.size() - 1, reader.getVersion());
+				continue;
+			}
+
+			//handle END:VCARD
+			if (line.nameEqualsIgnoreCase("END") && line.valueEqualsIgnoreCase("VCARD")) {
+				endPending = true;
+				return EventType.END_VCARD;
+			}
+
+			this.line = line;
+			return EventType.PROPERTY;
+		}
+	}
+
+	/**
+	 * Reads the rest of the data stream, pushing each event to the given
+	 * listener.
+	 * @param listener the listener
+	 * @throws IOException if there's a problem reading from the stream
+	 */
+	public void read(Listener listener) throws IOException {
+		EventType event;
+		while ((event = nextEvent()) != null) {
+			switch (event) {
+			case BEGIN_VCARD:
+				listener.beginVCard(this);
+				break;
+			case PROPERTY:
+				listener.property(this);
+				break;
+			case END_VCARD:
+				listener.endVCard(this);
+				break;
+			}
+		}
+	}
+
+	/**
+	 * Gets the nesting level of the vCard that is currently being read (the
+	 * first level is 1). Nested vCards only occur in 2.1 vCards that contain
+	 * AGENT properties.
+	 * @return the nesting level or 0 if the reader is not inside of a vCard
+	 */
+	public int getDepth() {
+		return versions.size();
+	}
+
+	/**
+	 * Gets the version of the vCard that is currently being read.
+	 * @return the version or null if the reader is not inside of a vCard
+	 */
+	public VCardVersion getVersion() {
+		return versions.isEmpty() ? null : versions.get(versions.size() - 1);
+	}
+
+	/**
+	 * Gets the version of a vCard that is currently being read.
+	 * @param depth the nesting level of the vCard (the first level is 1)
+	 * @return the version
+	 */
+	VCardVersion getVersion(int depth) {
+		return versions.get(depth - 1);
+	}
+
+	/**
+	 * Gets the line number of the last line that was read.
+	 * @return the line number
+	 */
+	public int getLineNum() {
+		return reader.getLineNum();
+	}
+
+	/**
+	 * Gets the tokenized line of the current {@link EventType#PROPERTY
+	 * PROPERTY} event. This object is re-used, so it is only valid until the
+	 * next event is read.
+	 * @return the tokenized line or null if the current event is not a
+	 * property event
+	 */
+	public VCardLineTokenizer getTokens() {
+		return line;
+	}
+
+	/**
+	 * Gets the raw, unparsed form of the current {@link EventType#PROPERTY
+	 * PROPERTY} event.
+	 * @return the raw line or null if the current event is not a property
+	 * event
+	 */
+	public VCardRawLine getRawLine() {
+		return (line == null) ? null : line.toRawLine();
+	}
+
+	/**
+	 * Gets the property name of the current {@link EventType#PROPERTY
+	 * PROPERTY} event.
+	 * @return the property name or null if the current event is not a
+	 * property event
+	 */
+	public String getPropertyName() {
+		return (line == null) ? null : line.getName();
+	}
+
+	/**
+	 * Determines if the current event is a {@link EventType#PROPERTY PROPERTY}
+	 * event with the given name. No objects are created.
+	 * @param name the property name (case-insensitive, e.g. "EMAIL")
+	 * @return true if the names match, false if not
+	 */
+	public boolean isProperty(String name) {
+		return line != null && line.nameEqualsIgnoreCase(name);
+	}
+
+	/**
+	 * <p>
+	 * Unmarshals the property of the current {@link EventType#PROPERTY
+	 * PROPERTY} event. Calling this method more than once for the same event
+	 * returns the same object.
+	 * </p>
+	 * <p>
+	 * If the property is a 2.1-style AGENT property, the vCard it contains is
+	 * <b>not</b> injected into the property. Instead, its events are
+	 * generated as a nested vCard (see {@link #getDepth}).
+	 * </p>
+	 * @return the property or null if the current event is not a property
+	 * event or if the property's scribe decided to skip it (a warning will be
+	 * logged)
+	 */
+	public VCardProperty parseProperty() {
+		if (line == null) {
+			return null;
+		}
+
+		if (!propertyParsed) {
+			property = parse(line);
+			propertyParsed = true;
+		}
+		return property;
+	}
+
+	/**
+	 * <p>
+	 * Gets the data of the current {@link EventType#PROPERTY PROPERTY} event
+	 * in a form that can be unmarshalled later. The property's parameters are
+	 * sanitized and its value is decoded, but the property's scribe is not
+	 * invoked until {@link LazyProperty#parse} is called.
+	 * </p>
+	 * <p>
+	 * Warnings that are generated when the property is unmarshalled are not
+	 * logged.
+	 * </p>
+	 * @return the property data or null if the current event is not a
+	 * property event, or if the property must be unmarshalled right away (this
+	 * is the case for extended properties that have no registered scribe, for
+	 * LABEL and AGENT properties, and for properties that have already been
+	 * unmarshalled with {@link #parseProperty})
+	 */
+	public LazyProperty parseLazyProperty() {
+		if (line == null || propertyParsed) {
+			return null;
+		}
+
+		VCardPropertyScribe<? extends VCardProperty> scribe = index.getPropertyScribe(line.getName());
+		if (scribe == null) {
+			return null;
+		}
+
+		Class<? extends VCardProperty> clazz = scribe.getPropertyClass();
+		if (clazz == Label.class || clazz == Agent.class) {
+			return null;
+		}
+
+		return prepare(line);
+	}
+
+	/**
+	 * Determines if the value of the current {@link EventType#PROPERTY
+	 * PROPERTY} event is binary data that was decoded while it was being read
+	 * (see {@link #setBinaryStreamingEnabled}). The data of such properties has
+	 * already been shared with the {@link BinaryDataCache}.
+	 * @return true if the value was decoded, false if not
+	 */
+	boolean isBinaryValueDecoded() {
+		return line != null && reader.isValueStreamed() && binaryValueListener.value == null;
+	}
+
+	/**
+	 * Gets the exception that was thrown when the current property was
+	 * unmarshalled if the property is expecting the next vCard in the data
+	 * stream to be injected into it (2.1-style AGENT properties).
+	 * @return the exception or null if no vCard needs to be injected
+	 */
+	EmbeddedVCardException getEmbeddedVCardException() {
+		return embeddedVCardException;
+	}
+
+	/**
+	 * Gets the warnings that have been logged since the beginning of the
+	 * current top-level vCard.
+	 * @return the warnings or empty list if there were no warnings
+	 */
+	public List<String> getWarnings() {
+		return warnings.copy();
+	}
+
+	private VCardProperty parse(VCardLineTokenizer line) {
+		UnparsedProperty unparsed = prepare(line);
+		try {
+			return unparsed.parse(warnings, reader.getLineNum());
+		} catch (EmbeddedVCardException e) {
+			//parse an embedded vCard (i.e. the AGENT type)
+			VCardProperty property = e.getProperty();
+			String name = unparsed.name;
+			String value = unparsed.value;
+			VCardVersion version = unparsed.version;
+
+			if (value.length() == 0 || version == VCardVersion.V2_1) {
+				//a nested vCard is expected to be next (2.1 style)
+				embeddedVCardException = e;
+				return property;
+			}
+
+			//the property value should be an embedded vCard (3.0 style)
+			value = VCardPropertyScribe.unescape(value);
+
+			VCardReader agentReader = new VCardReader(value);
+			agentReader.setScribeIndex(index);
+			agentReader.setBinaryDataCache(binaryDataCache);
+			try {
+				VCard nestedVCard = agentReader.readNext();
+				if (nestedVCard != null) {
+					e.injectVCard(nestedVCard);
+				}
+			} catch (IOException e2) {
+				//shouldn't be thrown because we're reading from a string
+			} finally {
+				for (String w : agentReader.getWarnings()) {
+					warnings.add(reader.getLineNum(), name, 26, w);
+				}
+				IOUtils.closeQuietly(agentReader);
+			}
+
+			return property;
+		}
+	}
+
+	/**
+	 * Sanitizes the parameters and decodes the value of a property, and
+	 * determines which scribe to use to unmarshal the property.
+	 * @param line the tokenized line
+	 * @return the property data
+	 */
+	private UnparsedProperty prepare(VCardLineTokenizer line) {
+		String group = line.getGroup();
+		VCardParameters parameters = line.getParameters();
+		String name = line.getName();
+
+		VCardVersion version = getVersion();
+
+		//sanitize the parameters
+		processNamelessParameters(parameters);
+		processQuotedMultivaluedTypeParams(parameters);
+
+		//decode property value from quoted-printable
+		String value;
+		if (reader.isValueStreamed()) {
+			//the value was read by the binary value listener (null if it was decoded)
+			value = binaryValueListener.value;
+		} else {
+			try {
+				value = decodeQuotedPrintableValue(name, parameters, line);
+			} catch (DecoderException e) {
+				warnings.add(reader.getLineNum(), name, 38, e.getMessage());
+				value = line.getValue();
+			}
+		}
+
+		//get the scribe
+		VCardPropertyScribe<? extends VCardProperty> scribe = index.getPropertyScribe(name);
+		if (scribe == null) {
+			scribe = index.getRawPropertyScribe(name);
+		}
+
+		//get the data type (VALUE parameter)
+		VCardDataType dataType = parameters.getValue();
+		if (dataType == null) {
+			//use the default data type if there is no VALUE parameter
+			dataType = scribe.defaultDataType(version);
+		} else {
+			//remove VALUE parameter if it is set
+			parameters.setValue(null);
+		}
+
+		if (value == null) {
+			BinaryValueListener listener = binaryValueListener;
+			return new DecodedBinaryProperty((BinaryPropertyScribe<?, ?>) scribe, group, name, listener.data, listener.mediaType, dataType, version, parameters);
+		}
+
+		return new UnparsedProperty(scribe, group, name, value, dataType, version, parameters);
+	}
+
+	/**
+	 * Assigns names to all nameless parameters. v3.0 and v4.0 requires all
+	 * parameters to have names, but v2.1 does not.
+	 * @param parameters the parameters
+	 */
+	private void processNamelessParameters(VCardParameters parameters) {
+		List<String> namelessParamValues = parameters.removeAll(null);
+		for (String paramValue : namelessParamValues) {
+			String paramName = guessParameterName(paramValue);
+			parameters.put(paramName, paramValue);
+		}
+	}
+
+	/**
+	 * Makes a guess as to what a parameter value's name should be.
+	 * @param value the parameter value
+	 * @return the guessed name
+	 */
+	private String guessParameterName(String value) {
+		if (VCardDataType.find(value) != null) {
+			return VCardParameters.VALUE;
+		}
+
+		if (Encoding.find(value) != null) {
+			return VCardParameters.ENCODING;
+		}
+
+		//otherwise, assume it's a TYPE
+		return VCardParameters.TYPE;
+	}
+
+	/**
+	 * <p>
+	 * Accounts for multi-valued TYPE parameters being enclosed entirely in
+	 * double quotes (for example: ADR;TYPE="home,work").
+	 * </p>
+	 * <p>
+	 * Many examples throughout the 4.0 specs show TYPE parameters being encoded
+	 * in this way. This conflicts with the ABNF and is noted in the errata.
+	 * This method will parse these incorrectly-formatted TYPE parameters as if
+	 * they were multi-valued, even though, technically, they are not.
+	 * </p>
+	 * @param parameters the parameters
+	 */
+	private void processQuotedMultivaluedTypeParams(VCardParameters parameters) {
+		for (String typeParameter : parameters.getTypes()) {
+			if (!typeParameter.contains(",")) {
+				continue;
+			}
+
+			parameters.removeTypes();
+			for (String splitValue : typeParameter.split(",")) {
+				parameters.addType(splitValue);
+			}
+		}
+	}
+
+	/**
+	 * Checks to see if a property's value is encoded in quoted-printable
+	 * encoding and decodes it if it is.
+	 * @param name the property name
+	 * @param parameters the property parameters
+	 * @param line the tokenized line that contains the property value (may or
+	 * may not be encoded in quoted-printable)
+	 * @return the decoded property value or the untouched property value if it
+	 * is not encoded in quoted-printable encoding
+	 * @throws DecoderException if the value couldn't be decoded
+	 */
+	private String decodeQuotedPrintableValue(String name, VCardParameters parameters, VCardLineTokenizer line) throws DecoderException {
+		if (parameters.getEncoding() != Encoding.QUOTED_PRINTABLE) {
+			//the property value is not encoded in quoted-printable encoding
+			return line.getValue();
+		}
+
+		//remove the encoding parameter
+		parameters.setEncoding(null);
+
+		//determine the character set
+		Charset charset = null;
+		String charsetStr = parameters.getCharset();
+		if (charsetStr == null) {
+			charset = getDefaultQuotedPrintableCharset();
+		} else {
+			try {
+				charset = Charset.forName(charsetStr);
+			} catch (IllegalCharsetNameException e) {
+				//bad charset name
+			} catch (UnsupportedCharsetException e) {
+				//bad charset name
+			}
+
+			if (charset == null) {
+				charset = getDefaultQuotedPrintableCharset();
+
+				//the given charset was invalid, so add a warning
+				warnings.add(reader.getLineNum(), name, 23, charsetStr, charset.name());
+			}
+		}
+
+		//decode the value directly from the line buffer
+		QuotedPrintableDecoder decoder = quotedPrintableDecoders.get(charset);
+		if (decoder == null) {
+			decoder = new QuotedPrintableDecoder(charset);
+			quotedPrintableDecoders.put(charset, decoder);
+		}
+		return decoder.decode(line.getBuffer(), line.getValueStart(), line.getValueEnd());
+	}
+
+	/**
+	 * Closes the underlying {@link Reader} object.
+	 */
+	public void close() throws IOException {
+		reader.close();
+	}
+
+	/**
+	 * Holds the data of a property that has been read, but not unmarshalled.
+	 */
+	private static class UnparsedProperty implements LazyProperty {
+		private final VCardPropertyScribe<? extends VCardProperty> scribe;
+		private final String group, name, value;
+		private final VCardDataType dataType;
+		protected final VCardVersion version;
+		protected final VCardParameters parameters;
+
+		public UnparsedProperty(VCardPropertyScribe<? extends VCardProperty> scribe, String group, String name, String value, VCardDataType dataType, VCardVersion version, VCardParameters parameters) {
+			this.scribe = scribe;
+			this.group = group;
+			this.name = name;
+			this.value = value;
+			this.dataType = dataType;
+			this.version = version;
+			this.parameters = parameters;
+		}
+
+		public Class<? extends VCardProperty> getPropertyClass() {
+			return scribe.getPropertyClass();
+		}
+
+		public VCardProperty parse() {
+			try {
+				return parse(null, 0);
+			} catch (EmbeddedVCardException e) {
+				//the embedded vCard is not read
+				return e.getProperty();
+			}
+		}
+
+		/**
+		 * Unmarshals the property.
+		 * @param warnings the object to log warnings to or null not to log
+		 * warnings
+		 * @param lineNum the line number of the property
+		 * @return the property or null if the property was skipped
+		 * @throws EmbeddedVCardException if the property contains an embedded
+		 * vCard
+		 */
+		public VCardProperty parse(ParseWarnings warnings, int lineNum) {
+			VCardProperty property;
+			try {
+				Result<? extends VCardProperty> result = unmarshal();
+
+				if (warnings != null) {
+					for (String warning : result.getWarnings()) {
+						warnings.add(lineNum, name, warning);
+					}
+				}
+
+				property = result.getProperty();
+				property.setGroup(group);
+				return property;
+			} catch (SkipMeException e) {
+				if (warnings != null) {
+					warnings.add(lineNum, name, 22, e.getMessage());
+				}
+				return null;
+			} catch (CannotParseException e) {
+				if (warnings != null) {
+					warnings.add(lineNum, name, 25, value, e.getMessage());
+				}
+				property = new RawProperty(name, value);
+				property.setGroup(group);
+				return property;
+			}
+		}
+
+		/**
+		 * Invokes the scribe.
+		 * @return the unmarshalled property
+		 */
+		protected Result<? extends VCardProperty> unmarshal() {
+			return scribe.parseText(value, dataType, version, parameters);
+		}
+	}
+
+	/**
+	 * Holds the data of a binary property whose value was decoded while it was
+	 * being read.
+	 */
+	private static class DecodedBinaryProperty extends UnparsedProperty {
+		private final BinaryPropertyScribe<?, ?> scribe;
+		private final BinaryData data;
+		private final String mediaType;
+
+		public DecodedBinaryProperty(BinaryPropertyScribe<?, ?> scribe, String group, String name, BinaryData data, String mediaType, VCardDataType dataType, VCardVersion version, VCardParameters parameters) {
+			super(scribe, group, name, "", dataType, version, parameters);
+			this.scribe = scribe;
+			this.data = data;
+			this.mediaType = mediaType;
+		}
+
+		@Override
+		protected Result<? extends VCardProperty> unmarshal() {
+			return scribe.parseBinary(data, mediaType, version, parameters);
+		}
+	}
+
+	/**
+	 * Decodes the values of base64-encoded binary properties as they are read
+	 * (see {@link VCardEventReader#setBinaryStreamingEnabled}).
+	 */
+	private class BinaryValueListener implements FoldedLineReader.ValueListener {
+		private static final String DATA_URI_START = "data:";
+		private static final String DATA_URI_BASE64 = ";base64,";
+
+		private static final int DECODING = 0;
+		private static final int DATA_URI_PREFIX = 1;
+		private static final int NOT_BINARY = 2;
+		private static final int DATA_URI_ENDED = 3;
+
+		private final VCardLineTokenizer tokens = new VCardLineTokenizer();
+		private final DecodeBuffer memory = new DecodeBuffer();
+		private final Base64Decoder decoder = new Base64Decoder(memory);
+		private final StringBuilder raw = new StringBuilder();
+		private final StringBuilder prefix = new StringBuilder();
+
+		private int state;
+		private boolean escaped;
+		private String name;
+		private VCardParameters parameters;
+		private OutputStream out;
+
+		/*
+		 * The result: either the decoded data (and the data URI's media type),
+		 * or the raw value if it turned out not to be base64-encoded.
+		 */
+		private BinaryData data;
+		private String mediaType;
+		private String value;
+
+		public boolean valueStarted(char[] line, int length) throws IOException {
+			if (versions.isEmpty()) {
+				return false;
+			}
+
+			VCardVersion version = getVersion();
+			if (!tokens.tokenize(line, 0, length, version, reader.isCaretDecodingEnabled())) {
+				//the colon is not the one that separates the value from the rest of the line (e.g. it's inside a quoted parameter value)
+				return false;
+			}
+
+			boolean v40 = (version == VCardVersion.V4_0);
+			if (!v40 && !hasBase64Parameter()) {
+				//check this first, since it does not create any objects
+				return false;
+			}
+
+			String name = tokens.getName();
+			VCardPropertyScribe<? extends VCardProperty> scribe = index.getPropertyScribe(name);
+			if (!(scribe instanceof BinaryPropertyScribe)) {
+				return false;
+			}
+
+			VCardParameters parameters = tokens.getParameters();
+			processNamelessParameters(parameters);
+			Encoding encoding = parameters.getEncoding();
+			if (v40) {
+				if (encoding == Encoding.QUOTED_PRINTABLE) {
+					return false;
+				}
+			} else {
+				if (encoding != Encoding.B && encoding != Encoding.BASE64) {
+					return false;
+				}
+
+				VCardDataType dataType = parameters.getValue();
+				if (dataType == VCardDataType.URL || dataType == VCardDataType.URI) {
+					return false;
+				}
+			}
+
+			this.name = name;
+			this.parameters = parameters;
+			escaped = false;
+			data = null;
+			mediaType = null;
+			value = null;
+			raw.setLength(0);
+			prefix.setLength(0);
+
+			if (v40) {
+				//the value must be inspected to determine if it is a data URI
+				state = DATA_URI_PREFIX;
+			} else {
+				startDecoding();
+			}
+			return true;
+		}
+
+		public void valueRead(char[] chars, int offset, int count) throws IOException {
+			int end = offset + count;
+			switch (state) {
+			case DECODING:
+				decode(chars, offset, end);
+				break;
+			case DATA_URI_PREFIX:
+				readDataUriPrefix(chars, offset, end);
+				break;
+			case NOT_BINARY:
+				raw.append(chars, offset, count);
+				break;
+			}
+		}
+
+		public void valueEnded() throws IOException {
+			if (state == DECODING || state == DATA_URI_ENDED) {
+				decoder.finish();
+				if (out == null) {
+					data = (binaryDataCache == null) ? binaryStorage.store(memory.array(), 0, memory.size()) : binaryDataCache.intern(memory.array(), 0, memory.size(), binaryStorage);
+					memory.reset();
+				} else {
+					data = binarySink.close(out);
+					if (data != null && binaryDataCache != null) {
+						data = binaryDataCache.intern(data);
+					}
+					out = null;
+				}
+				return;
+			}
+
+			//remove trailing whitespace, like VCardLineTokenizer does
+			int length = raw.length();
+			while (length > 0 && raw.charAt(length - 1) <= ' ') {
+				length--;
+			}
+			value = raw.substring(0, length);
+		}
+
+		private boolean hasBase64Parameter() {
+			for (int i = 0; i < tokens.getParameterCount(); i++) {
+				if (tokens.parameterValueEqualsIgnoreCase(i, "b") || tokens.parameterValueEqualsIgnoreCase(i, "base64")) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		private void startDecoding() throws IOException {
+			out = (binarySink == null) ? null : binarySink.open(name, parameters);
+			memory.reset();
+			decoder.reset((out == null) ? memory : out);
+			state = DECODING;
+		}
+
+		/**
+		 * Passes the characters to the decoder, removing the escape sequences
+		 * in the same way that {@link VCardPropertyScribe#unescape} does. The
+		 * data of a data URI ends at the first newline (see the regular
+		 * expression in {@link DataUri}).
+		 * @param chars the characters
+		 * @param offset the index of the first character
+		 * @param end the index after the last character
+		 * @throws IOException if there's a problem writing to the sink
+		 */
+		private void decode(char[] chars, int offset, int end) throws IOException {
+			boolean dataUri = (mediaType != null);
+			int start = offset;
+			for (int i = offset; i < end; i++) {
+				char ch = chars[i];
+				if (escaped) {
+					escaped = false;
+					if (ch == 'n' || ch == 'N') {
+						if (dataUri) {
+							state = DATA_URI_ENDED;
+							return;
+						}
+
+						//an escaped newline is not part of the base64 alphabet, so skip it
+						start = i + 1;
+						continue;
+					}
+				} else if (ch == '\\') {
+					decoder.decode(chars, start, i - start);
+					escaped = true;
+					start = i + 1;
+					continue;
+				}
+
+				if (dataUri && isLineTerminator(ch)) {
+					decoder.decode(chars, start, i - start);
+					state = DATA_URI_ENDED;
+					return;
+				}
+			}
+			decoder.decode(chars, start, end - start);
+		}
+
+		/**
+		 * Reads the beginning of a 4.0 value to determine if it is a
+		 * base64-encoded data URI (e.g. "data:image/jpeg;base64,...").
+		 * @param chars the characters
+		 * @param offset the index of the first character
+		 * @param end the index after the last character
+		 * @throws IOException if there's a problem writing to the sink
+		 */
+		private void readDataUriPrefix(char[] chars, int offset, int end) throws IOException {
+			for (int i = offset; i < end; i++) {
+				char ch = chars[i];
+				if (raw.length() == 0 && ch <= ' ') {
+					//skip leading whitespace, like VCardLineTokenizer does
+					continue;
+				}
+				raw.append(ch);
+
+				if (escaped) {
+					escaped = false;
+					if (ch == 'n' || ch == 'N') {
+						ch = '\n';
+					}
+				} else if (ch == '\\') {
+					escaped = true;
+					continue;
+				}
+				prefix.append(ch);
+
+				int length = prefix.length();
+				boolean isDataUri;
+				if (length <= DATA_URI_START.length()) {
+					isDataUri = Character.toLowerCase(ch) == DATA_URI_START.charAt(length - 1);
+				} else {
+					//see the regular expression in DataUri
+					isDataUri = !isLineTerminator(ch);
+				}
+
+				if (!isDataUri) {
+					//treat the value like any other
+					raw.append(chars, i + 1, end - i - 1);
+					state = NOT_BINARY;
+					return;
+				}
+
+				int base64Start = length - DATA_URI_BASE64.length();
+				if (base64Start >= DATA_URI_START.length() && ch == ',' && prefix.substring(base64Start).equalsIgnoreCase(DATA_URI_BASE64)) {
+					mediaType = prefix.substring(DATA_URI_START.length(), base64Start);
+					startDecoding();
+					decode(chars, i + 1, end);
+					return;
+				}
+			}
+		}
+
+		private boolean isLineTerminator(char ch) {
+			return ch == '\n' || ch == '\r' || ch == '\u0085' || ch == '\u2028' || ch == '\u2029';
+		}
+	}
+
+	/**
+	 * Collects decoded data before it is copied to the {@link BinaryStorage}.
+	 * Gives access to the internal array, so that the data is only copied
+	 * once.
+	 */
+	private static class DecodeBuffer extends ByteArrayOutputStream {
+		public byte[] array() {
+			return buf;
+		}
+	}
+
+	/**
+	 * The types of events that {@link VCardEventReader} generates.
+	 */
+	public static enum EventType {
+		/**
+		 * A "BEGIN:VCARD" line was read.
+		 */
+		BEGIN_VCARD,
+
+		/**
+		 * A property was read.
+		 */
+		PROPERTY,
+
+		/**
+		 * An "END:VCARD" line was read.
+		 */
+		END_VCARD
+	}
+
+	/**
+	 * Receives the events that are generated by
+	 * {@link VCardEventReader#read(Listener)}. Information about each event
+	 * can be retrieved from the reader that is passed into each method.
+	 * @author Michael Angstadt
+	 */
+	public static interface Listener {
+		/**
+		 * Called when a "BEGIN:VCARD" line is read.
+		 * @param reader the reader
+		 */
+		void beginVCard(VCardEventReader reader);
+
+		/**
+		 * Called when a property is read.
+		 * @param reader the reader (call {@link VCardEventReader#parseProperty}
+		 * to unmarshal the property)
+		 */
+		void property(VCardEventReader reader);
+
+		/**
+		 * Called when an "END:VCARD" line is read.
+		 * @param reader the reader
+		 */
+		void endVCard(VCardEventReader reader);
+	}
+}
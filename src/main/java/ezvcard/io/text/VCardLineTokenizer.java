@@ -0,0 +1,596 @@
+package ezvcard.io.text;
+
+import static ezvcard.util.StringUtils.NEWLINE;
+
+import ezvcard.VCardVersion;
+import ezvcard.parameter.VCardParameters;
+import ezvcard.util.StringUtils;
+
+/*
+ Copyright (c) 2012-2015, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+ The views and conclusions contained in the software and documentation are those
+ of the authors and should not be interpreted as representing official policies, 
+ either expressed or implied, of the FreeBSD Project.
+ */
+
+/**
+ * <p>
+ * Splits an unfolded vCard line into its components (group, property name,
+ * parameters, and value) without copying any of the line's characters.
+ * </p>
+ * <p>
+ * The tokenizer scans a {@code char} array directly and records where each
+ * component begins and ends. {@link String} objects are only created when a
+ * component is actually requested (for example, by calling
+ * {@link #getName()}). A single instance is meant to be re-used for each line
+ * that is read.
+ * </p>
+ * <p>
+ * <b>Example:</b>
+ * 
+ * <pre class="brush:java">
+ * VCardRawReader reader = ...
+ * VCardLineTokenizer line;
+ * while ((line = reader.readTokens()) != null){
+ *   if (line.nameEqualsIgnoreCase("EMAIL")){
+ *     String email = line.getValue();
+ *     ...
+ *   }
+ * }
+ * </pre>
+ * 
+ * </p>
+ * @author Michael Angstadt
+ * @see VCardRawReader#readTokens()
+ */
+public class VCardLineTokenizer {
+	private final StringBuilder sb = new StringBuilder();
+
+	private char[] buffer;
+	private int lineStart, lineEnd;
+	private VCardVersion version;
+	private boolean caretDecodingEnabled;
+
+	private int groupStart, groupEnd;
+	private boolean groupEscaped;
+	private int nameStart, nameEnd;
+	private boolean nameEscaped;
+	private int valueStart, valueEnd, untrimmedValueStart;
+
+	private int parameterCount;
+	private int[] paramNameStarts = new int[8], paramNameEnds = new int[8];
+	private int[] paramValueStarts = new int[8], paramValueEnds = new int[8];
+	private boolean[] paramNamesEscaped = new boolean[8], paramValuesEscaped = new boolean[8];
+
+	/**
+	 * Tokenizes an unfolded line.
+	 * @param buffer the buffer that contains the line (the tokenizer keeps a
+	 * reference to this buffer, so its contents must not be modified until the
+	 * tokenizer is done being used)
+	 * @param offset the index of the first character of the line
+	 * @param length the number of characters in the line
+	 * @param version the version of the vCard that is being parsed
+	 * @param caretDecodingEnabled true to decode parameter values that use
+	 * circumflex accent encoding, false not to
+	 * @return true if the line was successfully tokenized, false if it is
+	 * missing a property name or a property value
+	 * @see <a href="http://tools.ietf.org/html/rfc6868">RFC 6868</a>
+	 */
+	public boolean tokenize(char[] buffer, int offset, int length, VCardVersion version, boolean caretDecodingEnabled) {
+		this.buffer = buffer;
+		this.lineStart = offset;
+		this.lineEnd = offset + length;
+		this.version = version;
+		this.caretDecodingEnabled = caretDecodingEnabled;
+
+		groupStart = groupEnd = -1;
+		nameStart = nameEnd = -1;
+		valueStart = valueEnd = untrimmedValueStart = -1;
+		groupEscaped = nameEscaped = false;
+		parameterCount = 0;
+
+		boolean v21 = (version == VCardVersion.V2_1);
+		boolean escapePending = false; //is the next char escaped?
+		boolean inQuotes = false; //are we inside of double quotes?
+		int tokenStart = offset;
+		boolean tokenEscaped = false; //does the current token contain escape sequences or quotes?
+
+		int curParamNameStart = -1, curParamNameEnd = -1;
+		boolean curParamNameEscaped = false;
+		for (int i = offset; i < lineEnd; i++) {
+			char ch = buffer[i];
+
+			if (escapePending) {
+				//this character was escaped (the escape sequence is decoded when the token is converted to a string)
+				escapePending = false;
+				continue;
+			}
+
+			if (ch == '\\' || (ch == '^' && !v21 && caretDecodingEnabled)) {
+				//an escape character was read
+				escapePending = true;
+				tokenEscaped = true;
+				continue;
+			}
+
+			if (ch == '.' && groupStart < 0 && nameStart < 0) {
+				//set the group
+				groupStart = tokenStart;
+				groupEnd = i;
+				groupEscaped = tokenEscaped;
+
+				tokenStart = i + 1;
+				tokenEscaped = false;
+				continue;
+			}
+
+			if ((ch == ';' || ch == ':') && !inQuotes) {
+				if (nameStart < 0) {
+					//property name
+					nameStart = tokenStart;
+					nameEnd = i;
+					nameEscaped = tokenEscaped;
+				} else {
+					//parameter value
+					addParameter(curParamNameStart, curParamNameEnd, curParamNameEscaped, tokenStart, i, tokenEscaped);
+					curParamNameStart = curParamNameEnd = -1;
+					curParamNameEscaped = false;
+				}
+
+				tokenStart = i + 1;
+				tokenEscaped = false;
+
+				if (ch == ':') {
+					//the rest of the line is the property value
+					untrimmedValueStart = i + 1;
+					valueStart = untrimmedValueStart;
+					valueEnd = lineEnd;
+					while (valueStart < valueEnd && buffer[valueStart] <= ' ') {
+						valueStart++;
+					}
+					while (valueEnd > valueStart && buffer[valueEnd - 1] <= ' ') {
+						valueEnd--;
+					}
+					return true;
+				}
+				continue;
+			}
+
+			if (ch == ',' && !inQuotes && !v21) {
+				//multi-valued parameter
+				addParameter(curParamNameStart, curParamNameEnd, curParamNameEscaped, tokenStart, i, tokenEscaped);
+
+				tokenStart = i + 1;
+				tokenEscaped = false;
+				continue;
+			}
+
+			if (ch == '=' && curParamNameStart < 0) {
+				//parameter name
+				curParamNameStart = tokenStart;
+				curParamNameEnd = i;
+				curParamNameEscaped = tokenEscaped;
+				if (v21) {
+					//2.1 allows whitespace to surround the "=", so remove it
+					while (curParamNameEnd > curParamNameStart && Character.isWhitespace(buffer[curParamNameEnd - 1])) {
+						curParamNameEnd--;
+					}
+				}
+
+				tokenStart = i + 1;
+				tokenEscaped = false;
+				continue;
+			}
+
+			if (ch == '"' && !v21) {
+				//2.1 doesn't use the quoting mechanism
+				inQuotes = !inQuotes;
+				tokenEscaped = true;
+				continue;
+			}
+		}
+
+		return false;
+	}
+
+	private void addParameter(int nameStart, int nameEnd, boolean nameEscaped, int valueStart, int valueEnd, boolean valueEscaped) {
+		if (version == VCardVersion.V2_1) {
+			//2.1 allows whitespace to surround the "=", so remove it
+			while (valueStart < valueEnd && Character.isWhitespace(buffer[valueStart])) {
+				valueStart++;
+			}
+		}
+
+		if (parameterCount == paramValueStarts.length) {
+			int newLength = parameterCount * 2;
+			paramNameStarts = grow(paramNameStarts, newLength);
+			paramNameEnds = grow(paramNameEnds, newLength);
+			paramValueStarts = grow(paramValueStarts, newLength);
+			paramValueEnds = grow(paramValueEnds, newLength);
+			paramNamesEscaped = grow(paramNamesEscaped, newLength);
+			paramValuesEscaped = grow(paramValuesEscaped, newLength);
+		}
+
+		paramNameStarts[parameterCount] = nameStart;
+		paramNameEnds[parameterCount] = nameEnd;
+		paramNamesEscaped[parameterCount] = nameEscaped;
+		paramValueStarts[parameterCount] = valueStart;
+		paramValueEnds[parameterCount] = valueEnd;
+		paramValuesEscaped[parameterCount] = valueEscaped;
+		parameterCount++;
+	}
+
+	/**
+	 * Gets the buffer that the last line was tokenized from. All of the
+	 * offsets returned by this class refer to this buffer.
+	 * @return the buffer
+	 */
+	public char[] getBuffer() {
+		return buffer;
+	}
+
+	/**
+	 * Gets the entire line that was tokenized.
+	 * @return the line
+	 */
+	public String getLine() {
+		return new String(buffer, lineStart, lineEnd - lineStart);
+	}
+
+	/**
+	 * Gets the index of the first character of the group.
+	 * @return the index or -1 if the line has no group
+	 */
+	public int getGroupStart() {
+		return groupStart;
+	}
+
+	/**
+	 * Gets the index after the last character of the group.
+	 * @return the index or -1 if the line has no group
+	 */
+	public int getGroupEnd() {
+		return groupEnd;
+	}
+
+	/**
+	 * Gets the property's group.
+	 * @return the group or null if there is no group
+	 */
+	public String getGroup() {
+		return (groupStart < 0) ? null : toString(groupStart, groupEnd, groupEscaped);
+	}
+
+	/**
+	 * Gets the index of the first character of the property name.
+	 * @return the index
+	 */
+	public int getNameStart() {
+		return nameStart;
+	}
+
+	/**
+	 * Gets the index after the last character of the property name.
+	 * @return the index
+	 */
+	public int getNameEnd() {
+		return nameEnd;
+	}
+
+	/**
+	 * Gets the property name.
+	 * @return the property name
+	 */
+	public String getName() {
+		return toString(nameStart, nameEnd, nameEscaped);
+	}
+
+	/**
+	 * Determines if the property name is equal to the given string, ignoring
+	 * case. No objects are created unless the property name contains escape
+	 * sequences.
+	 * @param name the string to compare against
+	 * @return true if they are equal, false if not
+	 */
+	public boolean nameEqualsIgnoreCase(String name) {
+		if (nameEscaped) {
+			return name.equalsIgnoreCase(getName());
+		}
+		return regionEqualsIgnoreCase(nameStart, nameEnd, name);
+	}
+
+	/**
+	 * Gets the number of parameter values that the property has. Multi-valued
+	 * parameters are counted once for each value.
+	 * @return the number of parameter values
+	 */
+	public int getParameterCount() {
+		return parameterCount;
+	}
+
+	/**
+	 * Gets the index of the first character of a parameter's name.
+	 * @param index the parameter index
+	 * @return the index or -1 if the parameter has no name (only 2.1 allows
+	 * nameless parameters)
+	 */
+	public int getParameterNameStart(int index) {
+		return paramNameStarts[index];
+	}
+
+	/**
+	 * Gets the index after the last character of a parameter's name.
+	 * @param index the parameter index
+	 * @return the index or -1 if the parameter has no name
+	 */
+	public int getParameterNameEnd(int index) {
+		return paramNameEnds[index];
+	}
+
+	/**
+	 * Gets a parameter's name.
+	 * @param index the parameter index
+	 * @return the parameter name or null if the parameter has no name (only
+	 * 2.1 allows nameless parameters)
+	 */
+	public String getParameterName(int index) {
+		int start = paramNameStarts[index];
+		if (start < 0) {
+			return null;
+		}
+
+		String name = toString(start, paramNameEnds[index], paramNamesEscaped[index]);
+		if (paramNamesEscaped[index] && version == VCardVersion.V2_1) {
+			name = StringUtils.rtrim(name);
+		}
+		return name;
+	}
+
+	/**
+	 * Gets the index of the first character of a parameter's value.
+	 * @param index the parameter index
+	 * @return the index
+	 */
+	public int getParameterValueStart(int index) {
+		return paramValueStarts[index];
+	}
+
+	/**
+	 * Gets the index after the last character of a parameter's value.
+	 * @param index the parameter index
+	 * @return the index
+	 */
+	public int getParameterValueEnd(int index) {
+		return paramValueEnds[index];
+	}
+
+	/**
+	 * Gets a parameter's value, with all escape sequences decoded.
+	 * @param index the parameter index
+	 * @return the parameter value
+	 */
+	public String getParameterValue(int index) {
+		String value = toString(paramValueStarts[index], paramValueEnds[index], paramValuesEscaped[index]);
+		if (paramValuesEscaped[index] && version == VCardVersion.V2_1) {
+			value = StringUtils.ltrim(value);
+		}
+		return value;
+	}
+
+	/**
+	 * Determines if a parameter's value is equal to the given string, ignoring
+	 * case. No objects are created unless the parameter value contains escape
+	 * sequences or double quotes.
+	 * @param index the parameter index
+	 * @param value the string to compare against
+	 * @return true if they are equal, false if not
+	 */
+	public boolean parameterValueEqualsIgnoreCase(int index, String value) {
+		if (paramValuesEscaped[index]) {
+			return value.equalsIgnoreCase(getParameterValue(index));
+		}
+		return regionEqualsIgnoreCase(paramValueStarts[index], paramValueEnds[index], value);
+	}
+
+	/**
+	 * Builds a {@link VCardParameters} object containing all of the property's
+	 * parameters.
+	 * @return the parameters
+	 */
+	public VCardParameters getParameters() {
+		VCardParameters parameters = new VCardParameters();
+		for (int i = 0; i < parameterCount; i++) {
+			parameters.put(getParameterName(i), getParameterValue(i));
+		}
+		return parameters;
+	}
+
+	/**
+	 * Gets the index of the first character of the property value
+	 * (surrounding whitespace is excluded).
+	 * @return the index
+	 */
+	public int getValueStart() {
+		return valueStart;
+	}
+
+	/**
+	 * Gets the index after the last character of the property value
+	 * (surrounding whitespace is excluded).
+	 * @return the index
+	 */
+	public int getValueEnd() {
+		return valueEnd;
+	}
+
+	/**
+	 * Gets the property value, with surrounding whitespace removed.
+	 * @return the property value
+	 */
+	public String getValue() {
+		return new String(buffer, valueStart, valueEnd - valueStart);
+	}
+
+	/**
+	 * Gets the property value, exactly as it appears in the line.
+	 * @return the property value
+	 */
+	String getUntrimmedValue() {
+		return new String(buffer, untrimmedValueStart, lineEnd - untrimmedValueStart);
+	}
+
+	/**
+	 * Determines if the property value is equal to the given string, ignoring
+	 * case and surrounding whitespace. No objects are created.
+	 * @param value the string to compare against
+	 * @return true if they are equal, false if not
+	 */
+	public boolean valueEqualsIgnoreCase(String value) {
+		return regionEqualsIgnoreCase(valueStart, valueEnd, value);
+	}
+
+	/**
+	 * Converts the tokenized line to a {@link VCardRawLine} object.
+	 * @return the raw line
+	 */
+	public VCardRawLine toRawLine() {
+		return new VCardRawLine(getGroup(), getName(), getParameters(), getValue());
+	}
+
+	private boolean regionEqualsIgnoreCase(int start, int end, String str) {
+		int length = end - start;
+		if (length != str.length()) {
+			return false;
+		}
+
+		for (int i = 0; i < length; i++) {
+			char c1 = buffer[start + i];
+			char c2 = str.charAt(i);
+			if (c1 == c2) {
+				continue;
+			}
+
+			c1 = Character.toUpperCase(c1);
+			c2 = Character.toUpperCase(c2);
+			if (c1 == c2) {
+				continue;
+			}
+
+			if (Character.toLowerCase(c1) != Character.toLowerCase(c2)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Creates a string from a region of the buffer, decoding any escape
+	 * sequences and removing any double quotes.
+	 * @param start the start index
+	 * @param end the end index
+	 * @param escaped true if the region contains escape sequences or double
+	 * quotes, false if it can be copied as-is
+	 * @return the string
+	 */
+	private String toString(int start, int end, boolean escaped) {
+		if (!escaped) {
+			return new String(buffer, start, end - start);
+		}
+
+		boolean v21 = (version == VCardVersion.V2_1);
+		sb.setLength(0);
+		char escapeChar = 0;
+		for (int i = start; i < end; i++) {
+			char ch = buffer[i];
+
+			if (escapeChar != 0) {
+				//this character was escaped
+				if (escapeChar == '\\') {
+					if (ch == '\\') {
+						sb.append(ch);
+					} else if (ch == 'n' || ch == 'N') {
+						//newlines appear as "\n" or "\N" (see RFC 2426 p.7)
+						sb.append(NEWLINE);
+					} else if (ch == '"' && !v21) {
+						//double quotes don't need to be escaped in 2.1 parameter values because they have no special meaning
+						sb.append(ch);
+					} else if (ch == ';' && v21) {
+						//semi-colons can only be escaped in 2.1 parameter values (see section 2 of specs)
+						//if a 3.0/4.0 param value has semi-colons, the value should be surrounded in double quotes
+						sb.append(ch);
+					} else {
+						//treat the escape character as a normal character because it's not a valid escape sequence
+						sb.append(escapeChar).append(ch);
+					}
+				} else if (escapeChar == '^') {
+					if (ch == '^') {
+						sb.append(ch);
+					} else if (ch == 'n') {
+						sb.append(NEWLINE);
+					} else if (ch == '\'') {
+						sb.append('"');
+					} else {
+						//treat the escape character as a normal character because it's not a valid escape sequence
+						sb.append(escapeChar).append(ch);
+					}
+				}
+				escapeChar = 0;
+				continue;
+			}
+
+			if (ch == '\\' || (ch == '^' && !v21 && caretDecodingEnabled)) {
+				//an escape character was read
+				escapeChar = ch;
+				continue;
+			}
+
+			if (ch == '"' && !v21) {
+				//double quotes are not part of the value
+				continue;
+			}
+
+			sb.append(ch);
+		}
+
+		if (escapeChar != 0) {
+			//the region ended in the middle of an escape sequence (can only happen if trailing whitespace was trimmed off)
+			sb.append(escapeChar);
+		}
+
+		return sb.toString();
+	}
+
+	private static int[] grow(int[] array, int length) {
+		int[] copy = new int[length];
+		System.arraycopy(array, 0, copy, 0, array.length);
+		return copy;
+	}
+
+	private static boolean[] grow(boolean[] array, int length) {
+		boolean[] copy = new boolean[length];
+		System.arraycopy(array, 0, copy, 0, array.length);
+		return copy;
+	}
+}
@@ -1,15 +1,11 @@
 package ezvcard.io.text;
 
-import static ezvcard.util.StringUtils.NEWLINE;
-
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.Reader;
 import java.nio.charset.Charset;
 
 import ezvcard.VCardVersion;
-import ezvcard.parameter.VCardParameters;
-import ezvcard.util.StringUtils;
 
 /*
  Copyright (c) 2012-2015, Michael Angstadt
@@ -49,6 +45,7 @@ import ezvcard.util.StringUtils;
  */
 public class VCardRawReader implements Closeable {
 	private final FoldedLineReader reader;
+	private final VCardLineTokenizer tokenizer = new VCardLineTokenizer();
 	private boolean caretDecodingEnabled = true;
 	private VCardVersion version = VCardVersion.V2_1; //initialize to 2.1, since the VERSION property can exist anywhere in the file in this version
 
@@ -59,6 +56,28 @@ public class VCardRawReader implements Closeable {
 		this.reader = new FoldedLineReader(reader);
 	}
 
+	/**
+	 * Resets this reader so that it reads from a different data stream. All
+	 * settings and internal buffers are kept. The previous reader is not
+	 * closed.
+	 * @param reader the reader to wrap
+	 */
+	public void reset(Reader reader) {
+		this.reader.setInput(reader);
+		version = VCardVersion.V2_1;
+	}
+
+	/**
+	 * Resets this reader so that it reads from a different data stream. All
+	 * settings and internal buffers are kept. The previous reader is not
+	 * closed.
+	 * @param text the text to read
+	 */
+	public void reset(CharSequence text) {
+		reader.setInput(text);
+		version = VCardVersion.V2_1;
+	}
+
 	/**
 	 * Gets the line number of the last line that was read.
 	 * @return the line number
@@ -75,6 +94,42 @@ public class VCardRawReader implements Closeable {
 		return version;
 	}
 
+	/**
+	 * Sets the vCard version that the reader should parse with. This is used
+	 * when the input is a fragment of a larger data stream.
+	 * @param version the vCard version
+	 */
+	void setVersion(VCardVersion version) {
+		this.version = version;
+	}
+
+	/**
+	 * Gets the number of lines that have been fully consumed from the input.
+	 * @return the number of lines
+	 * @see FoldedLineReader#getLineCount()
+	 */
+	int getLineCount() {
+		return reader.getLineCount();
+	}
+
+	/**
+	 * Sets the number of lines that have already been consumed.
+	 * @param lineCount the number of lines
+	 * @see FoldedLineReader#setLineCount(int)
+	 */
+	void setLineCount(int lineCount) {
+		reader.setLineCount(lineCount);
+	}
+
+	/**
+	 * Gets the number of characters that have been consumed from the input.
+	 * @return the number of characters
+	 * @see FoldedLineReader#getCharsConsumed()
+	 */
+	long getCharsConsumed() {
+		return reader.getCharsConsumed();
+	}
+
 	/**
 	 * Parses the next line of the vCard file.
 	 * @return the next line or null if there are no more lines
@@ -84,141 +139,58 @@ public class VCardRawReader implements Closeable {
 	 * @throws IOException if there's a problem reading from the input stream
 	 */
 	public VCardRawLine readLine() throws IOException {
-		String line = reader.readLine();
-		if (line == null) {
-			return null;
-		}
-
-		String group = null;
-		String propertyName = null;
-		VCardParameters parameters = new VCardParameters();
-		String value = null;
-
-		char escapeChar = 0; //is the next char escaped?
-		boolean inQuotes = false; //are we inside of double quotes?
-		StringBuilder buffer = new StringBuilder();
-		String curParamName = null;
-		for (int i = 0; i < line.length(); i++) {
-			char ch = line.charAt(i);
-
-			if (escapeChar != 0) {
-				//this character was escaped
-				if (escapeChar == '\\') {
-					if (ch == '\\') {
-						buffer.append(ch);
-					} else if (ch == 'n' || ch == 'N') {
-						//newlines appear as "\n" or "\N" (see RFC 2426 p.7)
-						buffer.append(NEWLINE);
-					} else if (ch == '"' && version != VCardVersion.V2_1) {
-						//double quotes don't need to be escaped in 2.1 parameter values because they have no special meaning
-						buffer.append(ch);
-					} else if (ch == ';' && version == VCardVersion.V2_1) {
-						//semi-colons can only be escaped in 2.1 parameter values (see section 2 of specs)
-						//if a 3.0/4.0 param value has semi-colons, the value should be surrounded in double quotes
-						buffer.append(ch);
-					} else {
-						//treat the escape character as a normal character because it's not a valid escape sequence
-						buffer.append(escapeChar).append(ch);
-					}
-				} else if (escapeChar == '^') {
-					if (ch == '^') {
-						buffer.append(ch);
-					} else if (ch == 'n') {
-						buffer.append(NEWLINE);
-					} else if (ch == '\'') {
-						buffer.append('"');
-					} else {
-						//treat the escape character as a normal character because it's not a valid escape sequence
-						buffer.append(escapeChar).append(ch);
-					}
-				}
-				escapeChar = 0;
-				continue;
-			}
-
-			if (ch == '\\' || (ch == '^' && version != VCardVersion.V2_1 && caretDecodingEnabled)) {
-				//an escape character was read
-				escapeChar = ch;
-				continue;
-			}
-
-			if (ch == '.' && group == null && propertyName == null) {
-				//set the group
-				group = buffer.toString();
-				buffer.setLength(0);
-				continue;
-			}
-
-			if ((ch == ';' || ch == ':') && !inQuotes) {
-				if (propertyName == null) {
-					//property name
-					propertyName = buffer.toString();
-				} else {
-					//parameter value
-					String paramValue = buffer.toString();
-					if (version == VCardVersion.V2_1) {
-						//2.1 allows whitespace to surround the "=", so remove it
-						paramValue = StringUtils.ltrim(paramValue);
-					}
-					parameters.put(curParamName, paramValue);
-					curParamName = null;
-				}
-				buffer.setLength(0);
-
-				if (ch == ':') {
-					//the rest of the line is the property value
-					if (i < line.length() - 1) {
-						value = line.substring(i + 1);
-					} else {
-						value = "";
-					}
-					break;
-				}
-				continue;
-			}
+		VCardLineTokenizer tokens = readTokens();
+		return (tokens == null) ? null : tokens.toRawLine();
+	}
 
-			if (ch == ',' && !inQuotes && version != VCardVersion.V2_1) {
-				//multi-valued parameter
-				parameters.put(curParamName, buffer.toString());
-				buffer.setLength(0);
-				continue;
+	/**
+	 * <p>
+	 * Reads the next line of the vCard file and splits it into its components,
+	 * without creating a {@link VCardRawLine} object.
+	 * </p>
+	 * <p>
+	 * The returned object is re-used each time this method is called, so it is
+	 * only valid until the next line is read. {@link String} objects are only
+	 * created when a component of the line is requested from it.
+	 * </p>
+	 * @return the tokenized line or null if there are no more lines
+	 * @throws InvalidVersionException if a VERSION property with an invalid
+	 * value is encountered
+	 * @throws VCardParseException if a line cannot be parsed
+	 * @throws IOException if there's a problem reading from the input stream
+	 */
+	public VCardLineTokenizer readTokens() throws IOException {
+		while (true) {
+			int length = reader.readLineToBuffer();
+			if (length < 0) {
+				return null;
 			}
 
-			if (ch == '=' && curParamName == null) {
-				//parameter name
-				String paramName = buffer.toString();
-				if (version == VCardVersion.V2_1) {
-					//2.1 allows whitespace to surround the "=", so remove it
-					paramName = StringUtils.rtrim(paramName);
-				}
-				curParamName = paramName;
-				buffer.setLength(0);
-				continue;
+			if (!tokenizer.tokenize(reader.getLineBuffer(), 0, length, version, caretDecodingEnabled)) {
+				throw new VCardParseException(tokenizer.getLine());
 			}
 
-			if (ch == '"' && version != VCardVersion.V2_1) {
-				//2.1 doesn't use the quoting mechanism
-				inQuotes = !inQuotes;
-				continue;
+			/*
+			 * Most skipped lines are dropped by the FoldedLineReader, but lines
+			 * whose property names contain escape characters must be tokenized
+			 * first.
+			 */
+			PropertyNameFilter filter = reader.getPropertyNameFilter();
+			if (filter == null || filter.accept(tokenizer.getBuffer(), tokenizer.getNameStart(), tokenizer.getNameEnd())) {
+				break;
 			}
-
-			buffer.append(ch);
-		}
-
-		if (propertyName == null || value == null) {
-			throw new VCardParseException(line);
 		}
 
-		if ("VERSION".equalsIgnoreCase(propertyName)) {
+		if (tokenizer.nameEqualsIgnoreCase("VERSION")) {
+			String value = tokenizer.getUntrimmedValue();
 			VCardVersion version = VCardVersion.valueOfByStr(value);
 			if (version == null) {
-				throw new InvalidVersionException(value, line);
+				throw new InvalidVersionException(value, tokenizer.getLine());
 			}
 			this.version = version;
 		}
 
-		value = value.trim();
-		return new VCardRawLine(group, propertyName, parameters, value);
+		return tokenizer;
 	}
 
 	/**
@@ -305,6 +277,44 @@ public class VCardRawReader implements Closeable {
 		caretDecodingEnabled = enable;
 	}
 
+	/**
+	 * Gets the filter that determines which properties are skipped over.
+	 * @return the filter or null if no properties are skipped
+	 */
+	public PropertyNameFilter getPropertyNameFilter() {
+		return reader.getPropertyNameFilter();
+	}
+
+	/**
+	 * Sets a filter that determines which properties are skipped over. Lines
+	 * that are rejected by the filter are not returned by this reader.
+	 * @param filter the filter or null to not skip any properties
+	 */
+	public void setPropertyNameFilter(PropertyNameFilter filter) {
+		reader.setPropertyNameFilter(filter);
+	}
+
+	/**
+	 * Sets a listener that is given the chance to receive each line's property
+	 * value as it is read, instead of having the value copied into the line.
+	 * @param listener the listener or null to copy all values into the line
+	 * @see FoldedLineReader#setValueListener
+	 */
+	void setValueListener(FoldedLineReader.ValueListener listener) {
+		reader.setValueListener(listener);
+	}
+
+	/**
+	 * Determines if the property value of the last line that was read was
+	 * passed to the value listener. If so, the value of the returned line is
+	 * empty.
+	 * @return true if the value was passed to the listener, false if not
+	 * @see FoldedLineReader#isValueStreamed
+	 */
+	boolean isValueStreamed() {
+		return reader.isValueStreamed();
+	}
+
 	/**
 	 * Gets the character encoding of the reader.
 	 * @return the character encoding or null if none is defined
@@ -10,7 +10,6 @@ import java.util.Collections;
 import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Pattern;
 
 import ezvcard.VCardVersion;
 import ezvcard.parameter.Encoding;
@@ -54,22 +53,35 @@ import ezvcard.parameter.VCardParameters;
  */
 public class VCardRawWriter implements Closeable, Flushable {
 	/**
-	 * Regular expression used to determine if a parameter value needs to be
-	 * quoted.
+	 * The characters that are allowed in property names and groups.
 	 */
-	private static final Pattern quoteMeRegex = Pattern.compile(".*?[,:;].*");
+	private static final boolean[] validNameChars = new boolean[128];
+	static {
+		for (char c = 'a'; c <= 'z'; c++) {
+			validNameChars[c] = true;
+			validNameChars[Character.toUpperCase(c)] = true;
+		}
+		for (char c = '0'; c <= '9'; c++) {
+			validNameChars[c] = true;
+		}
+		validNameChars['-'] = true;
+	}
 
 	/**
-	 * Regular expression used to detect newline character sequences.
+	 * The characters that cause a parameter value to be enclosed in double
+	 * quotes.
 	 */
-	private static final Pattern newlineRegex = Pattern.compile("\\r\\n|\\r|\\n");
+	private static final boolean[] quoteMeChars = new boolean[128];
+	static {
+		quoteMeChars[','] = true;
+		quoteMeChars[':'] = true;
+		quoteMeChars[';'] = true;
+	}
 
 	/**
-	 * Regular expression used to determine if a property name or group contains
-	 * any
-	 * invalid characters.
+	 * The default maximum number of serialized parameter lists to remember.
 	 */
-	private static final Pattern propertyNameAndGroupRegex = Pattern.compile("(?i)[-a-z0-9]+");
+	private static final int DEFAULT_PARAMETER_CACHE_SIZE = 256;
 
 	/**
 	 * The characters that are not valid in parameter values and that should be
@@ -113,17 +125,53 @@ public class VCardRawWriter implements Closeable, Flushable {
 		invalidParamValueChars = Collections.unmodifiableMap(map);
 	}
 
+	/**
+	 * Lookup tables of the characters that must be removed, replaced, or
+	 * escaped in parameter values. The first table is used when caret encoding
+	 * is disabled, the second when it is enabled.
+	 */
+	private static final Map<VCardVersion, boolean[][]> specialParamValueChars;
+	static {
+		Map<VCardVersion, boolean[][]> map = new EnumMap<VCardVersion, boolean[][]>(VCardVersion.class);
+		for (VCardVersion version : VCardVersion.values()) {
+			BitSet invalidChars = invalidParamValueChars.get(version);
+			boolean[][] tables = new boolean[2][128];
+			for (int caret = 0; caret < 2; caret++) {
+				boolean[] table = tables[caret];
+				for (int i = 0; i < table.length; i++) {
+					table[i] = invalidChars.get(i);
+				}
+				table['\r'] = table['\n'] = true;
+
+				if (version == VCardVersion.V2_1) {
+					table['\\'] = table[';'] = true;
+				} else {
+					table['"'] = true;
+					if (caret == 1) {
+						table['^'] = true;
+					}
+				}
+			}
+			map.put(version, tables);
+		}
+		specialParamValueChars = Collections.unmodifiableMap(map);
+	}
+
 	private final FoldedLineWriter writer;
 	private boolean caretEncodingEnabled = false;
 	private ParameterValueChangedListener parameterValueChangedListener;
 	private VCardVersion version;
+	private final ParameterCache parameterCache = new ParameterCache(DEFAULT_PARAMETER_CACHE_SIZE);
+	private final StringBuilder parameterBuffer = new StringBuilder();
+	private boolean parameterValueChanged;
 
 	/**
-	 * @param writer the writer to wrap
+	 * @param writer the writer to wrap (if this is a {@link FoldedLineWriter},
+	 * it will be used as-is)
 	 * @param version the vCard version to adhere to
 	 */
 	public VCardRawWriter(Writer writer, VCardVersion version) {
-		this.writer = new FoldedLineWriter(writer);
+		this.writer = (writer instanceof FoldedLineWriter) ? (FoldedLineWriter) writer : new FoldedLineWriter(writer);
 		this.version = version;
 	}
 
@@ -275,6 +323,57 @@ public class VCardRawWriter implements Closeable, Flushable {
 		parameterValueChangedListener = listener;
 	}
 
+	/**
+	 * Gets the maximum number of serialized parameter lists that are
+	 * remembered.
+	 * @return the maximum size of the cache
+	 * @see #setParameterCacheSize(int)
+	 */
+	public int getParameterCacheSize() {
+		return parameterCache.getMaxSize();
+	}
+
+	/**
+	 * <p>
+	 * Sets the maximum number of serialized parameter lists that are
+	 * remembered (defaults to 256).
+	 * </p>
+	 * <p>
+	 * Most properties in a large data stream have one of a handful of
+	 * different parameter lists (such as "TYPE=work,voice"). Once a parameter
+	 * list has been written, its serialized form is remembered and written as
+	 * is when the same list appears again, so that its values do not have to
+	 * be sanitized and quoted again. Parameter lists whose values had to be
+	 * changed in a lossy way are never remembered (see
+	 * {@link #setParameterValueChangedListener}).
+	 * </p>
+	 * @param size the maximum size of the cache or 0 to disable the cache
+	 * @see #getParameterCacheHits()
+	 */
+	public void setParameterCacheSize(int size) {
+		parameterCache.setMaxSize(size);
+	}
+
+	/**
+	 * Gets the number of times a serialized parameter list was found in the
+	 * cache.
+	 * @return the number of cache hits
+	 * @see #setParameterCacheSize(int)
+	 */
+	public long getParameterCacheHits() {
+		return parameterCache.getHits();
+	}
+
+	/**
+	 * Gets the number of times a parameter list had to be serialized because
+	 * it was not found in the cache.
+	 * @return the number of cache misses
+	 * @see #setParameterCacheSize(int)
+	 */
+	public long getParameterCacheMisses() {
+		return parameterCache.getMisses();
+	}
+
 	/**
 	 * Writes a property marking the beginning of a component (in other words,
 	 * writes a "BEGIN:NAME" property).
@@ -328,13 +427,31 @@ public class VCardRawWriter implements Closeable, Flushable {
 	 * @throws IOException if there's an I/O problem
 	 */
 	public void writeProperty(String group, String propertyName, VCardParameters parameters, String value) throws IOException {
+		writeProperty(group, propertyName, parameters, (CharSequence) value);
+	}
+
+	/**
+	 * Writes a property to the vCard data stream. The characters of the value
+	 * are read as they are written, so large values (such as a
+	 * {@link ezvcard.util.Base64CharSequence Base64CharSequence}) do not have
+	 * to be converted to a string first.
+	 * @param group the group or null if there is no group
+	 * @param propertyName the property name (e.g. "FN")
+	 * @param parameters the property parameters
+	 * @param value the property value (will be converted to "quoted-printable"
+	 * encoding if the {@link Encoding#QUOTED_PRINTABLE} parameter is set)
+	 * @throws IllegalArgumentException if the group or property name contains
+	 * invalid characters
+	 * @throws IOException if there's an I/O problem
+	 */
+	public void writeProperty(String group, String propertyName, VCardParameters parameters, CharSequence value) throws IOException {
 		//validate the group name
-		if (group != null && !propertyNameAndGroupRegex.matcher(group).matches()) {
+		if (group != null && !isValidName(group)) {
 			throw new IllegalArgumentException("Group contains invalid characters.  Valid characters are letters, numbers, and hyphens: " + group);
 		}
 
 		//validate the property name
-		if (!propertyNameAndGroupRegex.matcher(propertyName).matches()) {
+		if (!isValidName(propertyName)) {
 			throw new IllegalArgumentException("Property name contains invalid characters.  Valid characters are letters, numbers, and hyphens: " + propertyName);
 		}
 
@@ -369,6 +486,55 @@ public class VCardRawWriter implements Closeable, Flushable {
 		writer.append(propertyName);
 
 		//write the parameters
+		if (!parameters.isEmpty()) {
+			writeParameters(propertyName, parameters);
+		}
+
+		writer.append(':');
+		writer.append(value, useQuotedPrintable, quotedPrintableCharset);
+		writer.append(writer.getNewline());
+	}
+
+	/**
+	 * Writes a property's parameters, using the parameter cache.
+	 * @param propertyName the property name
+	 * @param parameters the parameters
+	 * @throws IOException if there's an I/O problem
+	 */
+	private void writeParameters(String propertyName, VCardParameters parameters) throws IOException {
+		if (parameterCache.getMaxSize() == 0) {
+			writeParameters(writer, propertyName, parameters);
+			return;
+		}
+
+		boolean caretEncoding = caretEncodingEnabled && version != VCardVersion.V2_1;
+		String serialized = parameterCache.get(version, caretEncoding, parameters);
+		if (serialized == null) {
+			parameterBuffer.setLength(0);
+			parameterValueChanged = false;
+			writeParameters(parameterBuffer, propertyName, parameters);
+			serialized = parameterBuffer.toString();
+
+			/*
+			 * Don't cache the parameters if a value was changed, so that the
+			 * listener is notified every time.
+			 */
+			if (!parameterValueChanged) {
+				parameterCache.put(serialized);
+			}
+		}
+
+		writer.append(serialized);
+	}
+
+	/**
+	 * Serializes a property's parameters.
+	 * @param out the object to write the parameters to
+	 * @param propertyName the property name
+	 * @param parameters the parameters
+	 * @throws IOException if there's an I/O problem
+	 */
+	private void writeParameters(Appendable out, String propertyName, VCardParameters parameters) throws IOException {
 		for (Map.Entry<String, List<String>> parameter : parameters) {
 			String parameterName = parameter.getKey();
 			List<String> parameterValues = parameter.getValue();
@@ -383,10 +549,10 @@ public class VCardRawWriter implements Closeable, Flushable {
 
 					if (isTypeParameter) {
 						//e.g. ADR;HOME;WORK:
-						writer.append(';').append(parameterValue.toUpperCase());
+						out.append(';').append(parameterValue.toUpperCase());
 					} else {
 						//e.g. ADR;FOO=bar;FOO=car:
-						writer.append(';').append(parameterName).append('=').append(parameterValue);
+						out.append(';').append(parameterName).append('=').append(parameterValue);
 					}
 				}
 				continue;
@@ -394,26 +560,23 @@ public class VCardRawWriter implements Closeable, Flushable {
 
 			//e.g. ADR;TYPE=home,work,"another,value":
 			boolean first = true;
-			writer.append(';').append(parameterName).append('=');
+			out.append(';').append(parameterName).append('=');
 			for (String parameterValue : parameterValues) {
 				if (!first) {
-					writer.append(',');
+					out.append(',');
 				}
 
 				parameterValue = sanitizeParameterValue(parameterValue, parameterName, propertyName);
 				if (containsSpecialChars(parameterValue)) {
-					writer.append('"').append(parameterValue).append('"');
+					out.append('"').append(parameterValue).append('"');
 				} else {
-					writer.append(parameterValue);
+					out.append(parameterValue);
 				}
 
 				first = false;
 			}
 		}
 
-		writer.append(':');
-		writer.append(value, useQuotedPrintable, quotedPrintableCharset);
-		writer.append(writer.getNewline());
 	}
 
 	/**
@@ -422,7 +585,7 @@ public class VCardRawWriter implements Closeable, Flushable {
 	 * @param value the value to sanitize
 	 * @return the sanitized value
 	 */
-	private String sanitizeValue(VCardParameters parameters, String value) {
+	private CharSequence sanitizeValue(VCardParameters parameters, CharSequence value) {
 		if (value == null) {
 			return "";
 		}
@@ -432,7 +595,7 @@ public class VCardRawWriter implements Closeable, Flushable {
 		 * sub-section in section 2 of the specs) so encode the value in
 		 * quoted-printable encoding if any newline characters exist
 		 */
-		if (version == VCardVersion.V2_1 && containsNewlines(value)) {
+		if (version == VCardVersion.V2_1 && indexOfNewline(value) >= 0) {
 			parameters.setEncoding(Encoding.QUOTED_PRINTABLE);
 			return value;
 		}
@@ -440,6 +603,24 @@ public class VCardRawWriter implements Closeable, Flushable {
 		return escapeNewlines(value);
 	}
 
+	/**
+	 * Determines if a property name or group contains only valid characters.
+	 * @param name the property name or group
+	 * @return true if it's valid, false if not
+	 */
+	private boolean isValidName(String name) {
+		if (name.length() == 0) {
+			return false;
+		}
+		for (int i = 0; i < name.length(); i++) {
+			char c = name.charAt(i);
+			if (c >= validNameChars.length || !validNameChars[c]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 	/**
 	 * Removes or escapes all invalid characters in a parameter value.
 	 * @param parameterValue the parameter value
@@ -449,71 +630,92 @@ public class VCardRawWriter implements Closeable, Flushable {
 	 * @return the sanitized parameter value
 	 */
 	private String sanitizeParameterValue(String parameterValue, String parameterName, String propertyName) {
-		String modifiedValue = null;
-		boolean valueChanged = false;
-
-		switch (version) {
-		case V2_1:
-			//remove invalid characters
-			modifiedValue = removeInvalidParameterValueChars(parameterValue);
+		boolean caretEncoding = caretEncodingEnabled && version != VCardVersion.V2_1;
+		boolean[] specialChars = specialParamValueChars.get(version)[caretEncoding ? 1 : 0];
 
-			//replace newlines with spaces
-			modifiedValue = newlineRegex.matcher(modifiedValue).replaceAll(" ");
-
-			//check to see if value was changed
-			valueChanged = !parameterValue.equals(modifiedValue);
-
-			//escape backslashes
-			modifiedValue = modifiedValue.replace("\\", "\\\\");
+		int i = indexOf(parameterValue, specialChars, 0);
+		if (i < 0) {
+			//nothing needs to be changed
+			return parameterValue;
+		}
 
-			//escape semi-colons (see section 2)
-			modifiedValue = modifiedValue.replace(";", "\\;");
+		BitSet invalidChars = invalidParamValueChars.get(version);
+		StringBuilder sb = new StringBuilder(parameterValue.length() + 16);
+		sb.append(parameterValue, 0, i);
 
-			break;
+		/*
+		 * A value is changed if information is lost. Escaping a character does
+		 * not count as a change.
+		 */
+		boolean valueChanged = false;
+		for (; i < parameterValue.length(); i++) {
+			char c = parameterValue.charAt(i);
+			if (c >= specialChars.length || !specialChars[c]) {
+				sb.append(c);
+				continue;
+			}
 
-		case V3_0:
 			//remove invalid characters
-			modifiedValue = removeInvalidParameterValueChars(parameterValue);
-
-			if (caretEncodingEnabled) {
-				valueChanged = !modifiedValue.equals(parameterValue);
-
-				//apply caret encoding
-				modifiedValue = applyCaretEncoding(modifiedValue);
-			} else {
-				//replace double quotes with single quotes
-				modifiedValue = modifiedValue.replace('"', '\'');
-
-				//replace newlines with spaces
-				modifiedValue = newlineRegex.matcher(modifiedValue).replaceAll(" ");
-
-				valueChanged = !modifiedValue.equals(parameterValue);
+			if (invalidChars.get(c)) {
+				valueChanged = true;
+				continue;
 			}
 
-			break;
+			switch (c) {
+			case '\r':
+			case '\n':
+				if (c == '\r') {
+					//invalid characters are removed before newlines are detected
+					int j = i + 1;
+					while (j < parameterValue.length() && invalidChars.get(parameterValue.charAt(j))) {
+						j++;
+					}
+					if (j < parameterValue.length() && parameterValue.charAt(j) == '\n') {
+						valueChanged |= (j > i + 1);
+						i = j;
+					}
+				}
 
-		case V4_0:
-			//remove invalid characters
-			modifiedValue = removeInvalidParameterValueChars(parameterValue);
+				if (caretEncoding) {
+					sb.append("^n");
+				} else if (version == VCardVersion.V4_0) {
+					//backslash-escape newlines (for the "LABEL" parameter)
+					sb.append("\\n");
+				} else {
+					//replace newlines with spaces
+					sb.append(' ');
+					valueChanged = true;
+				}
+				break;
 
-			if (caretEncodingEnabled) {
-				valueChanged = !modifiedValue.equals(parameterValue);
+			case '\\':
+				//escape backslashes (2.1)
+				sb.append("\\\\");
+				break;
 
-				//apply caret encoding
-				modifiedValue = applyCaretEncoding(modifiedValue);
-			} else {
-				//replace double quotes with single quotes
-				modifiedValue = modifiedValue.replace('"', '\'');
+			case ';':
+				//escape semi-colons (2.1, see section 2)
+				sb.append("\\;");
+				break;
 
-				valueChanged = !modifiedValue.equals(parameterValue);
+			case '"':
+				if (caretEncoding) {
+					sb.append("^'");
+				} else {
+					//replace double quotes with single quotes
+					sb.append('\'');
+					valueChanged = true;
+				}
+				break;
 
-				//backslash-escape newlines (for the "LABEL" parameter)
-				modifiedValue = newlineRegex.matcher(modifiedValue).replaceAll("\\\\\\n");
+			case '^':
+				sb.append("^^");
+				break;
 			}
-
-			break;
 		}
 
+		String modifiedValue = sb.toString();
+		parameterValueChanged |= valueChanged;
 		if (valueChanged && parameterValueChangedListener != null) {
 			parameterValueChangedListener.onParameterValueChanged(propertyName, parameterName, parameterValue, modifiedValue);
 		}
@@ -521,45 +723,6 @@ public class VCardRawWriter implements Closeable, Flushable {
 		return modifiedValue;
 	}
 
-	/**
-	 * Removes invalid characters from a parameter value.
-	 * @param value the parameter value
-	 * @return the sanitized parameter value
-	 */
-	private String removeInvalidParameterValueChars(String value) {
-		BitSet invalidChars = invalidParamValueChars.get(version);
-		StringBuilder sb = null;
-
-		for (int i = 0; i < value.length(); i++) {
-			char ch = value.charAt(i);
-			if (invalidChars.get(ch)) {
-				if (sb == null) {
-					sb = new StringBuilder(value.length());
-					sb.append(value.substring(0, i));
-				}
-				continue;
-			}
-
-			if (sb != null) {
-				sb.append(ch);
-			}
-		}
-
-		return (sb == null) ? value : sb.toString();
-	}
-
-	/**
-	 * Applies circumflex accent encoding to a string.
-	 * @param value the string
-	 * @return the encoded string
-	 */
-	private String applyCaretEncoding(String value) {
-		value = value.replace("^", "^^");
-		value = newlineRegex.matcher(value).replaceAll("^n");
-		value = value.replace("\"", "^'");
-		return value;
-	}
-
 	/**
 	 * <p>
 	 * Escapes all newline character sequences. The newline character sequences
@@ -571,27 +734,68 @@ public class VCardRawWriter implements Closeable, Flushable {
 	 * <li>{@code \n}</li>
 	 * </ul>
 	 * @param text the text to escape
-	 * @return the escaped text
+	 * @return the escaped text (or the same string object if it doesn't contain
+	 * any newlines)
+	 */
+	private static CharSequence escapeNewlines(CharSequence text) {
+		int i = indexOfNewline(text);
+		if (i < 0) {
+			return text;
+		}
+
+		StringBuilder sb = new StringBuilder(text.length() + 16);
+		sb.append(text, 0, i);
+		for (; i < text.length(); i++) {
+			char c = text.charAt(i);
+			switch (c) {
+			case '\r':
+				if (i + 1 < text.length() && text.charAt(i + 1) == '\n') {
+					i++;
+				}
+				//fall through
+			case '\n':
+				sb.append("\\n");
+				break;
+			default:
+				sb.append(c);
+				break;
+			}
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Gets the index of the first newline character in a string.
+	 * @param text the string
+	 * @return the index or -1 if not found
 	 */
-	private String escapeNewlines(String text) {
-		return newlineRegex.matcher(text).replaceAll("\\\\n");
+	private static int indexOfNewline(CharSequence text) {
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (c == '\r' || c == '\n') {
+				return i;
+			}
+		}
+		return -1;
 	}
 
 	/**
-	 * <p>
-	 * Determines if a string has at least one newline character sequence. The
-	 * newline character sequences are:
-	 * </p>
-	 * <ul>
-	 * <li>{@code \r\n}</li>
-	 * <li>{@code \r}</li>
-	 * <li>{@code \n}</li>
-	 * </ul>
-	 * @param text the text to escape
-	 * @return the escaped text
+	 * Gets the index of the first character in a string that is in a lookup
+	 * table.
+	 * @param text the string
+	 * @param table the lookup table (characters outside of the table are
+	 * never matched)
+	 * @param start the index to start searching at
+	 * @return the index or -1 if not found
 	 */
-	private boolean containsNewlines(String text) {
-		return newlineRegex.matcher(text).find();
+	private static int indexOf(String text, boolean[] table, int start) {
+		for (int i = start; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (c < table.length && table[c]) {
+				return i;
+			}
+		}
+		return -1;
 	}
 
 	/**
@@ -599,8 +803,8 @@ public class VCardRawWriter implements Closeable, Flushable {
 	 * @param parameterValue the parameter value
 	 * @return true if it contains special characters, false if not
 	 */
-	private boolean containsSpecialChars(String parameterValue) {
-		return quoteMeRegex.matcher(parameterValue).matches();
+	private static boolean containsSpecialChars(String parameterValue) {
+		return indexOf(parameterValue, quoteMeChars, 0) >= 0;
 	}
 
 	/**
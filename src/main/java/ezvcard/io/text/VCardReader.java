@@ -9,30 +9,21 @@ import java.io.InputStreamReader;
 import java.io.Reader;
 import java.io.StringReader;
 import java.nio.charset.Charset;
-import java.nio.charset.IllegalCharsetNameException;
-import java.nio.charset.UnsupportedCharsetException;
 import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 
 import ezvcard.VCard;
-import ezvcard.VCardDataType;
-import ezvcard.VCardVersion;
-import ezvcard.io.CannotParseException;
 import ezvcard.io.EmbeddedVCardException;
-import ezvcard.io.SkipMeException;
+import ezvcard.io.LazyProperty;
 import ezvcard.io.StreamReader;
-import ezvcard.io.scribe.RawPropertyScribe;
-import ezvcard.io.scribe.VCardPropertyScribe;
-import ezvcard.io.scribe.VCardPropertyScribe.Result;
-import ezvcard.parameter.Encoding;
-import ezvcard.parameter.VCardParameters;
+import ezvcard.io.scribe.BinaryPropertyScribe;
+import ezvcard.io.text.VCardEventReader.EventType;
 import ezvcard.property.Label;
-import ezvcard.property.RawProperty;
 import ezvcard.property.VCardProperty;
-import ezvcard.util.IOUtils;
-import ezvcard.util.org.apache.commons.codec.DecoderException;
-import ezvcard.util.org.apache.commons.codec.net.QuotedPrintableCodec;
+import ezvcard.util.BinaryDataCache;
+import ezvcard.util.BinaryStorage;
+import ezvcard.util.MappedFileReader;
 
 /*
  Copyright (c) 2012-2015, Michael Angstadt
@@ -91,8 +82,8 @@ import ezvcard.util.org.apache.commons.codec.net.QuotedPrintableCodec;
  * @see <a href="http://tools.ietf.org/html/rfc6350">RFC 6350 (4.0)</a>
  */
 public class VCardReader extends StreamReader {
-	private final VCardRawReader reader;
-	private Charset defaultQuotedPrintableCharset;
+	private final VCardEventReader reader;
+	private boolean lazyParsing = false;
 
 	/**
 	 * @param str the string to read from
@@ -116,15 +107,78 @@ public class VCardReader extends StreamReader {
 		this(new FileReader(file));
 	}
 
+	/**
+	 * Creates a reader that maps the given file into memory and decodes it
+	 * using the given character set. This is faster than
+	 * {@link #VCardReader(File)} for large files.
+	 * @param file the file to read from
+	 * @param charset the character set of the file (e.g. UTF-8)
+	 * @throws IOException if the file can't be opened or mapped into memory
+	 * @see MappedFileReader
+	 */
+	public VCardReader(File file, Charset charset) throws IOException {
+		this(new MappedFileReader(file, charset));
+	}
+
 	/**
 	 * @param reader the reader to read from
 	 */
 	public VCardReader(Reader reader) {
-		this.reader = new VCardRawReader(reader);
-		defaultQuotedPrintableCharset = this.reader.getEncoding();
-		if (defaultQuotedPrintableCharset == null) {
-			defaultQuotedPrintableCharset = Charset.defaultCharset();
-		}
+		this.reader = new VCardEventReader(reader, warnings);
+	}
+
+	/**
+	 * @param reader the raw reader to read from
+	 */
+	VCardReader(VCardRawReader reader) {
+		this.reader = new VCardEventReader(reader, warnings);
+	}
+
+	/**
+	 * <p>
+	 * Resets this reader so that it can parse a different data stream. All
+	 * settings (such as the scribe index and the property name filter) are
+	 * kept, as are the internal buffers, so parsing a new data stream with a
+	 * re-used reader creates far fewer objects than parsing it with a new
+	 * reader. The previous reader is not closed.
+	 * </p>
+	 * <p>
+	 * A {@link VCardReader} object must only be used by one thread at a time,
+	 * but it can be stored in a {@link ThreadLocal} and re-used for every
+	 * data stream that the thread parses.
+	 * </p>
+	 * <p>
+	 * <b>Example:</b>
+	 * </p>
+	 * 
+	 * <pre class="brush:java">
+	 * private static final ThreadLocal&lt;VCardReader&gt; readers = new ThreadLocal&lt;VCardReader&gt;() {
+	 *   protected VCardReader initialValue() {
+	 *     return new VCardReader("");
+	 *   }
+	 * };
+	 * 
+	 * public VCard parse(String payload) throws IOException {
+	 *   VCardReader reader = readers.get();
+	 *   reader.reset(payload);
+	 *   return reader.readNext();
+	 * }
+	 * </pre>
+	 * @param reader the reader to read from
+	 */
+	public void reset(Reader reader) {
+		this.reader.reset(reader);
+	}
+
+	/**
+	 * Resets this reader so that it can parse a different data stream. The
+	 * characters are read directly from the given text, so no {@link Reader}
+	 * object is created. All settings and internal buffers are kept.
+	 * @param text the text to read from
+	 * @see #reset(Reader)
+	 */
+	public void reset(CharSequence text) {
+		reader.reset(text);
 	}
 
 	/**
@@ -149,6 +203,36 @@ public class VCardReader extends StreamReader {
 		reader.setCaretDecodingEnabled(enable);
 	}
 
+	/**
+	 * Gets the filter that determines which properties are skipped over.
+	 * @return the filter or null if no properties are skipped
+	 */
+	public PropertyNameFilter getPropertyNameFilter() {
+		return reader.getPropertyNameFilter();
+	}
+
+	/**
+	 * <p>
+	 * Sets a filter that determines which properties are parsed and which are
+	 * skipped over. A skipped property is dropped as soon as its name is read,
+	 * before its parameters are parsed and before its value is decoded. This
+	 * can speed up parsing considerably when only a few properties are needed.
+	 * </p>
+	 * <p>
+	 * <b>Example:</b>
+	 * </p>
+	 * 
+	 * <pre class="brush:java">
+	 * VCardReader reader = new VCardReader(file);
+	 * reader.setPropertyNameFilter(PropertyNameFilter.include("FN", "EMAIL"));
+	 * </pre>
+	 * @param filter the filter or null to parse every property (default)
+	 * @see PropertyNameFilter
+	 */
+	public void setPropertyNameFilter(PropertyNameFilter filter) {
+		reader.setPropertyNameFilter(filter);
+	}
+
 	/**
 	 * <p>
 	 * Gets the character set to use when decoding quoted-printable values if
@@ -163,7 +247,7 @@ public class VCardReader extends StreamReader {
 	 * @return the character set
 	 */
 	public Charset getDefaultQuotedPrintableCharset() {
-		return defaultQuotedPrintableCharset;
+		return reader.getDefaultQuotedPrintableCharset();
 	}
 
 	/**
@@ -177,37 +261,151 @@ public class VCardReader extends StreamReader {
 	 * has no character encoding, then the system's default character encoding
 	 * will be used.
 	 * </p>
-	 * @param charset the character set
+	 * @param charset the character set or null to use the default
 	 */
 	public void setDefaultQuotedPrintableCharset(Charset charset) {
-		defaultQuotedPrintableCharset = charset;
+		reader.setDefaultQuotedPrintableCharset(charset);
+	}
+
+	/**
+	 * Gets whether the values of base64-encoded binary properties (such as
+	 * PHOTO) are decoded while they are being read (disabled by default).
+	 * @return true if enabled, false if not
+	 * @see VCardEventReader#isBinaryStreamingEnabled()
+	 */
+	public boolean isBinaryStreamingEnabled() {
+		return reader.isBinaryStreamingEnabled();
+	}
+
+	/**
+	 * <p>
+	 * Sets whether the values of base64-encoded binary properties (such as
+	 * PHOTO) are decoded while they are being read (disabled by default).
+	 * </p>
+	 * <p>
+	 * When enabled, the base64-encoded text is decoded one folded line at a
+	 * time, so that large photos and keys are never held in memory as one huge
+	 * string. The decoded data is copied to the {@link BinaryStorage}, or
+	 * written to the {@link BinarySink} if one is set.
+	 * </p>
+	 * <p>
+	 * Streamed values are unmarshalled with
+	 * {@link BinaryPropertyScribe#parseBinary}, so a scribe's
+	 * {@code _parseText} method is not called for them. Also, if a 2.1 or 3.0
+	 * property has no TYPE parameter, its content type is not guessed from
+	 * the property value.
+	 * </p>
+	 * @param enable true to enable, false to disable
+	 * @see VCardEventReader#setBinaryStreamingEnabled(boolean)
+	 */
+	public void setBinaryStreamingEnabled(boolean enable) {
+		reader.setBinaryStreamingEnabled(enable);
+	}
+
+	/**
+	 * Gets the object that binary property values are written to as they are
+	 * decoded.
+	 * @return the sink or null if the values are collected in memory
+	 */
+	public BinarySink getBinarySink() {
+		return reader.getBinarySink();
+	}
+
+	/**
+	 * Sets the object that binary property values are written to as they are
+	 * decoded (for example, a temporary file or a stream supplied by the
+	 * caller). This setting only has an effect if binary streaming is enabled.
+	 * @param sink the sink or null to collect the values in memory (default)
+	 * @see BinarySink
+	 */
+	public void setBinarySink(BinarySink sink) {
+		reader.setBinarySink(sink);
+	}
+
+	/**
+	 * Gets where the data of binary property values is stored when they are
+	 * decoded.
+	 * @return the storage
+	 */
+	public BinaryStorage getBinaryStorage() {
+		return reader.getBinaryStorage();
+	}
+
+	/**
+	 * Sets where the data of binary property values is stored when they are
+	 * decoded (for example, outside of the Java heap). This setting only has
+	 * an effect if binary streaming is enabled, and it does not apply to
+	 * values that are sent to a {@link BinarySink}.
+	 * @param storage the storage (defaults to {@link BinaryStorage#HEAP})
+	 * @see BinaryStorage
+	 */
+	public void setBinaryStorage(BinaryStorage storage) {
+		reader.setBinaryStorage(storage);
+	}
+
+	/**
+	 * Sets the cache that is used to share identical binary data (such as the
+	 * same company logo) between properties. The data of each binary property
+	 * that is read is replaced with the identical data from the cache, if the
+	 * cache contains it. A cache can be shared between multiple readers. If
+	 * binary streaming is enabled (see {@link #setBinaryStreamingEnabled}) and
+	 * a decoded value is found in the cache, the decoded data is not copied to
+	 * the {@link BinaryStorage}.
+	 * @param cache the cache or null not to share binary data (default)
+	 */
+	@Override
+	public void setBinaryDataCache(BinaryDataCache cache) {
+		super.setBinaryDataCache(cache);
+		reader.setBinaryDataCache(cache);
+	}
+
+	/**
+	 * Gets whether properties are unmarshalled lazily (disabled by default).
+	 * @return true if lazy parsing is enabled, false if not
+	 * @see #setLazyParsing(boolean)
+	 */
+	public boolean isLazyParsing() {
+		return lazyParsing;
+	}
+
+	/**
+	 * <p>
+	 * Sets whether properties are unmarshalled lazily (disabled by default).
+	 * </p>
+	 * <p>
+	 * When enabled, each property's raw data is stored in the {@link VCard}
+	 * object, and the property is not unmarshalled until it is retrieved from
+	 * the vCard for the first time (for example, by calling
+	 * {@link VCard#getProperties(Class)}). This can make parsing considerably
+	 * faster, and use less memory, when only a few of each vCard's properties
+	 * are accessed, because properties that are never accessed (such as
+	 * base64-encoded photos) are never decoded.
+	 * </p>
+	 * <p>
+	 * Note that warnings which are generated when a property is unmarshalled
+	 * are not reported if the property is unmarshalled lazily. Extended
+	 * properties that have no registered scribe, LABEL properties, and AGENT
+	 * properties are always unmarshalled right away.
+	 * </p>
+	 * @param enable true to enable lazy parsing, false to disable it
+	 * @see VCard#addLazyProperty
+	 */
+	public void setLazyParsing(boolean enable) {
+		lazyParsing = enable;
 	}
 
 	@Override
 	protected VCard _readNext() throws IOException {
+		reader.setScribeIndex(index);
+
 		VCard root = null;
 		LinkedList<VCard> vcardStack = new LinkedList<VCard>();
 		LinkedList<List<Label>> labelStack = new LinkedList<List<Label>>();
 		EmbeddedVCardException embeddedVCardException = null;
-		while (true) {
-			//read next line
-			VCardRawLine line;
-			try {
-				line = reader.readLine();
-			} catch (VCardParseException e) {
-				if (!vcardStack.isEmpty()) {
-					warnings.add(reader.getLineNum(), null, 27, e.getLine());
-				}
-				continue;
-			}
-
-			//EOF
-			if (line == null) {
-				break;
-			}
-
-			//handle BEGIN:VCARD
-			if ("BEGIN".equalsIgnoreCase(line.getName()) && "VCARD".equalsIgnoreCase(line.getValue())) {
+		EventType event;
+		while ((event = reader.nextEvent()) != null) {
+			switch (event) {
+			case BEGIN_VCARD:
 				VCard vcard = new VCard();
 				vcard.setVersion(reader.getVersion());
 				vcardStack.add(vcard);
@@ -221,243 +419,68 @@ public class VCardReader extends StreamReader {
 					embeddedVCardException.injectVCard(vcard);
 					embeddedVCardException = null;
 				}
+				break;
 
-				continue;
-			}
-
-			if (vcardStack.isEmpty()) {
-				//BEGIN component hasn't been encountered yet, so skip this line
-				continue;
-			}
-
-			//handle VERSION property
-			if ("VERSION".equalsIgnoreCase(line.getName())) {
-				vcardStack.getLast().setVersion(reader.getVersion());
-				continue;
-			}
-
-			//handle END:VCARD
-			if ("END".equalsIgnoreCase(line.getName()) && "VCARD".equalsIgnoreCase(line.getValue())) {
+			case END_VCARD:
 				VCard curVCard = vcardStack.removeLast();
+				curVCard.setVersion(reader.getVersion());
 				List<Label> labels = labelStack.removeLast();
 				assignLabels(curVCard, labels);
 
 				if (vcardStack.isEmpty()) {
 					//done reading the vCard
-					break;
+					return root;
 				}
-				continue;
-			}
-
-			//handle property
-			{
-				String group = line.getGroup();
-				VCardParameters parameters = line.getParameters();
-				String name = line.getName();
-				String value = line.getValue();
+				break;
 
+			case PROPERTY:
 				if (embeddedVCardException != null) {
 					//the next property was supposed to be the start of a nested vCard, but it wasn't
 					embeddedVCardException.injectVCard(null);
 					embeddedVCardException = null;
 				}
 
-				VCard curVCard = vcardStack.getLast();
-				VCardVersion version = curVCard.getVersion();
-
-				//sanitize the parameters
-				processNamelessParameters(parameters);
-				processQuotedMultivaluedTypeParams(parameters);
-
-				//decode property value from quoted-printable
-				try {
-					value = decodeQuotedPrintableValue(name, parameters, value);
-				} catch (DecoderException e) {
-					warnings.add(reader.getLineNum(), name, 38, e.getMessage());
+				if (lazyParsing) {
+					LazyProperty lazy = reader.parseLazyProperty();
+					if (lazy != null) {
+						vcardStack.getLast().addLazyProperty(lazy);
+						break;
+					}
 				}
 
-				//get the scribe
-				VCardPropertyScribe<? extends VCardProperty> scribe = index.getPropertyScribe(name);
-				if (scribe == null) {
-					scribe = new RawPropertyScribe(name);
+				VCardProperty property = reader.parseProperty();
+				if (property == null) {
+					break;
 				}
 
-				//get the data type (VALUE parameter)
-				VCardDataType dataType = parameters.getValue();
-				if (dataType == null) {
-					//use the default data type if there is no VALUE parameter
-					dataType = scribe.defaultDataType(version);
-				} else {
-					//remove VALUE parameter if it is set
-					parameters.setValue(null);
+				if (property instanceof Label) {
+					/*
+					 * LABEL properties must be treated specially so they can be
+					 * matched up with the ADR properties that they belong to.
+					 */
+					Label label = (Label) property;
+					labelStack.getLast().add(label);
+					break;
 				}
 
-				VCardProperty property;
-				try {
-					Result<? extends VCardProperty> result = scribe.parseText(value, dataType, version, parameters);
-
-					for (String warning : result.getWarnings()) {
-						warnings.add(reader.getLineNum(), name, warning);
-					}
-
-					property = result.getProperty();
-					property.setGroup(group);
-
-					if (property instanceof Label) {
-						/*
-						 * LABEL properties must be treated specially so they
-						 * can be matched up with the ADR properties that they
-						 * belong to.
-						 */
-						Label label = (Label) property;
-						labelStack.getLast().add(label);
-					} else {
-						curVCard.addProperty(property);
-					}
-				} catch (SkipMeException e) {
-					warnings.add(reader.getLineNum(), name, 22, e.getMessage());
-				} catch (CannotParseException e) {
-					warnings.add(reader.getLineNum(), name, 25, value, e.getMessage());
-					property = new RawProperty(name, value);
-					property.setGroup(group);
-					curVCard.addProperty(property);
-				} catch (EmbeddedVCardException e) {
-					//parse an embedded vCard (i.e. the AGENT type)
-					property = e.getProperty();
-
-					if (value.length() == 0 || version == VCardVersion.V2_1) {
-						//a nested vCard is expected to be next (2.1 style)
-						embeddedVCardException = e;
-					} else {
-						//the property value should be an embedded vCard (3.0 style)
-						value = VCardPropertyScribe.unescape(value);
-
-						VCardReader agentReader = new VCardReader(value);
-						agentReader.setScribeIndex(index);
-						try {
-							VCard nestedVCard = agentReader.readNext();
-							if (nestedVCard != null) {
-								e.injectVCard(nestedVCard);
-							}
-						} catch (IOException e2) {
-							//shouldn't be thrown because we're reading from a string
-						} finally {
-							for (String w : agentReader.getWarnings()) {
-								warnings.add(reader.getLineNum(), name, 26, w);
-							}
-							IOUtils.closeQuietly(agentReader);
-						}
-					}
-
-					curVCard.addProperty(property);
+				if (!reader.isBinaryValueDecoded()) {
+					//decoded values are shared with the cache as they are read
+					internBinaryData(property);
 				}
-			}
-		}
-
-		return root;
-	}
-
-	/**
-	 * Assigns names to all nameless parameters. v3.0 and v4.0 requires all
-	 * parameters to have names, but v2.1 does not.
-	 * @param parameters the parameters
-	 */
-	private void processNamelessParameters(VCardParameters parameters) {
-		List<String> namelessParamValues = parameters.removeAll(null);
-		for (String paramValue : namelessParamValues) {
-			String paramName = guessParameterName(paramValue);
-			parameters.put(paramName, paramValue);
-		}
-	}
-
-	/**
-	 * Makes a guess as to what a parameter value's name should be.
-	 * @param value the parameter value
-	 * @return the guessed name
-	 */
-	private String guessParameterName(String value) {
-		if (VCardDataType.find(value) != null) {
-			return VCardParameters.VALUE;
-		}
-
-		if (Encoding.find(value) != null) {
-			return VCardParameters.ENCODING;
-		}
-
-		//otherwise, assume it's a TYPE
-		return VCardParameters.TYPE;
-	}
 
-	/**
-	 * <p>
-	 * Accounts for multi-valued TYPE parameters being enclosed entirely in
-	 * double quotes (for example: ADR;TYPE="home,work").
-	 * </p>
-	 * <p>
-	 * Many examples throughout the 4.0 specs show TYPE parameters being encoded
-	 * in this way. This conflicts with the ABNF and is noted in the errata.
-	 * This method will parse these incorrectly-formatted TYPE parameters as if
-	 * they were multi-valued, even though, technically, they are not.
-	 * </p>
-	 * @param parameters the parameters
-	 */
-	private void processQuotedMultivaluedTypeParams(VCardParameters parameters) {
-		for (String typeParameter : parameters.getTypes()) {
-			if (!typeParameter.contains(",")) {
-				continue;
-			}
-
-			parameters.removeTypes();
-			for (String splitValue : typeParameter.split(",")) {
-				parameters.addType(splitValue);
+				embeddedVCardException = reader.getEmbeddedVCardException();
+				vcardStack.getLast().addProperty(property);
+				break;
 			}
 		}
-	}
 
-	/**
-	 * Checks to see if a property's value is encoded in quoted-printable
-	 * encoding and decodes it if it is.
-	 * @param name the property name
-	 * @param parameters the property parameters
-	 * @param value the property value (may or may not be encoded in
-	 * quoted-printable
-	 * @return the decoded property value or the untouched property value if it
-	 * is not encoded in quoted-printable encoding
-	 * @throws DecoderException if the value couldn't be decoded
-	 */
-	private String decodeQuotedPrintableValue(String name, VCardParameters parameters, String value) throws DecoderException {
-		if (parameters.getEncoding() != Encoding.QUOTED_PRINTABLE) {
-			//the property value is not encoded in quoted-printable encoding
-			return value;
+		//the data stream ended before the vCard was closed
+		int depth = 1;
+		for (VCard vcard : vcardStack) {
+			vcard.setVersion(reader.getVersion(depth++));
 		}
 
-		//remove the encoding parameter
-		parameters.setEncoding(null);
-
-		//determine the character set
-		Charset charset = null;
-		String charsetStr = parameters.getCharset();
-		if (charsetStr == null) {
-			charset = defaultQuotedPrintableCharset;
-		} else {
-			try {
-				charset = Charset.forName(charsetStr);
-			} catch (IllegalCharsetNameException e) {
-				//bad charset name
-			} catch (UnsupportedCharsetException e) {
-				//bad charset name
-			}
-
-			if (charset == null) {
-				charset = defaultQuotedPrintableCharset;
-
-				//the given charset was invalid, so add a warning
-				warnings.add(reader.getLineNum(), name, 23, charsetStr, charset.name());
-			}
-		}
-
-		QuotedPrintableCodec codec = new QuotedPrintableCodec(charset.name());
-		return codec.decode(value);
+		return root;
 	}
 
 	/**
@@ -1,15 +1,14 @@
 package ezvcard.io.text;
 
-import static ezvcard.util.IOUtils.utf8Writer;
-
 import java.io.File;
-import java.io.FileWriter;
+import java.io.FileOutputStream;
 import java.io.Flushable;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.io.OutputStreamWriter;
 import java.io.StringWriter;
 import java.io.Writer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -20,9 +19,11 @@ import ezvcard.io.EmbeddedVCardException;
 import ezvcard.io.SkipMeException;
 import ezvcard.io.StreamWriter;
 import ezvcard.io.scribe.VCardPropertyScribe;
+import ezvcard.io.scribe.WriteContext;
 import ezvcard.parameter.VCardParameters;
 import ezvcard.property.BinaryProperty;
 import ezvcard.property.VCardProperty;
+import ezvcard.util.ByteBufferOutputStream;
 import ezvcard.util.IOUtils;
 
 /*
@@ -78,6 +79,14 @@ import ezvcard.util.IOUtils;
  * </p>
  * 
  * <p>
+ * When writing to an output stream, file, or channel, the line length is
+ * measured in octets, as required by RFC 6350. When writing to a
+ * {@link Writer}, it is measured in characters. To serialize vCards directly
+ * into {@link java.nio.ByteBuffer ByteBuffers}, pass in a
+ * {@link ByteBufferOutputStream}.
+ * </p>
+ * 
+ * <p>
  * <b>Changing the line folding settings:</b>
  * 
  * <pre class="brush:java">
@@ -112,7 +121,16 @@ public class VCardWriter extends StreamWriter implements Flushable {
 	 * set to "4.0", vCards will be written in UTF-8 encoding)
 	 */
 	public VCardWriter(OutputStream out, VCardVersion targetVersion) {
-		this((targetVersion == VCardVersion.V4_0) ? utf8Writer(out) : new OutputStreamWriter(out), targetVersion);
+		this(new FoldedLineWriter(out, charset(targetVersion)), targetVersion);
+	}
+
+	/**
+	 * @param channel the channel to write to
+	 * @param targetVersion the version that the vCards should conform to (if
+	 * set to "4.0", vCards will be written in UTF-8 encoding)
+	 */
+	public VCardWriter(WritableByteChannel channel, VCardVersion targetVersion) {
+		this(new FoldedLineWriter(channel, charset(targetVersion)), targetVersion);
 	}
 
 	/**
@@ -134,7 +152,7 @@ public class VCardWriter extends StreamWriter implements Flushable {
 	 * @throws IOException if there's a problem opening the file
 	 */
 	public VCardWriter(File file, boolean append, VCardVersion targetVersion) throws IOException {
-		this((targetVersion == VCardVersion.V4_0) ? utf8Writer(file, append) : new FileWriter(file, append), targetVersion);
+		this(new FileOutputStream(file, append), targetVersion);
 	}
 
 	/**
@@ -145,6 +163,16 @@ public class VCardWriter extends StreamWriter implements Flushable {
 		this.writer = new VCardRawWriter(writer, targetVersion);
 	}
 
+	/**
+	 * Determines the character encoding to use when writing to an output
+	 * stream or channel.
+	 * @param targetVersion the version that the vCards should conform to
+	 * @return the character encoding
+	 */
+	private static Charset charset(VCardVersion targetVersion) {
+		return (targetVersion == VCardVersion.V4_0) ? Charset.forName("UTF-8") : Charset.defaultCharset();
+	}
+
 	/**
 	 * Gets the writer that this object wraps.
 	 * @return the raw writer
@@ -212,17 +240,18 @@ public class VCardWriter extends StreamWriter implements Flushable {
 	@SuppressWarnings({ "rawtypes", "unchecked" })
 	protected void _write(VCard vcard, List<VCardProperty> propertiesToAdd) throws IOException {
 		VCardVersion targetVersion = getTargetVersion();
+		WriteContext context = new WriteContext(targetVersion, vcard);
 		writer.writeBeginComponent("VCARD");
 		writer.writeVersion();
 
 		for (VCardProperty property : propertiesToAdd) {
 			VCardPropertyScribe scribe = index.getPropertyScribe(property);
 
-			//marshal the value
-			String value = null;
+			//marshal the value (large values, such as binary data, are encoded as they are written)
+			CharSequence value = null;
 			VCard nestedVCard = null;
 			try {
-				value = scribe.writeText(property, targetVersion);
+				value = scribe.writeTextSequence(property, context);
 			} catch (SkipMeException e) {
 				continue;
 			} catch (EmbeddedVCardException e) {
@@ -230,7 +259,7 @@ public class VCardWriter extends StreamWriter implements Flushable {
 			}
 
 			//marshal the parameters
-			VCardParameters parameters = scribe.prepareParameters(property, targetVersion, vcard);
+			VCardParameters parameters = scribe.prepareParameters(property, context);
 
 			//is the value a nested vCard?
 			if (nestedVCard != null) {
@@ -290,7 +319,7 @@ public class VCardWriter extends StreamWriter implements Flushable {
 			 */
 			if (targetVersion != VCardVersion.V4_0 && property instanceof BinaryProperty) {
 				BinaryProperty binaryProperty = (BinaryProperty) property;
-				if (binaryProperty.getData() != null) {
+				if (binaryProperty.getBinaryData() != null) {
 					writer.getFoldedLineWriter().writeln("");
 				}
 			}
@@ -299,6 +328,32 @@ public class VCardWriter extends StreamWriter implements Flushable {
 		writer.writeEndComponent("VCARD");
 	}
 
+	/**
+	 * Writes the vCards to a buffer that has the same folding settings as this
+	 * writer.
+	 */
+	@Override
+	protected Chunk serialize(List<VCard> vcards) throws IOException {
+		final FoldedLineWriter target = writer.getFoldedLineWriter();
+		final FoldedLineWriter buffer = target.createBuffer();
+
+		VCardWriter bufferWriter = new VCardWriter(buffer, getTargetVersion());
+		bufferWriter.setCaretEncodingEnabled(isCaretEncodingEnabled());
+		bufferWriter.getRawWriter().setParameterValueChangedListener(writer.getParameterValueChangedListener());
+		bufferWriter.setAddProdId(addProdId);
+		bufferWriter.setVersionStrict(versionStrict);
+		bufferWriter.setScribeIndex(index);
+		for (VCard vcard : vcards) {
+			bufferWriter.write(vcard);
+		}
+
+		return new Chunk() {
+			public void write() throws IOException {
+				target.writeBuffer(buffer);
+			}
+		};
+	}
+
 	/**
 	 * Determines if the given default data type is "date-and-or-time" and the
 	 * given data type is time-based. Properties that meet this criteria should
@@ -42,6 +42,7 @@ import ezvcard.io.SkipMeException;
 import ezvcard.io.StreamReader;
 import ezvcard.io.StreamWriter;
 import ezvcard.io.scribe.VCardPropertyScribe;
+import ezvcard.io.scribe.WriteContext;
 import ezvcard.io.scribe.VCardPropertyScribe.Result;
 import ezvcard.parameter.VCardParameters;
 import ezvcard.property.VCardProperty;
@@ -448,6 +449,7 @@ public class XCardDocument {
 
 				property = result.getProperty();
 				property.setGroup(group);
+				internBinaryData(property);
 
 				for (String warning : result.getWarnings()) {
 					warnings.add(null, propertyName, warning);
@@ -537,6 +539,7 @@ public class XCardDocument {
 
 		@Override
 		protected void _write(VCard vcard, List<VCardProperty> properties) throws IOException {
+			WriteContext context = new WriteContext(version4, vcard);
 			ListMultimap<String, VCardProperty> propertiesByGroup = new ListMultimap<String, VCardProperty>(); //group the types by group name (null = no group name)
 			for (VCardProperty property : properties) {
 				propertiesByGroup.put(property.getGroup(), property);
@@ -558,7 +561,7 @@ public class XCardDocument {
 
 				for (VCardProperty property : entry.getValue()) {
 					try {
-						Element propertyElement = marshalProperty(property, vcard);
+						Element propertyElement = marshalProperty(property, context);
 						parent.appendChild(propertyElement);
 					} catch (SkipMeException e) {
 						//skip property
@@ -607,13 +610,13 @@ public class XCardDocument {
 		/**
 		 * Marshals a type object to an XML element.
 		 * @param type the type object to marshal
-		 * @param vcard the vcard the type belongs to
+		 * @param context information about the vCard the type belongs to
 		 * @return the XML element
 		 */
 		@SuppressWarnings({ "rawtypes", "unchecked" })
-		private Element marshalProperty(VCardProperty type, VCard vcard) {
+		private Element marshalProperty(VCardProperty type, WriteContext context) {
 			VCardPropertyScribe scribe = index.getPropertyScribe(type);
-			VCardParameters parameters = scribe.prepareParameters(type, version4, vcard);
+			VCardParameters parameters = scribe.prepareParameters(type, context);
 
 			QName qname = scribe.getQName();
 			Element propertyElement = createElement(qname);
@@ -625,7 +628,7 @@ public class XCardDocument {
 			}
 
 			//marshal the value
-			scribe.writeXml(type, propertyElement);
+			scribe.writeXml(type, propertyElement, context);
 
 			return propertyElement;
 		}
@@ -384,6 +384,7 @@ public class XCardReader extends StreamReader {
 						Result<? extends VCardProperty> result = scribe.parseXml(propertyElement, parameters);
 						property = result.getProperty();
 						property.setGroup(group);
+						internBinaryData(property);
 						readVCard.addProperty(property);
 						for (String warning : result.getWarnings()) {
 							warnings.add(null, propertyName, warning);
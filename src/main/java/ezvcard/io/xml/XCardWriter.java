@@ -10,6 +10,7 @@ import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.Writer;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -30,8 +31,10 @@ import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 import org.w3c.dom.Text;
 import org.xml.sax.Attributes;
+import org.xml.sax.ContentHandler;
 import org.xml.sax.SAXException;
 import org.xml.sax.helpers.AttributesImpl;
+import org.xml.sax.helpers.DefaultHandler;
 
 import ezvcard.VCard;
 import ezvcard.VCardDataType;
@@ -40,6 +43,7 @@ import ezvcard.io.EmbeddedVCardException;
 import ezvcard.io.SkipMeException;
 import ezvcard.io.StreamWriter;
 import ezvcard.io.scribe.VCardPropertyScribe;
+import ezvcard.io.scribe.WriteContext;
 import ezvcard.parameter.VCardParameters;
 import ezvcard.property.VCardProperty;
 import ezvcard.property.Xml;
@@ -125,7 +129,7 @@ public class XCardWriter extends StreamWriter {
 	}
 
 	private final Writer writer;
-	private final TransformerHandler handler;
+	private final ContentHandler handler;
 	private final boolean vcardsElementExists;
 	private String indent;
 	private int level = 0;
@@ -171,6 +175,7 @@ public class XCardWriter extends StreamWriter {
 		}
 		this.vcardsElementExists = isVCardsElement(parent);
 
+		TransformerHandler handler;
 		try {
 			SAXTransformerFactory factory = (SAXTransformerFactory) TransformerFactory.newInstance();
 			handler = factory.newTransformerHandler();
@@ -180,6 +185,28 @@ public class XCardWriter extends StreamWriter {
 
 		Result result = (writer == null) ? new DOMResult(parent) : new StreamResult(writer);
 		handler.setResult(result);
+		this.handler = handler;
+	}
+
+	/**
+	 * Creates a writer that records the vCards it writes, so they can be
+	 * replayed to the given writer later on.
+	 * @param owner the writer the vCards will be replayed to
+	 * @param recorder the object to record the vCards to
+	 */
+	private XCardWriter(XCardWriter owner, SaxRecorder recorder) {
+		writer = null;
+		handler = recorder;
+		vcardsElementExists = owner.vcardsElementExists;
+		started = true;
+		level = vcardsElementExists ? 0 : 1;
+		indent = owner.indent;
+
+		parameterDataTypes.clear();
+		parameterDataTypes.putAll(owner.parameterDataTypes);
+		addProdId = owner.addProdId;
+		versionStrict = owner.versionStrict;
+		index = owner.index;
 	}
 
 	private boolean isVCardsElement(Node node) {
@@ -196,18 +223,9 @@ public class XCardWriter extends StreamWriter {
 
 	@Override
 	protected void _write(VCard vcard, List<VCardProperty> properties) throws IOException {
+		WriteContext context = new WriteContext(targetVersion, vcard);
 		try {
-			if (!started) {
-				handler.startDocument();
-
-				if (!vcardsElementExists) {
-					//don't output a <vcards> element if the parent is a <vcards> element
-					start(VCARDS);
-					level++;
-				}
-
-				started = true;
-			}
+			startDocument();
 
 			ListMultimap<String, VCardProperty> propertiesByGroup = new ListMultimap<String, VCardProperty>(); //group the types by group name (null = no group name)
 			for (VCardProperty property : properties) {
@@ -228,7 +246,7 @@ public class XCardWriter extends StreamWriter {
 				}
 
 				for (VCardProperty property : entry.getValue()) {
-					write(property, vcard);
+					write(property, context);
 				}
 
 				if (groupName != null) {
@@ -244,6 +262,46 @@ public class XCardWriter extends StreamWriter {
 		}
 	}
 
+	/**
+	 * Records the XML of each vCard, so that only the serialization of the XML
+	 * is left to do when the vCards are written.
+	 */
+	@Override
+	protected Chunk serialize(List<VCard> vcards) throws IOException {
+		final SaxRecorder recorder = new SaxRecorder();
+		XCardWriter bufferWriter = new XCardWriter(this, recorder);
+		for (VCard vcard : vcards) {
+			bufferWriter.write(vcard);
+		}
+
+		return new Chunk() {
+			public void write() throws IOException {
+				try {
+					startDocument();
+					recorder.replay(handler);
+				} catch (SAXException e) {
+					throw new IOException(e);
+				}
+			}
+		};
+	}
+
+	private void startDocument() throws SAXException {
+		if (started) {
+			return;
+		}
+
+		handler.startDocument();
+
+		if (!vcardsElementExists) {
+			//don't output a <vcards> element if the parent is a <vcards> element
+			start(VCARDS);
+			level++;
+		}
+
+		started = true;
+	}
+
 	@Override
 	protected VCardVersion getTargetVersion() {
 		return targetVersion;
@@ -303,9 +361,9 @@ public class XCardWriter extends StreamWriter {
 	}
 
 	@SuppressWarnings({ "rawtypes", "unchecked" })
-	private void write(VCardProperty property, VCard vcard) throws SAXException {
+	private void write(VCardProperty property, WriteContext context) throws SAXException {
 		VCardPropertyScribe scribe = index.getPropertyScribe(property);
-		VCardParameters parameters = scribe.prepareParameters(property, targetVersion, vcard);
+		VCardParameters parameters = scribe.prepareParameters(property, context);
 
 		//get the property element to write
 		Element propertyElement;
@@ -320,7 +378,7 @@ public class XCardWriter extends StreamWriter {
 			QName qname = scribe.getQName();
 			propertyElement = DOC.createElementNS(qname.getNamespaceURI(), qname.getLocalPart());
 			try {
-				scribe.writeXml(property, propertyElement);
+				scribe.writeXml(property, propertyElement, context);
 			} catch (SkipMeException e) {
 				return;
 			} catch (EmbeddedVCardException e) {
@@ -486,4 +544,60 @@ public class XCardWriter extends StreamWriter {
 		}
 		return attributes;
 	}
+
+	/**
+	 * Records the SAX events that are used to write the XML.
+	 */
+	private static class SaxRecorder extends DefaultHandler {
+		private final List<Event> events = new ArrayList<Event>();
+
+		@Override
+		public void startElement(final String uri, final String localName, final String qName, Attributes attributes) {
+			final Attributes copy = (attributes == null) ? null : new AttributesImpl(attributes);
+			events.add(new Event() {
+				public void replay(ContentHandler handler) throws SAXException {
+					handler.startElement(uri, localName, qName, copy);
+				}
+			});
+		}
+
+		@Override
+		public void endElement(final String uri, final String localName, final String qName) {
+			events.add(new Event() {
+				public void replay(ContentHandler handler) throws SAXException {
+					handler.endElement(uri, localName, qName);
+				}
+			});
+		}
+
+		@Override
+		public void characters(char[] ch, int start, int length) {
+			final String text = new String(ch, start, length);
+			events.add(new Event() {
+				public void replay(ContentHandler handler) throws SAXException {
+					handler.characters(text.toCharArray(), 0, text.length());
+				}
+			});
+		}
+
+		@Override
+		public void ignorableWhitespace(char[] ch, int start, int length) {
+			final String text = new String(ch, start, length);
+			events.add(new Event() {
+				public void replay(ContentHandler handler) throws SAXException {
+					handler.ignorableWhitespace(text.toCharArray(), 0, text.length());
+				}
+			});
+		}
+
+		public void replay(ContentHandler handler) throws SAXException {
+			for (Event event : events) {
+				event.replay(handler);
+			}
+		}
+
+		private static interface Event {
+			void replay(ContentHandler handler) throws SAXException;
+		}
+	}
 }
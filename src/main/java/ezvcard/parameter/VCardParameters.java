@@ -112,6 +112,17 @@ public class VCardParameters extends ListMultimap<String, String> {
 		super(orig);
 	}
 
+	/**
+	 * Creates a copy of an existing parameter list.
+	 * @param orig the object to copy
+	 * @param copyOnWrite true to create a copy-on-write view of the original
+	 * object, false to copy all the parameters immediately
+	 * @see ListMultimap#ListMultimap(ListMultimap, boolean)
+	 */
+	public VCardParameters(VCardParameters orig, boolean copyOnWrite) {
+		super(orig, copyOnWrite);
+	}
+
 	/**
 	 * <p>
 	 * Gets the ENCODING parameter. This is used when the property value is
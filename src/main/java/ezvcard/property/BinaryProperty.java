@@ -10,6 +10,7 @@ import ezvcard.VCard;
 import ezvcard.VCardVersion;
 import ezvcard.Warning;
 import ezvcard.parameter.MediaTypeParameter;
+import ezvcard.util.BinaryData;
 import ezvcard.util.IOUtils;
 
 /*
@@ -52,6 +53,12 @@ public abstract class BinaryProperty<T extends MediaTypeParameter> extends VCard
 	 */
 	protected byte[] data;
 
+	/**
+	 * The decoded data, if it was assigned as a {@link BinaryData} object
+	 * (e.g. data that is stored outside of the Java heap).
+	 */
+	private BinaryData binaryData;
+
 	/**
 	 * The URL to the resource.
 	 */
@@ -105,11 +112,18 @@ public abstract class BinaryProperty<T extends MediaTypeParameter> extends VCard
 	}
 
 	/**
-	 * Gets the binary data of the resource.
+	 * Gets the binary data of the resource as a byte array. If the data was
+	 * assigned as a {@link BinaryData} object (see
+	 * {@link #setBinaryData(BinaryData, MediaTypeParameter) setBinaryData}), it
+	 * is copied into a new array each time this method is called, so
+	 * {@link #getBinaryData} should be used instead.
 	 * @return the binary data or null if there is none
 	 */
 	public byte[] getData() {
-		return data;
+		if (data != null) {
+			return data;
+		}
+		return (binaryData == null) ? null : binaryData.getBytes();
 	}
 
 	/**
@@ -120,6 +134,31 @@ public abstract class BinaryProperty<T extends MediaTypeParameter> extends VCard
 	public void setData(byte[] data, T type) {
 		this.url = null;
 		this.data = data;
+		this.binaryData = null;
+		setContentType(type);
+	}
+
+	/**
+	 * Gets the binary data of the resource.
+	 * @return the binary data or null if there is none
+	 */
+	public BinaryData getBinaryData() {
+		if (binaryData != null) {
+			return binaryData;
+		}
+		return (data == null) ? null : BinaryData.wrap(data);
+	}
+
+	/**
+	 * Sets the binary data of the resource.
+	 * @param data the binary data (e.g. data that is stored outside of the
+	 * Java heap)
+	 * @param type the content type (e.g. "JPEG image")
+	 */
+	public void setBinaryData(BinaryData data, T type) {
+		this.url = null;
+		this.data = null;
+		this.binaryData = data;
 		setContentType(type);
 	}
 
@@ -139,6 +178,7 @@ public abstract class BinaryProperty<T extends MediaTypeParameter> extends VCard
 	public void setUrl(String url, T type) {
 		this.url = url;
 		this.data = null;
+		this.binaryData = null;
 		setContentType(type);
 	}
 
@@ -221,7 +261,7 @@ public abstract class BinaryProperty<T extends MediaTypeParameter> extends VCard
 
 	@Override
 	protected void _validate(List<Warning> warnings, VCardVersion version, VCard vcard) {
-		if (url == null && data == null) {
+		if (url == null && data == null && binaryData == null) {
 			warnings.add(new Warning(8));
 		}
 	}
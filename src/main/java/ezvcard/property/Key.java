@@ -158,9 +158,7 @@ public class Key extends BinaryProperty<KeyType> {
 	 */
 	public void setText(String text, KeyType type) {
 		this.text = text;
-		data = null;
-		url = null;
-		setContentType(type);
+		setBinaryData(null, type);
 	}
 
 	/**
@@ -173,7 +171,7 @@ public class Key extends BinaryProperty<KeyType> {
 
 	@Override
 	protected void _validate(List<Warning> warnings, VCardVersion version, VCard vcard) {
-		if (url == null && data == null && text == null) {
+		if (url == null && getBinaryData() == null && text == null) {
 			warnings.add(new Warning(8));
 		}
 
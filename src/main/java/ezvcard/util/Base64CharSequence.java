@@ -0,0 +1,169 @@
+package ezvcard.util;
+
+/*
+ Copyright (c) 2012-2015, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+ The views and conclusions contained in the software and documentation are those
+ of the authors and should not be interpreted as representing official policies, 
+ either expressed or implied, of the FreeBSD Project.
+ */
+
+/**
+ * <p>
+ * A read-only view of binary data as a base64-encoded string. The characters
+ * are computed from the binary data on demand, so the encoded string is never
+ * built in memory unless {@link #toString} is called. This allows large
+ * values (such as photos) to be encoded as they are written to the data
+ * stream.
+ * </p>
+ * <p>
+ * The encoding is the same as
+ * {@link ezvcard.util.org.apache.commons.codec.binary.Base64#encodeBase64(byte[])
+ * Base64.encodeBase64(byte[])} (standard alphabet, padded, no line breaks).
+ * </p>
+ * @author Michael Angstadt
+ */
+public class Base64CharSequence implements CharSequence {
+	private static final char[] alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".toCharArray();
+
+	private final String prefix;
+	private final BinaryData data;
+	private final int size;
+	private final int length;
+
+	/**
+	 * @param data the binary data
+	 */
+	public Base64CharSequence(byte[] data) {
+		this("", data);
+	}
+
+	/**
+	 * @param data the binary data
+	 */
+	public Base64CharSequence(BinaryData data) {
+		this("", data);
+	}
+
+	/**
+	 * @param prefix text that comes before the base64-encoded data (for
+	 * example, the "data:image/jpeg;base64," part of a data URI)
+	 * @param data the binary data
+	 */
+	public Base64CharSequence(String prefix, byte[] data) {
+		this(prefix, BinaryData.wrap(data));
+	}
+
+	/**
+	 * @param prefix text that comes before the base64-encoded data (for
+	 * example, the "data:image/jpeg;base64," part of a data URI)
+	 * @param data the binary data
+	 */
+	public Base64CharSequence(String prefix, BinaryData data) {
+		this.prefix = prefix;
+		this.data = data;
+		size = data.size();
+		length = prefix.length() + (size + 2) / 3 * 4;
+	}
+
+	public int length() {
+		return length;
+	}
+
+	public char charAt(int index) {
+		int i = index - prefix.length();
+		if (i < 0) {
+			return prefix.charAt(index);
+		}
+		if (index >= length) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Length: " + length);
+		}
+
+		int pos = (i >> 2) * 3;
+		int available = size - pos;
+		int b0 = data.get(pos) & 0xff;
+		int b1 = (available > 1) ? data.get(pos + 1) & 0xff : 0;
+		int b2 = (available > 2) ? data.get(pos + 2) & 0xff : 0;
+
+		switch (i & 3) {
+		case 0:
+			return alphabet[b0 >> 2];
+		case 1:
+			return alphabet[((b0 & 0x3) << 4) | (b1 >> 4)];
+		case 2:
+			return (available > 1) ? alphabet[((b1 & 0xf) << 2) | (b2 >> 6)] : '=';
+		default:
+			return (available > 2) ? alphabet[b2 & 0x3f] : '=';
+		}
+	}
+
+	public CharSequence subSequence(int start, int end) {
+		if (start < 0 || end > length || start > end) {
+			throw new IndexOutOfBoundsException("Start: " + start + ", End: " + end + ", Length: " + length);
+		}
+
+		char[] chars = new char[end - start];
+		for (int i = start; i < end; i++) {
+			chars[i - start] = charAt(i);
+		}
+		return new String(chars);
+	}
+
+	/**
+	 * Builds the entire encoded string.
+	 * @return the encoded string
+	 */
+	@Override
+	public String toString() {
+		char[] chars = new char[length];
+		prefix.getChars(0, prefix.length(), chars, 0);
+
+		/*
+		 * Copy the data in chunks, in case it is not stored in a byte array.
+		 * The chunk size is a multiple of 3, so that no 3-byte block is split
+		 * between two chunks.
+		 */
+		byte[] chunk = new byte[Math.min(size, 3 * 1024)];
+		int c = prefix.length();
+		for (int start = 0; start + 2 < size; start += chunk.length) {
+			int chunkLength = Math.min(chunk.length, size - start);
+			data.get(start, chunk, 0, chunkLength);
+
+			for (int i = 0; i + 2 < chunkLength; i += 3) {
+				int bits = ((chunk[i] & 0xff) << 16) | ((chunk[i + 1] & 0xff) << 8) | (chunk[i + 2] & 0xff);
+				chars[c++] = alphabet[bits >> 18];
+				chars[c++] = alphabet[(bits >> 12) & 0x3f];
+				chars[c++] = alphabet[(bits >> 6) & 0x3f];
+				chars[c++] = alphabet[bits & 0x3f];
+			}
+		}
+
+		//the last one or two characters are padding
+		for (; c < length; c++) {
+			chars[c] = charAt(c);
+		}
+
+		return new String(chars);
+	}
+}
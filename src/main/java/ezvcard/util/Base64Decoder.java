@@ -0,0 +1,190 @@
+package ezvcard.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/*
+ Copyright (c) 2012-2015, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+ The views and conclusions contained in the software and documentation are those
+ of the authors and should not be interpreted as representing official policies, 
+ either expressed or implied, of the FreeBSD Project.
+ */
+
+/**
+ * <p>
+ * Decodes base64-encoded text in pieces, writing the decoded bytes to an
+ * output stream as soon as they are available. This allows large values (such
+ * as photos) to be decoded while they are being read, without the encoded
+ * text ever having to be held in memory all at once.
+ * </p>
+ * <p>
+ * The decoding is the same as
+ * {@link ezvcard.util.org.apache.commons.codec.binary.Base64#decodeBase64(String)
+ * Base64.decodeBase64(String)}: characters that are not part of the base64
+ * alphabet (such as whitespace) are ignored, both the standard and URL-safe
+ * alphabets are accepted, and decoding stops at the first "=" character.
+ * </p>
+ * <p>
+ * <b>Example:</b>
+ * 
+ * <pre class="brush:java">
+ * ByteArrayOutputStream out = new ByteArrayOutputStream();
+ * Base64Decoder decoder = new Base64Decoder(out);
+ * decoder.decode("SGVsbG8s".toCharArray(), 0, 8);
+ * decoder.decode(" IHdvcmxk".toCharArray(), 0, 9);
+ * decoder.finish();
+ * byte[] data = out.toByteArray(); //"Hello, world"
+ * </pre>
+ * 
+ * </p>
+ * @author Michael Angstadt
+ */
+public class Base64Decoder {
+	private static final byte[] decodeTable = new byte['z' + 1];
+	static {
+		for (int i = 0; i < decodeTable.length; i++) {
+			decodeTable[i] = -1;
+		}
+
+		String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
+		for (int i = 0; i < alphabet.length(); i++) {
+			decodeTable[alphabet.charAt(i)] = (byte) i;
+		}
+		decodeTable['+'] = decodeTable['-'] = 62;
+		decodeTable['/'] = decodeTable['_'] = 63;
+	}
+
+	private final byte[] buffer = new byte[4096];
+	private int pos;
+	private OutputStream out;
+
+	private int bits; //the bits of the current 4-character block
+	private int count; //the number of characters in the current block
+	private boolean eof; //has padding been reached?
+
+	/**
+	 * @param out the stream to write the decoded bytes to
+	 */
+	public Base64Decoder(OutputStream out) {
+		this.out = out;
+	}
+
+	/**
+	 * Prepares this decoder for decoding a new value. This allows the decoder
+	 * to be re-used.
+	 * @param out the stream to write the decoded bytes to
+	 */
+	public void reset(OutputStream out) {
+		this.out = out;
+		pos = bits = count = 0;
+		eof = false;
+	}
+
+	/**
+	 * Decodes the next piece of the base64-encoded text.
+	 * @param chars the buffer that contains the text
+	 * @param offset the index of the first character to decode
+	 * @param length the number of characters to decode
+	 * @throws IOException if there's a problem writing to the output stream
+	 */
+	public void decode(char[] chars, int offset, int length) throws IOException {
+		if (eof) {
+			return;
+		}
+
+		int end = offset + length;
+		for (int i = offset; i < end; i++) {
+			char ch = chars[i];
+			if (ch == '=') {
+				eof = true;
+				return;
+			}
+
+			if (ch >= decodeTable.length) {
+				continue;
+			}
+			int value = decodeTable[ch];
+			if (value < 0) {
+				continue;
+			}
+
+			bits = (bits << 6) | value;
+			if (++count == 4) {
+				if (pos + 3 > buffer.length) {
+					flushBuffer();
+				}
+				buffer[pos++] = (byte) (bits >> 16);
+				buffer[pos++] = (byte) (bits >> 8);
+				buffer[pos++] = (byte) bits;
+				bits = count = 0;
+			}
+		}
+	}
+
+	/**
+	 * Determines if the padding at the end of the base64-encoded text has been
+	 * reached. All characters that come after the padding are ignored.
+	 * @return true if the padding has been reached, false if not
+	 */
+	public boolean isPaddingReached() {
+		return eof;
+	}
+
+	/**
+	 * Writes the bytes that remain in the last, incomplete block of
+	 * characters to the output stream. This method must be called after all of
+	 * the text has been passed to the decoder. The output stream is not
+	 * closed.
+	 * @throws IOException if there's a problem writing to the output stream
+	 */
+	public void finish() throws IOException {
+		if (pos + 2 > buffer.length) {
+			flushBuffer();
+		}
+
+		switch (count) {
+		case 2:
+			//12 bits = 8 + 4 (the extra bits are dropped)
+			buffer[pos++] = (byte) (bits >> 4);
+			break;
+		case 3:
+			//18 bits = 8 + 8 + 2
+			buffer[pos++] = (byte) (bits >> 10);
+			buffer[pos++] = (byte) (bits >> 2);
+			break;
+		}
+		bits = count = 0;
+		eof = true;
+
+		flushBuffer();
+	}
+
+	private void flushBuffer() throws IOException {
+		if (pos > 0) {
+			out.write(buffer, 0, pos);
+			pos = 0;
+		}
+	}
+}
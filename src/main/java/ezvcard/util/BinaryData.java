@@ -0,0 +1,338 @@
+package ezvcard.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/*
+ Copyright (c) 2012-2015, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+ The views and conclusions contained in the software and documentation are those
+ of the authors and should not be interpreted as representing official policies, 
+ either expressed or implied, of the FreeBSD Project.
+ */
+
+/**
+ * <p>
+ * Holds the binary data of a property (such as a PHOTO or KEY). The data may
+ * live on the Java heap, in an off-heap {@link ByteBuffer}, or in a
+ * memory-mapped file (see {@link BinaryStorage}), so that vCards with large
+ * photos can be kept in memory without filling up the heap.
+ * </p>
+ * <p>
+ * Instances of this class are immutable.
+ * </p>
+ * <p>
+ * <b>Example:</b>
+ * 
+ * <pre class="brush:java">
+ * Photo photo = vcard.getPhotos().get(0);
+ * BinaryData data = photo.getBinaryData();
+ * OutputStream out = new FileOutputStream("photo.jpg");
+ * data.writeTo(out);
+ * out.close();
+ * </pre>
+ * 
+ * </p>
+ * @author Michael Angstadt
+ * @see BinaryStorage
+ */
+public abstract class BinaryData {
+	/**
+	 * Creates a binary data object that is backed by a byte array. The array
+	 * is not copied, so it should not be modified afterwards.
+	 * @param data the data
+	 * @return the binary data object
+	 */
+	public static BinaryData wrap(byte[] data) {
+		return new HeapData(data);
+	}
+
+	/**
+	 * Creates a binary data object that is backed by a {@link ByteBuffer}
+	 * (such as a direct or memory-mapped buffer). The data consists of the
+	 * bytes between the buffer's current position and its limit. The bytes
+	 * are not copied, so they should not be modified afterwards.
+	 * @param buffer the buffer
+	 * @return the binary data object
+	 */
+	public static BinaryData wrap(ByteBuffer buffer) {
+		return new BufferData(buffer.slice().asReadOnlyBuffer());
+	}
+
+	/**
+	 * Gets the number of bytes.
+	 * @return the number of bytes
+	 */
+	public abstract int size();
+
+	/**
+	 * Gets a single byte.
+	 * @param index the index of the byte
+	 * @return the byte
+	 * @throws IndexOutOfBoundsException if the index is out of bounds
+	 */
+	public abstract byte get(int index);
+
+	/**
+	 * Copies a range of bytes into an array.
+	 * @param index the index of the first byte to copy
+	 * @param dest the array to copy the bytes into
+	 * @param offset the position in the array to start copying to
+	 * @param length the number of bytes to copy
+	 * @throws IndexOutOfBoundsException if the range is out of bounds
+	 */
+	public abstract void get(int index, byte[] dest, int offset, int length);
+
+	/**
+	 * Gets a read-only buffer that contains the data (for example, to write
+	 * the data to a channel). The bytes are not copied.
+	 * @return the buffer (its position is 0 and its limit is the size of the
+	 * data)
+	 */
+	public abstract ByteBuffer asByteBuffer();
+
+	/**
+	 * Gets the data as a byte array. The data is copied into a new array each
+	 * time this method is called, so {@link #writeTo} or
+	 * {@link #getInputStream} should be preferred for large data.
+	 * @return the data
+	 */
+	public byte[] getBytes() {
+		byte[] bytes = new byte[size()];
+		get(0, bytes, 0, bytes.length);
+		return bytes;
+	}
+
+	/**
+	 * Writes the data to an output stream.
+	 * @param out the output stream
+	 * @throws IOException if there's a problem writing to the stream
+	 */
+	public void writeTo(OutputStream out) throws IOException {
+		byte[] buffer = new byte[Math.min(size(), 8192)];
+		int size = size();
+		for (int i = 0; i < size; i += buffer.length) {
+			int length = Math.min(buffer.length, size - i);
+			get(i, buffer, 0, length);
+			out.write(buffer, 0, length);
+		}
+	}
+
+	/**
+	 * Creates an input stream that reads the data.
+	 * @return the input stream
+	 */
+	public InputStream getInputStream() {
+		return new InputStream() {
+			private int pos = 0;
+			private int mark = 0;
+
+			@Override
+			public int read() {
+				return (pos < size()) ? get(pos++) & 0xff : -1;
+			}
+
+			@Override
+			public int read(byte[] b, int off, int len) {
+				if (len == 0) {
+					return 0;
+				}
+
+				int available = size() - pos;
+				if (available <= 0) {
+					return -1;
+				}
+
+				int count = Math.min(len, available);
+				get(pos, b, off, count);
+				pos += count;
+				return count;
+			}
+
+			@Override
+			public long skip(long n) {
+				int count = (int) Math.max(0, Math.min(n, size() - pos));
+				pos += count;
+				return count;
+			}
+
+			@Override
+			public int available() {
+				return size() - pos;
+			}
+
+			@Override
+			public boolean markSupported() {
+				return true;
+			}
+
+			@Override
+			public void mark(int readlimit) {
+				mark = pos;
+			}
+
+			@Override
+			public void reset() {
+				pos = mark;
+			}
+		};
+	}
+
+	/**
+	 * Gets an object that contains the same bytes as this one, but that does
+	 * not share them with an array which may still be referenced elsewhere
+	 * (see {@link #wrap(byte[])}).
+	 * @return the object (may be this object)
+	 */
+	BinaryData unshared() {
+		return this;
+	}
+
+	@Override
+	public int hashCode() {
+		int result = 1;
+		int size = size();
+		for (int i = 0; i < size; i++) {
+			result = 31 * result + get(i);
+		}
+		return result;
+	}
+
+	/**
+	 * Determines if this object contains the same bytes as another, regardless
+	 * of where the bytes are stored.
+	 * @param obj the other object
+	 * @return true if they contain the same bytes, false if not
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (!(obj instanceof BinaryData))
+			return false;
+		BinaryData other = (BinaryData) obj;
+		if (size() != other.size())
+			return false;
+		return asByteBuffer().equals(other.asByteBuffer());
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + " [size=" + size() + "]";
+	}
+
+	/**
+	 * Binary data that is stored in a byte array.
+	 */
+	private static class HeapData extends BinaryData {
+		private final byte[] data;
+
+		public HeapData(byte[] data) {
+			this.data = data;
+		}
+
+		@Override
+		public int size() {
+			return data.length;
+		}
+
+		@Override
+		public byte get(int index) {
+			return data[index];
+		}
+
+		@Override
+		public void get(int index, byte[] dest, int offset, int length) {
+			System.arraycopy(data, index, dest, offset, length);
+		}
+
+		@Override
+		public ByteBuffer asByteBuffer() {
+			return ByteBuffer.wrap(data).asReadOnlyBuffer();
+		}
+
+		@Override
+		public void writeTo(OutputStream out) throws IOException {
+			out.write(data);
+		}
+
+		@Override
+		BinaryData unshared() {
+			return new HeapData(data.clone());
+		}
+
+		@Override
+		public int hashCode() {
+			//same result as the superclass method
+			return Arrays.hashCode(data);
+		}
+	}
+
+	/**
+	 * Binary data that is stored in a {@link ByteBuffer}.
+	 */
+	private static class BufferData extends BinaryData {
+		private final ByteBuffer buffer;
+
+		/**
+		 * @param buffer the buffer (its position must be 0)
+		 */
+		public BufferData(ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		@Override
+		public int size() {
+			return buffer.limit();
+		}
+
+		@Override
+		public byte get(int index) {
+			return buffer.get(index);
+		}
+
+		@Override
+		public ByteBuffer asByteBuffer() {
+			return buffer.duplicate();
+		}
+
+		@Override
+		public void get(int index, byte[] dest, int offset, int length) {
+			if (index < 0 || length < 0 || index + length > buffer.limit()) {
+				throw new IndexOutOfBoundsException("Index: " + index + ", Length: " + length + ", Size: " + buffer.limit());
+			}
+
+			/*
+			 * Use a duplicate, so that concurrent calls do not interfere with
+			 * each other's position.
+			 */
+			ByteBuffer duplicate = buffer.duplicate();
+			duplicate.position(index);
+			duplicate.get(dest, offset, length);
+		}
+	}
+}
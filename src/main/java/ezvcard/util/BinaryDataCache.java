@@ -0,0 +1,209 @@
+package ezvcard.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*
+ Copyright (c) 2012-2015, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+ The views and conclusions contained in the software and documentation are those
+ of the authors and should not be interpreted as representing official policies, 
+ either expressed or implied, of the FreeBSD Project.
+ */
+
+/**
+ * <p>
+ * Shares a single {@link BinaryData} object between all binary properties
+ * that contain the same data. For example, if thousands of vCards contain the
+ * same company logo, only one copy of the logo is kept in memory.
+ * </p>
+ * <p>
+ * The cache holds a limited number of entries. When it is full, the least
+ * recently used entry is evicted. This class is thread-safe, so one cache can
+ * be shared between multiple readers.
+ * </p>
+ * <p>
+ * Because a cached payload may be shared by many properties, the payloads
+ * that this cache hands out are immutable. A payload that is backed by a byte
+ * array is copied when it is added to the cache, so changing the original
+ * array does not affect the cached payload. {@link BinaryData#getBytes} and
+ * {@link ezvcard.property.BinaryProperty#getData BinaryProperty.getData}
+ * return a new copy of the bytes each time they are called, so modifying that
+ * copy does not affect the other properties either.
+ * </p>
+ * <p>
+ * <b>Example:</b>
+ * 
+ * <pre class="brush:java">
+ * BinaryDataCache cache = new BinaryDataCache(1000);
+ * VCardReader reader = new VCardReader(file);
+ * reader.setBinaryDataCache(cache);
+ * List&lt;VCard&gt; vcards = reader.readAll();
+ * System.out.println(cache.getHits() + " duplicate payloads were shared");
+ * </pre>
+ * 
+ * </p>
+ * @author Michael Angstadt
+ */
+public class BinaryDataCache {
+	private final int maxEntries;
+	private final Map<BinaryData, BinaryData> entries;
+	private long hits, misses, evictions;
+
+	/**
+	 * Creates a new cache.
+	 * @param maxEntries the maximum number of payloads to hold
+	 * @throws IllegalArgumentException if the maximum is less than 1
+	 */
+	public BinaryDataCache(int maxEntries) {
+		if (maxEntries < 1) {
+			throw new IllegalArgumentException("Max entries must be greater than zero.");
+		}
+
+		this.maxEntries = maxEntries;
+		entries = new LinkedHashMap<BinaryData, BinaryData>(16, 0.75f, true) {
+			private static final long serialVersionUID = -4209458744305926235L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<BinaryData, BinaryData> eldest) {
+				if (size() > BinaryDataCache.this.maxEntries) {
+					evictions++;
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	/**
+	 * Gets the payload in the cache that contains the same bytes as the given
+	 * payload. If there is none, an immutable version of the given payload
+	 * is added to the cache. If the given payload is backed by a byte array,
+	 * the array is copied, so that later changes to the array do not affect
+	 * the cache.
+	 * @param data the payload
+	 * @return the cached payload
+	 */
+	public synchronized BinaryData intern(BinaryData data) {
+		BinaryData cached = entries.get(data);
+		if (cached != null) {
+			hits++;
+			return cached;
+		}
+
+		misses++;
+		BinaryData stored = data.unshared();
+		entries.put(stored, stored);
+		return stored;
+	}
+
+	/**
+	 * Gets the payload in the cache that contains the given bytes. If there is
+	 * none, the bytes are copied to the given storage, and the copy is added
+	 * to the cache. The bytes are only copied if they are not already cached.
+	 * @param data the array that contains the bytes
+	 * @param offset the index of the first byte
+	 * @param length the number of bytes
+	 * @param storage where to copy the bytes to if they are not cached
+	 * @return the cached payload
+	 * @throws IOException if there's a problem storing the bytes
+	 */
+	public BinaryData intern(byte[] data, int offset, int length, BinaryStorage storage) throws IOException {
+		BinaryData probe = BinaryData.wrap(ByteBuffer.wrap(data, offset, length));
+		synchronized (this) {
+			BinaryData cached = entries.get(probe);
+			if (cached != null) {
+				hits++;
+				return cached;
+			}
+			misses++;
+		}
+
+		//store the bytes outside of the lock, since this may involve I/O
+		//the storage creates its own copy of the bytes, so there is no need to copy them again
+		BinaryData stored = storage.store(data, offset, length);
+
+		synchronized (this) {
+			//another thread may have added the same bytes in the meantime
+			BinaryData cached = entries.get(stored);
+			if (cached != null) {
+				return cached;
+			}
+
+			entries.put(stored, stored);
+			return stored;
+		}
+	}
+
+	/**
+	 * Gets the number of times a payload was found in the cache.
+	 * @return the number of hits
+	 */
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	/**
+	 * Gets the number of times a payload was not found in the cache.
+	 * @return the number of misses
+	 */
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	/**
+	 * Gets the number of payloads that were removed from the cache to make
+	 * room for new ones.
+	 * @return the number of evictions
+	 */
+	public synchronized long getEvictions() {
+		return evictions;
+	}
+
+	/**
+	 * Gets the number of payloads in the cache.
+	 * @return the number of payloads
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Gets the maximum number of payloads the cache can hold.
+	 * @return the maximum number of payloads
+	 */
+	public int getMaxEntries() {
+		return maxEntries;
+	}
+
+	/**
+	 * Removes all payloads from the cache and resets the statistics.
+	 */
+	public synchronized void clear() {
+		entries.clear();
+		hits = misses = evictions = 0;
+	}
+}
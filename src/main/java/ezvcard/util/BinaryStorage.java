@@ -0,0 +1,139 @@
+package ezvcard.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel.MapMode;
+
+/*
+ Copyright (c) 2012-2015, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+ The views and conclusions contained in the software and documentation are those
+ of the authors and should not be interpreted as representing official policies, 
+ either expressed or implied, of the FreeBSD Project.
+ */
+
+/**
+ * <p>
+ * Determines where the binary data of properties (such as PHOTO and KEY) is
+ * stored when it is read from a data stream.
+ * </p>
+ * <p>
+ * <b>Example:</b>
+ * 
+ * <pre class="brush:java">
+ * //keep photos out of the Java heap
+ * VCardReader reader = new VCardReader(file);
+ * reader.setBinaryStorage(BinaryStorage.mappedTempFiles(null));
+ * </pre>
+ * 
+ * </p>
+ * @author Michael Angstadt
+ * @see BinaryData
+ */
+public abstract class BinaryStorage {
+	/**
+	 * Stores the data in byte arrays on the Java heap (default).
+	 */
+	public static final BinaryStorage HEAP = new BinaryStorage() {
+		@Override
+		public BinaryData store(byte[] data, int offset, int length) {
+			byte[] copy = new byte[length];
+			System.arraycopy(data, offset, copy, 0, length);
+			return BinaryData.wrap(copy);
+		}
+	};
+
+	/**
+	 * Stores the data in direct {@link ByteBuffer ByteBuffers}, which are
+	 * allocated outside of the Java heap. The memory is released when the
+	 * {@link BinaryData} object is garbage collected.
+	 */
+	public static final BinaryStorage DIRECT = new BinaryStorage() {
+		@Override
+		public BinaryData store(byte[] data, int offset, int length) {
+			ByteBuffer buffer = ByteBuffer.allocateDirect(length);
+			buffer.put(data, offset, length);
+			buffer.flip();
+			return BinaryData.wrap(buffer);
+		}
+	};
+
+	/**
+	 * Creates a storage that writes the data to temporary files and maps the
+	 * files into memory. This keeps the data out of the Java heap and lets the
+	 * operating system page it out when memory is low. Each file is deleted as
+	 * soon as the operating system allows it (on most systems, right after it
+	 * is mapped; otherwise, when the JVM exits).
+	 * @param directory the directory to create the files in or null to use
+	 * the system's default temporary directory
+	 * @return the storage
+	 */
+	public static BinaryStorage mappedTempFiles(final File directory) {
+		return new BinaryStorage() {
+			@Override
+			public BinaryData store(byte[] data, int offset, int length) throws IOException {
+				if (length == 0) {
+					return BinaryData.wrap(new byte[0]);
+				}
+
+				File file = File.createTempFile("ez-vcard", ".bin", directory);
+				RandomAccessFile raf = null;
+				ByteBuffer buffer;
+				try {
+					raf = new RandomAccessFile(file, "rw");
+					raf.write(data, offset, length);
+					buffer = raf.getChannel().map(MapMode.READ_ONLY, 0, length);
+				} finally {
+					IOUtils.closeQuietly(raf);
+					if (!file.delete()) {
+						file.deleteOnExit();
+					}
+				}
+				return BinaryData.wrap(buffer);
+			}
+		};
+	}
+
+	/**
+	 * Stores a copy of the given data.
+	 * @param data the data
+	 * @return the stored data
+	 * @throws IOException if there's a problem storing the data
+	 */
+	public BinaryData store(byte[] data) throws IOException {
+		return store(data, 0, data.length);
+	}
+
+	/**
+	 * Stores a copy of the given data.
+	 * @param data the array that contains the data
+	 * @param offset the index of the first byte
+	 * @param length the number of bytes
+	 * @return the stored data
+	 * @throws IOException if there's a problem storing the data
+	 */
+	public abstract BinaryData store(byte[] data, int offset, int length) throws IOException;
+}
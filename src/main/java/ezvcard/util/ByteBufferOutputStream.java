@@ -0,0 +1,302 @@
+package ezvcard.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ Copyright (c) 2012-2015, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+ The views and conclusions contained in the software and documentation are those
+ of the authors and should not be interpreted as representing official policies, 
+ either expressed or implied, of the FreeBSD Project.
+ */
+
+/**
+ * <p>
+ * An output stream that writes to {@link ByteBuffer} objects. It can either
+ * write to a single buffer that is grown as needed, or to a list of buffers
+ * that are taken from a {@link Pool}.
+ * </p>
+ * <p>
+ * When a {@link ezvcard.io.text.VCardWriter VCardWriter} is created with one
+ * of these streams, the characters are encoded directly into the stream's
+ * buffers, without being copied to any intermediate buffers first.
+ * </p>
+ * <p>
+ * <b>Example:</b>
+ * 
+ * <pre class="brush:java">
+ * ByteBufferOutputStream out = new ByteBufferOutputStream(pool);
+ * VCardWriter writer = new VCardWriter(out, VCardVersion.V4_0);
+ * writer.write(vcard);
+ * writer.flush();
+ * 
+ * GatheringByteChannel channel = ...
+ * out.writeTo(channel);
+ * out.reset();
+ * </pre>
+ * 
+ * </p>
+ * @author Michael Angstadt
+ */
+public class ByteBufferOutputStream extends OutputStream {
+	/**
+	 * The minimum amount of space the buffers must have, so that every
+	 * character can be encoded.
+	 */
+	private static final int MIN_CAPACITY = 16;
+
+	private final Pool pool;
+	private final List<ByteBuffer> buffers = new ArrayList<ByteBuffer>();
+	private ByteBuffer buffer;
+
+	/**
+	 * Creates a stream that writes to a single heap buffer, which is grown as
+	 * needed.
+	 */
+	public ByteBufferOutputStream() {
+		this(ByteBuffer.allocate(8192));
+	}
+
+	/**
+	 * Creates a stream that writes to a single buffer, starting at the
+	 * buffer's current position. When the buffer runs out of space, it is
+	 * replaced with a buffer that is twice as large (a direct buffer if the
+	 * original buffer is direct).
+	 * @param buffer the buffer to write to
+	 */
+	public ByteBufferOutputStream(ByteBuffer buffer) {
+		pool = null;
+		this.buffer = buffer;
+		buffers.add(buffer);
+	}
+
+	/**
+	 * Creates a stream that writes to a list of buffers that are taken from a
+	 * pool. A new buffer is taken from the pool each time the current buffer
+	 * runs out of space.
+	 * @param pool the buffer pool
+	 */
+	public ByteBufferOutputStream(Pool pool) {
+		this.pool = pool;
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		ByteBuffer buffer = getCurrentBuffer();
+		if (!buffer.hasRemaining()) {
+			buffer = nextBuffer();
+		}
+		buffer.put((byte) b);
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException {
+		ByteBuffer buffer = getCurrentBuffer();
+		if (pool == null && buffer.remaining() < len) {
+			buffer = grow(len);
+		}
+
+		while (len > 0) {
+			if (!buffer.hasRemaining()) {
+				buffer = nextBuffer();
+			}
+
+			int count = Math.min(len, buffer.remaining());
+			buffer.put(b, off, count);
+			off += count;
+			len -= count;
+		}
+	}
+
+	/**
+	 * Gets the buffer that data is currently being written to. Encoders can
+	 * write to this buffer directly.
+	 * @return the current buffer
+	 */
+	public ByteBuffer getCurrentBuffer() {
+		if (buffer == null) {
+			nextBuffer();
+		}
+		return buffer;
+	}
+
+	/**
+	 * Makes more space available once the current buffer is full (or does not
+	 * have enough space left for what needs to be written). If the stream
+	 * writes to a single buffer, then the buffer is grown. Otherwise, a new
+	 * buffer is taken from the pool.
+	 * @return the buffer to write to next
+	 * @throws IllegalStateException if a buffer taken from the pool has less
+	 * than 16 bytes of space
+	 */
+	public ByteBuffer nextBuffer() {
+		if (pool == null) {
+			return grow(MIN_CAPACITY);
+		}
+
+		ByteBuffer next = pool.acquire();
+		if (next.remaining() < MIN_CAPACITY) {
+			pool.release(next);
+			throw new IllegalStateException("Buffers taken from the pool must have at least " + MIN_CAPACITY + " bytes of space.");
+		}
+
+		buffer = next;
+		buffers.add(next);
+		return next;
+	}
+
+	/**
+	 * Replaces the buffer with a larger one.
+	 * @param minRemaining the amount of space the new buffer must have left
+	 * @return the new buffer
+	 */
+	private ByteBuffer grow(int minRemaining) {
+		int capacity = Math.max(buffer.capacity() * 2, buffer.position() + minRemaining);
+		ByteBuffer grown = buffer.isDirect() ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+
+		buffer.flip();
+		grown.put(buffer);
+
+		buffer = grown;
+		buffers.set(0, grown);
+		return grown;
+	}
+
+	/**
+	 * Gets the buffer that was written to. This is the buffer that was passed
+	 * into the constructor, unless it had to be grown. The buffer's position
+	 * is at the end of the written data, so it must be flipped before it is
+	 * read.
+	 * @return the buffer
+	 * @throws IllegalStateException if this stream writes to pooled buffers
+	 */
+	public ByteBuffer getBuffer() {
+		if (pool != null) {
+			throw new IllegalStateException("This stream writes to pooled buffers.");
+		}
+		return buffer;
+	}
+
+	/**
+	 * Gets the data that has been written, including any data that was in the
+	 * buffers before they were written to. The returned buffers share their
+	 * content with the buffers that were written to, but have their own
+	 * positions and limits.
+	 * @return the data, ready to be read
+	 */
+	public ByteBuffer[] toByteBuffers() {
+		ByteBuffer[] data = new ByteBuffer[buffers.size()];
+		for (int i = 0; i < data.length; i++) {
+			ByteBuffer duplicate = buffers.get(i).duplicate();
+			duplicate.flip();
+			data[i] = duplicate;
+		}
+		return data;
+	}
+
+	/**
+	 * Writes all of the data that has been written to this stream to a
+	 * channel, using as few gathering writes as possible. This method does not
+	 * return until all of the data has been written, so the channel should be
+	 * in blocking mode. For non-blocking channels, pass the buffers returned by
+	 * {@link #toByteBuffers} to the channel instead.
+	 * @param channel the channel
+	 * @return the number of bytes that were written
+	 * @throws IOException if there's a problem writing to the channel
+	 */
+	public long writeTo(GatheringByteChannel channel) throws IOException {
+		ByteBuffer[] data = toByteBuffers();
+		long size = size();
+		long written = 0;
+		int offset = 0;
+		while (written < size) {
+			written += channel.write(data, offset, data.length - offset);
+			while (offset < data.length && !data[offset].hasRemaining()) {
+				offset++;
+			}
+		}
+		return written;
+	}
+
+	/**
+	 * Gets the number of bytes in the buffers, including any data that was in
+	 * the buffers before they were written to.
+	 * @return the number of bytes
+	 */
+	public long size() {
+		long size = 0;
+		for (ByteBuffer buffer : buffers) {
+			size += buffer.position();
+		}
+		return size;
+	}
+
+	/**
+	 * Discards all of the data that has been written. Pooled buffers are
+	 * returned to the pool.
+	 */
+	public void reset() {
+		if (pool == null) {
+			buffer.clear();
+			return;
+		}
+
+		for (ByteBuffer buffer : buffers) {
+			pool.release(buffer);
+		}
+		buffers.clear();
+		buffer = null;
+	}
+
+	/**
+	 * Does nothing. The data remains available after the stream is closed.
+	 */
+	@Override
+	public void close() {
+		//empty
+	}
+
+	/**
+	 * A source of re-usable buffers.
+	 */
+	public static interface Pool {
+		/**
+		 * Takes a buffer from the pool. Data will be written to the buffer
+		 * starting at its current position.
+		 * @return the buffer
+		 */
+		ByteBuffer acquire();
+
+		/**
+		 * Returns a buffer to the pool.
+		 * @param buffer the buffer
+		 */
+		void release(ByteBuffer buffer);
+	}
+}
@@ -46,7 +46,7 @@ import ezvcard.util.org.apache.commons.codec.binary.Base64;
  */
 public final class DataUri {
 	private static final Pattern regex = Pattern.compile("^data:(.*?);base64,(.*)", Pattern.CASE_INSENSITIVE);
-	private final byte[] data;
+	private final BinaryData data;
 	private final String contentType;
 
 	/**
@@ -55,6 +55,15 @@ public final class DataUri {
 	 * @param data the binary data
 	 */
 	public DataUri(String contentType, byte[] data) {
+		this(contentType, BinaryData.wrap(data));
+	}
+
+	/**
+	 * Creates a data URI.
+	 * @param contentType the content type (e.g. "image/jpeg")
+	 * @param data the binary data
+	 */
+	public DataUri(String contentType, BinaryData data) {
 		this.contentType = contentType;
 		this.data = data;
 	}
@@ -72,7 +81,7 @@ public final class DataUri {
 		}
 
 		contentType = m.group(1);
-		data = Base64.decodeBase64(m.group(2));
+		data = BinaryData.wrap(Base64.decodeBase64(m.group(2)));
 	}
 
 	/**
@@ -80,6 +89,14 @@ public final class DataUri {
 	 * @return the binary data
 	 */
 	public byte[] getData() {
+		return data.getBytes();
+	}
+
+	/**
+	 * Gets the binary data.
+	 * @return the binary data
+	 */
+	public BinaryData getBinaryData() {
 		return data;
 	}
 
@@ -99,8 +116,18 @@ public final class DataUri {
 		return URI.create(toString());
 	}
 
+	/**
+	 * Gets the text of this data URI without building the base64-encoded data
+	 * in memory. The data is encoded as the characters are read.
+	 * @return the data URI
+	 * @see Base64CharSequence
+	 */
+	public CharSequence toCharSequence() {
+		return new Base64CharSequence("data:" + contentType + ";base64,", data);
+	}
+
 	@Override
 	public String toString() {
-		return "data:" + contentType + ";base64," + Base64.encodeBase64String(data);
+		return toCharSequence().toString();
 	}
 }
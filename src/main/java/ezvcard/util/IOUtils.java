@@ -186,6 +186,17 @@ public class IOUtils {
 		return utf8Reader(new FileInputStream(file));
 	}
 
+	/**
+	 * Determines if a character set encodes every ASCII character as a single
+	 * byte, and never uses bytes in the ASCII range for anything else.
+	 * @param charset the character set
+	 * @return true if the character set is ASCII compatible, false if not
+	 */
+	public static boolean isAsciiCompatible(Charset charset) {
+		String name = charset.name().toUpperCase();
+		return name.equals("UTF-8") || name.equals("US-ASCII") || name.startsWith("ISO-8859-") || name.startsWith("WINDOWS-125");
+	}
+
 	private IOUtils() {
 		//hide
 	}
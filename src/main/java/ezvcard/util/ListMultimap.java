@@ -1,5 +1,6 @@
 package ezvcard.util;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -47,7 +48,13 @@ import java.util.Set;
  * @param <V> the value
  */
 public class ListMultimap<K, V> implements Iterable<Map.Entry<K, List<V>>> {
-	private final Map<K, List<V>> map;
+	private Map<K, List<V>> map;
+
+	/**
+	 * The map of the multimap this multimap is a copy-on-write view of, or null
+	 * if this multimap does not share any data with another multimap.
+	 */
+	private Map<K, List<V>> sharedMap;
 
 	/**
 	 * Creates an empty multimap.
@@ -69,10 +76,35 @@ public class ListMultimap<K, V> implements Iterable<Map.Entry<K, List<V>>> {
 	 * @param orig the multimap to copy from
 	 */
 	public ListMultimap(ListMultimap<K, V> orig) {
-		this();
-		for (Map.Entry<K, List<V>> entry : orig) {
-			List<V> values = new ArrayList<V>(entry.getValue());
-			map.put(entry.getKey(), values);
+		this(orig, false);
+	}
+
+	/**
+	 * <p>
+	 * Creates a copy of an existing multimap. If {@code copyOnWrite} is true,
+	 * the data of the original multimap is not copied until this multimap is
+	 * modified, and only the parts that are modified are copied. Until then,
+	 * changes made to the original multimap are visible through this multimap,
+	 * so this should only be used to create short-lived copies of multimaps
+	 * that will not be modified while the copy is in use.
+	 * </p>
+	 * <p>
+	 * Entries and value lists that are modified through this multimap's
+	 * {@link #iterator} are copied as well before they are modified.
+	 * </p>
+	 * @param orig the multimap to copy from
+	 * @param copyOnWrite true to create a copy-on-write view, false to copy
+	 * all the data immediately
+	 */
+	public ListMultimap(ListMultimap<K, V> orig, boolean copyOnWrite) {
+		if (copyOnWrite) {
+			map = sharedMap = orig.map;
+		} else {
+			map = new LinkedHashMap<K, List<V>>();
+			for (Map.Entry<K, List<V>> entry : orig.map.entrySet()) {
+				List<V> values = new ArrayList<V>(entry.getValue());
+				map.put(entry.getKey(), values);
+			}
 		}
 	}
 
@@ -118,8 +150,11 @@ public class ListMultimap<K, V> implements Iterable<Map.Entry<K, List<V>>> {
 		if (values == null) {
 			values = new ArrayList<V>();
 			if (add) {
+				unshareMap();
 				map.put(key, values);
 			}
+		} else if (sharedMap != null) {
+			values = unshareValues(key, values);
 		}
 		return values;
 	}
@@ -130,7 +165,7 @@ public class ListMultimap<K, V> implements Iterable<Map.Entry<K, List<V>>> {
 	 * @return the first value or null if the key doesn't exist
 	 */
 	public V first(K key) {
-		List<V> values = get(key);
+		List<V> values = map.get(sanitizeKey(key));
 		return (values == null || values.isEmpty()) ? null : values.get(0);
 	}
 
@@ -150,11 +185,19 @@ public class ListMultimap<K, V> implements Iterable<Map.Entry<K, List<V>>> {
 	 * @return true if the multimap contained the value, false if not
 	 */
 	public boolean remove(K key, V value) {
-		List<V> values = map.get(sanitizeKey(key));
-		if (values != null) {
-			return values.remove(value);
+		key = sanitizeKey(key);
+		List<V> values = map.get(key);
+		if (values == null) {
+			return false;
 		}
-		return false;
+
+		if (sharedMap != null) {
+			if (!values.contains(value)) {
+				return false;
+			}
+			values = unshareValues(key, values);
+		}
+		return values.remove(value);
 	}
 
 	/**
@@ -163,7 +206,16 @@ public class ListMultimap<K, V> implements Iterable<Map.Entry<K, List<V>>> {
 	 * @return the removed values or empty list if the key doesn't exist
 	 */
 	public List<V> removeAll(K key) {
-		List<V> removed = map.remove(sanitizeKey(key));
+		key = sanitizeKey(key);
+		if (sharedMap != null) {
+			List<V> values = map.get(key);
+			if (values == null) {
+				return Collections.<V> emptyList();
+			}
+			values = unshareValues(key, values);
+		}
+
+		List<V> removed = map.remove(key);
 		return (removed == null) ? Collections.<V> emptyList() : removed;
 	}
 
@@ -200,7 +252,12 @@ public class ListMultimap<K, V> implements Iterable<Map.Entry<K, List<V>>> {
 	 * Clears all entries from the multimap.
 	 */
 	public void clear() {
-		map.clear();
+		if (sharedMap == null) {
+			map.clear();
+		} else {
+			map = new LinkedHashMap<K, List<V>>();
+			sharedMap = null;
+		}
 	}
 
 	/**
@@ -208,6 +265,7 @@ public class ListMultimap<K, V> implements Iterable<Map.Entry<K, List<V>>> {
 	 * @return all the keys
 	 */
 	public Set<K> keySet() {
+		unshareMap();
 		return map.keySet();
 	}
 
@@ -248,9 +306,47 @@ public class ListMultimap<K, V> implements Iterable<Map.Entry<K, List<V>>> {
 	 * @return the underlying {@link Map} object
 	 */
 	public Map<K, List<V>> getMap() {
+		if (sharedMap != null) {
+			unshareMap();
+			for (Map.Entry<K, List<V>> entry : map.entrySet()) {
+				List<V> values = entry.getValue();
+				if (sharedMap.get(entry.getKey()) == values) {
+					entry.setValue(new ArrayList<V>(values));
+				}
+			}
+			sharedMap = null;
+		}
 		return map;
 	}
 
+	/**
+	 * Copies the map that is shared with another multimap, if it hasn't been
+	 * copied already. The value lists are not copied.
+	 */
+	private void unshareMap() {
+		if (sharedMap != null && map == sharedMap) {
+			map = new LinkedHashMap<K, List<V>>(sharedMap);
+		}
+	}
+
+	/**
+	 * Copies a value list that is shared with another multimap, if it hasn't
+	 * been copied already.
+	 * @param key the sanitized key
+	 * @param values the key's current value list
+	 * @return the value list that belongs to this multimap
+	 */
+	private List<V> unshareValues(K key, List<V> values) {
+		if (sharedMap.get(key) != values) {
+			return values;
+		}
+
+		unshareMap();
+		values = new ArrayList<V>(values);
+		map.put(key, values);
+		return values;
+	}
+
 	/**
 	 * Modifies a given key before it is used to interact with the internal map.
 	 * This method is meant to be overridden by child classes if necessary.
@@ -263,7 +359,161 @@ public class ListMultimap<K, V> implements Iterable<Map.Entry<K, List<V>>> {
 
 	//@Override
 	public Iterator<Map.Entry<K, List<V>>> iterator() {
-		return map.entrySet().iterator();
+		final Map<K, List<V>> iterated = map;
+		final Iterator<Map.Entry<K, List<V>>> it = iterated.entrySet().iterator();
+		if (sharedMap == null) {
+			return it;
+		}
+
+		//copy the shared data only if it is modified through the iterator
+		return new Iterator<Map.Entry<K, List<V>>>() {
+			private K lastKey;
+
+			public boolean hasNext() {
+				return it.hasNext();
+			}
+
+			public Map.Entry<K, List<V>> next() {
+				Map.Entry<K, List<V>> entry = it.next();
+				lastKey = entry.getKey();
+
+				Map<K, List<V>> shared = sharedMap;
+				if (shared == null || (iterated != shared && shared.get(lastKey) != entry.getValue())) {
+					//the entry belongs to this multimap alone
+					return entry;
+				}
+				return new SharedEntry(lastKey, entry.getValue());
+			}
+
+			public void remove() {
+				if (iterated == sharedMap) {
+					unshareMap();
+					map.remove(lastKey);
+				} else {
+					it.remove();
+				}
+			}
+		};
+	}
+
+	/**
+	 * A map entry whose value list may be shared with another multimap. The
+	 * list is copied the first time it is modified.
+	 */
+	private class SharedEntry implements Map.Entry<K, List<V>> {
+		private final K key;
+		private List<V> values;
+		private List<V> view;
+
+		public SharedEntry(K key, List<V> values) {
+			this.key = key;
+			this.values = values;
+		}
+
+		public K getKey() {
+			return key;
+		}
+
+		public List<V> getValue() {
+			if (view == null) {
+				view = new SharedValues(key, values);
+			}
+			return view;
+		}
+
+		public List<V> setValue(List<V> value) {
+			unshareMap();
+			view = values = value;
+			List<V> old = map.put(key, value);
+
+			//don't let the caller modify the other multimap's list
+			Map<K, List<V>> shared = sharedMap;
+			return (old != null && shared != null && shared.get(key) == old) ? new ArrayList<V>(old) : old;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Map.Entry)) {
+				return false;
+			}
+			Map.Entry<?, ?> other = (Map.Entry<?, ?>) obj;
+			Object otherKey = other.getKey();
+			return (key == null ? otherKey == null : key.equals(otherKey)) && current().equals(other.getValue());
+		}
+
+		@Override
+		public int hashCode() {
+			return (key == null ? 0 : key.hashCode()) ^ current().hashCode();
+		}
+
+		@Override
+		public String toString() {
+			return key + "=" + current();
+		}
+
+		private List<V> current() {
+			return (view == null) ? values : view;
+		}
+	}
+
+	/**
+	 * A view of a key's value list that may be shared with another multimap.
+	 * The list is copied the first time it is modified.
+	 */
+	private class SharedValues extends AbstractList<V> {
+		private final K key;
+		private List<V> values;
+		private boolean owned = false;
+
+		public SharedValues(K key, List<V> values) {
+			this.key = key;
+			this.values = values;
+		}
+
+		@Override
+		public V get(int index) {
+			return values.get(index);
+		}
+
+		@Override
+		public int size() {
+			return values.size();
+		}
+
+		@Override
+		public V set(int index, V element) {
+			return write().set(index, element);
+		}
+
+		@Override
+		public void add(int index, V element) {
+			write().add(index, element);
+			modCount++;
+		}
+
+		@Override
+		public V remove(int index) {
+			V removed = write().remove(index);
+			modCount++;
+			return removed;
+		}
+
+		private List<V> write() {
+			if (!owned) {
+				List<V> current = map.get(key);
+				if (current == null) {
+					//the key was removed from the multimap
+					unshareMap();
+					current = new ArrayList<V>(values);
+					map.put(key, current);
+				} else if (sharedMap != null) {
+					current = unshareValues(key, current);
+				}
+				values = current;
+				owned = true;
+			}
+			return values;
+		}
 	}
 
 	@Override
@@ -0,0 +1,277 @@
+package ezvcard.util;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+/*
+ Copyright (c) 2012-2015, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+ The views and conclusions contained in the software and documentation are those
+ of the authors and should not be interpreted as representing official policies, 
+ either expressed or implied, of the FreeBSD Project.
+ */
+
+/**
+ * <p>
+ * Reads characters from a file by mapping the file into memory (see
+ * {@link FileChannel#map}). The bytes are decoded directly from the mapped
+ * buffer using the given character set.
+ * </p>
+ * <p>
+ * If the character set encodes all ASCII characters as single bytes that
+ * cannot appear anywhere else (for example, UTF-8 and ISO-8859-1), then runs
+ * of ASCII bytes are copied straight into the caller's buffer without going
+ * through a {@link CharsetDecoder}. Since the structure of a vCard (property
+ * names, parameters, delimiters, and newlines) is almost always ASCII, most
+ * of the file is decoded this way.
+ * </p>
+ * <p>
+ * Files that are larger than {@value #WINDOW_SIZE} bytes are mapped one
+ * section at a time.
+ * </p>
+ * @author Michael Angstadt
+ */
+public class MappedFileReader extends Reader {
+	/**
+	 * The maximum number of bytes that are mapped into memory at once.
+	 */
+	static final int WINDOW_SIZE = 64 * 1024 * 1024;
+
+	private final FileChannel channel;
+	private final long fileSize;
+	private final int windowSize;
+	private final Charset charset;
+	private final CharsetDecoder decoder;
+	private final boolean asciiCompatible;
+
+	private MappedByteBuffer window;
+	private long windowStart = 0;
+	private boolean flushed = false;
+
+	private final byte[] bytes = new byte[8192];
+	private final CharBuffer surrogates = CharBuffer.allocate(2);
+	private boolean surrogatePending = false;
+
+	/**
+	 * @param file the file to read from
+	 * @param charset the character set of the file
+	 * @throws IOException if the file can't be opened or mapped into memory
+	 */
+	public MappedFileReader(File file, Charset charset) throws IOException {
+		this(file, charset, WINDOW_SIZE);
+	}
+
+	/**
+	 * @param file the file to read from
+	 * @param charset the character set of the file
+	 * @param windowSize the maximum number of bytes to map into memory at once
+	 * @throws IOException if the file can't be opened or mapped into memory
+	 */
+	MappedFileReader(File file, Charset charset, int windowSize) throws IOException {
+		FileInputStream in = new FileInputStream(file);
+		try {
+			channel = in.getChannel();
+			fileSize = channel.size();
+			this.windowSize = windowSize;
+			this.charset = charset;
+			decoder = charset.newDecoder().onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+			asciiCompatible = IOUtils.isAsciiCompatible(charset);
+			map(0, windowSize);
+		} catch (IOException e) {
+			in.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Gets the character set that the file is decoded with.
+	 * @return the character set
+	 */
+	public Charset getCharset() {
+		return charset;
+	}
+
+	@Override
+	public int read(char[] cbuf, int off, int len) throws IOException {
+		if (len == 0) {
+			return 0;
+		}
+
+		int pos = off;
+		int end = off + len;
+
+		if (surrogatePending) {
+			cbuf[pos++] = surrogates.get();
+			surrogatePending = false;
+		}
+
+		while (pos < end) {
+			if (!window.hasRemaining() && !nextWindow()) {
+				break;
+			}
+
+			if (asciiCompatible) {
+				//copy ASCII characters directly
+				int count = Math.min(Math.min(end - pos, window.remaining()), bytes.length);
+				int windowPos = window.position();
+				window.get(bytes, 0, count);
+
+				int i = 0;
+				while (i < count) {
+					byte b = bytes[i];
+					if (b < 0) {
+						break;
+					}
+					cbuf[pos++] = (char) b;
+					i++;
+				}
+
+				if (i == count) {
+					continue;
+				}
+
+				//a non-ASCII character was found
+				window.position(windowPos + i);
+			}
+
+			//use the decoder for everything else
+			int decoded = decode(cbuf, pos, end - pos);
+			if (decoded < 0) {
+				break;
+			}
+			pos += decoded;
+		}
+
+		int read = pos - off;
+		return (read == 0) ? -1 : read;
+	}
+
+	/**
+	 * Decodes characters from the current window using the decoder.
+	 * @param cbuf the buffer to decode into
+	 * @param off the offset
+	 * @param len the maximum number of characters to decode
+	 * @return the number of characters decoded or -1 if the end of the file
+	 * has been reached
+	 * @throws IOException if there's a problem mapping the file
+	 */
+	private int decode(char[] cbuf, int off, int len) throws IOException {
+		if (len < 2) {
+			//there might not be enough room for a surrogate pair
+			surrogates.clear();
+			int decoded = decode(surrogates);
+			surrogates.flip();
+			if (decoded <= 0) {
+				return decoded;
+			}
+
+			cbuf[off] = surrogates.get();
+			surrogatePending = surrogates.hasRemaining();
+			return 1;
+		}
+
+		CharBuffer out = CharBuffer.wrap(cbuf, off, asciiCompatible ? Math.min(len, 64) : len);
+		return decode(out);
+	}
+
+	private int decode(CharBuffer out) throws IOException {
+		int start = out.position();
+		while (true) {
+			boolean endOfInput = (windowStart + window.limit() == fileSize);
+			CoderResult result = decoder.decode(window, out, endOfInput);
+			if (result.isError()) {
+				//should never happen, since malformed input is replaced
+				result.throwException();
+			}
+
+			int decoded = out.position() - start;
+			if (decoded > 0) {
+				return decoded;
+			}
+
+			if (result.isOverflow()) {
+				return 0;
+			}
+
+			//underflow
+			if (endOfInput) {
+				if (!flushed) {
+					flushed = true;
+					decoder.flush(out);
+					decoded = out.position() - start;
+					if (decoded > 0) {
+						return decoded;
+					}
+				}
+				return -1;
+			}
+
+			//the rest of the window contains an incomplete character, so map the next window starting at the character
+			int incomplete = window.remaining();
+			map(windowStart + window.position(), Math.max(windowSize, (incomplete + 1) * 2));
+		}
+	}
+
+	/**
+	 * Maps the next section of the file into memory.
+	 * @return true if the section was mapped, false if the end of the file
+	 * has been reached
+	 * @throws IOException if there's a problem mapping the file
+	 */
+	private boolean nextWindow() throws IOException {
+		long position = windowStart + window.position();
+		if (position >= fileSize) {
+			return false;
+		}
+		map(position, windowSize);
+		return true;
+	}
+
+	private void map(long position, int size) throws IOException {
+		size = (int) Math.min(size, fileSize - position);
+		window = channel.map(MapMode.READ_ONLY, position, size);
+		windowStart = position;
+	}
+
+	@Override
+	public boolean ready() {
+		return surrogatePending || windowStart + window.position() < fileSize;
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+}
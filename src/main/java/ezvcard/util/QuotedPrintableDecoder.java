@@ -0,0 +1,165 @@
+package ezvcard.util;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+
+import ezvcard.util.org.apache.commons.codec.DecoderException;
+
+/*
+ Copyright (c) 2012-2015, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+ The views and conclusions contained in the software and documentation are those
+ of the authors and should not be interpreted as representing official policies, 
+ either expressed or implied, of the FreeBSD Project.
+ */
+
+/**
+ * <p>
+ * Decodes quoted-printable values. The encoded characters are converted to
+ * bytes in a re-usable buffer, and the bytes are then decoded into characters
+ * using a re-usable {@link CharsetDecoder}, so no intermediate strings or byte
+ * arrays are created.
+ * </p>
+ * <p>
+ * This class produces the same output as
+ * {@link ezvcard.util.org.apache.commons.codec.net.QuotedPrintableCodec#decode(String, String)
+ * QuotedPrintableCodec}. Instances of this class are not thread-safe.
+ * </p>
+ * @author Michael Angstadt
+ */
+public class QuotedPrintableDecoder {
+	private final Charset charset;
+	private final CharsetDecoder decoder;
+	private final boolean asciiCompatible;
+	private final float maxCharsPerByte;
+
+	private byte[] bytes = new byte[128];
+	private char[] chars = new char[128];
+
+	/**
+	 * @param charset the character set that the decoded bytes are in
+	 */
+	public QuotedPrintableDecoder(Charset charset) {
+		this.charset = charset;
+		decoder = charset.newDecoder().onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+		asciiCompatible = IOUtils.isAsciiCompatible(charset);
+		maxCharsPerByte = decoder.maxCharsPerByte();
+	}
+
+	/**
+	 * Gets the character set that the decoded bytes are in.
+	 * @return the character set
+	 */
+	public Charset getCharset() {
+		return charset;
+	}
+
+	/**
+	 * Decodes a quoted-printable value.
+	 * @param value the value to decode
+	 * @return the decoded value
+	 * @throws DecoderException if the value is not valid quoted-printable
+	 */
+	public String decode(String value) throws DecoderException {
+		char[] buffer = value.toCharArray();
+		return decode(buffer, 0, buffer.length);
+	}
+
+	/**
+	 * Decodes a quoted-printable value.
+	 * @param buffer the buffer containing the value
+	 * @param start the index of the first character of the value
+	 * @param end the index after the last character of the value
+	 * @return the decoded value
+	 * @throws DecoderException if the value is not valid quoted-printable
+	 */
+	public String decode(char[] buffer, int start, int end) throws DecoderException {
+		if (bytes.length < end - start) {
+			bytes = new byte[Math.max(end - start, bytes.length * 2)];
+		}
+
+		int length = 0;
+		boolean ascii = true;
+		for (int i = start; i < end; i++) {
+			char c = buffer[i];
+			if (c == '=') {
+				int b = digit16(buffer, ++i, end) << 4;
+				b += digit16(buffer, ++i, end);
+				if (b >= 0x80) {
+					ascii = false;
+				}
+				bytes[length++] = (byte) b;
+				continue;
+			}
+
+			if (c >= 0x80) {
+				//non-ASCII characters are not allowed in quoted-printable values
+				if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(buffer[i + 1])) {
+					i++;
+				}
+				c = '?';
+			}
+			bytes[length++] = (byte) c;
+		}
+
+		if (ascii && asciiCompatible) {
+			//no need to use the decoder
+			if (chars.length < length) {
+				chars = new char[Math.max(length, chars.length * 2)];
+			}
+			for (int i = 0; i < length; i++) {
+				chars[i] = (char) bytes[i];
+			}
+			return new String(chars, 0, length);
+		}
+
+		int capacity = (int) (length * (double) maxCharsPerByte) + 1;
+		if (chars.length < capacity) {
+			chars = new char[Math.max(capacity, chars.length * 2)];
+		}
+
+		ByteBuffer in = ByteBuffer.wrap(bytes, 0, length);
+		CharBuffer out = CharBuffer.wrap(chars);
+		decoder.reset();
+		decoder.decode(in, out, true);
+		decoder.flush(out);
+		return new String(chars, 0, out.position());
+	}
+
+	private static int digit16(char[] buffer, int i, int end) throws DecoderException {
+		if (i >= end) {
+			throw new DecoderException("Invalid quoted-printable encoding");
+		}
+
+		char c = buffer[i];
+		int digit = (c < 0x80) ? Character.digit(c, 16) : -1;
+		if (digit == -1) {
+			throw new DecoderException("Invalid URL encoding: not a valid digit (radix 16): " + ((c < 0x80) ? (byte) c : (byte) '?'));
+		}
+		return digit;
+	}
+}
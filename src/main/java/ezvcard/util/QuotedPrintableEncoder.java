@@ -0,0 +1,204 @@
+package ezvcard.util;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+
+/*
+ Copyright (c) 2012-2015, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+ The views and conclusions contained in the software and documentation are those
+ of the authors and should not be interpreted as representing official policies, 
+ either expressed or implied, of the FreeBSD Project.
+ */
+
+/**
+ * <p>
+ * Encodes values in quoted-printable encoding, one character at a time. The
+ * characters are converted to bytes using a re-usable {@link CharsetEncoder},
+ * so no intermediate strings or byte arrays are created.
+ * </p>
+ * <p>
+ * This class produces the same output as
+ * {@link ezvcard.util.org.apache.commons.codec.net.QuotedPrintableCodec#encode(String, String)
+ * QuotedPrintableCodec}. Instances of this class are not thread-safe.
+ * </p>
+ * <p>
+ * <b>Example:</b>
+ * 
+ * <pre class="brush:java">
+ * QuotedPrintableEncoder encoder = new QuotedPrintableEncoder(Charset.forName("UTF-8"));
+ * char[] out = new char[encoder.getMaxEncodedLength()];
+ * 
+ * encoder.reset();
+ * for (char c : value.toCharArray()) {
+ *   int length = encoder.encode(c, out, 0);
+ *   writer.write(out, 0, length);
+ * }
+ * int length = encoder.finish(out, 0);
+ * writer.write(out, 0, length);
+ * </pre>
+ * 
+ * </p>
+ * @author Michael Angstadt
+ */
+public class QuotedPrintableEncoder {
+	private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+	private final Charset charset;
+	private final CharsetEncoder encoder;
+	private final boolean asciiCompatible;
+	private final int maxEncodedLength;
+
+	/**
+	 * Holds a high surrogate until its low surrogate arrives.
+	 */
+	private final CharBuffer in = CharBuffer.allocate(2);
+	private final ByteBuffer out;
+
+	/**
+	 * @param charset the character set to convert the characters to before
+	 * encoding them
+	 */
+	public QuotedPrintableEncoder(Charset charset) {
+		this.charset = charset;
+		encoder = charset.newEncoder().onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+		asciiCompatible = IOUtils.isAsciiCompatible(charset);
+
+		//room for a surrogate pair, plus any byte order marks or escape sequences
+		int maxBytes = (int) Math.ceil(encoder.maxBytesPerChar() * 2) + 8;
+		out = ByteBuffer.allocate(maxBytes);
+		maxEncodedLength = maxBytes * 3;
+	}
+
+	/**
+	 * Gets the character set that the characters are converted to before they
+	 * are encoded.
+	 * @return the character set
+	 */
+	public Charset getCharset() {
+		return charset;
+	}
+
+	/**
+	 * Gets the maximum number of characters that a single call to
+	 * {@link #encode(char, char[], int)} or {@link #finish(char[], int)} can
+	 * produce.
+	 * @return the maximum number of characters
+	 */
+	public int getMaxEncodedLength() {
+		return maxEncodedLength;
+	}
+
+	/**
+	 * Prepares the encoder to encode a new value. This must be called before
+	 * the first character of each value is encoded.
+	 */
+	public void reset() {
+		encoder.reset();
+		in.clear();
+	}
+
+	/**
+	 * Encodes the next character of the value.
+	 * @param c the character
+	 * @param dest the buffer to write the encoded characters to (must have room
+	 * for at least {@link #getMaxEncodedLength} characters)
+	 * @param off the index to start writing at
+	 * @return the number of characters that were written (may be zero if the
+	 * character is the first half of a surrogate pair)
+	 */
+	public int encode(char c, char[] dest, int off) {
+		if (asciiCompatible && c < 0x80 && in.position() == 0) {
+			//no need to use the encoder
+			return encode((byte) c, dest, off);
+		}
+
+		in.put(c);
+		in.flip();
+		out.clear();
+		encoder.encode(in, out, false);
+		in.compact();
+		return encodeBytes(dest, off);
+	}
+
+	/**
+	 * Finishes encoding the value.
+	 * @param dest the buffer to write the encoded characters to (must have room
+	 * for at least {@link #getMaxEncodedLength} characters)
+	 * @param off the index to start writing at
+	 * @return the number of characters that were written
+	 */
+	public int finish(char[] dest, int off) {
+		in.flip();
+		out.clear();
+		encoder.encode(in, out, true);
+		encoder.flush(out);
+		in.clear();
+		return encodeBytes(dest, off);
+	}
+
+	/**
+	 * Encodes an entire value.
+	 * @param value the value to encode
+	 * @return the encoded value
+	 */
+	public String encode(CharSequence value) {
+		StringBuilder sb = new StringBuilder(value.length());
+		char[] buffer = new char[maxEncodedLength];
+
+		reset();
+		for (int i = 0; i < value.length(); i++) {
+			int length = encode(value.charAt(i), buffer, 0);
+			sb.append(buffer, 0, length);
+		}
+		int length = finish(buffer, 0);
+		sb.append(buffer, 0, length);
+
+		return sb.toString();
+	}
+
+	private int encodeBytes(char[] dest, int off) {
+		int length = 0;
+		for (int i = 0; i < out.position(); i++) {
+			length += encode(out.get(i), dest, off + length);
+		}
+		return length;
+	}
+
+	private static int encode(byte b, char[] dest, int off) {
+		int i = b & 0xff;
+		if ((i >= 33 && i <= 60) || (i >= 62 && i <= 126) || i == ' ' || i == '\t') {
+			dest[off] = (char) i;
+			return 1;
+		}
+
+		dest[off] = '=';
+		dest[off + 1] = HEX[i >> 4];
+		dest[off + 2] = HEX[i & 0xf];
+		return 3;
+	}
+}
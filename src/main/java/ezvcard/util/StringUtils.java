@@ -73,7 +73,7 @@ public class StringUtils {
 		for (i = string.length() - 1; i >= 0 && Character.isWhitespace(string.charAt(i)); i--) {
 			//do nothing
 		}
-		return (i == 0) ? "" : string.substring(0, i + 1);
+		return (i < 0) ? "" : string.substring(0, i + 1);
 	}
 
 	/**
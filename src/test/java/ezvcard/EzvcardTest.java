@@ -6,10 +6,12 @@ import static ezvcard.util.TestUtils.assertWarningsLists;
 import static org.custommonkey.xmlunit.XMLAssert.assertXMLEqual;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.io.File;
 import java.io.FileWriter;
+import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
@@ -154,6 +156,61 @@ public class EzvcardTest {
 		assertEquals("George Herman ^'Babe^' Ruth", vcard.getFormattedName().getParameter("X-TEST"));
 	}
 
+	@Test
+	public void parse_include_exclude() throws Exception {
+		//@formatter:off
+		String str = 
+		"BEGIN:VCARD\r\n" +
+		"VERSION:4.0\r\n" +
+		"FN:John Doe\r\n" +
+		"NOTE:The note\r\n" +
+		"END:VCARD\r\n";
+		//@formatter:on
+
+		VCard vcard = Ezvcard.parse(str).include("FN").first();
+		assertEquals("John Doe", vcard.getFormattedName().getValue());
+		assertTrue(vcard.getNotes().isEmpty());
+
+		vcard = Ezvcard.parse(str).exclude("FN").first();
+		assertNull(vcard.getFormattedName());
+		assertEquals("The note", vcard.getNotes().get(0).getValue());
+
+		vcard = Ezvcard.parse(new StringReader(str)).include("NOTE").first();
+		assertNull(vcard.getFormattedName());
+		assertEquals("The note", vcard.getNotes().get(0).getValue());
+	}
+
+	@Test
+	public void parse_repeated() throws Exception {
+		//@formatter:off
+		String str1 = 
+		"BEGIN:VCARD\r\n" +
+		"VERSION:4.0\r\n" +
+		"FN:John Doe\r\n" +
+		"GEO:invalid\r\n" +
+		"END:VCARD\r\n";
+		
+		String str2 = 
+		"BEGIN:VCARD\r\n" +
+		"FN:Jane Doe\r\n" +
+		"END:VCARD\r\n";
+		//@formatter:on
+
+		for (int i = 0; i < 3; i++) {
+			List<List<String>> warnings = new ArrayList<List<String>>();
+			VCard vcard = Ezvcard.parse(str1).warnings(warnings).first();
+			assertVersion(VCardVersion.V4_0, vcard);
+			assertEquals("John Doe", vcard.getFormattedName().getValue());
+			assertWarningsLists(warnings, 1);
+
+			warnings = new ArrayList<List<String>>();
+			vcard = Ezvcard.parse(str2).warnings(warnings).first();
+			assertVersion(VCardVersion.V2_1, vcard);
+			assertEquals("Jane Doe", vcard.getFormattedName().getValue());
+			assertWarningsLists(warnings, 0);
+		}
+	}
+
 	@Test
 	public void parseXml_first() throws Exception {
 		XCardBuilder xb = new XCardBuilder();
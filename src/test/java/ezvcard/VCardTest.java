@@ -12,6 +12,7 @@ import java.util.List;
 
 import org.junit.Test;
 
+import ezvcard.io.LazyProperty;
 import ezvcard.property.HasAltId;
 import ezvcard.property.Note;
 import ezvcard.property.RawProperty;
@@ -226,6 +227,78 @@ public class VCardTest {
 		assertSame(vcard, prop.validateVCard);
 	}
 
+	@Test
+	public void addLazyProperty() {
+		VCard vcard = new VCard();
+		Note note1 = new Note("one");
+		Note note2 = new Note("two");
+		Note note3 = new Note("three");
+		RawProperty raw = new RawProperty("NOTE", "four");
+		LazyPropertyImpl lazyNote1 = new LazyPropertyImpl(Note.class, note1);
+		LazyPropertyImpl lazyNote2 = new LazyPropertyImpl(Note.class, note2);
+		LazyPropertyImpl lazySkipped = new LazyPropertyImpl(Note.class, null);
+		LazyPropertyImpl lazyRaw = new LazyPropertyImpl(Note.class, raw);
+		LazyPropertyImpl lazyName = new LazyPropertyImpl(StructuredName.class, new StructuredName());
+
+		vcard.addLazyProperty(lazyName);
+		vcard.addLazyProperty(lazyNote1);
+		vcard.addLazyProperty(lazySkipped);
+		vcard.addLazyProperty(lazyRaw);
+		vcard.addLazyProperty(lazyNote2);
+		assertEquals(0, lazyNote1.parsed);
+
+		//properties are parsed when their class is accessed
+		vcard.addNote(note3);
+		assertEquals(Arrays.asList(note1, note2, note3), vcard.getNotes());
+		assertEquals(1, lazyNote1.parsed);
+		assertEquals(1, lazyNote2.parsed);
+		assertEquals(1, lazySkipped.parsed);
+		assertEquals(0, lazyName.parsed);
+
+		//all properties are parsed when the raw properties are accessed
+		assertEquals(Arrays.asList(raw), vcard.getExtendedProperties());
+		assertEquals(1, lazyName.parsed);
+
+		//iteration order is preserved
+		List<VCardProperty> expected = Arrays.<VCardProperty> asList(lazyName.property, note1, note2, note3, raw);
+		assertEquals(expected, new ArrayList<VCardProperty>(vcard.getProperties()));
+		assertEquals(1, lazyName.parsed);
+		assertEquals(1, lazyNote1.parsed);
+	}
+
+	@Test
+	public void addLazyProperty_raw() {
+		VCard vcard = new VCard();
+		RawProperty raw = new RawProperty("NOTE", "one");
+		LazyPropertyImpl lazy = new LazyPropertyImpl(Note.class, raw);
+		vcard.addLazyProperty(lazy);
+
+		//any lazy property might become a raw property
+		assertEquals(Arrays.asList(raw), vcard.getExtendedProperties());
+		assertEquals(1, lazy.parsed);
+		assertTrue(vcard.getNotes().isEmpty());
+	}
+
+	private class LazyPropertyImpl implements LazyProperty {
+		private final Class<? extends VCardProperty> clazz;
+		private final VCardProperty property;
+		private int parsed = 0;
+
+		public LazyPropertyImpl(Class<? extends VCardProperty> clazz, VCardProperty property) {
+			this.clazz = clazz;
+			this.property = property;
+		}
+
+		public Class<? extends VCardProperty> getPropertyClass() {
+			return clazz;
+		}
+
+		public VCardProperty parse() {
+			parsed++;
+			return property;
+		}
+	}
+
 	private class HasAltIdImpl extends VCardProperty implements HasAltId {
 		private String altId;
 
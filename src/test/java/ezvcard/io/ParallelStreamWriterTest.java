@@ -0,0 +1,282 @@
+package ezvcard.io;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.nio.channels.Channels;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import ezvcard.VCard;
+import ezvcard.VCardVersion;
+import ezvcard.io.LuckyNumType.LuckyNumScribe;
+import ezvcard.io.json.JCardWriter;
+import ezvcard.io.text.FoldedLineWriter;
+import ezvcard.io.text.VCardReader;
+import ezvcard.io.text.VCardWriter;
+import ezvcard.io.xml.XCardWriter;
+import ezvcard.util.IOUtils;
+
+/*
+ Copyright (c) 2012-2015, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+ The views and conclusions contained in the software and documentation are those
+ of the authors and should not be interpreted as representing official policies, 
+ either expressed or implied, of the FreeBSD Project.
+ */
+
+/**
+ * @author Michael Angstadt
+ */
+public class ParallelStreamWriterTest {
+	private static final List<VCard> vcards = new ArrayList<VCard>();
+
+	@BeforeClass
+	public static void beforeClass() throws Throwable {
+		String files[] = { "John_Doe_ANDROID.vcf", "John_Doe_BLACK_BERRY.vcf", "John_Doe_EVOLUTION.vcf", "John_Doe_GMAIL.vcf", "John_Doe_IPHONE.vcf", "John_Doe_LOTUS_NOTES.vcf", "John_Doe_MAC_ADDRESS_BOOK.vcf", "John_Doe_MS_OUTLOOK.vcf", "gmail-list.vcf", "outlook-2003.vcf", "outlook-2007.vcf", "rfc2426-example.vcf", "rfc6350-example.vcf", "thunderbird-MoreFunctionsForAddressBook-extension.vcf" };
+		for (String file : files) {
+			InputStream in = VCardReader.class.getResourceAsStream(file);
+			VCardReader reader = new VCardReader(in);
+			try {
+				VCard vcard;
+				while ((vcard = reader.readNext()) != null) {
+					vcards.add(vcard);
+				}
+			} finally {
+				IOUtils.closeQuietly(reader);
+			}
+		}
+
+		vcards.get(3).addProperty(new LuckyNumType(22));
+	}
+
+	@Test
+	public void vcard() throws Throwable {
+		for (VCardVersion version : VCardVersion.values()) {
+			StringWriter expected = new StringWriter();
+			VCardWriter writer = new VCardWriter(expected, version);
+			writer.setCaretEncodingEnabled(true);
+			writer.registerScribe(new LuckyNumScribe());
+			for (VCard vcard : vcards) {
+				writer.write(vcard);
+			}
+			writer.close();
+
+			StringWriter actual = new StringWriter();
+			writer = new VCardWriter(actual, version);
+			writer.setCaretEncodingEnabled(true);
+			writer.registerScribe(new LuckyNumScribe());
+			write(writer);
+
+			assertEquals(expected.toString(), actual.toString());
+		}
+	}
+
+	@Test
+	public void vcard_octets() throws Throwable {
+		for (VCardVersion version : VCardVersion.values()) {
+			ByteArrayOutputStream expected = new ByteArrayOutputStream();
+			VCardWriter writer = new VCardWriter(expected, version);
+			writer.registerScribe(new LuckyNumScribe());
+			for (VCard vcard : vcards) {
+				writer.write(vcard);
+			}
+			writer.close();
+
+			ByteArrayOutputStream actual = new ByteArrayOutputStream();
+			writer = new VCardWriter(Channels.newChannel(actual), version);
+			writer.registerScribe(new LuckyNumScribe());
+			write(writer);
+
+			assertArrayEquals(expected.toByteArray(), actual.toByteArray());
+		}
+	}
+
+	@Test
+	public void vcard_byte_order_mark() throws Throwable {
+		Charset utf16 = Charset.forName("UTF-16");
+
+		ByteArrayOutputStream expected = new ByteArrayOutputStream();
+		VCardWriter writer = new VCardWriter(new FoldedLineWriter(expected, utf16), VCardVersion.V3_0);
+		writer.registerScribe(new LuckyNumScribe());
+		for (VCard vcard : vcards) {
+			writer.write(vcard);
+		}
+		writer.write(vcards.get(0));
+		writer.close();
+
+		//the byte order mark is written by the parallel writer
+		ByteArrayOutputStream actual = new ByteArrayOutputStream();
+		writer = new VCardWriter(new FoldedLineWriter(actual, utf16), VCardVersion.V3_0);
+		writer.registerScribe(new LuckyNumScribe());
+		ParallelStreamWriter parallelWriter = new ParallelStreamWriter(writer);
+		parallelWriter.setChunkSize(3);
+		parallelWriter.write(vcards);
+		writer.write(vcards.get(0));
+		parallelWriter.close();
+		assertArrayEquals(expected.toByteArray(), actual.toByteArray());
+
+		//the byte order mark is written by the wrapped writer
+		expected = new ByteArrayOutputStream();
+		writer = new VCardWriter(new FoldedLineWriter(expected, utf16), VCardVersion.V3_0);
+		writer.registerScribe(new LuckyNumScribe());
+		writer.write(vcards.get(0));
+		for (VCard vcard : vcards) {
+			writer.write(vcard);
+		}
+		writer.close();
+
+		actual = new ByteArrayOutputStream();
+		writer = new VCardWriter(new FoldedLineWriter(actual, utf16), VCardVersion.V3_0);
+		writer.registerScribe(new LuckyNumScribe());
+		writer.write(vcards.get(0));
+		parallelWriter = new ParallelStreamWriter(writer);
+		parallelWriter.setChunkSize(3);
+		parallelWriter.write(vcards);
+		parallelWriter.close();
+		assertArrayEquals(expected.toByteArray(), actual.toByteArray());
+	}
+
+	@Test
+	public void jcard() throws Throwable {
+		for (boolean wrapInArray : new boolean[] { false, true }) {
+			for (boolean indent : new boolean[] { false, true }) {
+				StringWriter expected = new StringWriter();
+				JCardWriter writer = new JCardWriter(expected, wrapInArray);
+				writer.setIndent(indent);
+				writer.registerScribe(new LuckyNumScribe());
+				for (VCard vcard : vcards) {
+					writer.write(vcard);
+				}
+				writer.close();
+
+				StringWriter actual = new StringWriter();
+				writer = new JCardWriter(actual, wrapInArray);
+				writer.setIndent(indent);
+				writer.registerScribe(new LuckyNumScribe());
+				write(writer);
+
+				assertEquals(expected.toString(), actual.toString());
+			}
+		}
+	}
+
+	@Test
+	public void xcard() throws Throwable {
+		for (String indent : new String[] { null, "  " }) {
+			StringWriter expected = new StringWriter();
+			XCardWriter writer = new XCardWriter(expected);
+			writer.setIndent(indent);
+			writer.registerScribe(new LuckyNumScribe());
+			writer.registerParameterDataType("X-FOO", null);
+			for (VCard vcard : vcards) {
+				writer.write(vcard);
+			}
+			writer.close();
+
+			StringWriter actual = new StringWriter();
+			writer = new XCardWriter(actual);
+			writer.setIndent(indent);
+			writer.registerScribe(new LuckyNumScribe());
+			writer.registerParameterDataType("X-FOO", null);
+			write(writer);
+
+			assertEquals(expected.toString(), actual.toString());
+		}
+	}
+
+	@Test
+	public void iterator_and_executor() throws Throwable {
+		StringWriter expected = new StringWriter();
+		VCardWriter writer = new VCardWriter(expected, VCardVersion.V4_0);
+		writer.registerScribe(new LuckyNumScribe());
+		for (VCard vcard : vcards) {
+			writer.write(vcard);
+		}
+		writer.close();
+
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			StringWriter actual = new StringWriter();
+			writer = new VCardWriter(actual, VCardVersion.V4_0);
+			writer.registerScribe(new LuckyNumScribe());
+			ParallelStreamWriter parallelWriter = new ParallelStreamWriter(writer);
+			parallelWriter.setExecutor(executor);
+			parallelWriter.setChunkSize(1);
+			parallelWriter.setMaxPendingChunks(1);
+			parallelWriter.write(vcards.iterator());
+			parallelWriter.close();
+
+			assertEquals(expected.toString(), actual.toString());
+
+			//the executor is not shut down if it was supplied by the caller
+			assertFalse(executor.isShutdown());
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void unregistered_property() throws Throwable {
+		StringWriter sw = new StringWriter();
+		ParallelStreamWriter parallelWriter = new ParallelStreamWriter(new VCardWriter(sw, VCardVersion.V4_0));
+		parallelWriter.setChunkSize(1);
+		try {
+			parallelWriter.write(vcards);
+			fail("Expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			//expected
+		}
+		parallelWriter.close();
+
+		//only the vCards that came before the vCard with the unregistered property were written
+		StringWriter expected = new StringWriter();
+		VCardWriter writer = new VCardWriter(expected, VCardVersion.V4_0);
+		for (VCard vcard : vcards.subList(0, 3)) {
+			writer.write(vcard);
+		}
+		writer.close();
+		assertEquals(expected.toString(), sw.toString());
+	}
+
+	private static void write(StreamWriter writer) throws IOException {
+		ParallelStreamWriter parallelWriter = new ParallelStreamWriter(writer);
+		parallelWriter.setChunkSize(3);
+		parallelWriter.setMaxPendingChunks(4);
+		parallelWriter.write(vcards);
+		parallelWriter.close();
+	}
+}
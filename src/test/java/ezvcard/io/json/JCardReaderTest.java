@@ -41,6 +41,7 @@ import ezvcard.parameter.EmailType;
 import ezvcard.parameter.TelephoneType;
 import ezvcard.parameter.VCardParameters;
 import ezvcard.property.VCardProperty;
+import ezvcard.util.BinaryDataCache;
 import ezvcard.util.IOUtils;
 import ezvcard.util.PartialDate;
 import ezvcard.util.TelUri;
@@ -110,6 +111,39 @@ public class JCardReaderTest {
 		assertNoMoreVCards(reader);
 	}
 
+	@Test
+	public void setBinaryDataCache() throws Throwable {
+		//@formatter:off
+		String json =
+		"[" +
+		  "[\"vcard\"," +
+		    "[" +
+		      "[\"version\", {}, \"text\", \"4.0\"]," +
+		      "[\"logo\", {}, \"uri\", \"data:image/png;base64,aGVsbG8gd29ybGQ=\"]" +
+		    "]" +
+		  "]," +
+		  "[\"vcard\"," +
+		    "[" +
+		      "[\"version\", {}, \"text\", \"4.0\"]," +
+		      "[\"logo\", {}, \"uri\", \"data:image/png;base64,aGVsbG8gd29ybGQ=\"]" +
+		    "]" +
+		  "]" +
+		"]";
+		//@formatter:on
+
+		BinaryDataCache cache = new BinaryDataCache(10);
+		JCardReader reader = new JCardReader(json);
+		reader.setBinaryDataCache(cache);
+
+		VCard vcard1 = reader.readNext();
+		VCard vcard2 = reader.readNext();
+		assertNoMoreVCards(reader);
+
+		assertTrue(vcard1.getLogos().get(0).getBinaryData() == vcard2.getLogos().get(0).getBinaryData());
+		assertEquals(1, cache.getHits());
+		assertEquals(1, cache.getMisses());
+	}
+
 	@Test
 	public void read_multiple() throws Throwable {
 		//@formatter:off
@@ -8,6 +8,10 @@ import static ezvcard.VCardVersion.V4_0;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
 
 import org.junit.Test;
 
@@ -15,7 +19,10 @@ import ezvcard.VCardVersion;
 import ezvcard.io.scribe.Sensei.Check;
 import ezvcard.parameter.Encoding;
 import ezvcard.parameter.ImageType;
+import ezvcard.parameter.VCardParameters;
 import ezvcard.property.BinaryProperty;
+import ezvcard.util.Base64CharSequence;
+import ezvcard.util.BinaryData;
 import ezvcard.util.DataUri;
 import ezvcard.util.org.apache.commons.codec.binary.Base64;
 
@@ -79,6 +86,12 @@ public class BinaryPropertyScribeTest {
 		withData.getParameters().setEncoding(Encoding._8BIT); //ENCODING parameter (if one exists) should be removed/overwritten when written
 		withData.getParameters().setMediaType("foo"); //MEDIATYPE parameter (if one exists) should be removed when written
 	}
+	private final BinaryTypeImpl withBufferData = new BinaryTypeImpl();
+	{
+		ByteBuffer buffer = ByteBuffer.allocateDirect(data.length);
+		buffer.put(data).flip();
+		withBufferData.setBinaryData(BinaryData.wrap(buffer), ImageType.JPEG);
+	}
 	private final BinaryTypeImpl empty = new BinaryTypeImpl();
 
 	@Test
@@ -120,9 +133,26 @@ public class BinaryPropertyScribeTest {
 		sensei.assertWriteText(withDataNoContentType).versions(V2_1, V3_0).run(base64Data);
 		sensei.assertWriteText(withDataNoContentType).versions(V4_0).run(dataUriNoContentType);
 
+		sensei.assertWriteText(withBufferData).versions(V2_1, V3_0).run(base64Data);
+		sensei.assertWriteText(withBufferData).versions(V4_0).run(dataUri);
+
 		sensei.assertWriteText(empty).run("");
 	}
 
+	@Test
+	public void writeTextSequence() {
+		for (VCardVersion version : VCardVersion.values()) {
+			for (BinaryTypeImpl property : new BinaryTypeImpl[] { withUrl, withData, withDataNoContentType, empty }) {
+				CharSequence value = scribe.writeTextSequence(property, version);
+				assertEquals(scribe.writeText(property, version), value.toString());
+			}
+		}
+
+		//binary data is not encoded until it is read
+		assertTrue(scribe.writeTextSequence(withData, V3_0) instanceof Base64CharSequence);
+		assertTrue(scribe.writeTextSequence(withData, V4_0) instanceof Base64CharSequence);
+	}
+
 	@Test
 	public void writeXml() {
 		sensei.assertWriteXml(withUrl).run("<uri>" + url + "</uri>");
@@ -291,6 +321,32 @@ public class BinaryPropertyScribeTest {
 		sensei.assertParseJson(dataUri).run(hasData(data, ImageType.JPEG));
 	}
 
+	@Test
+	public void parseBinary() {
+		BinaryData binaryData = BinaryData.wrap(data);
+
+		VCardParameters parameters = new VCardParameters();
+		parameters.setType("jpeg");
+		BinaryTypeImpl property = scribe.parseBinary(binaryData, null, V3_0, parameters).getProperty();
+		assertSame(binaryData, property.getBinaryData());
+		assertEquals(ImageType.JPEG, property.getContentType());
+		assertSame(parameters, property.getParameters());
+
+		property = scribe.parseBinary(binaryData, "image/png", V4_0, new VCardParameters()).getProperty();
+		assertSame(binaryData, property.getBinaryData());
+		assertEquals(ImageType.PNG, property.getContentType());
+	}
+
+	@Test
+	public void parseBinary_byte_array() {
+		VCardParameters parameters = new VCardParameters();
+		parameters.setType("jpeg");
+		BinaryTypeImpl property = scribe.parseBinary(data, null, V3_0, parameters).getProperty();
+		assertSame(data, property.getData());
+		assertEquals(ImageType.JPEG, property.getContentType());
+		assertSame(parameters, property.getParameters());
+	}
+
 	private static class BinaryPropertyMarshallerImpl extends BinaryPropertyScribe<BinaryTypeImpl, ImageType> {
 		public BinaryPropertyMarshallerImpl() {
 			super(BinaryTypeImpl.class, "BINARY");
@@ -0,0 +1,164 @@
+package ezvcard.io.scribe;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+/*
+ Copyright (c) 2012-2015, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+ The views and conclusions contained in the software and documentation are those
+ of the authors and should not be interpreted as representing official policies, 
+ either expressed or implied, of the FreeBSD Project.
+ */
+
+/**
+ * @author Michael Angstadt
+ */
+public class RawPropertyScribeCacheTest {
+	@Test(expected = IllegalArgumentException.class)
+	public void invalid_max_entries() {
+		new RawPropertyScribeCache(0);
+	}
+
+	@Test
+	public void get() {
+		RawPropertyScribeCache cache = new RawPropertyScribeCache(10, true);
+
+		RawPropertyScribe scribe = cache.get("X-FOO");
+		assertEquals("X-FOO", scribe.getPropertyName());
+		assertSame(scribe, cache.get("X-FOO"));
+
+		//names are case-sensitive
+		RawPropertyScribe lower = cache.get("x-foo");
+		assertEquals("x-foo", lower.getPropertyName());
+		assertNotSame(scribe, lower);
+
+		assertEquals(1, cache.getHits());
+		assertEquals(2, cache.getMisses());
+		assertEquals(0, cache.getEvictions());
+		assertEquals(2, cache.size());
+		assertEquals(10, cache.getMaxEntries());
+	}
+
+	@Test
+	public void eviction() {
+		RawPropertyScribeCache cache = new RawPropertyScribeCache(3, true);
+		for (int i = 0; i < 10; i++) {
+			cache.get("X-" + i);
+		}
+
+		assertEquals(3, cache.size());
+		assertEquals(7, cache.getEvictions());
+		assertEquals(10, cache.getMisses());
+		assertEquals(0, cache.getHits());
+
+		//the last scribe added is always kept
+		cache.get("X-9");
+		assertEquals(1, cache.getHits());
+	}
+
+	@Test
+	public void eviction_keeps_used_scribes() {
+		RawPropertyScribeCache cache = new RawPropertyScribeCache(3, true);
+		RawPropertyScribe hot = cache.get("X-HOT");
+		for (int i = 0; i < 10; i++) {
+			assertSame(hot, cache.get("X-HOT"));
+			cache.get("X-" + i);
+		}
+
+		assertEquals(3, cache.size());
+		assertEquals(10, cache.getHits());
+		assertEquals(11, cache.getMisses());
+	}
+
+	@Test
+	public void no_stats() {
+		RawPropertyScribeCache cache = new RawPropertyScribeCache(1);
+		assertFalse(cache.isRecordingStats());
+
+		RawPropertyScribe scribe = cache.get("X-FOO");
+		assertSame(scribe, cache.get("X-FOO"));
+		cache.get("X-BAR");
+
+		assertEquals(1, cache.size());
+		assertEquals(0, cache.getHits());
+		assertEquals(0, cache.getMisses());
+		assertEquals(0, cache.getEvictions());
+	}
+
+	@Test
+	public void clear() {
+		RawPropertyScribeCache cache = new RawPropertyScribeCache(10, true);
+		RawPropertyScribe scribe = cache.get("X-FOO");
+		cache.get("X-FOO");
+		cache.clear();
+
+		assertEquals(0, cache.size());
+		assertEquals(0, cache.getHits());
+		assertEquals(0, cache.getMisses());
+		assertNotSame(scribe, cache.get("X-FOO"));
+	}
+
+	@Test
+	public void concurrent() throws Exception {
+		final RawPropertyScribeCache cache = new RawPropertyScribeCache(20, true);
+		final int threadCount = 4, iterations = 2000;
+		final Set<Throwable> errors = new HashSet<Throwable>();
+
+		Thread threads[] = new Thread[threadCount];
+		for (int i = 0; i < threadCount; i++) {
+			threads[i] = new Thread() {
+				@Override
+				public void run() {
+					try {
+						for (int j = 0; j < iterations; j++) {
+							String name = "X-" + (j % 50);
+							assertEquals(name, cache.get(name).getPropertyName());
+						}
+					} catch (Throwable t) {
+						synchronized (errors) {
+							errors.add(t);
+						}
+					}
+				}
+			};
+			threads[i].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		assertEquals(errors.toString(), 0, errors.size());
+		assertEquals(threadCount * iterations, cache.getHits() + cache.getMisses());
+		assertTrue(cache.size() <= 20);
+	}
+}
@@ -0,0 +1,271 @@
+package ezvcard.io.scribe;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.xml.namespace.QName;
+
+import org.junit.Test;
+
+import ezvcard.VCardVersion;
+import ezvcard.property.FavoriteColors;
+import ezvcard.property.FavoriteColors.FavoriteColorsScribe;
+import ezvcard.property.FormattedName;
+import ezvcard.property.RawProperty;
+import ezvcard.property.Xml;
+
+/*
+ Copyright (c) 2012-2015, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+ The views and conclusions contained in the software and documentation are those
+ of the authors and should not be interpreted as representing official policies, 
+ either expressed or implied, of the FreeBSD Project.
+ */
+
+/**
+ * @author Michael Angstadt
+ */
+public class ScribeIndexTest {
+	@Test
+	public void getPropertyScribe_name() {
+		ScribeIndex index = new ScribeIndex();
+
+		VCardPropertyScribe<?> scribe = index.getPropertyScribe("FN");
+		assertSame(FormattedName.class, scribe.getPropertyClass());
+		assertSame(scribe, index.getPropertyScribe("fn"));
+		assertSame(scribe, index.getPropertyScribe("Fn"));
+
+		assertSame(index.getPropertyScribe("X-PROFESSION"), index.getPropertyScribe("x-Profession"));
+		assertNull(index.getPropertyScribe("X-UNKNOWN"));
+		assertNull(index.getPropertyScribe("F"));
+		assertNull(index.getPropertyScribe(""));
+
+		//non-ASCII characters
+		assertNull(index.getPropertyScribe("FÑ"));
+	}
+
+	@Test
+	public void getPropertyScribe_class() {
+		ScribeIndex index = new ScribeIndex();
+		assertSame(FormattedName.class, index.getPropertyScribe(FormattedName.class).getPropertyClass());
+		assertNull(index.getPropertyScribe(FavoriteColors.class));
+	}
+
+	@Test
+	public void getPropertyScribe_property() {
+		ScribeIndex index = new ScribeIndex();
+		assertSame(index.getPropertyScribe(FormattedName.class), index.getPropertyScribe(new FormattedName("John Doe")));
+
+		VCardPropertyScribe<?> scribe = index.getPropertyScribe(new RawProperty("X-FOO", "value"));
+		assertTrue(scribe instanceof RawPropertyScribe);
+		assertEquals("X-FOO", scribe.getPropertyName());
+	}
+
+	@Test
+	public void getPropertyScribe_qname() {
+		ScribeIndex index = new ScribeIndex();
+		String ns = VCardVersion.V4_0.getXmlNamespace();
+
+		assertSame(index.getPropertyScribe(FormattedName.class), index.getPropertyScribe(new QName(ns, "fn")));
+
+		VCardPropertyScribe<?> scribe = index.getPropertyScribe(new QName(ns, "x-foo"));
+		assertTrue(scribe instanceof RawPropertyScribe);
+		assertEquals("X-FOO", scribe.getPropertyName());
+
+		scribe = index.getPropertyScribe(new QName("http://example.com", "foo"));
+		assertSame(Xml.class, scribe.getPropertyClass());
+	}
+
+	@Test
+	public void register() {
+		ScribeIndex index = new ScribeIndex();
+		FavoriteColorsScribe scribe = new FavoriteColorsScribe();
+		index.register(scribe);
+
+		assertSame(scribe, index.getPropertyScribe("X-FAV-COLORS"));
+		assertSame(scribe, index.getPropertyScribe("x-fav-colors"));
+		assertSame(scribe, index.getPropertyScribe(FavoriteColors.class));
+		assertSame(scribe, index.getPropertyScribe(new FavoriteColors()));
+		assertSame(scribe, index.getPropertyScribe(scribe.getQName()));
+
+		//standard scribes are still there
+		assertSame(FormattedName.class, index.getPropertyScribe("FN").getPropertyClass());
+
+		//other indexes are not affected
+		assertNull(new ScribeIndex().getPropertyScribe("X-FAV-COLORS"));
+
+		index.unregister(scribe);
+		assertNull(index.getPropertyScribe("X-FAV-COLORS"));
+		assertNull(index.getPropertyScribe(FavoriteColors.class));
+	}
+
+	@Test
+	public void register_override_standard() {
+		ScribeIndex index = new ScribeIndex();
+		VCardPropertyScribe<?> standard = index.getPropertyScribe("FN");
+
+		FormattedNameScribe scribe = new FormattedNameScribe();
+		index.register(scribe);
+		assertSame(scribe, index.getPropertyScribe("fn"));
+		assertSame(scribe, index.getPropertyScribe(FormattedName.class));
+
+		index.unregister(scribe);
+		assertSame(standard, index.getPropertyScribe("fn"));
+		assertSame(standard, index.getPropertyScribe(FormattedName.class));
+	}
+
+	@Test
+	public void copy() {
+		ScribeIndex original = new ScribeIndex();
+		FavoriteColorsScribe scribe = new FavoriteColorsScribe();
+		original.register(scribe);
+
+		ScribeIndex copy = new ScribeIndex(original);
+		assertSame(scribe, copy.getPropertyScribe("X-FAV-COLORS"));
+
+		//changes to the copy do not affect the original
+		copy.unregister(scribe);
+		assertNull(copy.getPropertyScribe("X-FAV-COLORS"));
+		assertSame(scribe, original.getPropertyScribe("X-FAV-COLORS"));
+
+		//changes to the original do not affect the copy
+		FormattedNameScribe fnScribe = new FormattedNameScribe();
+		original.register(fnScribe);
+		assertSame(fnScribe, original.getPropertyScribe("FN"));
+		assertNotSame(fnScribe, copy.getPropertyScribe("FN"));
+	}
+
+	@Test
+	public void getRawPropertyScribe() {
+		ScribeIndex index = new ScribeIndex();
+		RawPropertyScribeCache cache = new RawPropertyScribeCache(10, true);
+		index.setRawPropertyScribeCache(cache);
+		assertSame(cache, index.getRawPropertyScribeCache());
+
+		RawPropertyScribe scribe = index.getRawPropertyScribe("X-FOO");
+		assertEquals("X-FOO", scribe.getPropertyName());
+		assertSame(scribe, index.getRawPropertyScribe("X-FOO"));
+		assertSame(scribe, index.getPropertyScribe(new RawProperty("X-FOO", "value")));
+		assertSame(scribe, index.getPropertyScribe(new QName(VCardVersion.V4_0.getXmlNamespace(), "x-foo")));
+		assertEquals(3, cache.getHits());
+		assertEquals(1, cache.getMisses());
+
+		index.setRawPropertyScribeCache(null);
+		assertNotSame(scribe, index.getRawPropertyScribe("X-FOO"));
+	}
+
+	@Test
+	public void getRawPropertyScribe_default_cache() {
+		ScribeIndex index = new ScribeIndex();
+		RawPropertyScribeCache cache = index.getRawPropertyScribeCache();
+		assertEquals(RawPropertyScribeCache.DEFAULT_MAX_ENTRIES, cache.getMaxEntries());
+		assertFalse(cache.isRecordingStats());
+		assertSame(cache, index.getRawPropertyScribeCache());
+		assertSame(index.getRawPropertyScribe("X-FOO"), index.getRawPropertyScribe("X-FOO"));
+
+		//each index has its own cache
+		ScribeIndex copy = new ScribeIndex(index);
+		assertNotSame(cache, copy.getRawPropertyScribeCache());
+		assertNotSame(cache, new ScribeIndex().getRawPropertyScribeCache());
+
+		//a disabled cache stays disabled in the copy
+		index.setRawPropertyScribeCache(null);
+		assertNull(index.getRawPropertyScribeCache());
+		assertNull(new ScribeIndex(index).getRawPropertyScribeCache());
+	}
+
+	@Test
+	public void registerRawProperties() {
+		ScribeIndex index = new ScribeIndex();
+		index.setRawPropertyScribeCache(null);
+		index.registerRawProperties("X-FOO", "X-BAR");
+
+		VCardPropertyScribe<?> scribe = index.getPropertyScribe("x-foo");
+		assertTrue(scribe instanceof RawPropertyScribe);
+		assertEquals("X-FOO", scribe.getPropertyName());
+		assertSame(scribe, index.getPropertyScribe(new RawProperty("X-FOO", "value")));
+		assertSame(scribe, index.getPropertyScribe(new QName(VCardVersion.V4_0.getXmlNamespace(), "x-foo")));
+		assertEquals("X-BAR", index.getPropertyScribe("X-BAR").getPropertyName());
+
+		//the case of the property name is preserved when writing
+		assertEquals("x-foo", index.getPropertyScribe(new RawProperty("x-foo", "value")).getPropertyName());
+
+		//the RawProperty class is not assigned to the scribes
+		assertNull(index.getPropertyScribe(RawProperty.class));
+	}
+
+	@Test
+	public void register_concurrent() throws Throwable {
+		final ScribeIndex index = new ScribeIndex();
+		final int threadCount = 4, scribesPerThread = 50;
+		final CountDownLatch start = new CountDownLatch(1);
+		final AtomicInteger lookupFailures = new AtomicInteger();
+
+		List<Thread> threads = new ArrayList<Thread>();
+		for (int i = 0; i < threadCount; i++) {
+			final int threadNum = i;
+			Thread thread = new Thread() {
+				@Override
+				public void run() {
+					try {
+						start.await();
+					} catch (InterruptedException e) {
+						return;
+					}
+
+					for (int j = 0; j < scribesPerThread; j++) {
+						index.register(new RawPropertyScribe("X-T" + threadNum + "-" + j));
+						if (index.getPropertyScribe("fn") == null) {
+							lookupFailures.incrementAndGet();
+						}
+					}
+				}
+			};
+			thread.start();
+			threads.add(thread);
+		}
+
+		start.countDown();
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		assertEquals(0, lookupFailures.get());
+		for (int i = 0; i < threadCount; i++) {
+			for (int j = 0; j < scribesPerThread; j++) {
+				String name = "x-t" + i + "-" + j;
+				assertEquals(name.toUpperCase(), index.getPropertyScribe(name).getPropertyName());
+			}
+		}
+	}
+}
@@ -6,6 +6,8 @@ import java.util.Arrays;
 
 import org.junit.Test;
 
+import ezvcard.VCard;
+import ezvcard.VCardVersion;
 import ezvcard.io.json.JCardValue;
 import ezvcard.io.scribe.Sensei.Check;
 import ezvcard.property.StructuredName;
@@ -71,6 +73,23 @@ public class StructuredNameScribeTest {
 		sensei.assertWriteText(empty).run(";;;;");
 	}
 
+	/**
+	 * Sub-classes that override the original _writeText() method should still
+	 * be called when a {@link WriteContext} is used.
+	 */
+	@Test
+	public void writeText_subclass() {
+		StructuredNameScribe scribe = new StructuredNameScribe() {
+			@Override
+			protected String _writeText(StructuredName property, VCardVersion version) {
+				return super._writeText(property, version).toUpperCase();
+			}
+		};
+
+		WriteContext context = new WriteContext(VCardVersion.V4_0, new VCard());
+		assertEquals("DOE;JONATHAN;JOH\\;NNY\\,,JOHN;MR.;III", scribe.writeText(withAllValues, context));
+	}
+
 	@Test
 	public void writeXml() {
 		//@formatter:off
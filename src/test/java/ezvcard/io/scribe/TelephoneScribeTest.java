@@ -11,8 +11,10 @@ import org.junit.Test;
 
 import ezvcard.VCard;
 import ezvcard.VCardDataType;
+import ezvcard.VCardVersion;
 import ezvcard.io.scribe.Sensei.Check;
 import ezvcard.parameter.TelephoneType;
+import ezvcard.parameter.VCardParameters;
 import ezvcard.property.Telephone;
 import ezvcard.util.TelUri;
 
@@ -117,6 +119,31 @@ public class TelephoneScribeTest {
 		sensei.assertPrepareParams(tel3).versions(V4_0).vcard(vcard).run();
 	}
 
+	/**
+	 * Sub-classes that override the original _prepareParameters() method
+	 * should still be called when a {@link WriteContext} is used.
+	 */
+	@Test
+	public void prepareParameters_subclass() {
+		TelephoneScribe scribe = new TelephoneScribe() {
+			@Override
+			protected void _prepareParameters(Telephone property, VCardParameters copy, VCardVersion version, VCard vcard) {
+				super._prepareParameters(property, copy, version, vcard);
+				copy.put("X-TEST", "value");
+			}
+		};
+
+		VCard vcard = new VCard();
+		Telephone tel = new Telephone((String) null);
+		tel.setPref(1);
+		vcard.addTelephoneNumber(tel);
+
+		VCardParameters parameters = scribe.prepareParameters(tel, new WriteContext(V3_0, vcard));
+		assertEquals("pref", parameters.getType());
+		assertNull(parameters.getPref());
+		assertEquals("value", parameters.first("X-TEST"));
+	}
+
 	@Test
 	public void writeText() {
 		sensei.assertWriteText(withText).run(text);
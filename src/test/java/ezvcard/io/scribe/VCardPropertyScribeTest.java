@@ -11,6 +11,7 @@ import static org.junit.Assert.assertSame;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 
 import javax.xml.namespace.QName;
 
@@ -310,6 +311,16 @@ public class VCardPropertyScribeTest {
 		assertEquals("one;2;;four\\;five\\,six\\\\seven;eight;nine,,ten\\;eleven\\,twelve\\\\thirteen", actual);
 	}
 
+	@Test
+	public void structured_write_context() {
+		WriteContext context = new WriteContext(V4_0, new VCard());
+		String actual = VCardPropertyScribe.structured(context, "one", 2, null, "four;five,six\\seven", Arrays.asList("eight"), Arrays.asList("nine", null, "ten;eleven,twelve\\thirteen"));
+		assertEquals("one;2;;four\\;five\\,six\\\\seven;eight;nine,,ten\\;eleven\\,twelve\\\\thirteen", actual);
+
+		//the scratch buffer is re-used
+		assertEquals("one;two", VCardPropertyScribe.structured(context, "one", "two"));
+	}
+
 	@Test
 	public void dataType_default() {
 		TestProperty property = new TestProperty("value");
@@ -338,10 +349,32 @@ public class VCardPropertyScribeTest {
 		};
 
 		TestProperty property = new TestProperty("value");
+		property.getParameters().put("PARAM", "one");
+		property.getParameters().put("OTHER", "two");
 		VCardParameters copy = m.prepareParameters(property, V4_0, new VCard());
 
 		assertNotSame(property.getParameters(), copy);
-		assertEquals("value", copy.first("PARAM"));
+		assertEquals(Arrays.asList("one", "value"), copy.get("PARAM"));
+		assertEquals("two", copy.first("OTHER"));
+
+		//the property's parameters are not modified
+		assertEquals(Arrays.asList("one"), property.getParameters().get("PARAM"));
+		assertEquals(2, property.getParameters().size());
+	}
+
+	@Test
+	public void prepareParameters_modify_while_iterating() {
+		VCardPropertyMarshallerImpl m = new VCardPropertyMarshallerImpl();
+		TestProperty property = new TestProperty("value");
+		property.getParameters().put("PARAM", "one");
+		VCardParameters copy = m.prepareParameters(property, V4_0, new VCard());
+
+		for (Map.Entry<String, List<String>> entry : copy) {
+			entry.getValue().set(0, "ONE");
+		}
+
+		assertEquals(Arrays.asList("ONE"), copy.get("PARAM"));
+		assertEquals(Arrays.asList("one"), property.getParameters().get("PARAM"));
 	}
 
 	@Test
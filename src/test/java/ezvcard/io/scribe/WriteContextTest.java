@@ -0,0 +1,137 @@
+package ezvcard.io.scribe;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import ezvcard.VCard;
+import ezvcard.VCardVersion;
+import ezvcard.property.Email;
+import ezvcard.property.Telephone;
+
+/*
+ Copyright (c) 2012-2015, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+ The views and conclusions contained in the software and documentation are those
+ of the authors and should not be interpreted as representing official policies, 
+ either expressed or implied, of the FreeBSD Project.
+ */
+
+/**
+ * @author Michael Angstadt
+ */
+public class WriteContextTest {
+	@Test
+	public void getters() {
+		VCard vcard = new VCard();
+		WriteContext context = new WriteContext(VCardVersion.V3_0, vcard);
+		assertSame(VCardVersion.V3_0, context.getVersion());
+		assertSame(vcard, context.getVCard());
+	}
+
+	@Test
+	public void getMostPreferred() {
+		VCard vcard = new VCard();
+		Email email1 = vcard.addEmail("one@example.com");
+		Email email2 = vcard.addEmail("two@example.com");
+		email2.setPref(3);
+		Email email3 = vcard.addEmail("three@example.com");
+		email3.setPref(2);
+		Email email4 = vcard.addEmail("four@example.com");
+		email4.setPref(2);
+		vcard.addTelephoneNumber("555-555-5555");
+
+		WriteContext context = new WriteContext(VCardVersion.V3_0, vcard);
+
+		//the first property with the lowest PREF value is returned
+		assertSame(email3, context.getMostPreferred(Email.class));
+		assertSame(email3, context.getMostPreferred(Email.class));
+
+		//no properties have a PREF value
+		assertNull(context.getMostPreferred(Telephone.class));
+
+		//the result is cached
+		email1.setPref(1);
+		assertSame(email3, context.getMostPreferred(Email.class));
+		assertSame(email1, new WriteContext(VCardVersion.V3_0, vcard).getMostPreferred(Email.class));
+	}
+
+	@Test
+	public void get_memo() {
+		final int count[] = { 0 };
+		WriteContext.Memo<String> memo = new WriteContext.Memo<String>() {
+			@Override
+			protected String compute(WriteContext context) {
+				count[0]++;
+				return context.getVCard().getFormattedName().getValue();
+			}
+		};
+		WriteContext.Memo<String> nullMemo = new WriteContext.Memo<String>() {
+			@Override
+			protected String compute(WriteContext context) {
+				count[0]++;
+				return null;
+			}
+		};
+
+		VCard vcard = new VCard();
+		vcard.setFormattedName("John Doe");
+		WriteContext context = new WriteContext(VCardVersion.V4_0, vcard);
+
+		assertEquals("John Doe", context.get(memo));
+		assertEquals("John Doe", context.get(memo));
+		assertEquals(1, count[0]);
+
+		assertNull(context.get(nullMemo));
+		assertNull(context.get(nullMemo));
+		assertEquals(2, count[0]);
+
+		//each context has its own values
+		assertEquals("John Doe", new WriteContext(VCardVersion.V4_0, vcard).get(memo));
+		assertEquals(3, count[0]);
+	}
+
+	@Test
+	public void getStringBuilder() {
+		WriteContext context = new WriteContext(VCardVersion.V4_0, new VCard());
+		StringBuilder sb = context.getStringBuilder();
+		sb.append("value");
+		assertSame(sb, context.getStringBuilder());
+		assertEquals(0, sb.length());
+	}
+
+	@Test
+	public void getList() {
+		WriteContext context = new WriteContext(VCardVersion.V4_0, new VCard());
+		List<String> list = context.getList();
+		list.add("value");
+		assertSame(list, context.getList());
+		assertTrue(list.isEmpty());
+	}
+}
@@ -1,7 +1,14 @@
 package ezvcard.io.text;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 import org.junit.Test;
 
@@ -147,4 +154,181 @@ public class FoldedLineReaderTest {
 
 		assertNull(reader.readLine());
 	}
+
+	@Test
+	public void getLineNum_quoted_printable() throws Exception {
+		//@formatter:off
+		String vcardStr =
+		"NOTE;QUOTED-PRINTABLE:one=\r\n" +
+		"two=\r\n" +
+		"three\r\n" +
+		"NOTE:four\r\n";
+		//@formatter:on
+
+		FoldedLineReader reader = new FoldedLineReader(vcardStr);
+
+		assertEquals("NOTE;QUOTED-PRINTABLE:onetwothree", reader.readLine());
+		assertEquals(1, reader.getLineNum());
+
+		assertEquals("NOTE:four", reader.readLine());
+		assertEquals(4, reader.getLineNum());
+
+		assertNull(reader.readLine());
+	}
+
+	@Test
+	public void readLineToBuffer() throws Exception {
+		//@formatter:off
+		String vcardStr =
+		"NOTE:one\r\n" +
+		" two\r\n" +
+		"FN:John Doe";
+		//@formatter:on
+
+		FoldedLineReader reader = new FoldedLineReader(vcardStr);
+
+		int length = reader.readLineToBuffer();
+		assertEquals("NOTE:onetwo", new String(reader.getLineBuffer(), 0, length));
+
+		length = reader.readLineToBuffer();
+		assertEquals("FN:John Doe", new String(reader.getLineBuffer(), 0, length));
+
+		assertEquals(-1, reader.readLineToBuffer());
+	}
+
+	@Test
+	public void setPropertyNameFilter() throws Exception {
+		//@formatter:off
+		String vcardStr =
+		"BEGIN:VCARD\r\n" +
+		"PHOTO;ENCODING=b:aaaa\r\n" +
+		" bbbb\r\n" +
+		"\r\n" +
+		" cccc\r\n" +
+		"NOTE;QUOTED-PRINTABLE:one=\r\n" +
+		"two=\r\n" +
+		"three\r\n" +
+		"item1.photo:dddd\r\n" +
+		"FN:John\r\n" +
+		" Doe\r\n" +
+		"P\\HOTO:eeee\r\n" +
+		"PHOTO\r\n" +
+		"END:VCARD\r\n";
+		//@formatter:on
+
+		FoldedLineReader reader = new FoldedLineReader(vcardStr);
+		reader.setPropertyNameFilter(PropertyNameFilter.exclude("PHOTO", "NOTE"));
+
+		assertEquals("BEGIN:VCARD", reader.readLine());
+		assertEquals(1, reader.getLineNum());
+
+		assertEquals("FN:JohnDoe", reader.readLine());
+		assertEquals(10, reader.getLineNum());
+
+		//names that contain escape characters are not skipped
+		assertEquals("P\\HOTO:eeee", reader.readLine());
+		assertEquals(12, reader.getLineNum());
+
+		//lines without a colon are not skipped
+		assertEquals("PHOTO", reader.readLine());
+		assertEquals(13, reader.getLineNum());
+
+		assertEquals("END:VCARD", reader.readLine());
+		assertEquals(14, reader.getLineNum());
+
+		assertNull(reader.readLine());
+	}
+
+	@Test
+	public void setValueListener() throws Exception {
+		//@formatter:off
+		String vcardStr =
+		"PHOTO;ENCODING=b:aaaa\r\n" +
+		" bbbb\r\n" +
+		"\r\n" +
+		" cccc\r\n" +
+		"NOTE;QUOTED-PRINTABLE:one=\r\n" +
+		"two\r\n" +
+		"FN:John\r\n" +
+		" Doe\r\n" +
+		"PHOTO:dddd";
+		//@formatter:on
+
+		final List<String> events = new ArrayList<String>();
+		FoldedLineReader reader = new FoldedLineReader(vcardStr);
+		reader.setValueListener(new FoldedLineReader.ValueListener() {
+			public boolean valueStarted(char[] line, int length) {
+				String start = new String(line, 0, length);
+				events.add("start " + start);
+				return start.startsWith("PHOTO");
+			}
+
+			public void valueRead(char[] chars, int offset, int count) {
+				events.add("read " + new String(chars, offset, count));
+			}
+
+			public void valueEnded() {
+				events.add("end");
+			}
+		});
+
+		assertEquals("PHOTO;ENCODING=b:", reader.readLine());
+		assertTrue(reader.isValueStreamed());
+		assertEquals(Arrays.asList("start PHOTO;ENCODING=b:", "read aaaa", "read bbbb", "read cccc", "end"), events);
+		events.clear();
+
+		//quoted-printable lines are never passed to the listener
+		assertEquals("NOTE;QUOTED-PRINTABLE:onetwo", reader.readLine());
+		assertFalse(reader.isValueStreamed());
+		assertTrue(events.isEmpty());
+
+		assertEquals("FN:JohnDoe", reader.readLine());
+		assertFalse(reader.isValueStreamed());
+		assertEquals(Arrays.asList("start FN:"), events);
+		events.clear();
+
+		assertEquals("PHOTO:", reader.readLine());
+		assertTrue(reader.isValueStreamed());
+		assertEquals(Arrays.asList("start PHOTO:", "read dddd", "end"), events);
+
+		assertNull(reader.readLine());
+		assertFalse(reader.isValueStreamed());
+	}
+
+	@Test
+	public void setInput() throws Exception {
+		FoldedLineReader reader = new FoldedLineReader("line1\r\nline2\r\n");
+		assertEquals("line1", reader.readLine());
+		assertEquals(1, reader.getLineNum());
+
+		reader.setInput("one\r\n two\r\nthree");
+		assertEquals("onetwo", reader.readLine());
+		assertEquals(1, reader.getLineNum());
+		assertEquals("three", reader.readLine());
+		assertEquals(3, reader.getLineNum());
+		assertNull(reader.readLine());
+
+		reader.setInput(new StringReader("four\r\n"));
+		assertEquals("four", reader.readLine());
+		assertEquals(1, reader.getLineNum());
+		assertNull(reader.readLine());
+	}
+
+	@Test
+	public void read_continues_after_readLine() throws Exception {
+		FoldedLineReader reader = new FoldedLineReader("line1\r\n line2\r\nline3\r\nline4");
+		assertTrue(reader.ready());
+		assertEquals("line1line2", reader.readLine());
+
+		assertEquals('l', reader.read());
+		assertEquals(1, reader.skip(1));
+		char[] buf = new char[3];
+		assertEquals(3, reader.read(buf, 0, 3));
+		assertEquals("ne3", new String(buf));
+
+		assertEquals("line4", reader.readLine());
+		assertFalse(reader.ready());
+		assertEquals(-1, reader.read());
+		assertFalse(reader.markSupported());
+	}
 }
@@ -7,6 +7,7 @@ import static org.junit.Assert.assertNull;
 import java.io.ByteArrayOutputStream;
 import java.io.OutputStreamWriter;
 import java.io.StringWriter;
+import java.nio.channels.Channels;
 import java.nio.charset.Charset;
 
 import org.junit.Test;
@@ -139,6 +140,112 @@ public class FoldedLineWriterTest {
 		assertEquals("test\n\u00e4\u00f6\u00fc\u00df\ntest", codec.decode("test=0A=E4=F6=FC=DF=0Atest"));
 	}
 
+	@Test
+	public void write_quoted_printable_multibyte() throws Throwable {
+		StringWriter sw = new StringWriter();
+		FoldedLineWriter writer = new FoldedLineWriter(sw);
+		writer.setLineLength(10);
+
+		writer.write("a\u20ac\ud83d\ude00", true, Charset.forName("UTF-8"));
+		writer.write("\r\n");
+		writer.write("\u00e4\u00f6", true, Charset.forName("UTF-16BE"));
+		writer.close();
+		String actual = sw.toString();
+
+		//@formatter:off
+		String expected =
+		"a=E2=82=AC=\r\n" +
+		" =F0=9F=98=\r\n" +
+		" =80\r\n" +
+		"=00=E4=00=\r\n" +
+		" =F6";
+		//@formatter:on
+
+		assertEquals(expected, actual);
+	}
+
+	@Test
+	public void write_CharSequence() throws Throwable {
+		StringWriter sw = new StringWriter();
+		FoldedLineWriter writer = new FoldedLineWriter(sw);
+		writer.setLineLength(10);
+
+		StringBuilder sb = new StringBuilder("This line should be folded.");
+		writer.append(sb).append(sb, 0, 4).append('.');
+		writer.close();
+		String actual = sw.toString();
+
+		//@formatter:off
+		String expected =
+		"This line \r\n" +
+		" should be \r\n" +
+		" folded.Th\r\n" +
+		" is.";
+		//@formatter:on
+
+		assertEquals(expected, actual);
+	}
+
+	@Test
+	public void write_long_value() throws Throwable {
+		StringWriter sw = new StringWriter();
+		FoldedLineWriter writer = new FoldedLineWriter(sw);
+		writer.setLineLength(null);
+
+		String value = StringUtils.repeat("0123456789=", 1000);
+		writer.write(value);
+		writer.write(value, true, null);
+		writer.close();
+		String actual = sw.toString();
+
+		String expected = value + new QuotedPrintableCodec().encode(value);
+		assertEquals(expected, actual);
+	}
+
+	@Test
+	public void write_octets() throws Throwable {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		FoldedLineWriter writer = new FoldedLineWriter(out, Charset.forName("UTF-8"));
+		writer.setLineLength(10);
+
+		//multi-byte characters are never split
+		writer.write("abc\u00e4\u00f6\u4e2d\u4e2d\ud83d\ude00\ud83d\ude00\r\n");
+		writer.write("\u00e4=", true, null);
+		writer.close();
+		String actual = new String(out.toByteArray(), "UTF-8");
+
+		//@formatter:off
+		String expected =
+		"abc\u00e4\u00f6\u4e2d\r\n" +
+		" \u4e2d\ud83d\ude00\r\n" +
+		" \ud83d\ude00\r\n" +
+		"=C3=A4=3D";
+		//@formatter:on
+
+		assertEquals(expected, actual);
+	}
+
+	@Test
+	public void write_octets_channel() throws Throwable {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		FoldedLineWriter writer = new FoldedLineWriter(Channels.newChannel(out), Charset.forName("ISO-8859-1"));
+		writer.setLineLength(5);
+		assertEquals(Charset.forName("ISO-8859-1"), writer.getEncoding());
+		assertNull(writer.getWriter());
+
+		writer.write("\u00e4\u00f6\u00fc\u00e4\u00f6\u00fc");
+		writer.close();
+		String actual = new String(out.toByteArray(), "ISO-8859-1");
+
+		//@formatter:off
+		String expected =
+		"\u00e4\u00f6\u00fc\u00e4\u00f6\r\n" +
+		" \u00fc";
+		//@formatter:on
+
+		assertEquals(expected, actual);
+	}
+
 	@Test
 	public void write_different_newlines() throws Exception {
 		StringWriter sw = new StringWriter();
@@ -0,0 +1,246 @@
+package ezvcard.io.text;
+
+import static ezvcard.util.TestUtils.assertWarnings;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Test;
+
+import ezvcard.Ezvcard;
+import ezvcard.VCard;
+import ezvcard.io.LuckyNumType;
+import ezvcard.io.LuckyNumType.LuckyNumScribe;
+import ezvcard.io.StreamReader;
+import ezvcard.util.BinaryData;
+import ezvcard.util.BinaryStorage;
+import ezvcard.util.IOUtils;
+
+/*
+ Copyright (c) 2012-2015, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+ The views and conclusions contained in the software and documentation are those
+ of the authors and should not be interpreted as representing official policies, 
+ either expressed or implied, of the FreeBSD Project.
+ */
+
+/**
+ * @author Michael Angstadt
+ */
+@SuppressWarnings("resource")
+public class ParallelVCardReaderTest {
+	//@formatter:off
+	private static final String EDGE_CASES =
+	"junk before the first vCard\r\n" +
+	"BEGIN:VCARD\r\n" +
+		"VERSION:2.1\r\n" +
+		"FN:John Doe\r\n" +
+		"NOTE;QUOTED-PRINTABLE:one=0D=0A=\r\n" +
+		"END:VCARD=\r\n" +
+		"three\r\n" +
+		"AGENT:\r\n" +
+		"BEGIN:VCARD\r\n" +
+			"FN:Agent\r\n" +
+			"AGENT:\r\n" +
+			"BEGIN:VCARD\r\n" +
+				"FN:Agent's agent\r\n" +
+			"END:VCARD\r\n" +
+		"END:VCARD\r\n" +
+		"GEO:invalid\r\n" +
+	"END:VCARD\r\n" +
+	"\r\n" +
+	"BEGIN:VCARD\r\n" +
+		"FN;X-TEST=\"quoted\":version carried over from the previous vCard\r\n" +
+		"VERSION:4.0\r\n" +
+		"NOTE:folded\r\n" +
+		" line\r\n" +
+		"END:VCARD\r\n" +
+	"junk in between\r\n" +
+	"BEGIN:VCARD\r\n" +
+		"VERSION:3.0\r\n" +
+		"NOTE:not the end\r\n" +
+		"END:VCARD\r\n" +
+		" X\r\n" +
+		"LINE WITHOUT A COLON\r\n" +
+		"GEO:invalid\r\n" +
+	"END:VCARD\r\n" +
+	"BEGIN:VCARD\r\n" +
+		"VERSION:4.0\r\n" +
+		"FN:the data stream ends before this vCard is closed\r\n";
+	//@formatter:on
+
+	@Test
+	public void same_as_VCardReader() throws Throwable {
+		assertSameAsVCardReader(EDGE_CASES);
+	}
+
+	@Test
+	public void same_as_VCardReader_sample_files() throws Throwable {
+		StringBuilder sb = new StringBuilder();
+		String files[] = { "John_Doe_ANDROID.vcf", "John_Doe_BLACK_BERRY.vcf", "John_Doe_EVOLUTION.vcf", "John_Doe_GMAIL.vcf", "John_Doe_IPHONE.vcf", "John_Doe_LOTUS_NOTES.vcf", "John_Doe_MAC_ADDRESS_BOOK.vcf", "John_Doe_MS_OUTLOOK.vcf", "gmail-list.vcf", "outlook-2003.vcf", "outlook-2007.vcf", "rfc2426-example.vcf", "rfc6350-example.vcf", "thunderbird-MoreFunctionsForAddressBook-extension.vcf" };
+		for (String file : files) {
+			InputStream in = getClass().getResourceAsStream(file);
+			try {
+				sb.append(IOUtils.toString(new InputStreamReader(in, "UTF-8")));
+			} finally {
+				IOUtils.closeQuietly(in);
+			}
+			sb.append("\r\n");
+		}
+
+		assertSameAsVCardReader(sb.toString());
+	}
+
+	@Test
+	public void unordered() throws Throwable {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 100; i++) {
+			sb.append("BEGIN:VCARD\r\nVERSION:4.0\r\nFN:").append(i).append("\r\nEND:VCARD\r\n");
+		}
+
+		ParallelVCardReader reader = new ParallelVCardReader(sb.toString());
+		reader.setOrdered(false);
+		reader.setBatchSize(100);
+		reader.setMaxPendingBatches(5);
+		assertFalse(reader.isOrdered());
+
+		List<Integer> actual = new ArrayList<Integer>();
+		VCard vcard;
+		while ((vcard = reader.readNext()) != null) {
+			actual.add(Integer.valueOf(vcard.getFormattedName().getValue()));
+			assertWarnings(0, reader);
+		}
+		reader.close();
+
+		Collections.sort(actual);
+		assertEquals(100, actual.size());
+		for (int i = 0; i < actual.size(); i++) {
+			assertEquals(Integer.valueOf(i), actual.get(i));
+		}
+	}
+
+	@Test
+	public void custom_scribes_and_executor() throws Throwable {
+		//@formatter:off
+		String str =
+		"BEGIN:VCARD\r\n" +
+			"VERSION:4.0\r\n" +
+			"X-LUCKY-NUM:22\r\n" +
+			"NOTE:skipped\r\n" +
+		"END:VCARD\r\n";
+		//@formatter:on
+
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			ParallelVCardReader reader = new ParallelVCardReader(str);
+			reader.setExecutor(executor);
+			reader.registerScribe(new LuckyNumScribe());
+			reader.setPropertyNameFilter(PropertyNameFilter.exclude("NOTE"));
+
+			VCard vcard = reader.readNext();
+			assertEquals(22, vcard.getProperty(LuckyNumType.class).luckyNum);
+			assertTrue(vcard.getNotes().isEmpty());
+			assertNull(reader.readNext());
+			reader.close();
+
+			//the executor is not shut down if it was supplied by the caller
+			assertFalse(executor.isShutdown());
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void binary_storage() throws Throwable {
+		//@formatter:off
+		String str =
+		"BEGIN:VCARD\r\n" +
+			"VERSION:3.0\r\n" +
+			"PHOTO;ENCODING=b;TYPE=jpeg:AQID\r\n" +
+		"END:VCARD\r\n";
+		//@formatter:on
+
+		ParallelVCardReader reader = new ParallelVCardReader(str);
+		reader.setBinaryStreamingEnabled(true);
+		reader.setBinaryStorage(BinaryStorage.DIRECT);
+
+		VCard vcard = reader.readNext();
+		BinaryData data = vcard.getPhotos().get(0).getBinaryData();
+		assertTrue(data.asByteBuffer().isDirect());
+		assertArrayEquals(new byte[] { 1, 2, 3 }, data.getBytes());
+		assertNull(reader.readNext());
+		reader.close();
+	}
+
+	private static void assertSameAsVCardReader(String str) throws IOException {
+		List<VCard> expectedVCards = new ArrayList<VCard>();
+		List<List<String>> expectedWarnings = new ArrayList<List<String>>();
+		readAll(new VCardReader(str), expectedVCards, expectedWarnings);
+
+		for (int batchSize : new int[] { 1, 100, 65536 }) {
+			List<VCard> actualVCards = new ArrayList<VCard>();
+			List<List<String>> actualWarnings = new ArrayList<List<String>>();
+			ParallelVCardReader reader = new ParallelVCardReader(str);
+			reader.setBatchSize(batchSize);
+			reader.setMaxPendingBatches(2);
+			readAll(reader, actualVCards, actualWarnings);
+
+			assertEquals(expectedWarnings, actualWarnings);
+			assertEquals(expectedVCards.size(), actualVCards.size());
+			for (int i = 0; i < expectedVCards.size(); i++) {
+				VCard expected = expectedVCards.get(i);
+				VCard actual = actualVCards.get(i);
+				assertEquals(expected.getVersion(), actual.getVersion());
+				assertEquals(write(expected), write(actual));
+			}
+		}
+	}
+
+	private static void readAll(StreamReader reader, List<VCard> vcards, List<List<String>> warnings) throws IOException {
+		try {
+			VCard vcard;
+			while ((vcard = reader.readNext()) != null) {
+				vcards.add(vcard);
+				warnings.add(reader.getWarnings());
+			}
+		} finally {
+			reader.close();
+		}
+	}
+
+	private static String write(VCard vcard) {
+		return Ezvcard.write(vcard).version(vcard.getVersion()).prodId(false).go();
+	}
+}
@@ -0,0 +1,86 @@
+package ezvcard.io.text;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/*
+ Copyright (c) 2012-2015, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+ The views and conclusions contained in the software and documentation are those
+ of the authors and should not be interpreted as representing official policies, 
+ either expressed or implied, of the FreeBSD Project.
+ */
+
+/**
+ * @author Michael Angstadt
+ */
+public class PropertyNameFilterTest {
+	@Test
+	public void include() {
+		PropertyNameFilter filter = PropertyNameFilter.include("FN", "email");
+		assertTrue(filter.isWhitelist());
+
+		assertTrue(filter.accept("FN"));
+		assertTrue(filter.accept("fn"));
+		assertTrue(filter.accept("EMAIL"));
+		assertTrue(filter.accept("Email"));
+		assertFalse(filter.accept("NOTE"));
+		assertFalse(filter.accept("F"));
+		assertFalse(filter.accept("FNN"));
+	}
+
+	@Test
+	public void exclude() {
+		PropertyNameFilter filter = PropertyNameFilter.exclude("PHOTO");
+		assertFalse(filter.isWhitelist());
+
+		assertFalse(filter.accept("PHOTO"));
+		assertFalse(filter.accept("photo"));
+		assertTrue(filter.accept("NOTE"));
+		assertTrue(filter.accept("PHOTOS"));
+	}
+
+	@Test
+	public void structural_properties_always_accepted() {
+		PropertyNameFilter filter = PropertyNameFilter.include("FN");
+		assertTrue(filter.accept("BEGIN"));
+		assertTrue(filter.accept("end"));
+		assertTrue(filter.accept("Version"));
+
+		filter = PropertyNameFilter.exclude("BEGIN", "END", "VERSION");
+		assertTrue(filter.accept("BEGIN"));
+		assertTrue(filter.accept("END"));
+		assertTrue(filter.accept("VERSION"));
+	}
+
+	@Test
+	public void accept_buffer() {
+		PropertyNameFilter filter = PropertyNameFilter.include("FN");
+		char[] buffer = "item1.fn:John Doe".toCharArray();
+		assertTrue(filter.accept(buffer, 6, 8));
+		assertFalse(filter.accept(buffer, 0, 5));
+	}
+}
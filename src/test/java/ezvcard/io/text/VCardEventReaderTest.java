@@ -0,0 +1,225 @@
+package ezvcard.io.text;
+
+import static ezvcard.util.TestUtils.assertWarnings;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import ezvcard.VCardVersion;
+import ezvcard.io.text.VCardEventReader.EventType;
+import ezvcard.io.text.VCardEventReader.Listener;
+import ezvcard.property.Agent;
+import ezvcard.property.Email;
+import ezvcard.property.RawProperty;
+import ezvcard.property.VCardProperty;
+
+/*
+ Copyright (c) 2012-2015, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+ The views and conclusions contained in the software and documentation are those
+ of the authors and should not be interpreted as representing official policies, 
+ either expressed or implied, of the FreeBSD Project.
+ */
+
+/**
+ * @author Michael Angstadt
+ */
+public class VCardEventReaderTest {
+	@Test
+	public void nextEvent() throws Throwable {
+		//@formatter:off
+		String str =
+		"BEGIN:VCARD\r\n" +
+		"VERSION:3.0\r\n" +
+		"FN:John Doe\r\n" +
+		"item1.EMAIL;TYPE=work:johndoe@example.com\r\n" +
+		"END:VCARD\r\n";
+		//@formatter:on
+
+		VCardEventReader reader = new VCardEventReader(str);
+		assertEquals(0, reader.getDepth());
+		assertNull(reader.getVersion());
+
+		assertEquals(EventType.BEGIN_VCARD, reader.nextEvent());
+		assertEquals(1, reader.getDepth());
+		assertNull(reader.getTokens());
+		assertNull(reader.parseProperty());
+
+		assertEquals(EventType.PROPERTY, reader.nextEvent());
+		assertEquals(VCardVersion.V3_0, reader.getVersion());
+		assertTrue(reader.isProperty("fn"));
+		assertEquals("FN", reader.getPropertyName());
+		assertEquals(new VCardRawLine.Builder().name("FN").value("John Doe").build(), reader.getRawLine());
+
+		assertEquals(EventType.PROPERTY, reader.nextEvent());
+		assertTrue(reader.isProperty("EMAIL"));
+		Email email = (Email) reader.parseProperty();
+		assertEquals("item1", email.getGroup());
+		assertEquals("johndoe@example.com", email.getValue());
+		assertSame(email, reader.parseProperty());
+
+		assertEquals(EventType.END_VCARD, reader.nextEvent());
+		assertEquals(1, reader.getDepth());
+		assertEquals(VCardVersion.V3_0, reader.getVersion());
+
+		assertNull(reader.nextEvent());
+		assertEquals(0, reader.getDepth());
+		assertWarnings(0, reader.getWarnings());
+	}
+
+	@Test
+	public void lines_outside_of_vcard_are_ignored() throws Throwable {
+		//@formatter:off
+		String str =
+		"FN:Outside\r\n" +
+		"BEGIN:VCARD\r\n" +
+		"FN:Inside\r\n" +
+		"END:VCARD\r\n" +
+		"FN:Outside\r\n";
+		//@formatter:on
+
+		VCardEventReader reader = new VCardEventReader(str);
+		assertEquals(EventType.BEGIN_VCARD, reader.nextEvent());
+		assertEquals(EventType.PROPERTY, reader.nextEvent());
+		assertEquals("Inside", reader.getTokens().getValue());
+		assertEquals(EventType.END_VCARD, reader.nextEvent());
+		assertNull(reader.nextEvent());
+	}
+
+	@Test
+	public void nested_vcard() throws Throwable {
+		//@formatter:off
+		String str =
+		"BEGIN:VCARD\r\n" +
+		"VERSION:2.1\r\n" +
+		"AGENT:\r\n" +
+		"BEGIN:VCARD\r\n" +
+		"VERSION:2.1\r\n" +
+		"FN:Agent 007\r\n" +
+		"END:VCARD\r\n" +
+		"FN:John Doe\r\n" +
+		"END:VCARD\r\n";
+		//@formatter:on
+
+		VCardEventReader reader = new VCardEventReader(str);
+		assertEquals(EventType.BEGIN_VCARD, reader.nextEvent());
+
+		assertEquals(EventType.PROPERTY, reader.nextEvent());
+		Agent agent = (Agent) reader.parseProperty();
+		assertNull(agent.getVCard());
+
+		assertEquals(EventType.BEGIN_VCARD, reader.nextEvent());
+		assertEquals(2, reader.getDepth());
+		assertEquals(EventType.PROPERTY, reader.nextEvent());
+		assertEquals("Agent 007", reader.getTokens().getValue());
+		assertEquals(EventType.END_VCARD, reader.nextEvent());
+		assertEquals(2, reader.getDepth());
+
+		assertEquals(EventType.PROPERTY, reader.nextEvent());
+		assertEquals(1, reader.getDepth());
+		assertEquals("John Doe", reader.getTokens().getValue());
+		assertEquals(EventType.END_VCARD, reader.nextEvent());
+		assertNull(reader.nextEvent());
+	}
+
+	@Test
+	public void warnings() throws Throwable {
+		//@formatter:off
+		String str =
+		"BEGIN:VCARD\r\n" +
+		"VERSION:4.0\r\n" +
+		"invalid line\r\n" +
+		"GEO:invalid\r\n" +
+		"END:VCARD\r\n" +
+		"BEGIN:VCARD\r\n" +
+		"VERSION:4.0\r\n" +
+		"END:VCARD\r\n";
+		//@formatter:on
+
+		VCardEventReader reader = new VCardEventReader(str);
+		assertEquals(EventType.BEGIN_VCARD, reader.nextEvent());
+		assertEquals(EventType.PROPERTY, reader.nextEvent());
+		assertWarnings(1, reader.getWarnings());
+
+		//properties are not parsed unless requested
+		assertTrue(reader.parseProperty() instanceof RawProperty);
+		assertWarnings(2, reader.getWarnings());
+		assertEquals(EventType.END_VCARD, reader.nextEvent());
+
+		assertEquals(EventType.BEGIN_VCARD, reader.nextEvent());
+		assertWarnings(0, reader.getWarnings());
+		assertEquals(EventType.END_VCARD, reader.nextEvent());
+		assertNull(reader.nextEvent());
+	}
+
+	@Test
+	public void read_listener() throws Throwable {
+		//@formatter:off
+		String str =
+		"BEGIN:VCARD\r\n" +
+		"VERSION:4.0\r\n" +
+		"FN:John Doe\r\n" +
+		"EMAIL:johndoe@example.com\r\n" +
+		"END:VCARD\r\n" +
+		"BEGIN:VCARD\r\n" +
+		"VERSION:4.0\r\n" +
+		"EMAIL:janedoe@example.com\r\n" +
+		"END:VCARD\r\n";
+		//@formatter:on
+
+		final List<String> events = new ArrayList<String>();
+		VCardEventReader reader = new VCardEventReader(str);
+		reader.read(new Listener() {
+			public void beginVCard(VCardEventReader reader) {
+				events.add("begin");
+			}
+
+			public void property(VCardEventReader reader) {
+				if (reader.isProperty("EMAIL")) {
+					VCardProperty property = reader.parseProperty();
+					events.add(((Email) property).getValue());
+				}
+			}
+
+			public void endVCard(VCardEventReader reader) {
+				events.add("end");
+			}
+		});
+
+		List<String> expected = new ArrayList<String>();
+		expected.add("begin");
+		expected.add("johndoe@example.com");
+		expected.add("end");
+		expected.add("begin");
+		expected.add("janedoe@example.com");
+		expected.add("end");
+		assertEquals(expected, events);
+	}
+}
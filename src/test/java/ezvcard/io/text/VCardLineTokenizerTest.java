@@ -0,0 +1,170 @@
+package ezvcard.io.text;
+
+import static ezvcard.util.StringUtils.NEWLINE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import ezvcard.VCardVersion;
+
+/*
+ Copyright (c) 2012-2015, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+ The views and conclusions contained in the software and documentation are those
+ of the authors and should not be interpreted as representing official policies, 
+ either expressed or implied, of the FreeBSD Project.
+ */
+
+/**
+ * @author Michael Angstadt
+ */
+public class VCardLineTokenizerTest {
+	@Test
+	public void offsets() {
+		String line = "item1.ADR;TYPE=home,work;PREF=1: ;;123 Main St ";
+		char[] buffer = ("xx" + line + "xx").toCharArray();
+		VCardLineTokenizer tokenizer = new VCardLineTokenizer();
+		assertTrue(tokenizer.tokenize(buffer, 2, line.length(), VCardVersion.V4_0, true));
+
+		assertSame(buffer, tokenizer.getBuffer());
+		assertEquals(2, tokenizer.getGroupStart());
+		assertEquals(7, tokenizer.getGroupEnd());
+		assertEquals(8, tokenizer.getNameStart());
+		assertEquals(11, tokenizer.getNameEnd());
+
+		assertEquals(3, tokenizer.getParameterCount());
+		assertEquals(12, tokenizer.getParameterNameStart(0));
+		assertEquals(16, tokenizer.getParameterNameEnd(0));
+		assertEquals(17, tokenizer.getParameterValueStart(0));
+		assertEquals(21, tokenizer.getParameterValueEnd(0));
+		assertEquals(12, tokenizer.getParameterNameStart(1));
+		assertEquals(16, tokenizer.getParameterNameEnd(1));
+		assertEquals(22, tokenizer.getParameterValueStart(1));
+		assertEquals(26, tokenizer.getParameterValueEnd(1));
+
+		assertEquals(35, tokenizer.getValueStart());
+		assertEquals(48, tokenizer.getValueEnd());
+
+		assertEquals("item1", tokenizer.getGroup());
+		assertEquals("ADR", tokenizer.getName());
+		assertEquals("TYPE", tokenizer.getParameterName(1));
+		assertEquals("work", tokenizer.getParameterValue(1));
+		assertEquals("PREF", tokenizer.getParameterName(2));
+		assertEquals("1", tokenizer.getParameterValue(2));
+		assertEquals(";;123 Main St", tokenizer.getValue());
+		assertEquals(line, tokenizer.getLine());
+	}
+
+	@Test
+	public void no_group() {
+		VCardLineTokenizer tokenizer = tokenize("NOTE:value", VCardVersion.V4_0);
+		assertEquals(-1, tokenizer.getGroupStart());
+		assertEquals(-1, tokenizer.getGroupEnd());
+		assertNull(tokenizer.getGroup());
+	}
+
+	@Test
+	public void nameless_parameters() {
+		VCardLineTokenizer tokenizer = tokenize("ADR;WORK;DOM:value", VCardVersion.V2_1);
+		assertEquals(2, tokenizer.getParameterCount());
+		assertEquals(-1, tokenizer.getParameterNameStart(0));
+		assertNull(tokenizer.getParameterName(0));
+		assertEquals("WORK", tokenizer.getParameterValue(0));
+		assertNull(tokenizer.getParameterName(1));
+		assertEquals("DOM", tokenizer.getParameterValue(1));
+	}
+
+	@Test
+	public void escaped_parameter_values() {
+		VCardLineTokenizer tokenizer = tokenize("NOTE;X-TEST=\"one;two\";X-CARET=a^nb^'c^';X-BACKSLASH=a\\nb:value", VCardVersion.V4_0);
+		assertEquals(3, tokenizer.getParameterCount());
+		assertEquals("one;two", tokenizer.getParameterValue(0));
+		assertEquals("a" + NEWLINE + "b\"c\"", tokenizer.getParameterValue(1));
+		assertEquals("a" + NEWLINE + "b", tokenizer.getParameterValue(2));
+	}
+
+	@Test
+	public void v21_whitespace_around_equals() {
+		VCardLineTokenizer tokenizer = tokenize("ADR;TYPE\t= WORK:value", VCardVersion.V2_1);
+		assertEquals("TYPE", tokenizer.getParameterName(0));
+		assertEquals("WORK", tokenizer.getParameterValue(0));
+	}
+
+	@Test
+	public void equalsIgnoreCase() {
+		VCardLineTokenizer tokenizer = tokenize("begin: vCard ", VCardVersion.V4_0);
+		assertTrue(tokenizer.nameEqualsIgnoreCase("BEGIN"));
+		assertFalse(tokenizer.nameEqualsIgnoreCase("END"));
+		assertFalse(tokenizer.nameEqualsIgnoreCase("BEGINS"));
+		assertTrue(tokenizer.valueEqualsIgnoreCase("VCARD"));
+		assertFalse(tokenizer.valueEqualsIgnoreCase("VCAL"));
+	}
+
+	@Test
+	public void parameterValueEqualsIgnoreCase() {
+		VCardLineTokenizer tokenizer = tokenize("PHOTO;ENCODING=b;X-TEST=\"Base64\";BASE64:value", VCardVersion.V4_0);
+		assertTrue(tokenizer.parameterValueEqualsIgnoreCase(0, "B"));
+		assertFalse(tokenizer.parameterValueEqualsIgnoreCase(0, "BASE64"));
+		assertTrue(tokenizer.parameterValueEqualsIgnoreCase(1, "base64"));
+		assertTrue(tokenizer.parameterValueEqualsIgnoreCase(2, "base64"));
+	}
+
+	@Test
+	public void toRawLine() {
+		VCardLineTokenizer tokenizer = tokenize("group.NOTE;LANGUAGE=en:value", VCardVersion.V4_0);
+		VCardRawLine expected = new VCardRawLine.Builder().group("group").name("NOTE").param("LANGUAGE", "en").value("value").build();
+		assertEquals(expected, tokenizer.toRawLine());
+	}
+
+	@Test
+	public void invalid_line() {
+		VCardLineTokenizer tokenizer = new VCardLineTokenizer();
+		char[] buffer = "NOTE".toCharArray();
+		assertFalse(tokenizer.tokenize(buffer, 0, buffer.length, VCardVersion.V4_0, true));
+	}
+
+	@Test
+	public void reuse() {
+		VCardLineTokenizer tokenizer = tokenize("NOTE;A=1;B=2;C=3;D=4;E=5;F=6;G=7;H=8;I=9:value", VCardVersion.V4_0);
+		assertEquals(9, tokenizer.getParameterCount());
+		assertEquals("9", tokenizer.getParameterValue(8));
+
+		char[] buffer = "FN:John Doe".toCharArray();
+		assertTrue(tokenizer.tokenize(buffer, 0, buffer.length, VCardVersion.V4_0, true));
+		assertEquals(0, tokenizer.getParameterCount());
+		assertEquals("FN", tokenizer.getName());
+		assertEquals("John Doe", tokenizer.getValue());
+	}
+
+	private static VCardLineTokenizer tokenize(String line, VCardVersion version) {
+		VCardLineTokenizer tokenizer = new VCardLineTokenizer();
+		char[] buffer = line.toCharArray();
+		assertTrue(tokenizer.tokenize(buffer, 0, buffer.length, version, true));
+		return tokenizer;
+	}
+}
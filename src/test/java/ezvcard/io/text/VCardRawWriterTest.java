@@ -1,6 +1,7 @@
 package ezvcard.io.text;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
@@ -9,6 +10,9 @@ import static org.mockito.Mockito.verifyNoMoreInteractions;
 
 import java.io.IOException;
 import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 import org.junit.Test;
 
@@ -273,6 +277,122 @@ public class VCardRawWriterTest {
 		assertEquals(expected, actual);
 	}
 
+	@Test
+	public void parameterCache() throws Throwable {
+		StringWriter sw = new StringWriter();
+		VCardRawWriter writer = new VCardRawWriter(sw, VCardVersion.V3_0);
+		assertEquals(256, writer.getParameterCacheSize());
+
+		VCardParameters parameters = new VCardParameters();
+		parameters.put("TYPE", "work");
+		parameters.put("TYPE", "voice");
+		parameters.put("X-TEST", "one,two");
+		for (int i = 0; i < 3; i++) {
+			writer.writeProperty(null, "TEL", new VCardParameters(parameters), "");
+		}
+
+		//a different value, order, version, or caret encoding setting is a different entry
+		parameters.replace("X-TEST", "three");
+		writer.writeProperty(null, "TEL", parameters, "");
+
+		parameters = new VCardParameters();
+		parameters.put("X-TEST", "one,two");
+		parameters.put("TYPE", "work");
+		parameters.put("TYPE", "voice");
+		writer.writeProperty(null, "TEL", parameters, "");
+
+		writer.setVersion(VCardVersion.V2_1);
+		writer.writeProperty(null, "TEL", parameters, "");
+
+		writer.setVersion(VCardVersion.V4_0);
+		parameters = new VCardParameters();
+		parameters.put("X-TEST", "^");
+		writer.writeProperty(null, "TEL", parameters, "");
+		writer.setCaretEncodingEnabled(true);
+		writer.writeProperty(null, "TEL", parameters, "");
+
+		//@formatter:off
+		String expected =
+		"TEL;TYPE=work,voice;X-TEST=\"one,two\":\r\n" +
+		"TEL;TYPE=work,voice;X-TEST=\"one,two\":\r\n" +
+		"TEL;TYPE=work,voice;X-TEST=\"one,two\":\r\n" +
+		"TEL;TYPE=work,voice;X-TEST=three:\r\n" +
+		"TEL;X-TEST=\"one,two\";TYPE=work,voice:\r\n" +
+		"TEL;X-TEST=onetwo;WORK;VOICE:\r\n" +
+		"TEL;X-TEST=^:\r\n" +
+		"TEL;X-TEST=^^:\r\n";
+		//@formatter:on
+		assertEquals(expected, sw.toString());
+
+		assertEquals(2, writer.getParameterCacheHits());
+		assertEquals(6, writer.getParameterCacheMisses());
+	}
+
+	@Test
+	public void parameterCache_changed_values() throws Throwable {
+		StringWriter sw = new StringWriter();
+		VCardRawWriter writer = new VCardRawWriter(sw, VCardVersion.V3_0);
+		final List<String> changed = new ArrayList<String>();
+		writer.setParameterValueChangedListener(new ParameterValueChangedListener() {
+			public void onParameterValueChanged(String propertyName, String parameterName, String originalValue, String modifiedValue) {
+				changed.add(propertyName);
+			}
+		});
+
+		//parameter lists whose values are changed are not cached, so the listener is called every time
+		VCardParameters parameters = new VCardParameters();
+		parameters.put("X-TEST", "a\"b");
+		writer.writeProperty(null, "ONE", parameters, "");
+		writer.writeProperty(null, "TWO", parameters, "");
+
+		assertEquals(Arrays.asList("ONE", "TWO"), changed);
+		assertEquals(0, writer.getParameterCacheHits());
+		assertEquals("ONE;X-TEST=a'b:\r\nTWO;X-TEST=a'b:\r\n", sw.toString());
+	}
+
+	@Test
+	public void parameterCache_shrink() throws Throwable {
+		StringWriter sw = new StringWriter();
+		VCardRawWriter writer = new VCardRawWriter(sw, VCardVersion.V3_0);
+
+		VCardParameters a = new VCardParameters();
+		a.put("TYPE", "a");
+		VCardParameters b = new VCardParameters();
+		b.put("TYPE", "b");
+		VCardParameters c = new VCardParameters();
+		c.put("TYPE", "c");
+		writer.writeProperty(null, "TEL", a, "");
+		writer.writeProperty(null, "TEL", b, "");
+		writer.writeProperty(null, "TEL", c, "");
+		writer.writeProperty(null, "TEL", a, "");
+		assertEquals(1, writer.getParameterCacheHits());
+		assertEquals(3, writer.getParameterCacheMisses());
+
+		//the least recently used entry is evicted
+		writer.setParameterCacheSize(2);
+		writer.writeProperty(null, "TEL", a, "");
+		writer.writeProperty(null, "TEL", c, "");
+		assertEquals(3, writer.getParameterCacheHits());
+		writer.writeProperty(null, "TEL", b, "");
+		assertEquals(4, writer.getParameterCacheMisses());
+	}
+
+	@Test
+	public void parameterCache_disabled() throws Throwable {
+		StringWriter sw = new StringWriter();
+		VCardRawWriter writer = new VCardRawWriter(sw, VCardVersion.V3_0);
+		writer.setParameterCacheSize(0);
+
+		VCardParameters parameters = new VCardParameters();
+		parameters.put("TYPE", "work");
+		writer.writeProperty(null, "TEL", parameters, "");
+		writer.writeProperty(null, "TEL", parameters, "");
+
+		assertEquals("TEL;TYPE=work:\r\nTEL;TYPE=work:\r\n", sw.toString());
+		assertEquals(0, writer.getParameterCacheHits());
+		assertEquals(0, writer.getParameterCacheMisses());
+	}
+
 	@Test
 	public void foldingScheme() throws Throwable {
 		StringWriter sw = new StringWriter();
@@ -374,6 +494,55 @@ public class VCardRawWriterTest {
 		writer.writeProperty("invalid*name", "");
 	}
 
+	@Test
+	public void invalid_property_name_after_valid_names() throws Throwable {
+		StringWriter sw = new StringWriter();
+		VCardRawWriter writer = new VCardRawWriter(sw, VCardVersion.V2_1);
+		writer.writeProperty("group", "PROP", new VCardParameters(), "");
+		writer.writeProperty("group", "PROP", new VCardParameters(), "");
+
+		try {
+			writer.writeProperty("group", "PROP*", new VCardParameters(), "");
+			fail();
+		} catch (IllegalArgumentException e) {
+			//expected
+		}
+
+		try {
+			writer.writeProperty("", "PROP", new VCardParameters(), "");
+			fail();
+		} catch (IllegalArgumentException e) {
+			//expected
+		}
+
+		assertEquals("group.PROP:\r\ngroup.PROP:\r\n", sw.toString());
+	}
+
+	@Test
+	public void parameters_newline_split_by_invalid_chars() throws Throwable {
+		StringWriter sw = new StringWriter();
+		VCardRawWriter writer = new VCardRawWriter(sw, VCardVersion.V2_1);
+
+		//invalid characters are removed before newlines are replaced
+		VCardParameters parameters = new VCardParameters();
+		parameters.put("X-TEST", "one\r,\ntwo");
+		writer.writeProperty(null, "PROP", parameters, "");
+
+		assertEquals("PROP;X-TEST=one two:\r\n", sw.toString());
+	}
+
+	@Test
+	public void parameters_line_separator() throws Throwable {
+		StringWriter sw = new StringWriter();
+		VCardRawWriter writer = new VCardRawWriter(sw, VCardVersion.V4_0);
+
+		VCardParameters parameters = new VCardParameters();
+		parameters.put("X-TEST", "one,\u2028two");
+		writer.writeProperty(null, "PROP", parameters, "");
+
+		assertEquals("PROP;X-TEST=\"one,\u2028two\":\r\n", sw.toString());
+	}
+
 	/*
 	 * If newline characters exist in a property value in 2.1, then that
 	 * property value should be "quoted-printable" encoded. The escape sequence
@@ -13,16 +13,29 @@ import static ezvcard.util.TestUtils.assertPropertyCount;
 import static ezvcard.util.TestUtils.assertSetEquals;
 import static ezvcard.util.TestUtils.assertVersion;
 import static ezvcard.util.TestUtils.assertWarnings;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringReader;
+import java.io.Writer;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import ezvcard.VCard;
 import ezvcard.VCardDataType;
@@ -37,12 +50,18 @@ import ezvcard.io.scribe.SkipMeScribe;
 import ezvcard.io.scribe.VCardPropertyScribe;
 import ezvcard.parameter.AddressType;
 import ezvcard.parameter.Encoding;
+import ezvcard.parameter.ImageType;
 import ezvcard.parameter.VCardParameters;
 import ezvcard.property.Address;
 import ezvcard.property.Label;
+import ezvcard.property.Logo;
 import ezvcard.property.Note;
+import ezvcard.property.Photo;
 import ezvcard.property.RawProperty;
 import ezvcard.property.VCardProperty;
+import ezvcard.util.BinaryData;
+import ezvcard.util.BinaryDataCache;
+import ezvcard.util.BinaryStorage;
 import ezvcard.util.org.apache.commons.codec.net.QuotedPrintableCodec;
 
 /*
@@ -78,6 +97,9 @@ import ezvcard.util.org.apache.commons.codec.net.QuotedPrintableCodec;
  * @author Michael Angstadt
  */
 public class VCardReaderTest {
+	@Rule
+	public TemporaryFolder temp = new TemporaryFolder();
+
 	@Test
 	public void getParameters() throws Throwable {
 		//@formatter:off
@@ -112,6 +134,77 @@ public class VCardReaderTest {
 		assertNoMoreVCards(reader);
 	}
 
+	@Test
+	public void setPropertyNameFilter_include() throws Throwable {
+		//@formatter:off
+		String str =
+		"BEGIN:VCARD\r\n" +
+			"VERSION:3.0\r\n" +
+			"FN:John Doe\r\n" +
+			"PHOTO;ENCODING=b;TYPE=JPEG:aaaa\r\n" +
+			" bbbb\r\n" +
+			"item1.EMAIL:jdoe@example.com\r\n" +
+			"GEO:invalid\r\n" +
+		"END:VCARD\r\n";
+		//@formatter:on
+
+		VCardReader reader = new VCardReader(str);
+		reader.setPropertyNameFilter(PropertyNameFilter.include("fn", "email"));
+		VCard vcard = reader.readNext();
+		assertVersion(V3_0, vcard);
+		assertPropertyCount(2, vcard);
+
+		assertEquals("John Doe", vcard.getFormattedName().getValue());
+		assertEquals("jdoe@example.com", vcard.getEmails().get(0).getValue());
+		assertEquals("item1", vcard.getEmails().get(0).getGroup());
+
+		//the GEO property is never parsed, so it does not generate a warning
+		assertWarnings(0, reader);
+		assertNoMoreVCards(reader);
+	}
+
+	@Test
+	public void setPropertyNameFilter_exclude() throws Throwable {
+		//@formatter:off
+		String str =
+		"BEGIN:VCARD\r\n" +
+			"VERSION:2.1\r\n" +
+			"FN:John Doe\r\n" +
+			"NOTE;QUOTED-PRINTABLE:one=\r\n" +
+			"two\r\n" +
+			"AGENT:\r\n" +
+			"BEGIN:VCARD\r\n" +
+				"FN:Jane Doe\r\n" +
+				"NOTE:The note\r\n" +
+			"END:VCARD\r\n" +
+		"END:VCARD\r\n" +
+		"BEGIN:VCARD\r\n" +
+			"VERSION:2.1\r\n" +
+			"NOTE:Another note\r\n" +
+		"END:VCARD\r\n";
+		//@formatter:on
+
+		VCardReader reader = new VCardReader(str);
+		reader.setPropertyNameFilter(PropertyNameFilter.exclude("NOTE"));
+
+		VCard vcard = reader.readNext();
+		assertVersion(V2_1, vcard);
+		assertPropertyCount(2, vcard);
+		assertEquals("John Doe", vcard.getFormattedName().getValue());
+
+		VCard agent = vcard.getAgent().getVCard();
+		assertPropertyCount(1, agent);
+		assertEquals("Jane Doe", agent.getFormattedName().getValue());
+		assertWarnings(0, reader);
+
+		vcard = reader.readNext();
+		assertVersion(V2_1, vcard);
+		assertPropertyCount(0, vcard);
+		assertWarnings(0, reader);
+
+		assertNoMoreVCards(reader);
+	}
+
 	@Test
 	public void type_parameter_enclosed_in_double_quotes() throws Throwable {
 		//@formatter:off
@@ -209,6 +302,388 @@ public class VCardReaderTest {
 		assertNoMoreVCards(reader);
 	}
 
+	@Test
+	public void mapped_file() throws Throwable {
+		//@formatter:off
+		String str =
+		"BEGIN:VCARD\r\n" +
+			"VERSION:2.1\r\n" +
+			"FN:J\u00f6hn Doe\r\n" +
+			"NOTE;ENCODING=QUOTED-PRINTABLE:J=C3=B6hn\r\n" +
+		"END:VCARD\r\n";
+		//@formatter:on
+
+		File file = temp.newFile();
+		Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+		writer.write(str);
+		writer.close();
+
+		VCardReader reader = new VCardReader(file, Charset.forName("UTF-8"));
+		assertEquals("UTF-8", reader.getDefaultQuotedPrintableCharset().name());
+
+		VCard vcard = reader.readNext();
+		assertPropertyCount(2, vcard);
+		assertEquals("J\u00f6hn Doe", vcard.getFormattedName().getValue());
+
+		//the file's character set is used to decode quoted-printable values
+		assertEquals("J\u00f6hn", vcard.getNotes().get(0).getValue());
+
+		assertWarnings(0, reader);
+		assertNoMoreVCards(reader);
+		reader.close();
+	}
+
+	@Test
+	public void reset() throws Throwable {
+		//@formatter:off
+		String str1 =
+		"BEGIN:VCARD\r\n" +
+			"VERSION:3.0\r\n" +
+			"FN:John Doe\r\n" +
+			"GEO:invalid\r\n" +
+		"END:VCARD\r\n";
+		
+		String str2 =
+		"BEGIN:VCARD\r\n" +
+			"FN:Jane Doe\r\n" +
+			"NOTE:The note\r\n" +
+		"END:VCARD\r\n";
+		//@formatter:on
+
+		VCardReader reader = new VCardReader(str1);
+		reader.setPropertyNameFilter(PropertyNameFilter.exclude("NOTE"));
+
+		VCard vcard = reader.readNext();
+		assertVersion(V3_0, vcard);
+		assertPropertyCount(2, vcard);
+		assertWarnings(1, reader);
+
+		//reset in the middle of the stream
+		reader.reset(str2);
+		vcard = reader.readNext();
+		assertVersion(V2_1, vcard);
+		assertPropertyCount(1, vcard);
+		assertEquals("Jane Doe", vcard.getFormattedName().getValue());
+		assertWarnings(0, reader);
+		assertNoMoreVCards(reader);
+
+		//reset after the end of the stream
+		reader.reset(new StringReader(str1));
+		vcard = reader.readNext();
+		assertVersion(V3_0, vcard);
+		assertPropertyCount(2, vcard);
+		assertEquals("John Doe", vcard.getFormattedName().getValue());
+		assertWarnings(1, reader);
+		assertNoMoreVCards(reader);
+
+		//a StringBuilder can be passed in directly
+		reader.reset(new StringBuilder(str2));
+		vcard = reader.readNext();
+		assertEquals("Jane Doe", vcard.getFormattedName().getValue());
+		assertNoMoreVCards(reader);
+	}
+
+	@Test
+	public void setLazyParsing() throws Throwable {
+		//@formatter:off
+		String str =
+		"BEGIN:VCARD\r\n" +
+			"VERSION:3.0\r\n" +
+			"FN:John Doe\r\n" +
+			"GEO:invalid\r\n" +
+			"X-FOO:bar\r\n" +
+			"ADR;TYPE=home:;;123 Main St;;;;\r\n" +
+			"LABEL;TYPE=home:123 Main St.\r\n" +
+			"NOTE;ENCODING=QUOTED-PRINTABLE:one=0Atwo\r\n" +
+			"AGENT:BEGIN:VCARD\\nFN:Jane Doe\\nEND:VCARD\\n\r\n" +
+		"END:VCARD\r\n";
+		//@formatter:on
+
+		VCardReader reader = new VCardReader(str);
+		reader.setLazyParsing(true);
+		VCard vcard = reader.readNext();
+		assertVersion(V3_0, vcard);
+
+		//warnings generated by the scribes are not reported
+		assertWarnings(0, reader);
+		assertNoMoreVCards(reader);
+
+		assertEquals("John Doe", vcard.getFormattedName().getValue());
+		assertEquals("one\ntwo", vcard.getNotes().get(0).getValue());
+		assertEquals("123 Main St.", vcard.getAddresses().get(0).getLabel());
+		assertEquals("Jane Doe", vcard.getAgent().getVCard().getFormattedName().getValue());
+
+		//the GEO property could not be parsed
+		assertNull(vcard.getGeo());
+		assertEquals(2, vcard.getExtendedProperties().size());
+		assertEquals("invalid", vcard.getExtendedProperty("GEO").getValue());
+		assertEquals("bar", vcard.getExtendedProperty("X-FOO").getValue());
+
+		assertPropertyCount(6, vcard);
+	}
+
+	@Test
+	public void binary_streaming() throws Throwable {
+		byte[] data = "hello world".getBytes();
+
+		//@formatter:off
+		String str =
+		"BEGIN:VCARD\r\n" +
+			"VERSION:2.1\r\n" +
+			"PHOTO;BASE64;JPEG:aGVsbG8\r\n" +
+			" gd29y\r\n" +
+			" bGQ=\r\n" +
+			"\r\n" +
+			"PHOTO;VALUE=URL:http://example.com/image.jpg\r\n" +
+		"END:VCARD\r\n" +
+		"BEGIN:VCARD\r\n" +
+			"VERSION:3.0\r\n" +
+			"PHOTO;ENCODING=b;TYPE=jpeg:aGVs\\nbG8gd2\r\n" +
+			" 9ybGQ=\r\n" +
+			"NOTE;ENCODING=b:not decoded\r\n" +
+		"END:VCARD\r\n" +
+		"BEGIN:VCARD\r\n" +
+			"VERSION:4.0\r\n" +
+			"PHOTO:data:image/jpeg;base64,aGVsb\r\n" +
+			" G8gd29ybGQ=\r\n" +
+			"PHOTO;MEDIATYPE=image/jpeg:http://example.com/image.jpg\r\n" +
+		"END:VCARD\r\n";
+		//@formatter:on
+
+		VCardReader reader = new VCardReader(str);
+		assertFalse(reader.isBinaryStreamingEnabled());
+		reader.setBinaryStreamingEnabled(true);
+		assertTrue(reader.isBinaryStreamingEnabled());
+
+		{
+			VCard vcard = reader.readNext();
+			assertVersion(V2_1, vcard);
+			assertPropertyCount(2, vcard);
+
+			Photo photo = vcard.getPhotos().get(0);
+			assertArrayEquals(data, photo.getData());
+			assertEquals(ImageType.JPEG, photo.getContentType());
+			assertEquals(Encoding.BASE64, photo.getParameters().getEncoding());
+
+			photo = vcard.getPhotos().get(1);
+			assertEquals("http://example.com/image.jpg", photo.getUrl());
+
+			assertWarnings(0, reader);
+		}
+
+		{
+			VCard vcard = reader.readNext();
+			assertVersion(V3_0, vcard);
+			assertPropertyCount(2, vcard);
+
+			//the escaped newline is ignored
+			Photo photo = vcard.getPhotos().get(0);
+			assertArrayEquals(data, photo.getData());
+			assertEquals(ImageType.JPEG, photo.getContentType());
+
+			//only binary properties are decoded
+			assertEquals("not decoded", vcard.getNotes().get(0).getValue());
+
+			assertWarnings(0, reader);
+		}
+
+		{
+			VCard vcard = reader.readNext();
+			assertVersion(VCardVersion.V4_0, vcard);
+			assertPropertyCount(2, vcard);
+
+			Photo photo = vcard.getPhotos().get(0);
+			assertArrayEquals(data, photo.getData());
+			assertEquals(ImageType.JPEG, photo.getContentType());
+
+			photo = vcard.getPhotos().get(1);
+			assertEquals("http://example.com/image.jpg", photo.getUrl());
+			assertEquals(ImageType.JPEG, photo.getContentType());
+
+			assertWarnings(0, reader);
+		}
+
+		assertNoMoreVCards(reader);
+	}
+
+	@Test
+	public void binary_streaming_disabled() throws Throwable {
+		//@formatter:off
+		String str =
+		"BEGIN:VCARD\r\n" +
+			"VERSION:3.0\r\n" +
+			"PHOTO;ENCODING=b;TYPE=jpeg:aGVsbG8gd2\r\n" +
+			" 9ybGQ=\r\n" +
+			"PHOTO;ENCODING=b:aGVsbG8a.jpg\r\n" +
+		"END:VCARD\r\n";
+		//@formatter:on
+
+		VCardReader reader = new VCardReader(str);
+		assertFalse(reader.isBinaryStreamingEnabled());
+		VCard vcard = reader.readNext();
+
+		Photo photo = vcard.getPhotos().get(0);
+		assertArrayEquals("hello world".getBytes(), photo.getData());
+		assertEquals(ImageType.JPEG, photo.getContentType());
+
+		//the content type is guessed from the value
+		photo = vcard.getPhotos().get(1);
+		assertEquals(ImageType.JPEG, photo.getContentType());
+
+		assertWarnings(0, reader);
+		assertNoMoreVCards(reader);
+	}
+
+	@Test
+	public void setBinarySink() throws Throwable {
+		//@formatter:off
+		String str =
+		"BEGIN:VCARD\r\n" +
+			"VERSION:3.0\r\n" +
+			"PHOTO;ENCODING=b;TYPE=jpeg:aGVsbG8gd2\r\n" +
+			" 9ybGQ=\r\n" +
+			"KEY;ENCODING=b:a2V5\r\n" +
+		"END:VCARD\r\n";
+		//@formatter:on
+
+		final List<String> names = new ArrayList<String>();
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		VCardReader reader = new VCardReader(str);
+		reader.setBinaryStreamingEnabled(true);
+		reader.setBinarySink(new BinarySink() {
+			public OutputStream open(String propertyName, VCardParameters parameters) throws IOException {
+				names.add(propertyName);
+				return "PHOTO".equals(propertyName) ? out : null;
+			}
+
+			public BinaryData close(OutputStream stream) throws IOException {
+				assertTrue(stream == out);
+				return null;
+			}
+		});
+		VCard vcard = reader.readNext();
+
+		assertEquals(Arrays.asList("PHOTO", "KEY"), names);
+		assertArrayEquals("hello world".getBytes(), out.toByteArray());
+
+		//the photo's data was written to the sink
+		Photo photo = vcard.getPhotos().get(0);
+		assertNull(photo.getData());
+		assertEquals(ImageType.JPEG, photo.getContentType());
+
+		//the key's data was collected in memory
+		assertArrayEquals("key".getBytes(), vcard.getKeys().get(0).getData());
+
+		assertWarnings(0, reader);
+		assertNoMoreVCards(reader);
+	}
+
+	@Test
+	public void setBinaryStorage() throws Throwable {
+		//@formatter:off
+		String str =
+		"BEGIN:VCARD\r\n" +
+			"VERSION:3.0\r\n" +
+			"PHOTO;ENCODING=b;TYPE=jpeg:aGVsbG8gd2\r\n" +
+			" 9ybGQ=\r\n" +
+		"END:VCARD\r\n" +
+		"BEGIN:VCARD\r\n" +
+			"VERSION:4.0\r\n" +
+			"PHOTO:data:image/jpeg;base64,aGVsbG8gd29ybGQ=\r\n" +
+		"END:VCARD\r\n";
+		//@formatter:on
+
+		VCardReader reader = new VCardReader(str);
+		reader.setBinaryStreamingEnabled(true);
+		assertTrue(reader.getBinaryStorage() == BinaryStorage.HEAP);
+		reader.setBinaryStorage(BinaryStorage.DIRECT);
+
+		BinaryData expected = BinaryData.wrap("hello world".getBytes());
+		for (int i = 0; i < 2; i++) {
+			VCard vcard = reader.readNext();
+
+			Photo photo = vcard.getPhotos().get(0);
+			assertEquals(expected, photo.getBinaryData());
+			assertArrayEquals("hello world".getBytes(), photo.getData());
+			assertEquals(ImageType.JPEG, photo.getContentType());
+
+			assertWarnings(0, reader);
+		}
+
+		assertNoMoreVCards(reader);
+	}
+
+	@Test
+	public void setBinaryDataCache() throws Throwable {
+		//@formatter:off
+		String str =
+		"BEGIN:VCARD\r\n" +
+			"VERSION:3.0\r\n" +
+			"LOGO;ENCODING=b;TYPE=png:aGVsbG8gd2\r\n" +
+			" 9ybGQ=\r\n" +
+		"END:VCARD\r\n" +
+		"BEGIN:VCARD\r\n" +
+			"VERSION:4.0\r\n" +
+			"LOGO:data:image/png;base64,aGVsbG8gd29ybGQ=\r\n" +
+			"PHOTO:data:image/jpeg;base64,cGhvdG8=\r\n" +
+		"END:VCARD\r\n";
+		//@formatter:on
+
+		BinaryDataCache cache = new BinaryDataCache(10);
+		VCardReader reader = new VCardReader(str);
+		reader.setBinaryStreamingEnabled(true);
+		reader.setBinaryDataCache(cache);
+
+		VCard vcard1 = reader.readNext();
+		VCard vcard2 = reader.readNext();
+		assertNoMoreVCards(reader);
+
+		Logo logo1 = vcard1.getLogos().get(0);
+		Logo logo2 = vcard2.getLogos().get(0);
+		assertArrayEquals("hello world".getBytes(), logo1.getData());
+		assertTrue(logo1.getBinaryData() == logo2.getBinaryData());
+		assertEquals(ImageType.PNG, logo2.getContentType());
+		assertArrayEquals("photo".getBytes(), vcard2.getPhotos().get(0).getData());
+
+		assertEquals(1, cache.getHits());
+		assertEquals(2, cache.getMisses());
+	}
+
+	@Test
+	public void setBinaryDataCache_streaming_disabled() throws Throwable {
+		//@formatter:off
+		String str =
+		"BEGIN:VCARD\r\n" +
+			"VERSION:3.0\r\n" +
+			"LOGO;ENCODING=b;TYPE=png:aGVsbG8gd2\r\n" +
+			" 9ybGQ=\r\n" +
+		"END:VCARD\r\n" +
+		"BEGIN:VCARD\r\n" +
+			"VERSION:4.0\r\n" +
+			"LOGO:data:image/png;base64,aGVsbG8gd29ybGQ=\r\n" +
+			"PHOTO:http://example.com/image.jpg\r\n" +
+		"END:VCARD\r\n";
+		//@formatter:on
+
+		BinaryDataCache cache = new BinaryDataCache(10);
+		VCardReader reader = new VCardReader(str);
+		reader.setBinaryDataCache(cache);
+
+		VCard vcard1 = reader.readNext();
+		VCard vcard2 = reader.readNext();
+		assertNoMoreVCards(reader);
+
+		Logo logo1 = vcard1.getLogos().get(0);
+		Logo logo2 = vcard2.getLogos().get(0);
+		assertArrayEquals("hello world".getBytes(), logo1.getData());
+		assertTrue(logo1.getBinaryData() == logo2.getBinaryData());
+		assertEquals(ImageType.PNG, logo2.getContentType());
+		assertEquals("http://example.com/image.jpg", vcard2.getPhotos().get(0).getUrl());
+
+		assertEquals(1, cache.getHits());
+		assertEquals(1, cache.getMisses());
+	}
+
 	@Test
 	public void decodeQuotedPrintableCharset() throws Throwable {
 		String expectedValue = "\u00e4\u00f6\u00fc\u00df";
@@ -1,11 +1,16 @@
 package ezvcard.io.text;
 
 import static ezvcard.util.TestUtils.assertValidate;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.StringWriter;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
 import java.util.List;
 
 import org.junit.Rule;
@@ -17,6 +22,7 @@ import ezvcard.VCardDataType;
 import ezvcard.VCardVersion;
 import ezvcard.io.scribe.SkipMeScribe;
 import ezvcard.io.scribe.VCardPropertyScribe;
+import ezvcard.io.scribe.WriteContext;
 import ezvcard.parameter.AddressType;
 import ezvcard.parameter.EmailType;
 import ezvcard.parameter.ImageType;
@@ -37,7 +43,9 @@ import ezvcard.property.StructuredName;
 import ezvcard.property.Telephone;
 import ezvcard.property.Timezone;
 import ezvcard.property.VCardProperty;
+import ezvcard.util.ByteBufferOutputStream;
 import ezvcard.util.IOUtils;
+import ezvcard.util.StringUtils;
 import ezvcard.util.PartialDate;
 import ezvcard.util.TelUri;
 import ezvcard.util.UtcOffset;
@@ -227,6 +235,88 @@ public class VCardWriterTest {
 		assertEquals(actual, expected);
 	}
 
+	@Test
+	public void writeContext() throws Throwable {
+		class CountedProperty extends VCardProperty {
+			//empty
+		}
+		class CountedScribe extends VCardPropertyScribe<CountedProperty> {
+			private final WriteContext.Memo<Integer> count = new WriteContext.Memo<Integer>() {
+				@Override
+				protected Integer compute(WriteContext context) {
+					computed++;
+					return context.getVCard().getProperties(CountedProperty.class).size();
+				}
+			};
+			private int computed = 0;
+
+			public CountedScribe() {
+				super(CountedProperty.class, "X-COUNTED");
+			}
+
+			@Override
+			protected VCardDataType _defaultDataType(VCardVersion version) {
+				return VCardDataType.TEXT;
+			}
+
+			@Override
+			protected String _writeText(CountedProperty property, VCardVersion version) {
+				throw new UnsupportedOperationException();
+			}
+
+			@Override
+			protected String _writeText(CountedProperty property, WriteContext context) {
+				StringBuilder sb = context.getStringBuilder();
+				sb.append(context.get(count)).append(' ').append(context.getVersion().getVersion());
+				return sb.toString();
+			}
+
+			@Override
+			protected void _prepareParameters(CountedProperty property, VCardParameters copy, WriteContext context) {
+				copy.put("COUNT", context.get(count).toString());
+			}
+
+			@Override
+			protected CountedProperty _parseText(String value, VCardDataType dataType, VCardVersion version, VCardParameters parameters, List<String> warnings) {
+				return null;
+			}
+		}
+
+		VCard vcard1 = new VCard();
+		vcard1.addProperty(new CountedProperty());
+		vcard1.addProperty(new CountedProperty());
+		VCard vcard2 = new VCard();
+		vcard2.addProperty(new CountedProperty());
+
+		StringWriter sw = new StringWriter();
+		VCardWriter vcw = new VCardWriter(sw, VCardVersion.V3_0);
+		vcw.setAddProdId(false);
+		CountedScribe scribe = new CountedScribe();
+		vcw.registerScribe(scribe);
+		vcw.write(vcard1);
+		vcw.write(vcard2);
+
+		String actual = sw.toString();
+
+		//@formatter:off
+		String expected =
+		"BEGIN:VCARD\r\n" +
+			"VERSION:3.0\r\n" +
+			"X-COUNTED;COUNT=2:2 3.0\r\n" +
+			"X-COUNTED;COUNT=2:2 3.0\r\n" +
+		"END:VCARD\r\n" +
+		"BEGIN:VCARD\r\n" +
+			"VERSION:3.0\r\n" +
+			"X-COUNTED;COUNT=1:1 3.0\r\n" +
+		"END:VCARD\r\n";
+		//@formatter:on
+
+		assertEquals(expected, actual);
+
+		//the count is only computed once per vCard
+		assertEquals(2, scribe.computed);
+	}
+
 	@Test
 	public void setVersionStrict_nested() throws Throwable {
 		VCard vcard = new VCard();
@@ -335,6 +425,84 @@ public class VCardWriterTest {
 		}
 	}
 
+	@Test
+	public void fold_octets() throws Throwable {
+		VCard vcard = new VCard();
+		vcard.addNote(StringUtils.repeat('\u4e2d', 30));
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		VCardWriter writer = new VCardWriter(out, VCardVersion.V4_0);
+		writer.setAddProdId(false);
+		writer.write(vcard);
+		writer.close();
+
+		//lines are folded at 75 octets (each character is 3 octets)
+		//@formatter:off
+		String expected = 
+		"BEGIN:VCARD\r\n" +
+			"VERSION:4.0\r\n" +
+			"NOTE:" + StringUtils.repeat('\u4e2d', 23) + "\r\n" +
+			" " + StringUtils.repeat('\u4e2d', 7) + "\r\n" +
+		"END:VCARD\r\n";
+		//@formatter:on
+
+		String actual = new String(out.toByteArray(), "UTF-8");
+		assertEquals(expected, actual);
+	}
+
+	@Test
+	public void byte_buffers() throws Throwable {
+		VCard vcard = new VCard();
+		vcard.addNote(StringUtils.repeat('\u4e2d', 30));
+		vcard.setFormattedName("\ud83d\ude00 John Doe");
+
+		ByteArrayOutputStream expected = new ByteArrayOutputStream();
+		VCardWriter writer = new VCardWriter(expected, VCardVersion.V4_0);
+		writer.write(vcard);
+		writer.close();
+
+		//growable buffer
+		ByteBufferOutputStream out = new ByteBufferOutputStream(ByteBuffer.allocateDirect(16));
+		writer = new VCardWriter(out, VCardVersion.V4_0);
+		writer.write(vcard);
+		writer.close();
+
+		ByteBuffer buffer = out.getBuffer();
+		assertTrue(buffer.isDirect());
+		buffer.flip();
+		byte[] actual = new byte[buffer.remaining()];
+		buffer.get(actual);
+		assertArrayEquals(expected.toByteArray(), actual);
+
+		//pooled buffers
+		final List<ByteBuffer> released = new ArrayList<ByteBuffer>();
+		out = new ByteBufferOutputStream(new ByteBufferOutputStream.Pool() {
+			public ByteBuffer acquire() {
+				return ByteBuffer.allocate(16);
+			}
+
+			public void release(ByteBuffer buffer) {
+				released.add(buffer);
+			}
+		});
+		writer = new VCardWriter(out, VCardVersion.V4_0);
+		writer.write(vcard);
+		writer.close();
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ByteBuffer[] buffers = out.toByteBuffers();
+		assertTrue(buffers.length > 1);
+		for (ByteBuffer b : buffers) {
+			bytes.write(b.array(), b.arrayOffset() + b.position(), b.remaining());
+		}
+		assertArrayEquals(expected.toByteArray(), bytes.toByteArray());
+		assertEquals(expected.size(), out.size());
+
+		out.reset();
+		assertEquals(buffers.length, released.size());
+		assertEquals(0, out.size());
+	}
+
 	@Test
 	public void date_time_properties_should_not_have_a_VALUE_parameter() throws Throwable {
 		class DateTestScribe<T extends VCardProperty> extends VCardPropertyScribe<T> {
@@ -1,10 +1,17 @@
 package ezvcard.property;
 
 import static ezvcard.util.TestUtils.assertValidate;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.nio.ByteBuffer;
 
 import org.junit.Test;
 
 import ezvcard.parameter.ImageType;
+import ezvcard.util.BinaryData;
 
 /*
  Copyright (c) 2012-2015, Michael Angstadt
@@ -51,6 +58,37 @@ public class BinaryPropertyTest {
 		BinaryTypeImpl withData = new BinaryTypeImpl();
 		withData.setData("data".getBytes(), ImageType.JPEG);
 		assertValidate(withData).run();
+
+		BinaryTypeImpl withBinaryData = new BinaryTypeImpl();
+		withBinaryData.setBinaryData(BinaryData.wrap(ByteBuffer.wrap("data".getBytes())), ImageType.JPEG);
+		assertValidate(withBinaryData).run();
+	}
+
+	@Test
+	public void setData() {
+		byte[] data = "data".getBytes();
+		BinaryTypeImpl property = new BinaryTypeImpl();
+		property.setData(data, ImageType.JPEG);
+		assertSame(data, property.getData());
+		assertSame(data, property.data);
+		assertArrayEquals(data, property.getBinaryData().getBytes());
+	}
+
+	@Test
+	public void setBinaryData() {
+		byte[] data = "data".getBytes();
+		BinaryData binaryData = BinaryData.wrap(ByteBuffer.wrap(data));
+		BinaryTypeImpl property = new BinaryTypeImpl();
+		property.setData(data, ImageType.JPEG);
+		property.setBinaryData(binaryData, ImageType.PNG);
+		assertSame(binaryData, property.getBinaryData());
+		assertArrayEquals(data, property.getData());
+		assertNull(property.data);
+		assertEquals(ImageType.PNG, property.getContentType());
+
+		property.setUrl("http://example.com/image.jpg", ImageType.JPEG);
+		assertNull(property.getBinaryData());
+		assertNull(property.getData());
 	}
 
 	private class BinaryTypeImpl extends BinaryProperty<ImageType> {
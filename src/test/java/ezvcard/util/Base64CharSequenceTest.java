@@ -0,0 +1,109 @@
+package ezvcard.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import org.junit.Test;
+
+import ezvcard.util.org.apache.commons.codec.binary.Base64;
+
+/*
+ Copyright (c) 2012-2015, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+ The views and conclusions contained in the software and documentation are those
+ of the authors and should not be interpreted as representing official policies, 
+ either expressed or implied, of the FreeBSD Project.
+ */
+
+/**
+ * @author Michael Angstadt
+ */
+public class Base64CharSequenceTest {
+	@Test
+	public void same_as_Base64() {
+		Random random = new Random(1);
+		for (int length = 0; length < 64; length++) {
+			byte[] data = new byte[length];
+			random.nextBytes(data);
+			String expected = new String(Base64.encodeBase64(data));
+
+			Base64CharSequence sequence = new Base64CharSequence(data);
+			assertEquals(expected.length(), sequence.length());
+			for (int i = 0; i < sequence.length(); i++) {
+				assertEquals(expected.charAt(i), sequence.charAt(i));
+			}
+			assertEquals(expected, sequence.toString());
+		}
+	}
+
+	@Test
+	public void buffer() {
+		Random random = new Random(1);
+		for (int length : new int[] { 3071, 3072, 3073, 3074, 6145, 10000 }) {
+			byte[] data = new byte[length];
+			random.nextBytes(data);
+			String expected = new String(Base64.encodeBase64(data));
+
+			ByteBuffer buffer = ByteBuffer.allocateDirect(length);
+			buffer.put(data).flip();
+			Base64CharSequence sequence = new Base64CharSequence(BinaryData.wrap(buffer));
+			assertEquals(expected.length(), sequence.length());
+			assertEquals(expected.charAt(expected.length() - 1), sequence.charAt(sequence.length() - 1));
+			assertEquals(expected, sequence.toString());
+		}
+	}
+
+	@Test
+	public void prefix() {
+		byte[] data = "data".getBytes();
+		Base64CharSequence sequence = new Base64CharSequence("data:text/plain;base64,", data);
+		String expected = "data:text/plain;base64," + Base64.encodeBase64String(data);
+
+		assertEquals(expected, sequence.toString());
+		assertEquals(expected.length(), sequence.length());
+		assertEquals(expected.substring(5, 30), sequence.subSequence(5, 30));
+		assertEquals(expected, new DataUri("text/plain", data).toCharSequence().toString());
+	}
+
+	@Test
+	public void out_of_bounds() {
+		Base64CharSequence sequence = new Base64CharSequence(new byte[] { 1, 2 });
+		try {
+			sequence.charAt(4);
+			fail();
+		} catch (IndexOutOfBoundsException e) {
+			//expected
+		}
+
+		try {
+			sequence.subSequence(2, 5);
+			fail();
+		} catch (IndexOutOfBoundsException e) {
+			//expected
+		}
+	}
+}
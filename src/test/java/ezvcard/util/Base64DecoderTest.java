@@ -0,0 +1,101 @@
+package ezvcard.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import org.junit.Test;
+
+import ezvcard.util.org.apache.commons.codec.binary.Base64;
+
+/*
+ Copyright (c) 2012-2015, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+ The views and conclusions contained in the software and documentation are those
+ of the authors and should not be interpreted as representing official policies, 
+ either expressed or implied, of the FreeBSD Project.
+ */
+
+/**
+ * @author Michael Angstadt
+ */
+public class Base64DecoderTest {
+	@Test
+	public void same_as_Base64() throws Exception {
+		Random random = new Random(1);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		Base64Decoder decoder = new Base64Decoder(out);
+		for (int length = 0; length < 10000; length += 1 + random.nextInt(100)) {
+			byte[] data = new byte[length];
+			random.nextBytes(data);
+			String encoded = new String(Base64.encodeBase64(data));
+
+			//decode the text in random-sized pieces
+			out.reset();
+			decoder.reset(out);
+			char[] chars = encoded.toCharArray();
+			int pos = 0;
+			while (pos < chars.length) {
+				int count = Math.min(chars.length - pos, random.nextInt(20));
+				decoder.decode(chars, pos, count);
+				pos += count;
+			}
+			decoder.finish();
+
+			assertArrayEquals(data, out.toByteArray());
+		}
+	}
+
+	@Test
+	public void lenient() throws Exception {
+		String[] inputs = { "aGVs bG8=", "aGVs\r\nbG8", "aGVsbG8", "aGVsbG8=ignored", "aGVsbG\u00e98=", "a-_b", "ab", "a", "" };
+		for (String input : inputs) {
+			assertDecode(Base64.decodeBase64(input), input);
+		}
+	}
+
+	@Test
+	public void isPaddingReached() throws Exception {
+		Base64Decoder decoder = new Base64Decoder(new ByteArrayOutputStream());
+		char[] chars = "aGk=aGk=".toCharArray();
+
+		decoder.decode(chars, 0, 3);
+		assertFalse(decoder.isPaddingReached());
+
+		decoder.decode(chars, 3, 5);
+		assertTrue(decoder.isPaddingReached());
+	}
+
+	private static void assertDecode(byte[] expected, String input) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		Base64Decoder decoder = new Base64Decoder(out);
+		decoder.decode(input.toCharArray(), 0, input.length());
+		decoder.finish();
+		assertArrayEquals(input, expected, out.toByteArray());
+	}
+}
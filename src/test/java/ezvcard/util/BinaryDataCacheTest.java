@@ -0,0 +1,132 @@
+package ezvcard.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+/*
+ Copyright (c) 2012-2015, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+ The views and conclusions contained in the software and documentation are those
+ of the authors and should not be interpreted as representing official policies, 
+ either expressed or implied, of the FreeBSD Project.
+ */
+
+/**
+ * @author Michael Angstadt
+ */
+public class BinaryDataCacheTest {
+	@Test
+	public void intern() {
+		BinaryDataCache cache = new BinaryDataCache(10);
+		BinaryData one = cache.intern(BinaryData.wrap("one".getBytes()));
+		BinaryData two = cache.intern(BinaryData.wrap("two".getBytes()));
+
+		assertEquals(BinaryData.wrap("one".getBytes()), one);
+		assertEquals(BinaryData.wrap("two".getBytes()), two);
+		assertSame(one, cache.intern(BinaryData.wrap("one".getBytes())));
+		assertSame(one, cache.intern(BinaryData.wrap(ByteBuffer.wrap("one".getBytes()))));
+
+		assertEquals(2, cache.getHits());
+		assertEquals(2, cache.getMisses());
+		assertEquals(0, cache.getEvictions());
+		assertEquals(2, cache.size());
+	}
+
+	@Test
+	public void intern_storage() throws Throwable {
+		BinaryDataCache cache = new BinaryDataCache(10);
+		byte[] buffer = "xonex".getBytes();
+
+		BinaryData one = cache.intern(buffer, 1, 3, BinaryStorage.HEAP);
+		assertEquals(BinaryData.wrap("one".getBytes()), one);
+
+		//the bytes are copied to the storage
+		assertNotSame(buffer, one.getBytes());
+
+		assertSame(one, cache.intern(buffer, 1, 3, BinaryStorage.HEAP));
+		assertSame(one, cache.intern(BinaryData.wrap("one".getBytes())));
+
+		assertEquals(2, cache.getHits());
+		assertEquals(1, cache.getMisses());
+	}
+
+	@Test
+	public void eviction() {
+		BinaryDataCache cache = new BinaryDataCache(2);
+		BinaryData one = cache.intern(BinaryData.wrap("one".getBytes()));
+		BinaryData two = cache.intern(BinaryData.wrap("two".getBytes()));
+		cache.intern(BinaryData.wrap("one".getBytes())); //"two" is now the least recently used
+		BinaryData three = cache.intern(BinaryData.wrap("three".getBytes()));
+
+		assertEquals(2, cache.size());
+		assertEquals(1, cache.getEvictions());
+		assertSame(one, cache.intern(BinaryData.wrap("one".getBytes())));
+		assertSame(three, cache.intern(BinaryData.wrap("three".getBytes())));
+		assertNotSame(two, cache.intern(BinaryData.wrap("two".getBytes())));
+
+		cache.clear();
+		assertEquals(0, cache.size());
+		assertEquals(0, cache.getHits());
+		assertEquals(0, cache.getMisses());
+		assertEquals(0, cache.getEvictions());
+	}
+
+	@Test
+	public void interned_data_is_immutable() throws Throwable {
+		BinaryDataCache cache = new BinaryDataCache(10);
+		byte[] array = "one".getBytes();
+		BinaryData one = cache.intern(BinaryData.wrap(array));
+
+		//changing the original array does not affect the cache
+		array[0] = 'X';
+		assertArrayEquals("one".getBytes(), one.getBytes());
+
+		//changing the returned array does not affect the cache
+		one.getBytes()[0] = 'X';
+		assertArrayEquals("one".getBytes(), one.getBytes());
+		assertSame(one, cache.intern(BinaryData.wrap("one".getBytes())));
+
+		//same for data that is added through a storage
+		BinaryData two = cache.intern("two".getBytes(), 0, 3, BinaryStorage.HEAP);
+		two.getBytes()[0] = 'X';
+		assertArrayEquals("two".getBytes(), two.getBytes());
+	}
+
+	@Test
+	public void invalid_max() {
+		try {
+			new BinaryDataCache(0);
+			fail();
+		} catch (IllegalArgumentException e) {
+			//expected
+		}
+	}
+}
@@ -0,0 +1,152 @@
+package ezvcard.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+/*
+ Copyright (c) 2012-2015, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+ The views and conclusions contained in the software and documentation are those
+ of the authors and should not be interpreted as representing official policies, 
+ either expressed or implied, of the FreeBSD Project.
+ */
+
+/**
+ * @author Michael Angstadt
+ */
+public class BinaryDataTest {
+	private final byte[] bytes = "hello world".getBytes();
+
+	@Test
+	public void wrap_array() {
+		BinaryData data = BinaryData.wrap(bytes);
+		assertEquals(bytes.length, data.size());
+		assertEquals('e', data.get(1));
+
+		//getBytes() returns a copy
+		byte[] copy = data.getBytes();
+		assertArrayEquals(bytes, copy);
+		assertNotSame(bytes, copy);
+		copy[0] = 'X';
+		assertEquals('h', data.get(0));
+	}
+
+	@Test
+	public void wrap_buffer() {
+		ByteBuffer buffer = ByteBuffer.allocateDirect(20);
+		buffer.put((byte) 'x');
+		buffer.put(bytes);
+		buffer.flip();
+		buffer.get();
+
+		BinaryData data = BinaryData.wrap(buffer);
+		assertEquals(bytes.length, data.size());
+		assertEquals('h', data.get(0));
+		assertArrayEquals(bytes, data.getBytes());
+
+		//changing the original buffer's position has no effect
+		buffer.position(5);
+		assertArrayEquals(bytes, data.getBytes());
+
+		byte[] dest = new byte[5];
+		data.get(6, dest, 0, 5);
+		assertArrayEquals("world".getBytes(), dest);
+
+		try {
+			data.get(7, dest, 0, 5);
+			fail();
+		} catch (IndexOutOfBoundsException e) {
+			//expected
+		}
+	}
+
+	@Test
+	public void asByteBuffer() {
+		for (BinaryData data : new BinaryData[] { BinaryData.wrap(bytes), BinaryData.wrap(ByteBuffer.wrap(bytes)) }) {
+			ByteBuffer buffer = data.asByteBuffer();
+			assertTrue(buffer.isReadOnly());
+			assertEquals(0, buffer.position());
+			assertEquals(bytes.length, buffer.remaining());
+			assertEquals(ByteBuffer.wrap(bytes), buffer);
+
+			//each call returns an independent buffer
+			buffer.get();
+			assertEquals(0, data.asByteBuffer().position());
+		}
+	}
+
+	@Test
+	public void writeTo() throws Throwable {
+		byte[] large = new byte[20000];
+		for (int i = 0; i < large.length; i++) {
+			large[i] = (byte) i;
+		}
+
+		for (BinaryData data : new BinaryData[] { BinaryData.wrap(large), BinaryData.wrap(ByteBuffer.wrap(large)) }) {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			data.writeTo(out);
+			assertArrayEquals(large, out.toByteArray());
+		}
+	}
+
+	@Test
+	public void getInputStream() throws Throwable {
+		BinaryData data = BinaryData.wrap(ByteBuffer.wrap(bytes));
+		InputStream in = data.getInputStream();
+		assertEquals('h', in.read());
+		assertEquals(10, in.available());
+
+		byte[] buffer = new byte[20];
+		assertEquals(10, in.read(buffer, 0, 20));
+		assertEquals("ello world", new String(buffer, 0, 10));
+		assertEquals(-1, in.read());
+		assertEquals(-1, in.read(buffer, 0, 20));
+
+		in = data.getInputStream();
+		assertArrayEquals(bytes, IOUtils.toByteArray(in, true));
+	}
+
+	@Test
+	public void equals() {
+		BinaryData heap = BinaryData.wrap(bytes);
+		BinaryData buffer = BinaryData.wrap(ByteBuffer.wrap(bytes.clone()));
+
+		assertEquals(heap, BinaryData.wrap(bytes.clone()));
+		assertEquals(heap, buffer);
+		assertEquals(buffer, heap);
+		assertEquals(heap.hashCode(), buffer.hashCode());
+		assertFalse(heap.equals(BinaryData.wrap("hello".getBytes())));
+		assertFalse(buffer.equals(BinaryData.wrap("hello worle".getBytes())));
+	}
+}
@@ -0,0 +1,83 @@
+package ezvcard.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/*
+ Copyright (c) 2012-2015, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+ The views and conclusions contained in the software and documentation are those
+ of the authors and should not be interpreted as representing official policies, 
+ either expressed or implied, of the FreeBSD Project.
+ */
+
+/**
+ * @author Michael Angstadt
+ */
+public class BinaryStorageTest {
+	@Rule
+	public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+	private final byte[] bytes = "xhello worldx".getBytes();
+	private final byte[] expected = "hello world".getBytes();
+
+	@Test
+	public void heap() throws Throwable {
+		BinaryData data = BinaryStorage.HEAP.store(bytes, 1, 11);
+		assertArrayEquals(expected, data.getBytes());
+
+		//the data is copied
+		bytes[1] = 'j';
+		assertArrayEquals(expected, data.getBytes());
+	}
+
+	@Test
+	public void direct() throws Throwable {
+		BinaryData data = BinaryStorage.DIRECT.store(bytes, 1, 11);
+		assertArrayEquals(expected, data.getBytes());
+
+		bytes[1] = 'j';
+		assertArrayEquals(expected, data.getBytes());
+	}
+
+	@Test
+	public void mappedTempFiles() throws Throwable {
+		File directory = tempFolder.getRoot();
+		BinaryStorage storage = BinaryStorage.mappedTempFiles(directory);
+
+		BinaryData data = storage.store(bytes, 1, 11);
+		assertArrayEquals(expected, data.getBytes());
+
+		bytes[1] = 'j';
+		assertArrayEquals(expected, data.getBytes());
+
+		assertEquals(0, storage.store(new byte[0]).size());
+	}
+}
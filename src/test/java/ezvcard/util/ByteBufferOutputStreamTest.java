@@ -0,0 +1,185 @@
+package ezvcard.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+/*
+ Copyright (c) 2012-2015, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+ The views and conclusions contained in the software and documentation are those
+ of the authors and should not be interpreted as representing official policies, 
+ either expressed or implied, of the FreeBSD Project.
+ */
+
+/**
+ * @author Michael Angstadt
+ */
+public class ByteBufferOutputStreamTest {
+	@Test
+	public void grow() throws Exception {
+		ByteBuffer original = ByteBuffer.allocate(20);
+		original.put((byte) 'a');
+		ByteBufferOutputStream out = new ByteBufferOutputStream(original);
+
+		out.write("bcdefghij".getBytes("UTF-8"));
+		assertSame(original, out.getBuffer());
+
+		out.write("klmnopqrstuvwxyz".getBytes("UTF-8"));
+		out.write('!');
+		ByteBuffer grown = out.getBuffer();
+		assertEquals(40, grown.capacity());
+		assertEquals(27, out.size());
+
+		assertEquals("abcdefghijklmnopqrstuvwxyz!", toString(out.toByteBuffers()));
+
+		out.reset();
+		assertEquals(0, out.size());
+		assertSame(grown, out.getBuffer());
+	}
+
+	@Test
+	public void pool() throws Exception {
+		TestPool pool = new TestPool(16);
+		ByteBufferOutputStream out = new ByteBufferOutputStream(pool);
+		assertEquals(0, out.toByteBuffers().length);
+
+		byte[] data = StringUtils.repeat("abcdefghij", 5).getBytes("UTF-8");
+		out.write(data);
+		out.write('!');
+
+		ByteBuffer[] buffers = out.toByteBuffers();
+		assertEquals(4, buffers.length);
+		assertEquals(51, out.size());
+		assertEquals(new String(data, "UTF-8") + "!", toString(buffers));
+
+		try {
+			out.getBuffer();
+			fail();
+		} catch (IllegalStateException e) {
+			//expected
+		}
+
+		out.reset();
+		assertEquals(4, pool.released.size());
+		assertEquals(0, out.size());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void pool_buffers_too_small() throws Exception {
+		ByteBufferOutputStream out = new ByteBufferOutputStream(new TestPool(8));
+		out.write('a');
+	}
+
+	@Test
+	public void writeTo() throws Exception {
+		ByteBufferOutputStream out = new ByteBufferOutputStream(new TestPool(16));
+		byte[] data = StringUtils.repeat("abcdefghij", 10).getBytes("UTF-8");
+		out.write(data);
+
+		//channel only accepts a few bytes at a time
+		TestChannel channel = new TestChannel(7);
+		assertEquals(data.length, out.writeTo(channel));
+		assertArrayEquals(data, channel.out.toByteArray());
+
+		//the data can be written again
+		channel = new TestChannel(1000);
+		assertEquals(data.length, out.writeTo(channel));
+		assertArrayEquals(data, channel.out.toByteArray());
+	}
+
+	private static String toString(ByteBuffer[] buffers) throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		for (ByteBuffer buffer : buffers) {
+			while (buffer.hasRemaining()) {
+				out.write(buffer.get());
+			}
+		}
+		return new String(out.toByteArray(), "UTF-8");
+	}
+
+	private static class TestPool implements ByteBufferOutputStream.Pool {
+		private final int capacity;
+		private final List<ByteBuffer> released = new ArrayList<ByteBuffer>();
+
+		public TestPool(int capacity) {
+			this.capacity = capacity;
+		}
+
+		public ByteBuffer acquire() {
+			return ByteBuffer.allocate(capacity);
+		}
+
+		public void release(ByteBuffer buffer) {
+			released.add(buffer);
+		}
+	}
+
+	private static class TestChannel implements GatheringByteChannel {
+		private final int maxPerWrite;
+		private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		public TestChannel(int maxPerWrite) {
+			this.maxPerWrite = maxPerWrite;
+		}
+
+		public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+			int written = 0;
+			for (int i = offset; i < offset + length && written < maxPerWrite; i++) {
+				ByteBuffer src = srcs[i];
+				while (src.hasRemaining() && written < maxPerWrite) {
+					out.write(src.get());
+					written++;
+				}
+			}
+			return written;
+		}
+
+		public long write(ByteBuffer[] srcs) throws IOException {
+			return write(srcs, 0, srcs.length);
+		}
+
+		public int write(ByteBuffer src) throws IOException {
+			return (int) write(new ByteBuffer[] { src });
+		}
+
+		public boolean isOpen() {
+			return true;
+		}
+
+		public void close() {
+			//empty
+		}
+	}
+}
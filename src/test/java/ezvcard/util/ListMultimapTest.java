@@ -3,11 +3,15 @@ package ezvcard.util;
 import static ezvcard.util.TestUtils.assertSetEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 import org.junit.Test;
 
@@ -264,6 +268,128 @@ public class ListMultimapTest {
 		assertEquals(Arrays.asList("3"), original.get("three"));
 	}
 
+	@Test
+	public void copy_on_write() {
+		ListMultimap<String, String> original = new ListMultimap<String, String>();
+		original.put("one", "1");
+		original.put("one", "11");
+		original.put("two", "2");
+
+		ListMultimap<String, String> copy = new ListMultimap<String, String>(original, true);
+		assertEquals(original, copy);
+		assertEquals("1", copy.first("one"));
+		assertEquals(3, copy.size());
+
+		//changes to the copy do not affect the original
+		copy.put("one", "111");
+		assertEquals(Arrays.asList("1", "11", "111"), copy.get("one"));
+		assertEquals(Arrays.asList("1", "11"), original.get("one"));
+
+		assertTrue(copy.remove("two", "2"));
+		assertFalse(copy.remove("two", "2"));
+		assertEquals(Arrays.asList("2"), original.get("two"));
+
+		copy.put("three", "3");
+		assertFalse(original.containsKey("three"));
+
+		List<String> removed = copy.removeAll("one");
+		removed.add("1111");
+		assertFalse(copy.containsKey("one"));
+		assertEquals(Arrays.asList("1", "11"), original.get("one"));
+
+		copy.clear();
+		assertTrue(copy.isEmpty());
+		assertEquals(3, original.size());
+	}
+
+	@Test
+	public void copy_on_write_get() {
+		ListMultimap<String, String> original = new ListMultimap<String, String>();
+		original.put("one", "1");
+
+		ListMultimap<String, String> copy = new ListMultimap<String, String>(original, true);
+		copy.get("one").add("11");
+		assertEquals(Arrays.asList("1", "11"), copy.get("one"));
+		assertEquals(Arrays.asList("1"), original.get("one"));
+
+		copy = new ListMultimap<String, String>(original, true);
+		copy.getMap().get("one").add("11");
+		copy.keySet().clear();
+		assertEquals(Arrays.asList("1"), original.get("one"));
+	}
+
+	@Test
+	public void copy_on_write_no_changes() {
+		ListMultimap<String, String> original = new ListMultimap<String, String>();
+		original.put("one", "1");
+
+		ListMultimap<String, String> copy = new ListMultimap<String, String>(original, true);
+		assertTrue(copy.removeAll("two").isEmpty());
+		assertFalse(copy.remove("one", "2"));
+
+		//the copy shares the original's data until it is changed
+		original.put("one", "11");
+		assertEquals(Arrays.asList("1", "11"), copy.get("one"));
+	}
+
+	@Test
+	public void copy_on_write_iterator() {
+		ListMultimap<String, String> original = new ListMultimap<String, String>();
+		original.put("one", "1");
+		original.put("two", "2");
+		original.put("three", "3");
+
+		ListMultimap<String, String> copy = new ListMultimap<String, String>(original, true);
+		Iterator<Map.Entry<String, List<String>>> it = copy.iterator();
+
+		Map.Entry<String, List<String>> entry = it.next();
+		assertEquals("one", entry.getKey());
+		assertEquals(Arrays.asList("1"), entry.getValue());
+		entry.getValue().add("11");
+
+		entry = it.next();
+		assertEquals("two", entry.getKey());
+		entry.setValue(new ArrayList<String>(Arrays.asList("22")));
+
+		entry = it.next();
+		assertEquals("three", entry.getKey());
+		it.remove();
+		assertFalse(it.hasNext());
+
+		assertEquals(Arrays.asList("1", "11"), copy.get("one"));
+		assertEquals(Arrays.asList("22"), copy.get("two"));
+		assertEquals(Arrays.asList(), copy.get("three"));
+		assertEquals(2, copy.keySet().size());
+
+		//the original is not modified
+		assertEquals(Arrays.asList("1"), original.get("one"));
+		assertEquals(Arrays.asList("2"), original.get("two"));
+		assertEquals(Arrays.asList("3"), original.get("three"));
+	}
+
+	@Test
+	public void copy_on_write_iterator_unshared_entries() {
+		ListMultimap<String, String> original = new ListMultimap<String, String>();
+		original.put("one", "1");
+		original.put("two", "2");
+
+		ListMultimap<String, String> copy = new ListMultimap<String, String>(original, true);
+		copy.put("one", "11");
+
+		//entries whose lists are no longer shared are returned as-is
+		Iterator<Map.Entry<String, List<String>>> it = copy.iterator();
+		Map.Entry<String, List<String>> entry = it.next();
+		assertSame(copy.get("one"), entry.getValue());
+
+		entry = it.next();
+		assertEquals("two", entry.getKey());
+		entry.getValue().clear();
+
+		assertEquals(Arrays.asList(), copy.get("two"));
+		assertEquals(Arrays.asList("2"), original.get("two"));
+		assertEquals(Arrays.asList("1"), original.get("one"));
+	}
+
 	@Test
 	public void clear() {
 		ListMultimap<String, String> map = new ListMultimap<String, String>();
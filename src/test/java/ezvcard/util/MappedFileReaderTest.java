@@ -0,0 +1,148 @@
+package ezvcard.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.Charset;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/*
+ Copyright (c) 2012-2015, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+/**
+ * @author Michael Angstadt
+ */
+public class MappedFileReaderTest {
+	@Rule
+	public TemporaryFolder temp = new TemporaryFolder();
+
+	private static final String TEXT = "NOTE:ascii\r\nFN:J\u00f6hn \u20ac \ud83d\ude00 Doe\r\nEND:VCARD\r\n";
+
+	@Test
+	public void utf8() throws Exception {
+		Charset charset = Charset.forName("UTF-8");
+		File file = write(TEXT.getBytes("UTF-8"));
+
+		MappedFileReader reader = new MappedFileReader(file, charset);
+		assertSame(charset, reader.getCharset());
+		assertEquals(TEXT, IOUtils.toString(reader));
+	}
+
+	@Test
+	public void small_windows() throws Exception {
+		//multi-byte characters are split across windows
+		File file = write(TEXT.getBytes("UTF-8"));
+		for (int windowSize = 1; windowSize < 10; windowSize++) {
+			MappedFileReader reader = new MappedFileReader(file, Charset.forName("UTF-8"), windowSize);
+			assertEquals(TEXT, IOUtils.toString(reader));
+		}
+	}
+
+	@Test
+	public void read_one_char_at_a_time() throws Exception {
+		//surrogate pairs must be returned one char at a time
+		File file = write(TEXT.getBytes("UTF-8"));
+		MappedFileReader reader = new MappedFileReader(file, Charset.forName("UTF-8"), 5);
+		assertEquals(TEXT, readOneCharAtATime(reader));
+
+		reader = new MappedFileReader(file, Charset.forName("UTF-8"), 5);
+		StringBuilder sb = new StringBuilder();
+		int ch;
+		while ((ch = reader.read()) >= 0) {
+			sb.append((char) ch);
+		}
+		assertEquals(TEXT, sb.toString());
+	}
+
+	@Test
+	public void not_ascii_compatible() throws Exception {
+		String text = "NOTE:\u3042\u3044\u3046\r\nFN:John\r\n";
+		for (String charsetName : new String[] { "UTF-16BE", "Shift_JIS" }) {
+			Charset charset = Charset.forName(charsetName);
+			File file = write(text.getBytes(charsetName));
+			for (int windowSize = 1; windowSize < 10; windowSize++) {
+				MappedFileReader reader = new MappedFileReader(file, charset, windowSize);
+				assertEquals(text, IOUtils.toString(reader));
+			}
+		}
+	}
+
+	@Test
+	public void iso_8859_1() throws Exception {
+		String text = "FN:J\u00f6hn\r\n";
+		File file = write(text.getBytes("ISO-8859-1"));
+		MappedFileReader reader = new MappedFileReader(file, Charset.forName("ISO-8859-1"));
+		assertEquals(text, IOUtils.toString(reader));
+	}
+
+	@Test
+	public void malformed() throws Exception {
+		byte[] bytes = { 'a', (byte) 0xff, 'b', (byte) 0xe2, (byte) 0x82 };
+		File file = write(bytes);
+		MappedFileReader reader = new MappedFileReader(file, Charset.forName("UTF-8"));
+		assertEquals(new String(bytes, "UTF-8"), IOUtils.toString(reader));
+	}
+
+	@Test
+	public void empty() throws Exception {
+		File file = write(new byte[0]);
+		MappedFileReader reader = new MappedFileReader(file, Charset.forName("UTF-8"));
+		assertEquals(-1, reader.read(new char[10], 0, 10));
+		reader.close();
+	}
+
+	private File write(byte[] bytes) throws IOException {
+		File file = temp.newFile();
+		FileOutputStream out = new FileOutputStream(file);
+		try {
+			out.write(bytes);
+		} finally {
+			out.close();
+		}
+		return file;
+	}
+
+	private static String readOneCharAtATime(Reader reader) throws IOException {
+		try {
+			StringBuilder sb = new StringBuilder();
+			char[] buffer = new char[1];
+			int read;
+			while ((read = reader.read(buffer, 0, 1)) >= 0) {
+				assertEquals(1, read);
+				sb.append(buffer[0]);
+			}
+			return sb.toString();
+		} finally {
+			reader.close();
+		}
+	}
+}
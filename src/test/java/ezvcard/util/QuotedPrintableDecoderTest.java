@@ -0,0 +1,112 @@
+package ezvcard.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.nio.charset.Charset;
+
+import org.junit.Test;
+
+import ezvcard.util.org.apache.commons.codec.DecoderException;
+import ezvcard.util.org.apache.commons.codec.net.QuotedPrintableCodec;
+
+/*
+ Copyright (c) 2012-2015, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+/**
+ * @author Michael Angstadt
+ */
+public class QuotedPrintableDecoderTest {
+	@Test
+	public void decode() throws Exception {
+		QuotedPrintableDecoder decoder = new QuotedPrintableDecoder(Charset.forName("UTF-8"));
+		assertEquals("", decoder.decode(""));
+		assertEquals("plain text", decoder.decode("plain text"));
+		assertEquals("J\u00f6hn \u20ac \ud83d\ude00", decoder.decode("J=C3=B6hn =E2=82=AC =F0=9F=98=80"));
+		assertEquals("one\r\ntwo", decoder.decode("one=0D=0atwo"));
+
+		//malformed bytes are replaced
+		assertEquals("a\ufffdb", decoder.decode("a=C3b"));
+
+		//non-ASCII characters are not allowed
+		assertEquals("a?b?", decoder.decode("a\u00f6b\ud83d\ude00"));
+	}
+
+	@Test
+	public void decode_buffer() throws Exception {
+		QuotedPrintableDecoder decoder = new QuotedPrintableDecoder(Charset.forName("ISO-8859-1"));
+		char buffer[] = "NOTE:J=F6hn=0D=0A".toCharArray();
+		assertEquals("J\u00f6hn\r\n", decoder.decode(buffer, 5, buffer.length));
+		assertEquals("hn", decoder.decode(buffer, 9, 11));
+	}
+
+	@Test
+	public void decode_multibyte_charset() throws Exception {
+		QuotedPrintableDecoder decoder = new QuotedPrintableDecoder(Charset.forName("UTF-16BE"));
+		assertEquals("J\u00f6", decoder.decode("=00J=00=F6"));
+
+		//the decoder is re-used
+		assertEquals("\u20ac", decoder.decode("=20=AC"));
+	}
+
+	@Test
+	public void decode_invalid() throws Exception {
+		QuotedPrintableDecoder decoder = new QuotedPrintableDecoder(Charset.forName("UTF-8"));
+		for (String value : new String[] { "=", "a=C", "a=GG", "=\u00f6A" }) {
+			try {
+				decoder.decode(value);
+				fail("Expected exception for \"" + value + "\".");
+			} catch (DecoderException e) {
+				//expected
+			}
+		}
+
+		//the decoder can still be used
+		assertEquals("\u00f6", decoder.decode("=C3=B6"));
+	}
+
+	@Test
+	public void same_as_QuotedPrintableCodec() throws Exception {
+		String values[] = { "", "abc", "=41=42", "=C3=B6=E2=82=AC", "=FF=FE", "=00=41", "a=b", "=4", "x=GG", "\u00f6=41", "\ud83d\ude00", "=3D=3d" };
+		for (String charset : new String[] { "UTF-8", "ISO-8859-1", "UTF-16", "Shift_JIS", "US-ASCII" }) {
+			QuotedPrintableCodec codec = new QuotedPrintableCodec(charset);
+			QuotedPrintableDecoder decoder = new QuotedPrintableDecoder(Charset.forName(charset));
+			for (String value : values) {
+				String expected, actual;
+				try {
+					expected = codec.decode(value);
+				} catch (DecoderException e) {
+					expected = "exception: " + e.getMessage();
+				}
+				try {
+					actual = decoder.decode(value);
+				} catch (DecoderException e) {
+					actual = "exception: " + e.getMessage();
+				}
+				assertEquals(charset + ": " + value, expected, actual);
+			}
+		}
+	}
+}
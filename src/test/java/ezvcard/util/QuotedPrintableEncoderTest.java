@@ -0,0 +1,93 @@
+package ezvcard.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.charset.Charset;
+
+import org.junit.Test;
+
+import ezvcard.util.org.apache.commons.codec.net.QuotedPrintableCodec;
+
+/*
+ Copyright (c) 2012-2015, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+ The views and conclusions contained in the software and documentation are those
+ of the authors and should not be interpreted as representing official policies, 
+ either expressed or implied, of the FreeBSD Project.
+ */
+
+/**
+ * @author Michael Angstadt
+ */
+public class QuotedPrintableEncoderTest {
+	@Test
+	public void encode() throws Exception {
+		QuotedPrintableEncoder encoder = new QuotedPrintableEncoder(Charset.forName("UTF-8"));
+		assertEquals("", encoder.encode(""));
+		assertEquals("plain text", encoder.encode("plain text"));
+		assertEquals("J=C3=B6hn =E2=82=AC =F0=9F=98=80", encoder.encode("J\u00f6hn \u20ac \ud83d\ude00"));
+		assertEquals("one=0D=0Atwo=3D", encoder.encode("one\r\ntwo="));
+
+		//unpaired surrogates are replaced
+		assertEquals("a?b?", encoder.encode("a\ud83db\ude00"));
+	}
+
+	@Test
+	public void encode_char() throws Exception {
+		QuotedPrintableEncoder encoder = new QuotedPrintableEncoder(Charset.forName("UTF-8"));
+		char buffer[] = new char[encoder.getMaxEncodedLength()];
+
+		encoder.reset();
+		assertEquals(1, encoder.encode('a', buffer, 0));
+		assertEquals("a", new String(buffer, 0, 1));
+
+		//the high surrogate is held until the low surrogate arrives
+		assertEquals(0, encoder.encode('\ud83d', buffer, 0));
+		assertEquals(12, encoder.encode('\ude00', buffer, 0));
+		assertEquals("=F0=9F=98=80", new String(buffer, 0, 12));
+
+		assertEquals(0, encoder.finish(buffer, 0));
+	}
+
+	@Test
+	public void encode_multibyte_charset() throws Exception {
+		QuotedPrintableEncoder encoder = new QuotedPrintableEncoder(Charset.forName("UTF-16BE"));
+		assertEquals("=00J=00=F6", encoder.encode("J\u00f6"));
+
+		//the encoder is re-used
+		assertEquals(" =AC", encoder.encode("\u20ac"));
+	}
+
+	@Test
+	public void same_as_QuotedPrintableCodec() throws Exception {
+		String values[] = { "", "abc", "a=b", "\t \r\n", "\u00f6\u20ac", "\ud83d\ude00", "\ud83d", "a\ude00", "\u00ff\u00fe~\u007f" };
+		for (String charset : new String[] { "UTF-8", "ISO-8859-1", "UTF-16", "Shift_JIS", "ISO-2022-JP", "US-ASCII" }) {
+			QuotedPrintableCodec codec = new QuotedPrintableCodec(charset);
+			QuotedPrintableEncoder encoder = new QuotedPrintableEncoder(Charset.forName(charset));
+			for (String value : values) {
+				assertEquals(charset + ": " + value, codec.encode(value), encoder.encode(value));
+			}
+		}
+	}
+}
@@ -87,6 +87,10 @@ public class StringUtilsTest {
 		expected = "";
 		assertEquals(actual, expected);
 
+		actual = StringUtils.rtrim("a ");
+		expected = "a";
+		assertEquals(actual, expected);
+
 		actual = StringUtils.rtrim("");
 		expected = "";
 		assertSame(actual, expected);